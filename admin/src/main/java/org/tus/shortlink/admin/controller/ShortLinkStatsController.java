@@ -2,18 +2,26 @@ package org.tus.shortlink.admin.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.tus.common.domain.model.PageResponse;
 import org.tus.shortlink.base.common.convention.result.Result;
+import org.tus.shortlink.base.dto.req.ShortLinkBatchStatsReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsReqDTO;
+import org.tus.shortlink.base.dto.req.ShortLinkGroupTopLinksReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsReqDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkBatchStatsRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
 import org.tus.shortlink.admin.remote.ShortLinkActualRemoteService;
 
+import java.util.List;
+
 /**
  * Short link stats controller for admin module
  * Note: Stats implementation is kept as interface only, actual metrics should be handled by observability layer
@@ -50,6 +58,28 @@ public class ShortLinkStatsController {
         );
     }
 
+    /**
+     * Get the top short links of a group by PV within specified time range
+     */
+    @GetMapping("/group/top")
+    public Result<List<ShortLinkStatsTopLinkRespDTO>> groupTopLinks(ShortLinkGroupTopLinksReqDTO requestParam) {
+        return shortLinkActualRemoteService.groupTopLinks(
+                requestParam.getGid(),
+                requestParam.getStartDate(),
+                requestParam.getEndDate(),
+                requestParam.getLimit()
+        );
+    }
+
+    /**
+     * Get stats of a page of short links within specified time range in one call
+     */
+    @PostMapping("/batch")
+    public Result<List<ShortLinkBatchStatsRespDTO>> batchShortLinkStats(
+            @RequestBody ShortLinkBatchStatsReqDTO requestParam) {
+        return shortLinkActualRemoteService.batchShortLinkStats(requestParam);
+    }
+
     /**
      * Get single short link stats access record within specified time range
      */
@@ -6,14 +6,17 @@ import org.tus.shortlink.base.dto.req.RecycleBinRecoverReqDTO;
 import org.tus.shortlink.base.dto.req.RecycleBinRemoveReqDTO;
 import org.tus.shortlink.base.dto.req.RecycleBinSaveReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkBatchCreateReqDTO;
+import org.tus.shortlink.base.dto.req.ShortLinkBatchStatsReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkCreateReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkUpdateReqDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkBatchCreateRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkBatchStatsRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkCreateRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkGroupCountQueryRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkPageRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
 
 import java.util.List;
 
@@ -128,6 +131,26 @@ public interface ShortLinkActualRemoteService {
      */
     Result<ShortLinkStatsRespDTO> groupShortLinkStats(String gid, String startDate, String endDate);
 
+    /**
+     * Get stats of many short links within specified time range in one call, e.g. for a page of the link list
+     *
+     * @param requestParam full short URLs, date range and whether to include daily series
+     * @return per-link stats in request order
+     */
+    Result<List<ShortLinkBatchStatsRespDTO>> batchShortLinkStats(ShortLinkBatchStatsReqDTO requestParam);
+
+    /**
+     * Get the top short links of a group by PV within specified time range
+     *
+     * @param gid       group identifier
+     * @param startDate start date
+     * @param endDate   end date
+     * @param limit     number of links, at most 100
+     * @return links ranked by PV, most clicked first
+     */
+    Result<List<ShortLinkStatsTopLinkRespDTO>> groupTopLinks(String gid, String startDate, String endDate,
+                                                             Integer limit);
+
     /**
      * Get short link stats access record within specified time range
      *
@@ -20,15 +20,18 @@ import org.tus.shortlink.base.dto.req.RecycleBinRecoverReqDTO;
 import org.tus.shortlink.base.dto.req.RecycleBinRemoveReqDTO;
 import org.tus.shortlink.base.dto.req.RecycleBinSaveReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkBatchCreateReqDTO;
+import org.tus.shortlink.base.dto.req.ShortLinkBatchStatsReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkCreateReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkPageReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkUpdateReqDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkBatchCreateRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkBatchStatsRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkCreateRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkGroupCountQueryRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkPageRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
@@ -340,6 +343,52 @@ public class ShortLinkActualRemoteServiceImpl implements ShortLinkActualRemoteSe
         return executeRequest(request, "groupShortLinkStats");
     }
 
+    @Override
+    public Result<List<ShortLinkBatchStatsRespDTO>> batchShortLinkStats(ShortLinkBatchStatsReqDTO requestParam) {
+        log.debug("Calling shortlink service to get batch short link stats: gid={}, links={}, startDate={}, endDate={}",
+                requestParam.getGid(),
+                requestParam.getFullShortUrls() != null ? requestParam.getFullShortUrls().size() : 0,
+                requestParam.getStartDate(), requestParam.getEndDate());
+
+        Mono<Result<List<ShortLinkBatchStatsRespDTO>>> request = shortLinkWebClient.post()
+                .uri("/api/shortlink/v1/stats/batch")
+                .bodyValue(requestParam)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Result<List<ShortLinkBatchStatsRespDTO>>>() {
+                });
+
+        return executeRequest(request, "batchShortLinkStats");
+    }
+
+    @Override
+    public Result<List<ShortLinkStatsTopLinkRespDTO>> groupTopLinks(String gid, String startDate, String endDate,
+                                                                    Integer limit) {
+        log.debug("Calling shortlink service to get group top links: gid={}, startDate={}, endDate={}, limit={}",
+                gid, startDate, endDate, limit);
+
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath("/api/shortlink/v1/stats/group/top");
+        if (gid != null) {
+            uriBuilder.queryParam("gid", gid);
+        }
+        if (startDate != null) {
+            uriBuilder.queryParam("startDate", startDate);
+        }
+        if (endDate != null) {
+            uriBuilder.queryParam("endDate", endDate);
+        }
+        if (limit != null) {
+            uriBuilder.queryParam("limit", limit);
+        }
+
+        Mono<Result<List<ShortLinkStatsTopLinkRespDTO>>> request = shortLinkWebClient.get()
+                .uri(uriBuilder.build().toUriString())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Result<List<ShortLinkStatsTopLinkRespDTO>>>() {
+                });
+
+        return executeRequest(request, "groupTopLinks");
+    }
+
     @Override
     public Result<PageResponse<ShortLinkStatsAccessRecordRespDTO>> shortLinkStatsAccessRecord(
             String fullShortUrl, String gid, String startDate, String endDate,
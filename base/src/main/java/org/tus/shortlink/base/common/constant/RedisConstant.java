@@ -36,6 +36,36 @@ public class RedisConstant {
      */
     public static final String SHORT_LINK_STATS_UIP_KEY = "short-link:stats:uip:";
 
+    /**
+     * Live PV counter of one short link for one day
+     * Format: short-link:stats:today:pv:{fullShortUrl}:{yyyyMMdd}
+     */
+    public static final String SHORT_LINK_STATS_TODAY_PV_KEY = "short-link:stats:today:pv:%s:%s";
+
+    /**
+     * Live PV counter of one group for one day
+     * Format: short-link:stats:today:group-pv:{gid}:{yyyyMMdd}
+     */
+    public static final String SHORT_LINK_STATS_TODAY_GROUP_PV_KEY = "short-link:stats:today:group-pv:%s:%s";
+
+    /**
+     * Live UV HyperLogLog of one group for one day
+     * Format: short-link:stats:today:group-uv:{gid}:{yyyyMMdd}
+     */
+    public static final String SHORT_LINK_STATS_TODAY_GROUP_UV_KEY = "short-link:stats:today:group-uv:%s:%s";
+
+    /**
+     * Live UIP HyperLogLog of one group for one day
+     * Format: short-link:stats:today:group-uip:{gid}:{yyyyMMdd}
+     */
+    public static final String SHORT_LINK_STATS_TODAY_GROUP_UIP_KEY = "short-link:stats:today:group-uip:%s:%s";
+
+    /**
+     * Short link statistics query result cache key
+     * Format: short-link:stats:result:{kind}:{subject}:{day or start_end}
+     */
+    public static final String SHORT_LINK_STATS_RESULT_KEY = "short-link:stats:result:%s:%s:%s";
+
     /**
      * Short link monitoring message stream topic cache key
      */
@@ -0,0 +1,34 @@
+package org.tus.shortlink.base.dto.req;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ShortLinkBatchStatsReqDTO {
+
+    /**
+     * Group identifier of the links
+     */
+    private String gid;
+
+    /**
+     * Full short URLs, e.g. one page of the link list
+     */
+    private List<String> fullShortUrls;
+
+    /**
+     * Start date
+     */
+    private String startDate;
+
+    /**
+     * End date
+     */
+    private String endDate;
+
+    /**
+     * Also return the daily series of every link
+     */
+    private Boolean withDaily = false;
+}
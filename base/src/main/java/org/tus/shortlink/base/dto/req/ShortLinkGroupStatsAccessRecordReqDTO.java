@@ -29,4 +29,14 @@ public class ShortLinkGroupStatsAccessRecordReqDTO {
      * Page size
      */
     private Integer size = 10;
+
+    /**
+     * Cursor endpoints only: nextCursor of the previous page, empty for the first page
+     */
+    private String cursor;
+
+    /**
+     * Cursor endpoints only: also return the number of records in the date range
+     */
+    private Boolean withTotal = false;
 }
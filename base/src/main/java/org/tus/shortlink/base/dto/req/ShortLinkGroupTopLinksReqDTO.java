@@ -0,0 +1,27 @@
+package org.tus.shortlink.base.dto.req;
+
+import lombok.Data;
+
+@Data
+public class ShortLinkGroupTopLinksReqDTO {
+
+    /**
+     * Group identifier
+     */
+    private String gid;
+
+    /**
+     * Start date
+     */
+    private String startDate;
+
+    /**
+     * End date
+     */
+    private String endDate;
+
+    /**
+     * Number of links to return, at most 100
+     */
+    private Integer limit = 10;
+}
@@ -0,0 +1,40 @@
+package org.tus.shortlink.base.dto.resp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkBatchStatsRespDTO {
+
+    /**
+     * Full short URL
+     */
+    private String fullShortUrl;
+
+    /**
+     * Page views (PV)
+     */
+    private Integer pv;
+
+    /**
+     * Unique visitors (UV)
+     */
+    private Integer uv;
+
+    /**
+     * Unique IPs (UIP)
+     */
+    private Integer uip;
+
+    /**
+     * Days with clicks; only set when requested with withDaily
+     */
+    private List<ShortLinkStatsAccessDailyRespDTO> daily;
+}
@@ -0,0 +1,35 @@
+package org.tus.shortlink.base.dto.resp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkStatsAccessRecordCursorRespDTO {
+
+    /**
+     * Access records, newest first
+     */
+    private List<ShortLinkStatsAccessRecordRespDTO> records;
+
+    /**
+     * Cursor of the next page; null on the last page
+     */
+    private String nextCursor;
+
+    /**
+     * Whether another page exists
+     */
+    private Boolean hasMore;
+
+    /**
+     * Number of records in the date range; only set when requested with withTotal
+     */
+    private Long total;
+}
@@ -54,45 +54,30 @@ public class LinkUtil {
      * Get the user's operating system
      *
      * @param request HTTP request
-     * @return user's OS
+     * @return user's OS, see {@link UserAgentParser}
      */
     public static String getOs(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent").toLowerCase();
-        if (userAgent.contains("windows")) return "Windows";
-        if (userAgent.contains("mac")) return "Mac OS";
-        if (userAgent.contains("linux")) return "Linux";
-        if (userAgent.contains("android")) return "Android";
-        if (userAgent.contains("iphone") || userAgent.contains("ipad")) return "iOS";
-        return "Unknown";
+        return UserAgentParser.parse(request.getHeader("User-Agent")).os();
     }
 
     /**
      * Get the user's browser
      *
      * @param request HTTP request
-     * @return user's browser
+     * @return user's browser, see {@link UserAgentParser}
      */
     public static String getBrowser(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent").toLowerCase();
-        if (userAgent.contains("edg")) return "Microsoft Edge";
-        if (userAgent.contains("chrome")) return "Google Chrome";
-        if (userAgent.contains("firefox")) return "Mozilla Firefox";
-        if (userAgent.contains("safari")) return "Apple Safari";
-        if (userAgent.contains("opera")) return "Opera";
-        if (userAgent.contains("msie") || userAgent.contains("trident"))
-            return "Internet Explorer";
-        return "Unknown";
+        return UserAgentParser.parse(request.getHeader("User-Agent")).browser();
     }
 
     /**
      * Get the user's device type
      *
      * @param request HTTP request
-     * @return device type (PC or Mobile)
+     * @return device type (PC or Mobile), see {@link UserAgentParser}
      */
     public static String getDevice(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent").toLowerCase();
-        return userAgent.contains("mobile") ? "Mobile" : "PC";
+        return UserAgentParser.parse(request.getHeader("User-Agent")).device();
     }
 
     /**
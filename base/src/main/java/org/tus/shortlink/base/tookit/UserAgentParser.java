@@ -0,0 +1,159 @@
+package org.tus.shortlink.base.tookit;
+
+/**
+ * Single-pass User-Agent classifier for the stats dimensions (OS, browser, device).
+ *
+ * <p>The UA string is scanned once; at each word start the tokens sharing that first letter are
+ * compared in place with {@link String#regionMatches(boolean, int, String, int, int)}, so nothing is
+ * lowercased or copied. Matches are collected as bits and precedence is applied afterwards
+ * (e.g. Edge and Opera UAs also contain "Chrome" and "Safari", iOS UAs also contain "Mac OS").</p>
+ *
+ * <p>Labels are the ones {@link LinkUtil} has always produced, so existing stats rows stay comparable.</p>
+ */
+public final class UserAgentParser {
+
+    public static final String UNKNOWN = "Unknown";
+
+    public static final String OS_WINDOWS = "Windows";
+    public static final String OS_MAC = "Mac OS";
+    public static final String OS_LINUX = "Linux";
+    public static final String OS_ANDROID = "Android";
+    public static final String OS_IOS = "iOS";
+
+    public static final String BROWSER_EDGE = "Microsoft Edge";
+    public static final String BROWSER_CHROME = "Google Chrome";
+    public static final String BROWSER_FIREFOX = "Mozilla Firefox";
+    public static final String BROWSER_SAFARI = "Apple Safari";
+    public static final String BROWSER_OPERA = "Opera";
+    public static final String BROWSER_IE = "Internet Explorer";
+
+    public static final String DEVICE_PC = "PC";
+    public static final String DEVICE_MOBILE = "Mobile";
+
+    /**
+     * Result for a missing or empty User-Agent header
+     */
+    public static final UserAgentInfo UNKNOWN_AGENT = new UserAgentInfo(UNKNOWN, UNKNOWN, UNKNOWN);
+
+    private static final String[] TOKENS = {
+            "windows", "android", "iphone", "ipad", "ipod", "macintosh", "linux",
+            "edg", "opr/", "opera", "msie", "trident", "firefox", "fxios", "chrome", "crios", "safari",
+            "mobile", "tablet"
+    };
+
+    private static final int WINDOWS = 1;
+    private static final int ANDROID = 1 << 1;
+    private static final int IPHONE = 1 << 2;
+    private static final int IPAD = 1 << 3;
+    private static final int IPOD = 1 << 4;
+    private static final int MACINTOSH = 1 << 5;
+    private static final int LINUX = 1 << 6;
+    private static final int EDGE = 1 << 7;
+    private static final int OPR = 1 << 8;
+    private static final int OPERA = 1 << 9;
+    private static final int MSIE = 1 << 10;
+    private static final int TRIDENT = 1 << 11;
+    private static final int FIREFOX = 1 << 12;
+    private static final int FXIOS = 1 << 13;
+    private static final int CHROME = 1 << 14;
+    private static final int CRIOS = 1 << 15;
+    private static final int SAFARI = 1 << 16;
+    private static final int MOBILE = 1 << 17;
+    private static final int TABLET = 1 << 18;
+
+    /**
+     * Token indexes by lowercase ASCII first letter
+     */
+    private static final int[][] TOKENS_BY_FIRST_CHAR = new int[128][];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            int count = 0;
+            for (String token : TOKENS) {
+                if (token.charAt(0) == c) {
+                    count++;
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+            int[] indexes = new int[count];
+            int n = 0;
+            for (int i = 0; i < TOKENS.length; i++) {
+                if (TOKENS[i].charAt(0) == c) {
+                    indexes[n++] = i;
+                }
+            }
+            TOKENS_BY_FIRST_CHAR[c] = indexes;
+        }
+    }
+
+    private UserAgentParser() {
+    }
+
+    /**
+     * Classify a raw User-Agent header value; null-safe.
+     */
+    public static UserAgentInfo parse(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return UNKNOWN_AGENT;
+        }
+        int flags = scan(userAgent);
+        return new UserAgentInfo(os(flags), browser(flags), device(flags));
+    }
+
+    private static int scan(String ua) {
+        int flags = 0;
+        int length = ua.length();
+        boolean wordStart = true;
+        for (int i = 0; i < length; i++) {
+            char c = ua.charAt(i);
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            if (letter && wordStart) {
+                int[] candidates = TOKENS_BY_FIRST_CHAR[c | 0x20];
+                if (candidates != null) {
+                    for (int index : candidates) {
+                        int bit = 1 << index;
+                        if ((flags & bit) == 0) {
+                            String token = TOKENS[index];
+                            if (ua.regionMatches(true, i, token, 0, token.length())) {
+                                flags |= bit;
+                            }
+                        }
+                    }
+                }
+            }
+            wordStart = !letter;
+        }
+        return flags;
+    }
+
+    private static String os(int flags) {
+        if ((flags & WINDOWS) != 0) return OS_WINDOWS;
+        if ((flags & (IPHONE | IPAD | IPOD)) != 0) return OS_IOS;
+        if ((flags & ANDROID) != 0) return OS_ANDROID;
+        if ((flags & MACINTOSH) != 0) return OS_MAC;
+        if ((flags & LINUX) != 0) return OS_LINUX;
+        return UNKNOWN;
+    }
+
+    private static String browser(int flags) {
+        if ((flags & EDGE) != 0) return BROWSER_EDGE;
+        if ((flags & (OPR | OPERA)) != 0) return BROWSER_OPERA;
+        if ((flags & (MSIE | TRIDENT)) != 0) return BROWSER_IE;
+        if ((flags & (FIREFOX | FXIOS)) != 0) return BROWSER_FIREFOX;
+        if ((flags & (CHROME | CRIOS)) != 0) return BROWSER_CHROME;
+        if ((flags & SAFARI) != 0) return BROWSER_SAFARI;
+        return UNKNOWN;
+    }
+
+    private static String device(int flags) {
+        return (flags & (MOBILE | TABLET | IPHONE | IPAD | IPOD | ANDROID)) != 0 ? DEVICE_MOBILE : DEVICE_PC;
+    }
+
+    /**
+     * Classified stats dimensions of one User-Agent
+     */
+    public record UserAgentInfo(String os, String browser, String device) {
+    }
+}
@@ -0,0 +1,57 @@
+package org.tus.shortlink.base.tookit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.tus.shortlink.base.tookit.UserAgentParser.UserAgentInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for UserAgentParser.
+ * Tests OS / browser / device precedence on real-world User-Agent strings.
+ */
+@DisplayName("UserAgentParser Tests")
+class UserAgentParserTest {
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+            "Chrome on Windows|Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36|Windows|Google Chrome|PC",
+            "Edge on Windows|Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.91|Windows|Microsoft Edge|PC",
+            "Opera on Windows|Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/119.0.0.0 Safari/537.36 OPR/105.0.0.0|Windows|Opera|PC",
+            "IE 11|Mozilla/5.0 (Windows NT 10.0; Trident/7.0; rv:11.0) like Gecko|Windows|Internet Explorer|PC",
+            "Safari on macOS|Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Safari/605.1.15|Mac OS|Apple Safari|PC",
+            "Firefox on Linux|Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0|Linux|Mozilla Firefox|PC",
+            "Safari on iPhone|Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1|iOS|Apple Safari|Mobile",
+            "Chrome on iPad|Mozilla/5.0 (iPad; CPU OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/120.0.6099.119 Mobile/15E148 Safari/604.1|iOS|Google Chrome|Mobile",
+            "Chrome on Android|Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36|Android|Google Chrome|Mobile",
+            "curl|curl/8.4.0|Unknown|Unknown|PC"
+    })
+    @DisplayName("Should classify OS, browser and device")
+    void testParse(String name, String userAgent, String os, String browser, String device) {
+        UserAgentInfo info = UserAgentParser.parse(userAgent);
+
+        assertEquals(os, info.os());
+        assertEquals(browser, info.browser());
+        assertEquals(device, info.device());
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @DisplayName("Should return unknown agent for missing header")
+    void testParseMissingHeader(String userAgent) {
+        assertSame(UserAgentParser.UNKNOWN_AGENT, UserAgentParser.parse(userAgent));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Knowledge-Fetcher/1.0",
+            "Mozilla/5.0 (compatible; Cedgebot/2.1)"
+    })
+    @DisplayName("Should only match tokens at word starts")
+    void testParseIgnoresTokensInsideWords(String userAgent) {
+        assertEquals(UserAgentParser.UNKNOWN, UserAgentParser.parse(userAgent).browser());
+    }
+}
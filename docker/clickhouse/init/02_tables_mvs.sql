@@ -23,10 +23,16 @@ CREATE TABLE IF NOT EXISTS link_stats_events
     redirect_latency_ms UInt32,
     INDEX idx_gid gid TYPE minmax GRANULARITY 4
 )
-ENGINE = MergeTree()
+-- Deduplicated on keys (one UUID per click): ReplacingMergeTree collapses stray copies on merge, and the
+-- deduplication window lets inserts with insert_deduplication_token (Java batch consumer) be retried
+-- without double counting here or in the dependent MVs below. Copies inserted without a token (Kafka
+-- engine redelivery) are only collapsed here, after the MVs have counted them.
+-- Existing MergeTree tables are not changed by this script: see migrations/01_events_replacing_merge_tree.sql
+ENGINE = ReplacingMergeTree()
 PARTITION BY toYYYYMM(event_time)
-ORDER BY (full_short_url, event_time, gid)
-TTL event_time + INTERVAL 90 DAY;
+ORDER BY (full_short_url, event_time, gid, keys)
+TTL event_time + INTERVAL 90 DAY
+SETTINGS non_replicated_deduplication_window = 10000;
 
 CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_daily
 (
@@ -39,7 +45,8 @@ CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_daily
 )
 ENGINE = AggregatingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
-ORDER BY (full_short_url, stat_date, gid);
+ORDER BY (full_short_url, stat_date, gid)
+SETTINGS non_replicated_deduplication_window = 10000;
 
 CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_daily_mv
 TO shortlink_stats.link_stats_daily
@@ -62,7 +69,8 @@ CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_hourly
 )
 ENGINE = SummingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
-ORDER BY (full_short_url, stat_date, stat_hour);
+ORDER BY (full_short_url, stat_date, stat_hour)
+SETTINGS non_replicated_deduplication_window = 10000;
 
 CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_hourly_mv
 TO shortlink_stats.link_stats_hourly
@@ -78,6 +86,7 @@ CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_browser_mv
 ENGINE = SummingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
 ORDER BY (full_short_url, stat_date, browser)
+SETTINGS non_replicated_deduplication_window = 10000
 AS SELECT
     toDate(event_time) AS stat_date,
     full_short_url,
@@ -93,6 +102,7 @@ CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_os_mv
 ENGINE = SummingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
 ORDER BY (full_short_url, stat_date, os)
+SETTINGS non_replicated_deduplication_window = 10000
 AS SELECT
     toDate(event_time) AS stat_date,
     full_short_url,
@@ -108,6 +118,7 @@ CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_device_mv
 ENGINE = SummingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
 ORDER BY (full_short_url, stat_date, device)
+SETTINGS non_replicated_deduplication_window = 10000
 AS SELECT
     toDate(event_time) AS stat_date,
     full_short_url,
@@ -123,6 +134,7 @@ CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_network_mv
 ENGINE = SummingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
 ORDER BY (full_short_url, stat_date, network)
+SETTINGS non_replicated_deduplication_window = 10000
 AS SELECT
     toDate(event_time) AS stat_date,
     full_short_url,
@@ -138,6 +150,7 @@ CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_referrer_mv
 ENGINE = SummingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
 ORDER BY (full_short_url, stat_date, referrer_domain)
+SETTINGS non_replicated_deduplication_window = 10000
 AS SELECT
     toDate(event_time) AS stat_date,
     full_short_url,
@@ -153,6 +166,7 @@ CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_geography_mv
 ENGINE = SummingMergeTree()
 PARTITION BY toYYYYMM(stat_date)
 ORDER BY (full_short_url, stat_date, country_code, city)
+SETTINGS non_replicated_deduplication_window = 10000
 AS SELECT
     toDate(event_time) AS stat_date,
     full_short_url,
@@ -1,5 +1,9 @@
 -- CK Kafka engine: sync from topic shortlink-stats-events into link_stats_events
 -- Broker: kafka:9092 (Docker Compose service name)
+-- At-least-once: a block redelivered after a consumer restart or rebalance is inserted again without a
+-- deduplication token, and the rollup MVs count it twice. The Java batch consumer
+-- (shortlink.stats.consumer.enabled=true, detach link_stats_kafka_mv) tags each insert with its partition
+-- and offset range, which covers retries of the same range but not replays cut at other offsets.
 CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_kafka
 (
     gid String,
@@ -23,11 +27,11 @@ SETTINGS
     kafka_group_name = 'clickhouse-shortlink-stats',
     kafka_format = 'JSONEachRow',
     kafka_num_consumers = 1,
-    kafka_max_block_size = 1,
+    kafka_max_block_size = 10000,
     kafka_poll_timeout_ms = 1000,
     kafka_skip_broken_messages = 1,
     kafka_commit_every_batch = 1,
-    kafka_flush_interval_ms = 100;
+    kafka_flush_interval_ms = 500;
 
 CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_kafka_mv
     TO shortlink_stats.link_stats_events
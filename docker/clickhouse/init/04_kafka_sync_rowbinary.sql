@@ -0,0 +1,56 @@
+-- CK Kafka engine for the compact binary stats format (kafka.topics.stats-events.format=binary)
+-- Topic shortlink-stats-events-rb carries ClickHouse RowBinary rows written by StatsRecordBinaryCodec;
+-- column order must match the codec. JSON and binary use separate topics so formats never mix.
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_kafka_rb
+(
+    schemaVersion UInt8,
+    currentDate Int64,
+    gid String,
+    fullShortUrl String,
+    remoteAddr String,
+    referrer String,
+    userAgent String,
+    os String,
+    browser String,
+    device String,
+    network String,
+    uv String,
+    keys String,
+    uvFirstFlag UInt8,
+    uipFirstFlag UInt8
+) ENGINE = Kafka
+SETTINGS
+    kafka_broker_list = 'kafka:9092',
+    kafka_topic_list = 'shortlink-stats-events-rb',
+    kafka_group_name = 'clickhouse-shortlink-stats-rb',
+    kafka_format = 'RowBinary',
+    kafka_num_consumers = 1,
+    kafka_max_block_size = 10000,
+    kafka_poll_timeout_ms = 1000,
+    kafka_skip_broken_messages = 1,
+    kafka_commit_every_batch = 1,
+    kafka_flush_interval_ms = 100;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_kafka_rb_mv
+    TO shortlink_stats.link_stats_events
+AS SELECT toDateTime(if(currentDate != 0, currentDate / 1000, toUnixTimestamp(now()))) AS event_time,
+          fullShortUrl                  AS full_short_url,
+          gid,
+          remoteAddr                    AS remote_addr,
+          uv,
+          os,
+          browser,
+          device,
+          network,
+          referrer,
+          userAgent                     AS user_agent,
+          ''                            AS country_code,
+          ''                            AS region,
+          ''                            AS city,
+          ''                            AS language_code,
+          ''                            AS locale_code,
+          keys,
+          toUInt16(0)                   AS http_status,
+          toUInt32(0)                   AS redirect_latency_ms
+   FROM shortlink_stats.link_stats_kafka_rb
+   WHERE schemaVersion = 1;
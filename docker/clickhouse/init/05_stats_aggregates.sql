@@ -0,0 +1,65 @@
+-- Pre-aggregated clicks (shortlink.stats.preaggregate.enabled=true)
+-- Topic shortlink-stats-aggregates carries one JSONEachRow record per link / window / dimension combination
+-- from ShortLinkClickAggregator. Counts are additive, so records of several pods and late clicks sum up.
+-- link_stats_minute is also written directly by ShortLinkStatsWindowConsumer (RowBinary inserts), whose
+-- retries carry an insert_deduplication_token; non-replicated tables only honour it with a dedup window.
+-- Existing tables: ALTER TABLE shortlink_stats.link_stats_minute MODIFY SETTING non_replicated_deduplication_window = 10000;
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_minute
+(
+    window_start DateTime,
+    full_short_url String,
+    gid String,
+    os String,
+    browser String,
+    device String,
+    network String,
+    pv UInt64,
+    uv_first UInt64,
+    uip_first UInt64
+)
+ENGINE = SummingMergeTree((pv, uv_first, uip_first))
+PARTITION BY toYYYYMM(window_start)
+ORDER BY (full_short_url, window_start, gid, os, browser, device, network)
+TTL window_start + INTERVAL 400 DAY
+SETTINGS non_replicated_deduplication_window = 10000;
+
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_aggregates_kafka
+(
+    gid String,
+    fullShortUrl String,
+    windowStart Int64,
+    windowSeconds UInt32,
+    os Nullable(String),
+    browser Nullable(String),
+    device Nullable(String),
+    network Nullable(String),
+    pv UInt64,
+    uvFirst UInt64,
+    uipFirst UInt64
+) ENGINE = Kafka
+SETTINGS
+    kafka_broker_list = 'kafka:9092',
+    kafka_topic_list = 'shortlink-stats-aggregates',
+    kafka_group_name = 'clickhouse-shortlink-stats-aggregates',
+    kafka_format = 'JSONEachRow',
+    kafka_num_consumers = 1,
+    kafka_max_block_size = 10000,
+    kafka_poll_timeout_ms = 1000,
+    kafka_skip_broken_messages = 1,
+    kafka_commit_every_batch = 1,
+    kafka_flush_interval_ms = 500,
+    input_format_skip_unknown_fields = 1;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_aggregates_kafka_mv
+    TO shortlink_stats.link_stats_minute
+AS SELECT toDateTime(intDiv(windowStart, 1000)) AS window_start,
+          fullShortUrl                         AS full_short_url,
+          gid,
+          ifNull(os, '')                       AS os,
+          ifNull(browser, '')                  AS browser,
+          ifNull(device, '')                   AS device,
+          ifNull(network, '')                  AS network,
+          pv,
+          uvFirst                              AS uv_first,
+          uipFirst                             AS uip_first
+   FROM shortlink_stats.link_stats_aggregates_kafka;
@@ -0,0 +1,94 @@
+-- Group-ordered rollups (shortlink.stats.group-rollups.enabled=true)
+-- The per-link tables in 02_tables_mvs.sql are ordered by full_short_url, so a query filtering only on gid
+-- reads whole partitions. These tables are ordered by gid first and fed by their own MVs from
+-- link_stats_events; group dashboards read them with a primary-key range.
+
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_group_daily
+(
+    stat_date Date,
+    gid String,
+    pv AggregateFunction(sum, UInt64),
+    uv AggregateFunction(uniqExact, String),
+    uip AggregateFunction(uniqExact, String)
+)
+ENGINE = AggregatingMergeTree()
+PARTITION BY toYYYYMM(stat_date)
+ORDER BY (gid, stat_date)
+SETTINGS non_replicated_deduplication_window = 10000;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_group_daily_mv
+TO shortlink_stats.link_stats_group_daily
+AS SELECT
+    toDate(event_time) AS stat_date,
+    gid,
+    sumState(toUInt64(1)) AS pv,
+    uniqExactState(uv) AS uv,
+    uniqExactState(remote_addr) AS uip
+FROM shortlink_stats.link_stats_events
+GROUP BY stat_date, gid;
+
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_group_hourly
+(
+    stat_date Date,
+    stat_hour UInt8,
+    gid String,
+    pv UInt64
+)
+ENGINE = SummingMergeTree()
+PARTITION BY toYYYYMM(stat_date)
+ORDER BY (gid, stat_date, stat_hour)
+SETTINGS non_replicated_deduplication_window = 10000;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_group_hourly_mv
+TO shortlink_stats.link_stats_group_hourly
+AS SELECT
+    toDate(event_time) AS stat_date,
+    toHour(event_time) AS stat_hour,
+    gid,
+    count() AS pv
+FROM shortlink_stats.link_stats_events
+GROUP BY stat_date, stat_hour, gid;
+
+-- browser / os / device / network in one table: dim names the dimension, value its value
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_group_dimension
+(
+    stat_date Date,
+    gid String,
+    dim LowCardinality(String),
+    value String,
+    pv UInt64
+)
+ENGINE = SummingMergeTree()
+PARTITION BY toYYYYMM(stat_date)
+ORDER BY (gid, stat_date, dim, value)
+SETTINGS non_replicated_deduplication_window = 10000;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_group_dimension_mv
+TO shortlink_stats.link_stats_group_dimension
+AS SELECT
+    toDate(event_time) AS stat_date,
+    gid,
+    d.1 AS dim,
+    d.2 AS value,
+    count() AS pv
+FROM shortlink_stats.link_stats_events
+ARRAY JOIN [('browser', browser), ('os', os), ('device', device), ('network', network)] AS d
+WHERE d.2 != ''
+GROUP BY stat_date, gid, dim, value;
+
+-- One-off backfill of data that existed before the MVs above (run once, before enabling the routing):
+--
+-- INSERT INTO shortlink_stats.link_stats_group_daily
+-- SELECT stat_date, gid, sumMergeState(pv), uniqExactMergeState(uv), uniqExactMergeState(uip)
+-- FROM shortlink_stats.link_stats_daily GROUP BY stat_date, gid;
+--
+-- link_stats_hourly has no gid column; hours older than the link_stats_events TTL cannot be backfilled
+-- INSERT INTO shortlink_stats.link_stats_group_hourly
+-- SELECT toDate(event_time), toHour(event_time), gid, count()
+-- FROM shortlink_stats.link_stats_events GROUP BY toDate(event_time), toHour(event_time), gid;
+--
+-- INSERT INTO shortlink_stats.link_stats_group_dimension
+-- SELECT stat_date, gid, 'browser', browser, sum(pv) FROM shortlink_stats.link_stats_browser_mv GROUP BY stat_date, gid, browser
+-- UNION ALL SELECT stat_date, gid, 'os', os, sum(pv) FROM shortlink_stats.link_stats_os_mv GROUP BY stat_date, gid, os
+-- UNION ALL SELECT stat_date, gid, 'device', device, sum(pv) FROM shortlink_stats.link_stats_device_mv GROUP BY stat_date, gid, device
+-- UNION ALL SELECT stat_date, gid, 'network', network, sum(pv) FROM shortlink_stats.link_stats_network_mv GROUP BY stat_date, gid, network;
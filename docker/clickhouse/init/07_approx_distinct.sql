@@ -0,0 +1,72 @@
+-- Approximate distinct counts (shortlink.stats.distinct-mode=APPROXIMATE)
+-- link_stats_daily keeps uniqExact states, which hold every distinct uv / remote_addr of a (link, day)
+-- and grow without bound on viral links. These tables keep uniqCombined(14) states instead: an exact set
+-- while small, then a HyperLogLog of 2^14 cells (a few KB, ~0.8% relative error) however many visitors.
+-- Keep the precision in sync with ClickHouseStatsServiceImpl (uniqCombinedMerge(14)).
+
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_daily_approx
+(
+    stat_date Date,
+    full_short_url String,
+    gid String,
+    pv AggregateFunction(sum, UInt64),
+    uv AggregateFunction(uniqCombined(14), String),
+    uip AggregateFunction(uniqCombined(14), String)
+)
+ENGINE = AggregatingMergeTree()
+PARTITION BY toYYYYMM(stat_date)
+ORDER BY (full_short_url, stat_date, gid)
+SETTINGS non_replicated_deduplication_window = 10000;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_daily_approx_mv
+TO shortlink_stats.link_stats_daily_approx
+AS SELECT
+    toDate(event_time) AS stat_date,
+    full_short_url,
+    gid,
+    sumState(toUInt64(1)) AS pv,
+    uniqCombinedState(14)(uv) AS uv,
+    uniqCombinedState(14)(remote_addr) AS uip
+FROM shortlink_stats.link_stats_events
+GROUP BY stat_date, full_short_url, gid;
+
+-- gid-first, like link_stats_group_daily in 06_group_rollups.sql
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_group_daily_approx
+(
+    stat_date Date,
+    gid String,
+    pv AggregateFunction(sum, UInt64),
+    uv AggregateFunction(uniqCombined(14), String),
+    uip AggregateFunction(uniqCombined(14), String)
+)
+ENGINE = AggregatingMergeTree()
+PARTITION BY toYYYYMM(stat_date)
+ORDER BY (gid, stat_date)
+SETTINGS non_replicated_deduplication_window = 10000;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_group_daily_approx_mv
+TO shortlink_stats.link_stats_group_daily_approx
+AS SELECT
+    toDate(event_time) AS stat_date,
+    gid,
+    sumState(toUInt64(1)) AS pv,
+    uniqCombinedState(14)(uv) AS uv,
+    uniqCombinedState(14)(remote_addr) AS uip
+FROM shortlink_stats.link_stats_events
+GROUP BY stat_date, gid;
+
+-- No per-dimension approx table: dimension panels only show PV, read from the *_mv tables of 02_tables_mvs.sql.
+-- A database that already has link_stats_dimension_approx can drop it:
+-- DROP VIEW IF EXISTS shortlink_stats.link_stats_dimension_approx_mv;
+-- DROP TABLE IF EXISTS shortlink_stats.link_stats_dimension_approx;
+
+-- One-off backfill from the raw events still within the link_stats_events TTL (run once, before switching
+-- the distinct mode). Older days keep exact counts only.
+--
+-- INSERT INTO shortlink_stats.link_stats_daily_approx
+-- SELECT toDate(event_time), full_short_url, gid, sumState(toUInt64(1)), uniqCombinedState(14)(uv), uniqCombinedState(14)(remote_addr)
+-- FROM shortlink_stats.link_stats_events GROUP BY toDate(event_time), full_short_url, gid;
+--
+-- INSERT INTO shortlink_stats.link_stats_group_daily_approx
+-- SELECT toDate(event_time), gid, sumState(toUInt64(1)), uniqCombinedState(14)(uv), uniqCombinedState(14)(remote_addr)
+-- FROM shortlink_stats.link_stats_events GROUP BY toDate(event_time), gid;
@@ -0,0 +1,21 @@
+-- gid-ordered projection for group access records (/api/shortlink/v1/stats/group/access/cursor)
+-- link_stats_events is ordered by (full_short_url, event_time, gid, keys), so WHERE gid = ? reads every link.
+-- The projection stores the access-record columns again, ordered by (gid, event_time, keys); ClickHouse
+-- picks it for queries that filter on gid and read only these columns. user_agent and referrer are left
+-- out to keep the copy small.
+
+-- ReplacingMergeTree only accepts projections with an explicit dedup mode (ClickHouse 24.8+).
+-- 'rebuild' recomputes the projection of merged parts, so replaced rows do not linger in it.
+ALTER TABLE shortlink_stats.link_stats_events
+    MODIFY SETTING deduplicate_merge_projection_mode = 'rebuild';
+
+ALTER TABLE shortlink_stats.link_stats_events
+    ADD PROJECTION IF NOT EXISTS events_by_gid
+    (
+        SELECT event_time, keys, full_short_url, gid, remote_addr, uv, os, browser, device, network,
+               locale_code, country_code
+        ORDER BY gid, event_time, keys
+    );
+
+-- Builds the projection for parts written before it existed (runs as a background mutation)
+ALTER TABLE shortlink_stats.link_stats_events MATERIALIZE PROJECTION events_by_gid;
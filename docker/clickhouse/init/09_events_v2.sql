@@ -0,0 +1,73 @@
+-- Storage-optimized raw events (shortlink.stats.events-v2.enabled=true)
+-- link_stats_events keeps every dimension, the user agent, the full referrer and the uv cookie as plain String
+-- for 90 days. link_stats_events_v2 stores the same clicks with:
+--   * LowCardinality dimensions (dictionary-encoded, a few distinct values each)
+--   * uv as a UInt64 hash (visitor_id) and the IP as IPv6 (IPv4 mapped to ::ffff:a.b.c.d), both fixed width;
+--     the IP stays readable because access records show it
+--   * keys as UUID instead of its 36-char text
+--   * referrer reduced to its domain; user_agent dropped (already parsed into os / browser / device)
+--   * Delta + ZSTD on event_time (sorted within a link), T64 on the small integer columns
+--
+-- link_stats_events stays the ingest table: the Kafka MVs and the Java batch consumer keep writing it, its
+-- MVs (02, 06, 07) keep firing, and link_stats_events_v2_mv below copies every insert into v2. Once
+-- EventsV2Migration has backfilled the older partitions it cuts link_stats_events' TTL to
+-- shortlink.stats.events-v2.migration.staging-ttl-days, so the String copy only holds the last few days.
+
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_events_v2
+(
+    event_time DateTime CODEC(Delta, ZSTD(1)),
+    full_short_url String CODEC(ZSTD(1)),
+    gid LowCardinality(String),
+    ip IPv6 CODEC(ZSTD(1)),
+    visitor_id UInt64 CODEC(ZSTD(1)),
+    os LowCardinality(String),
+    browser LowCardinality(String),
+    device LowCardinality(String),
+    network LowCardinality(String),
+    referrer_domain LowCardinality(String),
+    country_code LowCardinality(String),
+    region LowCardinality(String),
+    city LowCardinality(String),
+    language_code LowCardinality(String),
+    locale_code LowCardinality(String),
+    keys UUID,
+    http_status UInt16 CODEC(T64, ZSTD(1)),
+    redirect_latency_ms UInt32 CODEC(T64, ZSTD(1)),
+    -- group access records, see 08_access_record_projection.sql
+    PROJECTION events_by_gid
+    (
+        SELECT event_time, keys, full_short_url, gid, ip, visitor_id, os, browser, device, network,
+               locale_code, country_code
+        ORDER BY gid, event_time, keys
+    )
+)
+ENGINE = ReplacingMergeTree()
+PARTITION BY toYYYYMM(event_time)
+ORDER BY (full_short_url, event_time, gid, keys)
+TTL event_time + INTERVAL 90 DAY
+SETTINGS non_replicated_deduplication_window = 10000,
+         deduplicate_merge_projection_mode = 'rebuild';
+
+-- Also used, with a WHERE on the partition, by EventsV2Migration to backfill older partitions
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_events_v2_mv
+TO shortlink_stats.link_stats_events_v2
+AS SELECT
+    event_time,
+    full_short_url,
+    gid,
+    toIPv6OrDefault(remote_addr) AS ip,
+    cityHash64(uv) AS visitor_id,
+    os,
+    browser,
+    device,
+    network,
+    domain(referrer) AS referrer_domain,
+    country_code,
+    region,
+    city,
+    language_code,
+    locale_code,
+    toUUIDOrZero(keys) AS keys,
+    http_status,
+    redirect_latency_ms
+FROM shortlink_stats.link_stats_events;
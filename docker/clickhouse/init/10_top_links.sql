@@ -0,0 +1,34 @@
+-- Per-group hot-link leaderboard (shortlink.stats.top-links.enabled=true)
+-- Ranking the links of a group by PV from link_stats_daily aggregates every link of the group over the
+-- range. This table keeps one topK(100) state of full_short_url per (gid, day), next to the group's PV, so
+-- the candidates of a range are a merge of a few states. topK is approximate: the service only uses it
+-- to pick candidates and reads their exact PV / UV / UIP from link_stats_daily.
+
+CREATE TABLE IF NOT EXISTS shortlink_stats.link_stats_group_top_links
+(
+    stat_date Date,
+    gid String,
+    pv AggregateFunction(sum, UInt64),
+    top_links AggregateFunction(topK(100), String)
+)
+ENGINE = AggregatingMergeTree()
+PARTITION BY toYYYYMM(stat_date)
+ORDER BY (gid, stat_date)
+SETTINGS non_replicated_deduplication_window = 10000;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS shortlink_stats.link_stats_group_top_links_mv
+TO shortlink_stats.link_stats_group_top_links
+AS SELECT
+    toDate(event_time) AS stat_date,
+    gid,
+    sumState(toUInt64(1)) AS pv,
+    topKState(100)(full_short_url) AS top_links
+FROM shortlink_stats.link_stats_events
+GROUP BY stat_date, gid;
+
+-- One-off backfill from the raw events still within the link_stats_events TTL (run once, before enabling
+-- the leaderboard). Older days have no candidates; their links only rank through newer days.
+--
+-- INSERT INTO shortlink_stats.link_stats_group_top_links
+-- SELECT toDate(event_time), gid, sumState(toUInt64(1)), topKState(100)(full_short_url)
+-- FROM shortlink_stats.link_stats_events GROUP BY toDate(event_time), gid;
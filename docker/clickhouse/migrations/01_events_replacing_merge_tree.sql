@@ -0,0 +1,79 @@
+-- Migrate link_stats_events of a deployment created before it became a ReplacingMergeTree on keys
+-- (02_tables_mvs.sql only creates the table when it is missing, so existing tables keep MergeTree).
+-- Not run by docker-compose: run once by hand with clickhouse-client --multiquery, while traffic is low.
+
+-- 1. Pause ingest so no event lands in the old table after the copy. With the Java batch consumer
+--    (shortlink.stats.consumer.enabled=true) stop the consumer; its Kafka MVs are already detached.
+--    With the Kafka engine (03 / 04), detach its MV:
+-- DETACH TABLE shortlink_stats.link_stats_kafka_mv;
+-- DETACH TABLE shortlink_stats.link_stats_kafka_rb_mv;
+
+-- 2. New table with the current definition of 02_tables_mvs.sql
+CREATE TABLE shortlink_stats.link_stats_events_new
+(
+    event_time DateTime DEFAULT now(),
+    full_short_url String,
+    gid String,
+    remote_addr String,
+    uv String,
+    os String,
+    browser String,
+    device String,
+    network String,
+    referrer String,
+    user_agent String,
+    country_code String,
+    region String,
+    city String,
+    language_code String,
+    locale_code String,
+    keys String,
+    http_status UInt16,
+    redirect_latency_ms UInt32,
+    INDEX idx_gid gid TYPE minmax GRANULARITY 4
+)
+ENGINE = ReplacingMergeTree()
+PARTITION BY toYYYYMM(event_time)
+ORDER BY (full_short_url, event_time, gid, keys)
+TTL event_time + INTERVAL 90 DAY
+SETTINGS non_replicated_deduplication_window = 10000;
+
+-- 3. Copy. No MV reads link_stats_events_new, so the copied rows are not counted again in the rollups.
+INSERT INTO shortlink_stats.link_stats_events_new SELECT * FROM shortlink_stats.link_stats_events;
+
+-- 4. Swap atomically: link_stats_events is the new table, link_stats_events_new holds the old data.
+EXCHANGE TABLES shortlink_stats.link_stats_events AND shortlink_stats.link_stats_events_new;
+
+-- 5. A running server keeps every MV bound to the table it was attached to, which is now the old one.
+--    Re-attaching binds it to link_stats_events by name again.
+DETACH TABLE shortlink_stats.link_stats_daily_mv;
+ATTACH TABLE shortlink_stats.link_stats_daily_mv;
+DETACH TABLE shortlink_stats.link_stats_hourly_mv;
+ATTACH TABLE shortlink_stats.link_stats_hourly_mv;
+DETACH TABLE shortlink_stats.link_stats_browser_mv;
+ATTACH TABLE shortlink_stats.link_stats_browser_mv;
+DETACH TABLE shortlink_stats.link_stats_os_mv;
+ATTACH TABLE shortlink_stats.link_stats_os_mv;
+DETACH TABLE shortlink_stats.link_stats_device_mv;
+ATTACH TABLE shortlink_stats.link_stats_device_mv;
+DETACH TABLE shortlink_stats.link_stats_network_mv;
+ATTACH TABLE shortlink_stats.link_stats_network_mv;
+DETACH TABLE shortlink_stats.link_stats_referrer_mv;
+ATTACH TABLE shortlink_stats.link_stats_referrer_mv;
+DETACH TABLE shortlink_stats.link_stats_geography_mv;
+ATTACH TABLE shortlink_stats.link_stats_geography_mv;
+
+--    Same for the MVs of the optional scripts that were run:
+--    06_group_rollups.sql:    link_stats_group_daily_mv, link_stats_group_hourly_mv, link_stats_group_dimension_mv
+--    07_approx_distinct.sql:  link_stats_daily_approx_mv, link_stats_group_daily_approx_mv
+--    09_events_v2.sql:        link_stats_events_v2_mv
+--    10_top_links.sql:        link_stats_group_top_links_mv
+--    e.g. DETACH TABLE shortlink_stats.link_stats_group_daily_mv; ATTACH TABLE shortlink_stats.link_stats_group_daily_mv;
+--    Re-run 08_access_record_projection.sql if the gid projection was in use.
+
+-- 6. Resume ingest: start the Java batch consumer again, or re-attach what step 1 detached:
+-- ATTACH TABLE shortlink_stats.link_stats_kafka_mv;
+-- ATTACH TABLE shortlink_stats.link_stats_kafka_rb_mv;
+
+-- 7. Once the row counts match, drop the old data:
+-- DROP TABLE shortlink_stats.link_stats_events_new;
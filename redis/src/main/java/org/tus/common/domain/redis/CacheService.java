@@ -1,6 +1,7 @@
 package org.tus.common.domain.redis;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -25,6 +26,33 @@ public interface CacheService {
      */
     void set(String key, Object value);
 
+    /**
+     * Add an element to a HyperLogLog (PFADD) and refresh its TTL, atomically in one round trip.
+     *
+     * <p>The answer is probabilistic: a small fraction of new elements (~0.8%) may not change the
+     * estimate and report false. Use it for first-seen flags where one key per set is worth that.</p>
+     *
+     * @return true if the element changed the cardinality estimate, i.e. was not seen before
+     */
+    boolean pfAdd(String key, String element, Duration ttl);
+
+    /**
+     * Apply counter increments (INCRBY) and HyperLogLog adds (PFADD) in one pipelined batch, refreshing
+     * the TTL of every key touched.
+     *
+     * @param increments  counter key to delta
+     * @param hllElements HyperLogLog key to the elements to add
+     */
+    void incrementAndPfAdd(Map<String, Long> increments, Map<String, ? extends Collection<String>> hllElements,
+                           Duration ttl);
+
+    /**
+     * Read counters (GET) and HyperLogLog cardinalities (PFCOUNT) in one pipelined batch.
+     *
+     * @return value per key, 0 for missing keys
+     */
+    Map<String, Long> getCountersAndPfCount(Collection<String> counterKeys, Collection<String> hllKeys);
+
     /**
      * Delete key.
      */
@@ -2,13 +2,23 @@ package org.tus.common.domain.redis.impl;
 
 import com.alibaba.fastjson2.JSON;
 import lombok.RequiredArgsConstructor;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RAtomicLongAsync;
+import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RHyperLogLogAsync;
 import org.redisson.api.RMap;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.tus.common.domain.redis.CacheService;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -20,6 +30,14 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class RedissonCacheService implements CacheService {
 
+    /**
+     * PFADD + PEXPIRE in one script so the first-seen check and the TTL cost a single round trip.
+     */
+    private static final String PFADD_WITH_TTL_SCRIPT =
+            "local added = redis.call('PFADD', KEYS[1], ARGV[1]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return added";
+
     private final RedissonClient redissonClient;
 
     @Override
@@ -59,6 +77,67 @@ public class RedissonCacheService implements CacheService {
         bucket.set(raw);
     }
 
+    @Override
+    public boolean pfAdd(String key, String element, Duration ttl) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(element, "element must not be null");
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        RScript script = redissonClient.getScript(StringCodec.INSTANCE);
+        Long added = script.eval(RScript.Mode.READ_WRITE, PFADD_WITH_TTL_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(key), element, String.valueOf(ttl.toMillis()));
+        return added != null && added == 1L;
+    }
+
+    @Override
+    public void incrementAndPfAdd(Map<String, Long> increments, Map<String, ? extends Collection<String>> hllElements,
+                                  Duration ttl) {
+        Objects.requireNonNull(increments, "increments must not be null");
+        Objects.requireNonNull(hllElements, "hllElements must not be null");
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (increments.isEmpty() && hllElements.isEmpty()) {
+            return;
+        }
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+        increments.forEach((key, delta) -> {
+            RAtomicLongAsync counter = batch.getAtomicLong(key);
+            counter.addAndGetAsync(delta);
+            counter.expireAsync(ttl);
+        });
+        hllElements.forEach((key, elements) -> {
+            if (elements.isEmpty()) {
+                return;
+            }
+            RHyperLogLogAsync<String> hll = batch.getHyperLogLog(key, StringCodec.INSTANCE);
+            hll.addAllAsync(elements);
+            hll.expireAsync(ttl);
+        });
+        batch.execute();
+    }
+
+    @Override
+    public Map<String, Long> getCountersAndPfCount(Collection<String> counterKeys, Collection<String> hllKeys) {
+        Objects.requireNonNull(counterKeys, "counterKeys must not be null");
+        Objects.requireNonNull(hllKeys, "hllKeys must not be null");
+        if (counterKeys.isEmpty() && hllKeys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+        Map<String, RFuture<Long>> futures = new LinkedHashMap<>();
+        for (String key : counterKeys) {
+            futures.put(key, batch.getAtomicLong(key).getAsync());
+        }
+        for (String key : hllKeys) {
+            futures.put(key, batch.<String>getHyperLogLog(key, StringCodec.INSTANCE).countAsync());
+        }
+        batch.execute();
+        Map<String, Long> values = new LinkedHashMap<>();
+        futures.forEach((key, future) -> {
+            Long value = future.toCompletableFuture().join();
+            values.put(key, value != null ? value : 0L);
+        });
+        return values;
+    }
+
     @Override
     public void delete(String key) {
         if (key == null) {
@@ -6,14 +6,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RAtomicLongAsync;
+import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RHyperLogLogAsync;
 import org.redisson.api.RMap;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.tus.common.domain.redis.CacheService;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -22,6 +32,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
@@ -52,6 +63,24 @@ class RedissonCacheServiceTest {
     @Mock
     private RMap<String, String> map;
 
+    @Mock
+    private RScript script;
+
+    @Mock
+    private RBatch batch;
+
+    @Mock
+    private RAtomicLongAsync counter;
+
+    @Mock
+    private RHyperLogLogAsync<String> hll;
+
+    @Mock
+    private RFuture<Long> counterValue;
+
+    @Mock
+    private RFuture<Long> hllCount;
+
     private CacheService cacheService;
 
     @BeforeEach
@@ -148,6 +177,25 @@ class RedissonCacheServiceTest {
         verify(bucket, never()).set(any());
     }
 
+    @Test
+    @DisplayName("pfAdd runs PFADD and PEXPIRE in one script call")
+    void pfAddSingleScriptCall() {
+        doReturn(script).when(redissonClient).getScript(StringCodec.INSTANCE);
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.<Object>of(KEY)), eq("10.0.0.1"), eq("86400000")))
+                .thenReturn(1L, 0L);
+
+        assertTrue(cacheService.pfAdd(KEY, "10.0.0.1", Duration.ofDays(1)));
+        assertFalse(cacheService.pfAdd(KEY, "10.0.0.1", Duration.ofDays(1)));
+    }
+
+    @Test
+    @DisplayName("pfAdd throws NPE when element is null")
+    void pfAddThrowsWhenElementNull() {
+        assertThrows(NullPointerException.class, () -> cacheService.pfAdd(KEY, null, Duration.ofDays(1)));
+        verifyNoInteractions(redissonClient);
+    }
+
     @Test
     @DisplayName("delete is no-op when key is null")
     void deleteNoOpWhenKeyNull() {
@@ -230,6 +278,45 @@ class RedissonCacheServiceTest {
         assertTrue(cacheService.hgetAll(KEY).isEmpty());
     }
 
+    @Test
+    @DisplayName("incrementAndPfAdd sends INCRBY, PFADD and their TTLs in one batch")
+    void incrementAndPfAddSingleBatch() {
+        doReturn(batch).when(redissonClient).createBatch(any(BatchOptions.class));
+        doReturn(counter).when(batch).getAtomicLong("pv");
+        doReturn(hll).when(batch).getHyperLogLog("uv", StringCodec.INSTANCE);
+
+        cacheService.incrementAndPfAdd(Map.of("pv", 3L), Map.of("uv", Set.of("u1", "u2")), Duration.ofDays(2));
+
+        verify(counter).addAndGetAsync(3L);
+        verify(counter).expireAsync(Duration.ofDays(2));
+        verify(hll).addAllAsync(Set.of("u1", "u2"));
+        verify(hll).expireAsync(Duration.ofDays(2));
+        verify(batch).execute();
+    }
+
+    @Test
+    @DisplayName("incrementAndPfAdd is no-op when there is nothing to write")
+    void incrementAndPfAddNoOpWhenEmpty() {
+        cacheService.incrementAndPfAdd(Map.of(), Map.of(), Duration.ofDays(2));
+        verifyNoInteractions(redissonClient);
+    }
+
+    @Test
+    @DisplayName("getCountersAndPfCount reads counters and cardinalities from one batch")
+    void getCountersAndPfCountSingleBatch() {
+        doReturn(batch).when(redissonClient).createBatch(any(BatchOptions.class));
+        doReturn(counter).when(batch).getAtomicLong("pv");
+        doReturn(hll).when(batch).getHyperLogLog("uv", StringCodec.INSTANCE);
+        when(counter.getAsync()).thenReturn(counterValue);
+        when(hll.countAsync()).thenReturn(hllCount);
+        when(counterValue.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(7L));
+        when(hllCount.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(null));
+
+        Map<String, Long> values = cacheService.getCountersAndPfCount(List.of("pv"), List.of("uv"));
+
+        assertEquals(Map.of("pv", 7L, "uv", 0L), values);
+        verify(batch).execute();
+    }
 
     /**
      * Simple POJO for JSON round-trip tests.
@@ -151,6 +151,21 @@ public class CacheServiceIT {
         assertFalse(cacheService.exists(key), "Key should expire after TTL");
     }
 
+    @Test
+    @DisplayName("pfAdd reports first sighting per element and sets TTL")
+    void pfAddReportsFirstSighting() throws InterruptedException {
+        String key = KEY_PREFIX + "hll";
+        CacheService cacheService = redisService.getCacheService();
+        cacheService.delete(key);
+
+        assertTrue(cacheService.pfAdd(key, "10.0.0.1", Duration.ofSeconds(2)));
+        assertFalse(cacheService.pfAdd(key, "10.0.0.1", Duration.ofSeconds(2)));
+        assertTrue(cacheService.pfAdd(key, "10.0.0.2", Duration.ofSeconds(2)));
+
+        Thread.sleep(2500);
+        assertFalse(cacheService.exists(key), "HyperLogLog should expire after TTL");
+    }
+
     // ---------- Hash operations: hset/hget/hgetAll/hdel ----------
 
     @Test
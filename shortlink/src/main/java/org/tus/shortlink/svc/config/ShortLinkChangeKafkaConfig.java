@@ -0,0 +1,93 @@
+package org.tus.shortlink.svc.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Kafka configuration for the link change broadcast topic (redirect index overlay + L1 invalidation).
+ *
+ * <p>Every pod consumes every change, so the consumer group id is unique per instance and committed
+ * offsets are never reused; on assignment the listener seeks to the snapshot time of its local index.
+ * The producer factory is a bean of its own type ({@code <String, String>}), so the context closes its
+ * producer on shutdown without it being injected where the stats event factory is expected.</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "shortlink.redirect.index", name = "enabled", havingValue = "true")
+public class ShortLinkChangeKafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${spring.application.name:shortlink-service}")
+    private String applicationName;
+
+    @Value("${kafka.topics.link-changes.name:shortlink-link-changes}")
+    private String linkChangesTopic;
+
+    @Value("${kafka.topics.link-changes.partitions:3}")
+    private int linkChangesPartitions;
+
+    @Value("${kafka.topics.link-changes.replication-factor:3}")
+    private short linkChangesReplicationFactor;
+
+    @Bean
+    public ProducerFactory<String, String> linkChangeProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> linkChangeKafkaTemplate() {
+        return new KafkaTemplate<>(linkChangeProducerFactory());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> linkChangeListenerContainerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, applicationName + "-link-changes-" + UUID.randomUUID());
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        return factory;
+    }
+
+    /**
+     * Change topic, only created at startup when auto-create is enabled (same switch as the stats topic).
+     * Retention must exceed shortlink.redirect.index.max-age-hours so a pod can replay from its snapshot.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "kafka.topics.stats-events.auto-create", havingValue = "true")
+    public NewTopic shortlinkLinkChangesTopic() {
+        return TopicBuilder.name(linkChangesTopic)
+                .partitions(linkChangesPartitions)
+                .replicas(linkChangesReplicationFactor)
+                .config("retention.ms", "172800000")
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package org.tus.shortlink.svc.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka configuration for the pre-aggregated stats topic (JSONEachRow records of
+ * {@code ShortLinkStatsAggregateDTO}, keyed by full short url).
+ *
+ * <p>Only active with {@code shortlink.stats.preaggregate.enabled=true}. The producer factory is a bean of
+ * its own type ({@code <String, String>}), so the context closes its producer on shutdown without it being
+ * injected where the stats event factory is expected.</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "shortlink.stats.preaggregate", name = "enabled", havingValue = "true")
+public class ShortLinkStatsAggregateKafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${kafka.topics.stats-aggregates.name:shortlink-stats-aggregates}")
+    private String statsAggregatesTopic;
+
+    @Value("${kafka.topics.stats-aggregates.partitions:20}")
+    private int statsAggregatesPartitions;
+
+    @Value("${kafka.topics.stats-aggregates.replication-factor:3}")
+    private short statsAggregatesReplicationFactor;
+
+    @Bean
+    public ProducerFactory<String, String> statsAggregateProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        // a flush emits a burst of records; let them share batches
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 50);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> statsAggregateKafkaTemplate() {
+        return new KafkaTemplate<>(statsAggregateProducerFactory());
+    }
+
+    /**
+     * Aggregate topic, only created at startup when auto-create is enabled (same switch as the stats topic).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "kafka.topics.stats-events.auto-create", havingValue = "true")
+    public NewTopic shortlinkStatsAggregatesTopic() {
+        return TopicBuilder.name(statsAggregatesTopic)
+                .partitions(statsAggregatesPartitions)
+                .replicas(statsAggregatesReplicationFactor)
+                .config("retention.ms", "604800000")
+                .config("compression.type", "snappy")
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package org.tus.shortlink.svc.config;
+
+import com.clickhouse.client.api.Client;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.tus.shortlink.svc.stats.ClickHouseStatsEventWriter;
+import org.tus.shortlink.svc.stats.StatsEventDeduplicator;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka consumer and ClickHouse client for the Java stats ingest path (ShortLinkStatsBatchConsumer).
+ *
+ * <p>Records are delivered as raw bytes and decoded by the listener according to
+ * {@code kafka.topics.stats-events.format}. Batch size and wait are bounded at the fetch level, offsets
+ * are committed per batch after the listener returns, and a failed batch is retried with capped
+ * exponential backoff until ClickHouse accepts it, so no event is skipped on an outage.</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "shortlink.stats.consumer", name = "enabled", havingValue = "true")
+public class ShortLinkStatsConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${shortlink.stats.consumer.group-id:shortlink-stats-clickhouse-writer}")
+    private String groupId;
+
+    @Value("${shortlink.stats.consumer.max-poll-records:10000}")
+    private int maxPollRecords;
+
+    /**
+     * A fetch waits until this many bytes are available or fetch-max-wait-millis elapsed
+     */
+    @Value("${shortlink.stats.consumer.fetch-min-bytes:1048576}")
+    private int fetchMinBytes;
+
+    @Value("${shortlink.stats.consumer.fetch-max-wait-millis:500}")
+    private int fetchMaxWaitMillis;
+
+    @Value("${shortlink.stats.consumer.retry-max-interval-millis:30000}")
+    private long retryMaxIntervalMillis;
+
+    @Value("${shortlink.stats.consumer.clickhouse-endpoint:http://localhost:8123}")
+    private String clickHouseEndpoint;
+
+    @Value("${clickhouse.username:default}")
+    private String username;
+
+    @Value("${clickhouse.password:default}")
+    private String password;
+
+    @Value("${clickhouse.database:shortlink_stats}")
+    private String database;
+
+    @Value("${shortlink.stats.consumer.insert-timeout-millis:30000}")
+    private long insertTimeoutMillis;
+
+    /**
+     * How long written event keys are remembered to drop redeliveries and replays
+     */
+    @Value("${shortlink.stats.consumer.dedup.window-seconds:600}")
+    private long dedupWindowSeconds;
+
+    @Value("${shortlink.stats.consumer.dedup.maximum-size:1000000}")
+    private long dedupMaximumSize;
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> statsBatchListenerContainerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMillis);
+
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMillis);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    @Bean(destroyMethod = "close")
+    public Client statsClickHouseClient() {
+        return new Client.Builder()
+                .addEndpoint(clickHouseEndpoint)
+                .setUsername(username)
+                .setPassword(password)
+                .setDefaultDatabase(database)
+                .compressClientRequest(true)
+                .build();
+    }
+
+    @Bean
+    public ClickHouseStatsEventWriter clickHouseStatsEventWriter(
+            @Qualifier("statsClickHouseClient") Client statsClickHouseClient) {
+        return new ClickHouseStatsEventWriter(statsClickHouseClient, insertTimeoutMillis);
+    }
+
+    @Bean
+    public StatsEventDeduplicator statsEventDeduplicator() {
+        return new StatsEventDeduplicator(Duration.ofSeconds(dedupWindowSeconds), dedupMaximumSize);
+    }
+}
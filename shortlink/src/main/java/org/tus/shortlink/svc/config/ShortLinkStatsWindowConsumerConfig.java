@@ -0,0 +1,113 @@
+package org.tus.shortlink.svc.config;
+
+import com.clickhouse.client.api.Client;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.tus.shortlink.svc.stats.ClickHouseStatsRollupWriter;
+import org.tus.shortlink.svc.stats.ShortLinkStatsWindowConsumer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka consumer and ClickHouse client for the windowed rollup consumer (ShortLinkStatsWindowConsumer).
+ *
+ * <p>Offsets are committed by the listener itself (manual ack mode), only up to the first record of
+ * a window still held in memory. Idle events close the windows of quiet partitions; the listener is
+ * also the rebalance listener, so revoked partitions are written out before they move. Failed
+ * inserts are retried with capped exponential backoff.</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "shortlink.stats.window-consumer", name = "enabled", havingValue = "true")
+public class ShortLinkStatsWindowConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${shortlink.stats.window-consumer.group-id:shortlink-stats-window-aggregator}")
+    private String groupId;
+
+    @Value("${shortlink.stats.window-consumer.max-poll-records:10000}")
+    private int maxPollRecords;
+
+    @Value("${shortlink.stats.window-consumer.fetch-max-wait-millis:500}")
+    private int fetchMaxWaitMillis;
+
+    /**
+     * Also the idle interval after which a quiet partition's windows are closed
+     */
+    @Value("${shortlink.stats.window-consumer.allowed-lateness-millis:10000}")
+    private long allowedLatenessMillis;
+
+    @Value("${shortlink.stats.window-consumer.retry-max-interval-millis:30000}")
+    private long retryMaxIntervalMillis;
+
+    @Value("${shortlink.stats.window-consumer.insert-timeout-millis:30000}")
+    private long insertTimeoutMillis;
+
+    @Value("${shortlink.stats.consumer.clickhouse-endpoint:http://localhost:8123}")
+    private String clickHouseEndpoint;
+
+    @Value("${clickhouse.username:default}")
+    private String username;
+
+    @Value("${clickhouse.password:default}")
+    private String password;
+
+    @Value("${clickhouse.database:shortlink_stats}")
+    private String database;
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> statsWindowListenerContainerFactory(
+            ShortLinkStatsWindowConsumer windowConsumer) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMillis);
+
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        factory.setBatchListener(true);
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setIdleEventInterval(allowedLatenessMillis);
+        containerProperties.setConsumerRebalanceListener(windowConsumer);
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMillis);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    @Bean(destroyMethod = "close")
+    public Client statsRollupClickHouseClient() {
+        return new Client.Builder()
+                .addEndpoint(clickHouseEndpoint)
+                .setUsername(username)
+                .setPassword(password)
+                .setDefaultDatabase(database)
+                .compressClientRequest(true)
+                .build();
+    }
+
+    @Bean
+    public ClickHouseStatsRollupWriter clickHouseStatsRollupWriter(
+            @Qualifier("statsRollupClickHouseClient") Client statsRollupClickHouseClient) {
+        return new ClickHouseStatsRollupWriter(statsRollupClickHouseClient, insertTimeoutMillis);
+    }
+}
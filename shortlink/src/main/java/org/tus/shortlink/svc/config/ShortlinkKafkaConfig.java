@@ -10,6 +10,8 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.stats.StatsProducerProfile;
+import org.tus.shortlink.svc.stats.StatsRecordBinarySerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -28,6 +30,31 @@ public class ShortlinkKafkaConfig {
     @Value("${kafka.topics.stats-events.name:shortlink-stats-events}")
     private String statsEventsTopic;
 
+    /**
+     * Upper bound for send() blocking on a full buffer or missing metadata; the stats spill log takes over after it
+     */
+    @Value("${kafka.producer.stats-events.max-block-ms:2000}")
+    private long maxBlockMs;
+
+    /**
+     * Initial batching profile (LOW_LATENCY, BALANCED, THROUGHPUT); StatsProducerTuner may switch it at runtime
+     */
+    @Value("${kafka.producer.stats-events.profile:BALANCED}")
+    private StatsProducerProfile profile;
+
+    /**
+     * snappy (default), zstd, lz4, gzip or none
+     */
+    @Value("${kafka.producer.stats-events.compression-type:snappy}")
+    private String compressionType;
+
+    /**
+     * Wire format of stats events: json (JSONEachRow, default) or binary (RowBinary, see StatsRecordBinaryCodec).
+     * Each format needs its own topic and ClickHouse Kafka table.
+     */
+    @Value("${kafka.topics.stats-events.format:json}")
+    private String statsEventsFormat;
+
     /**
      * Kafka producer factory configuration.
      * Optimized for high-throughput event publishing.
@@ -37,16 +64,15 @@ public class ShortlinkKafkaConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer());
 
         // Idempotence requires acks=all (Kafka validation)
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         // between latency and durability)
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3); // Retry 3 times on failure
-        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384); // 16KB batch size
-        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10); // Wait 10ms for batching
+        configProps.putAll(profile.producerConfigs()); // batch.size and linger.ms
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB buffer memory
-        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy"); // Snappy compression for better throughput
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
 
         // Idempotence and ordering guarantees
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true); // Enable idempotent producer
@@ -55,10 +81,20 @@ public class ShortlinkKafkaConfig {
         // Timeout settings
         configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000); // 30 seconds
         configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000); // 2 minutes
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
+    private Class<?> valueSerializer() {
+        return switch (statsEventsFormat.trim().toLowerCase()) {
+            case "json" -> JsonSerializer.class;
+            case "binary" -> StatsRecordBinarySerializer.class;
+            default -> throw new IllegalArgumentException(
+                    "Unsupported kafka.topics.stats-events.format: " + statsEventsFormat);
+        };
+    }
+
     /**
      * Kafka template for publishing statistics events.
      * Used by ShortLinkStatsEventPublisher service.
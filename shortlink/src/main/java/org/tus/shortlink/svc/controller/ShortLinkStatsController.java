@@ -2,19 +2,28 @@ package org.tus.shortlink.svc.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.tus.common.domain.model.PageResponse;
 import org.tus.shortlink.base.common.convention.result.Result;
 import org.tus.shortlink.base.common.convention.result.Results;
+import org.tus.shortlink.base.dto.req.ShortLinkBatchStatsReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsReqDTO;
+import org.tus.shortlink.base.dto.req.ShortLinkGroupTopLinksReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsReqDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkBatchStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordCursorRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
 import org.tus.shortlink.svc.service.ShortLinkStatsService;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/shortlink/v1/stats")
@@ -39,6 +48,24 @@ public class ShortLinkStatsController {
         return Results.success(shortLinkStatesService.groupShortLinkStats(requestParam));
     }
 
+    /**
+     * Top links of a group by PV within a time range
+     */
+    @GetMapping("/group/top")
+    public Result<List<ShortLinkStatsTopLinkRespDTO>> groupTopLinks(
+            ShortLinkGroupTopLinksReqDTO requestParam) {
+        return Results.success(shortLinkStatesService.groupTopLinks(requestParam));
+    }
+
+    /**
+     * Totals (and optionally daily series) for many short links within a time range, in one query
+     */
+    @PostMapping("/batch")
+    public Result<List<ShortLinkBatchStatsRespDTO>> batchShortLinkStats(
+            @RequestBody ShortLinkBatchStatsReqDTO requestParam) {
+        return Results.success(shortLinkStatesService.batchShortLinkStats(requestParam));
+    }
+
     /**
      * Access records for a single short link
      */
@@ -56,4 +83,22 @@ public class ShortLinkStatsController {
             ShortLinkGroupStatsAccessRecordReqDTO requestParam) {
         return Results.success(shortLinkStatesService.groupShortLinkStatsAccessRecord(requestParam));
     }
+
+    /**
+     * Access records for a single short link, paged by cursor
+     */
+    @GetMapping("/access/cursor")
+    public Result<ShortLinkStatsAccessRecordCursorRespDTO> shortLinkStatsAccessRecordCursor(
+            ShortLinkStatsAccessRecordReqDTO requestParam) {
+        return Results.success(shortLinkStatesService.shortLinkStatsAccessRecordCursor(requestParam));
+    }
+
+    /**
+     * Access records for a group of short links, paged by cursor
+     */
+    @GetMapping("/group/access/cursor")
+    public Result<ShortLinkStatsAccessRecordCursorRespDTO> groupShortLinkStatsAccessRecordCursor(
+            ShortLinkGroupStatsAccessRecordReqDTO requestParam) {
+        return Results.success(shortLinkStatesService.groupShortLinkStatsAccessRecordCursor(requestParam));
+    }
 }
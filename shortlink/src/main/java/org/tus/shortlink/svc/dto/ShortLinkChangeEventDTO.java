@@ -0,0 +1,32 @@
+package org.tus.shortlink.svc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Redirect-relevant change of one short link, broadcast to every pod so local redirect
+ * state (L1 cache, on-disk index overlay) follows writes made elsewhere.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkChangeEventDTO {
+
+    /**
+     * Full short url of the changed link
+     */
+    private String fullShortUrl;
+
+    /**
+     * New redirect target, null when the link was invalidated (update, recycle, remove)
+     */
+    private ShortLinkRedirectDTO target;
+
+    /**
+     * Epoch millis of the change
+     */
+    private long changedAt;
+}
@@ -0,0 +1,58 @@
+package org.tus.shortlink.svc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Raw click fact captured on the redirect thread: only what is already at hand there.
+ * Enrichment (first-visit flags, User-Agent classification, event key) happens off the
+ * request path, see {@code org.tus.shortlink.svc.stats.ShortLinkClickEnricher}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkClickDTO {
+
+    /**
+     * Group ID
+     */
+    private String gid;
+
+    /**
+     * Full short url
+     */
+    private String fullShortUrl;
+
+    /**
+     * Visitor IP
+     */
+    private String remoteAddr;
+
+    /**
+     * Referer header, empty when absent
+     */
+    private String referrer;
+
+    /**
+     * User-Agent header, empty when absent
+     */
+    private String userAgent;
+
+    /**
+     * Visitor id (existing or newly issued uv cookie)
+     */
+    private String uv;
+
+    /**
+     * True when the uv cookie was issued by this redirect
+     */
+    private boolean newVisitor;
+
+    /**
+     * Click time, epoch millis
+     */
+    private long clickTime;
+}
@@ -0,0 +1,95 @@
+package org.tus.shortlink.svc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.tus.shortlink.base.common.enums.VailDateTypeEnum;
+import org.tus.shortlink.svc.entity.ShortLink;
+
+import java.util.Date;
+
+/**
+ * Minimal projection of a short link needed to serve a redirect.
+ * Stored in the local (L1) and Redis (L2) redirect caches.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkRedirectDTO {
+
+    /**
+     * Full short url (cache key)
+     */
+    private String fullShortUrl;
+
+    /**
+     * Original (target) url
+     */
+    private String originUrl;
+
+    /**
+     * Group ID
+     */
+    private String gid;
+
+    /**
+     * Valid date type, 0 = permanent, 1 = custom ({@link VailDateTypeEnum})
+     */
+    private Integer validDateType;
+
+    /**
+     * Expiration date, only honoured when {@link #validDateType} is custom
+     */
+    private Date validDate;
+
+    /**
+     * Enable status, 0 = enabled, 1 = in recycle bin
+     */
+    private Integer enableStatus;
+
+    public static ShortLinkRedirectDTO from(ShortLink shortLink) {
+        return ShortLinkRedirectDTO.builder()
+                .fullShortUrl(shortLink.getFullShortUrl())
+                .originUrl(shortLink.getOriginUrl())
+                .gid(shortLink.getGid())
+                .validDateType(shortLink.getValidDateType())
+                .validDate(shortLink.getValidDate())
+                .enableStatus(shortLink.getEnableStatus())
+                .build();
+    }
+
+    /**
+     * Whether the link can be redirected at the given instant.
+     *
+     * <p>Takes the instant as an argument so it is not picked up as a bean property
+     * when the DTO is serialized into the L2 cache.</p>
+     */
+    public Status statusAt(long nowMillis) {
+        if (enableStatus != null && enableStatus != 0) {
+            return Status.DISABLED;
+        }
+        long expiresAt = expiresAtMillis();
+        if (expiresAt != Long.MAX_VALUE && expiresAt <= nowMillis) {
+            return Status.EXPIRED;
+        }
+        return Status.ACTIVE;
+    }
+
+    /**
+     * Epoch millis at which the link stops redirecting, {@link Long#MAX_VALUE} when it never expires.
+     */
+    public long expiresAtMillis() {
+        if (validDate == null || validDateType == null || validDateType != VailDateTypeEnum.CUSTOM.getType()) {
+            return Long.MAX_VALUE;
+        }
+        return validDate.getTime();
+    }
+
+    public enum Status {
+        ACTIVE,
+        EXPIRED,
+        DISABLED
+    }
+}
@@ -0,0 +1,55 @@
+package org.tus.shortlink.svc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of resolving a redirect, written to the wire by the calling transport:
+ * either a 302 to {@link #location} or an error status with {@link #message}.
+ * A redirect for a visitor without a visitor cookie also carries {@link #uvCookie} to set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkRedirectResultDTO {
+
+    /**
+     * Visitor cookie driving UV first-visit detection
+     */
+    public static final String UV_COOKIE_NAME = "uv";
+
+    public static final int UV_COOKIE_MAX_AGE_SECONDS = 30 * 24 * 60 * 60;
+
+    /**
+     * HTTP status code
+     */
+    private int status;
+
+    /**
+     * Redirect location, null for error results
+     */
+    private String location;
+
+    /**
+     * Error message, null for redirects
+     */
+    private String message;
+
+    /**
+     * Newly issued visitor id to set as the {@value #UV_COOKIE_NAME} cookie, null when none is needed
+     */
+    private String uvCookie;
+
+    public static ShortLinkRedirectResultDTO redirect(String location) {
+        return new ShortLinkRedirectResultDTO(302, location, null, null);
+    }
+
+    public static ShortLinkRedirectResultDTO error(int status, String message) {
+        return new ShortLinkRedirectResultDTO(status, null, message, null);
+    }
+
+    public boolean isRedirect() {
+        return location != null;
+    }
+}
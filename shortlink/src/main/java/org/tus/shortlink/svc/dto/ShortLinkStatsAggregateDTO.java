@@ -0,0 +1,75 @@
+package org.tus.shortlink.svc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clicks of one link folded in-service over one window and one dimension combination, published to
+ * the stats aggregate topic instead of one record per redirect
+ * (see {@code org.tus.shortlink.svc.stats.ShortLinkClickAggregator}).
+ *
+ * <p>Counts are additive: several records for the same key (other pods, late clicks) sum up.</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkStatsAggregateDTO {
+
+    /**
+     * Group ID
+     */
+    private String gid;
+
+    /**
+     * Full short url
+     */
+    private String fullShortUrl;
+
+    /**
+     * Window start, epoch millis
+     */
+    private long windowStart;
+
+    /**
+     * Window length in seconds
+     */
+    private int windowSeconds;
+
+    /**
+     * Request os
+     */
+    private String os;
+
+    /**
+     * Request browser
+     */
+    private String browser;
+
+    /**
+     * Device info
+     */
+    private String device;
+
+    /**
+     * Network
+     */
+    private String network;
+
+    /**
+     * Clicks in the window
+     */
+    private long pv;
+
+    /**
+     * Clicks flagged as the visitor's first of the day (sums to the daily UV)
+     */
+    private long uvFirst;
+
+    /**
+     * Clicks flagged as the IP's first of the day (sums to the daily UIP)
+     */
+    private long uipFirst;
+}
@@ -0,0 +1,37 @@
+package org.tus.shortlink.svc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Transport-neutral view of a redirect request: the visitor attributes the stats
+ * pipeline needs, extracted by the servlet controller or the Netty redirect server.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkVisitDTO {
+
+    /**
+     * Client IP (first X-Forwarded-For entry, else the peer address)
+     */
+    private String remoteAddr;
+
+    /**
+     * Referer header, empty when absent
+     */
+    private String referrer;
+
+    /**
+     * User-Agent header, empty when absent
+     */
+    private String userAgent;
+
+    /**
+     * Visitor id from the {@code uv} cookie, null for a visitor without one
+     */
+    private String uv;
+}
@@ -0,0 +1,54 @@
+package org.tus.shortlink.svc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cached result of one stats query for one day (or one closed date range), stored by
+ * {@code org.tus.shortlink.svc.service.StatsResultCache}.
+ *
+ * <p>Only the fields of the query kind are set. An entry with zero counts records that the day had
+ * no clicks, so the day is not queried again.</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsDayValueDTO {
+
+    /**
+     * Page views
+     */
+    private long pv;
+
+    /**
+     * Unique visitors
+     */
+    private long uv;
+
+    /**
+     * Unique IPs
+     */
+    private long uip;
+
+    /**
+     * PV per hour of day (24 elements), hourly queries only
+     */
+    private List<Integer> hours;
+
+    /**
+     * Dimension (browser, os, device, network) -> value -> PV, dimension queries only
+     */
+    private Map<String, Map<String, Long>> dimensions;
+
+    /**
+     * Links ranked by PV, top-links queries only
+     */
+    private List<ShortLinkStatsTopLinkRespDTO> topLinks;
+}
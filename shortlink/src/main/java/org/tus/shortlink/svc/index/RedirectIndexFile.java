@@ -0,0 +1,329 @@
+package org.tus.shortlink.svc.index;
+
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+/**
+ * Read-only, memory-mapped redirect snapshot: {@code fullShortUrl -> ShortLinkRedirectDTO}.
+ *
+ * <p>File layout (big-endian):</p>
+ * <pre>
+ * header (64 bytes)  magic, version, slotCount, entryCount, createdAt, blobStart, fileLength
+ * slots  (16 bytes)  [long keyHash (0 = empty)][long recordOffset] x slotCount, open addressing
+ *                    with linear probing, slotCount a power of two at load factor &lt;= 0.5
+ * blob               records: [short keyLen][key][int originLen][origin][short gidLen][gid]
+ *                    [byte validDateType][long validDate][byte enableStatus]
+ * </pre>
+ *
+ * <p>The file is mapped in chunks because a single {@link MappedByteBuffer} is limited to 2 GB;
+ * the writer pads so no slot or record spans two chunks. Lookups read from the page cache only,
+ * nothing is kept on the Java heap, so tens of millions of links cost no GC work and a restarted
+ * pod can serve from the file as soon as it is mapped.</p>
+ */
+public final class RedirectIndexFile implements Closeable {
+
+    static final int MAGIC = 0x534C5249; // "SLRI"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int SLOT_BYTES = 16;
+    static final long DEFAULT_CHUNK_BYTES = 1L << 30;
+
+    private static final byte NULL_BYTE = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long chunkBytes;
+    private final long slotMask;
+    private final long entryCount;
+    private final long createdAt;
+
+    private RedirectIndexFile(FileChannel channel, MappedByteBuffer[] chunks, long chunkBytes,
+                              long slotCount, long entryCount, long createdAt) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.chunkBytes = chunkBytes;
+        this.slotMask = slotCount - 1;
+        this.entryCount = entryCount;
+        this.createdAt = createdAt;
+    }
+
+    public static RedirectIndexFile open(Path path) throws IOException {
+        return open(path, DEFAULT_CHUNK_BYTES);
+    }
+
+    static RedirectIndexFile open(Path path, long chunkBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Redirect index too small: " + path);
+            }
+            int chunkCount = (int) ((size + chunkBytes - 1) / chunkBytes);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long start = i * chunkBytes;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkBytes, size - start));
+                chunks[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            MappedByteBuffer header = chunks[0];
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a redirect index (magic/version mismatch): " + path);
+            }
+            long slotCount = header.getLong(8);
+            long entryCount = header.getLong(16);
+            long createdAt = header.getLong(24);
+            long fileLength = header.getLong(40);
+            if (fileLength != size || Long.bitCount(slotCount) != 1) {
+                throw new IOException("Truncated or corrupt redirect index: " + path);
+            }
+            return new RedirectIndexFile(channel, chunks, chunkBytes, slotCount, entryCount, createdAt);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the snapshot entry, or null when the key is not in the snapshot
+     */
+    public ShortLinkRedirectDTO get(String fullShortUrl) {
+        byte[] key = fullShortUrl.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+        for (long slot = hash & slotMask, probes = 0; probes <= slotMask; slot = (slot + 1) & slotMask, probes++) {
+            long position = HEADER_BYTES + slot * SLOT_BYTES;
+            long slotHash = getLong(position);
+            if (slotHash == 0) {
+                return null;
+            }
+            if (slotHash == hash) {
+                ShortLinkRedirectDTO record = readRecord(getLong(position + 8), key);
+                if (record != null) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    public long entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Epoch millis at which the snapshot build started; changes after it come from the overlay.
+     */
+    public long createdAt() {
+        return createdAt;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ShortLinkRedirectDTO readRecord(long offset, byte[] expectedKey) {
+        MappedByteBuffer chunk = chunks[(int) (offset / chunkBytes)];
+        int p = (int) (offset % chunkBytes);
+        int keyLen = chunk.getShort(p) & 0xFFFF;
+        p += 2;
+        if (keyLen != expectedKey.length) {
+            return null;
+        }
+        for (int i = 0; i < keyLen; i++) {
+            if (chunk.get(p + i) != expectedKey[i]) {
+                return null;
+            }
+        }
+        p += keyLen;
+        int originLen = chunk.getInt(p);
+        p += 4;
+        String originUrl = readString(chunk, p, originLen);
+        p += originLen;
+        int gidLen = chunk.getShort(p) & 0xFFFF;
+        p += 2;
+        String gid = readString(chunk, p, gidLen);
+        p += gidLen;
+        byte validDateType = chunk.get(p);
+        long validDate = chunk.getLong(p + 1);
+        byte enableStatus = chunk.get(p + 9);
+        return ShortLinkRedirectDTO.builder()
+                .fullShortUrl(new String(expectedKey, StandardCharsets.UTF_8))
+                .originUrl(originUrl)
+                .gid(gid)
+                .validDateType(validDateType == NULL_BYTE ? null : (int) validDateType)
+                .validDate(validDate == NULL_DATE ? null : new Date(validDate))
+                .enableStatus(enableStatus == NULL_BYTE ? null : (int) enableStatus)
+                .build();
+    }
+
+    private static String readString(MappedByteBuffer chunk, int position, int length) {
+        byte[] bytes = new byte[length];
+        chunk.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long getLong(long position) {
+        return chunks[(int) (position / chunkBytes)].getLong((int) (position % chunkBytes));
+    }
+
+    /**
+     * FNV-1a 64 with a murmur3 finalizer; 0 is reserved for empty slots.
+     */
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Streams records into a new index file. Records go to the blob sequentially; slots are
+     * written through a read-write mapping of the slot region, so heap use stays constant no
+     * matter how many links are indexed.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+        private final long chunkBytes;
+        private final long slotCount;
+        private final long maxEntries;
+        private final long createdAt;
+        private final FileChannel channel;
+        private final MappedByteBuffer[] slotChunks;
+        private final long blobStart;
+        private final DataOutputStream blob;
+        private long blobPosition;
+        private long entryCount;
+        private boolean finished;
+
+        public Writer(Path path, long expectedEntries, long createdAt) throws IOException {
+            this(path, expectedEntries, createdAt, DEFAULT_CHUNK_BYTES);
+        }
+
+        Writer(Path path, long expectedEntries, long createdAt, long chunkBytes) throws IOException {
+            this.path = path;
+            this.chunkBytes = chunkBytes;
+            this.slotCount = Long.highestOneBit(Math.max(16L, expectedEntries * 2) - 1) << 1;
+            this.maxEntries = slotCount / 2;
+            this.createdAt = createdAt;
+            this.blobStart = HEADER_BYTES + slotCount * SLOT_BYTES;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int chunkCount = (int) ((blobStart + chunkBytes - 1) / chunkBytes);
+            this.slotChunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long start = i * chunkBytes;
+                slotChunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(chunkBytes, blobStart - start));
+                slotChunks[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            OutputStream out = Channels.newOutputStream(channel.position(blobStart));
+            this.blob = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            this.blobPosition = blobStart;
+        }
+
+        /**
+         * @throws IllegalStateException when more entries arrive than the writer was sized for
+         */
+        public void add(ShortLinkRedirectDTO target) throws IOException {
+            if (entryCount >= maxEntries) {
+                throw new IllegalStateException("Redirect index sized for " + maxEntries + " entries");
+            }
+            byte[] key = target.getFullShortUrl().getBytes(StandardCharsets.UTF_8);
+            byte[] origin = target.getOriginUrl() == null ? new byte[0]
+                    : target.getOriginUrl().getBytes(StandardCharsets.UTF_8);
+            byte[] gid = target.getGid() == null ? new byte[0] : target.getGid().getBytes(StandardCharsets.UTF_8);
+            int recordBytes = 2 + key.length + 4 + origin.length + 2 + gid.length + 1 + 8 + 1;
+            if (recordBytes > chunkBytes) {
+                throw new IllegalArgumentException("Record larger than a mapping chunk: " + target.getFullShortUrl());
+            }
+            long chunkRemaining = chunkBytes - (blobPosition % chunkBytes);
+            if (recordBytes > chunkRemaining) {
+                blob.write(new byte[(int) chunkRemaining]);
+                blobPosition += chunkRemaining;
+            }
+            long recordOffset = blobPosition;
+            blob.writeShort(key.length);
+            blob.write(key);
+            blob.writeInt(origin.length);
+            blob.write(origin);
+            blob.writeShort(gid.length);
+            blob.write(gid);
+            blob.writeByte(target.getValidDateType() == null ? NULL_BYTE : target.getValidDateType());
+            blob.writeLong(target.getValidDate() == null ? NULL_DATE : target.getValidDate().getTime());
+            blob.writeByte(target.getEnableStatus() == null ? NULL_BYTE : target.getEnableStatus());
+            blobPosition += recordBytes;
+
+            long hash = hash(key);
+            long mask = slotCount - 1;
+            for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long position = HEADER_BYTES + slot * SLOT_BYTES;
+                MappedByteBuffer chunk = slotChunks[(int) (position / chunkBytes)];
+                int p = (int) (position % chunkBytes);
+                if (chunk.getLong(p) == 0) {
+                    chunk.putLong(p, hash);
+                    chunk.putLong(p + 8, recordOffset);
+                    break;
+                }
+            }
+            entryCount++;
+        }
+
+        public long entryCount() {
+            return entryCount;
+        }
+
+        /**
+         * Flush the blob, write the header last and fsync, so a crash never leaves a file
+         * that {@link #open(Path)} accepts.
+         */
+        public void finish() throws IOException {
+            blob.flush();
+            MappedByteBuffer header = slotChunks[0];
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(8, slotCount);
+            header.putLong(16, entryCount);
+            header.putLong(24, createdAt);
+            header.putLong(32, blobStart);
+            header.putLong(40, blobPosition);
+            for (MappedByteBuffer chunk : slotChunks) {
+                chunk.force();
+            }
+            channel.force(true);
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                if (!finished) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.tus.shortlink.svc.index;
+
+import com.alibaba.fastjson2.JSON;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.svc.dto.ShortLinkChangeEventDTO;
+import org.tus.shortlink.svc.service.ShortLinkRedirectCache;
+
+import java.util.Map;
+
+/**
+ * Consumes the link change broadcast topic: updates the redirect index overlay and drops the
+ * local L1 redirect entry, so changes made on other pods are visible here without waiting for
+ * the next snapshot or the L1 TTL.
+ *
+ * <p>On partition assignment the consumer seeks to the current snapshot's build time, replaying
+ * every change the snapshot may have missed.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shortlink.redirect.index", name = "enabled", havingValue = "true")
+public class ShortLinkChangeEventListener implements ConsumerSeekAware {
+
+    private final ShortLinkRedirectIndex shortLinkRedirectIndex;
+
+    private final ShortLinkRedirectCache shortLinkRedirectCache;
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToTimestamp(assignments.keySet(), shortLinkRedirectIndex.replayFromMillis());
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topics.link-changes.name:shortlink-link-changes}",
+            containerFactory = "linkChangeListenerContainerFactory")
+    public void onChange(String payload) {
+        ShortLinkChangeEventDTO event;
+        try {
+            event = JSON.parseObject(payload, ShortLinkChangeEventDTO.class);
+        } catch (Exception e) {
+            log.warn("ShortLinkChangeEventListener: skip malformed change event: {}", e.getMessage());
+            return;
+        }
+        if (event == null || event.getFullShortUrl() == null) {
+            return;
+        }
+        shortLinkRedirectIndex.apply(event);
+        shortLinkRedirectCache.evictLocal(event.getFullShortUrl());
+    }
+}
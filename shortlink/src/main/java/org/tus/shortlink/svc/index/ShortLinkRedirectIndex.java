@@ -0,0 +1,259 @@
+package org.tus.shortlink.svc.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.tus.common.domain.persistence.QueryService;
+import org.tus.shortlink.svc.dto.ShortLinkChangeEventDTO;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+import org.tus.shortlink.svc.entity.ShortLink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-disk redirect index consulted by {@code ShortLinkRedirectCache} before any network hop.
+ *
+ * <ul>
+ *     <li>Snapshot: {@link RedirectIndexFile}, built from {@code t_link} with keyset paging and
+ *     memory-mapped; kept on local disk so a restarted pod maps it instead of warming from Postgres</li>
+ *     <li>Overlay: changes since the snapshot build, fed by {@link ShortLinkChangeEventListener};
+ *     an invalidation hides the snapshot entry so the lookup falls through to Redis / Postgres</li>
+ * </ul>
+ *
+ * <p>A miss in both means "not known here", never "does not exist": links created on other pods
+ * may not have reached this pod yet. Enabled with {@code shortlink.redirect.index.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shortlink.redirect.index", name = "enabled", havingValue = "true")
+public class ShortLinkRedirectIndex {
+
+    private static final String METRIC_PREFIX = "shortlink.redirect.index";
+
+    private static final String COUNT_HQL = "select count(sl) from ShortLink sl where sl.delTime = 0";
+
+    private static final String PAGE_HQL =
+            "select sl from ShortLink sl where sl.delTime = 0 and sl.id > :lastId order by sl.id";
+
+    /**
+     * Overlay entries this much older than a new snapshot's build start are assumed to be in it
+     * (covers commit lag and clock skew between pods).
+     */
+    private static final long OVERLAY_PRUNE_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final QueryService queryService;
+
+    @Value("${shortlink.redirect.index.path:${java.io.tmpdir}/shortlink/redirect-index.bin}")
+    private String indexPath;
+
+    @Value("${shortlink.redirect.index.rebuild-interval-minutes:60}")
+    private long rebuildIntervalMinutes;
+
+    /**
+     * Snapshots older than this are discarded at startup; must stay below the change topic retention
+     */
+    @Value("${shortlink.redirect.index.max-age-hours:24}")
+    private long maxAgeHours;
+
+    @Value("${shortlink.redirect.index.page-size:5000}")
+    private int pageSize;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private volatile RedirectIndexFile snapshot;
+
+    private final ConcurrentMap<String, OverlayEntry> overlay = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    public void init() {
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        rebuildTimer = Timer.builder(METRIC_PREFIX + ".rebuild").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".entries", this, index -> {
+            RedirectIndexFile current = index.snapshot;
+            return current != null ? current.entryCount() : 0;
+        }).register(registry);
+        Gauge.builder(METRIC_PREFIX + ".overlay.size", overlay, Map::size).register(registry);
+        Gauge.builder(METRIC_PREFIX + ".age.seconds", this, index -> {
+            RedirectIndexFile current = index.snapshot;
+            return current != null ? (System.currentTimeMillis() - current.createdAt()) / 1000.0 : -1;
+        }).register(registry);
+
+        long initialDelayMillis = 0;
+        Path path = Paths.get(indexPath);
+        if (Files.exists(path)) {
+            try {
+                RedirectIndexFile existing = RedirectIndexFile.open(path);
+                long age = System.currentTimeMillis() - existing.createdAt();
+                if (age < TimeUnit.HOURS.toMillis(maxAgeHours)) {
+                    snapshot = existing;
+                    initialDelayMillis = Math.max(0, TimeUnit.MINUTES.toMillis(rebuildIntervalMinutes) - age);
+                    log.info("Redirect index mapped from {}: entries={}, ageSeconds={}",
+                            path, existing.entryCount(), age / 1000);
+                } else {
+                    existing.close();
+                    log.info("Redirect index at {} is older than {}h, rebuilding", path, maxAgeHours);
+                }
+            } catch (IOException e) {
+                log.warn("Redirect index at {} unreadable, rebuilding: {}", path, e.getMessage());
+            }
+        }
+
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redirect-index-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        rebuildExecutor.scheduleWithFixedDelay(this::rebuildQuietly, initialDelayMillis,
+                TimeUnit.MINUTES.toMillis(rebuildIntervalMinutes), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuildExecutor != null) {
+            rebuildExecutor.shutdownNow();
+        }
+        closeQuietly(snapshot);
+    }
+
+    /**
+     * @return redirect target known to this pod, or null to fall through to the remote tiers
+     */
+    public ShortLinkRedirectDTO lookup(String fullShortUrl) {
+        OverlayEntry changed = overlay.get(fullShortUrl);
+        if (changed != null) {
+            return changed.target();
+        }
+        RedirectIndexFile current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        try {
+            return current.get(fullShortUrl);
+        } catch (RuntimeException e) {
+            log.warn("Redirect index lookup failed for {}: {}", fullShortUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Apply one change event to the overlay; out-of-order events for the same key are ignored.
+     */
+    public void apply(ShortLinkChangeEventDTO event) {
+        if (event == null || event.getFullShortUrl() == null) {
+            return;
+        }
+        OverlayEntry entry = new OverlayEntry(event.getTarget(), event.getChangedAt());
+        overlay.merge(event.getFullShortUrl(), entry,
+                (existing, incoming) -> incoming.changedAt() >= existing.changedAt() ? incoming : existing);
+    }
+
+    /**
+     * Epoch millis from which change events must be replayed on top of the current snapshot.
+     */
+    public long replayFromMillis() {
+        RedirectIndexFile current = snapshot;
+        return current != null ? current.createdAt() - OVERLAY_PRUNE_MARGIN_MILLIS : System.currentTimeMillis();
+    }
+
+    /**
+     * Build a fresh snapshot from the database and swap it in.
+     */
+    public synchronized void rebuild() throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long expected = ((Number) queryService.querySingle(COUNT_HQL)).longValue();
+        Path path = Paths.get(indexPath);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        long written;
+        try {
+            written = writeSnapshot(tmp, expected, startedAt);
+        } catch (IllegalStateException e) {
+            // more links than counted (inserts during the build): size for twice as many and retry once
+            written = writeSnapshot(tmp, expected * 2 + 1024, startedAt);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        RedirectIndexFile previous = snapshot;
+        snapshot = RedirectIndexFile.open(path);
+        closeQuietly(previous);
+        long pruneBefore = startedAt - OVERLAY_PRUNE_MARGIN_MILLIS;
+        overlay.values().removeIf(entry -> entry.changedAt() < pruneBefore);
+        long tookMillis = System.currentTimeMillis() - startedAt;
+        rebuildTimer.record(tookMillis, TimeUnit.MILLISECONDS);
+        log.info("Redirect index rebuilt: entries={}, overlay={}, tookMillis={}", written, overlay.size(), tookMillis);
+    }
+
+    private long writeSnapshot(Path tmp, long expected, long startedAt) throws IOException {
+        try (RedirectIndexFile.Writer writer = new RedirectIndexFile.Writer(tmp, expected, startedAt)) {
+            String lastId = "";
+            while (true) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("lastId", lastId);
+                @SuppressWarnings("unchecked")
+                List<ShortLink> page = queryService.pagedQuery(PAGE_HQL, params, 0, pageSize);
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                for (ShortLink shortLink : page) {
+                    writer.add(ShortLinkRedirectDTO.from(shortLink));
+                }
+                lastId = page.get(page.size() - 1).getId();
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            writer.finish();
+            return writer.entryCount();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Redirect index rebuild failed, keeping current snapshot", e);
+        }
+    }
+
+    private static void closeQuietly(RedirectIndexFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.debug("Redirect index close failed: {}", e.getMessage());
+        }
+    }
+
+    private record OverlayEntry(ShortLinkRedirectDTO target, long changedAt) {
+    }
+}
@@ -0,0 +1,169 @@
+package org.tus.shortlink.svc.server;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.DefaultCookie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.base.tookit.StringUtils;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectResultDTO;
+import org.tus.shortlink.svc.dto.ShortLinkVisitDTO;
+import org.tus.shortlink.svc.service.ShortLinkService;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Redirect-only HTTP server on Reactor Netty, running next to the servlet container.
+ *
+ * <p>Serves {@code GET /{shortUri}} and {@code GET /api/shortlink/v1/{shortUri}} without the
+ * DispatcherServlet, filter chain or argument resolution. Links are resolved through
+ * {@link ShortLinkService#resolveRedirect}, i.e. the same redirect cache, database loader and
+ * stats event publishing as the MVC endpoint. Resolution can block (Redis, Postgres), so it runs
+ * on the bounded elastic scheduler and the event loop only parses and writes.</p>
+ *
+ * <p>Enabled with {@code shortlink.redirect.server.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shortlink.redirect.server", name = "enabled", havingValue = "true")
+public class NettyRedirectServer implements SmartLifecycle {
+
+    private static final String SHORT_URI_PARAM = "shortUri";
+
+    private final ShortLinkService shortLinkService;
+
+    @Value("${shortlink.redirect.server.host:0.0.0.0}")
+    private String host;
+
+    /**
+     * Listen port, 0 binds an ephemeral port (tests)
+     */
+    @Value("${shortlink.redirect.server.port:8082}")
+    private int port;
+
+    /**
+     * Event loop threads, 0 uses the Reactor Netty default (available processors)
+     */
+    @Value("${shortlink.redirect.server.worker-threads:0}")
+    private int workerThreads;
+
+    private volatile DisposableServer server;
+
+    private LoopResources loopResources;
+
+    @Override
+    public void start() {
+        loopResources = workerThreads > 0
+                ? LoopResources.create("redirect-http", workerThreads, true)
+                : LoopResources.create("redirect-http");
+        server = HttpServer.create()
+                .host(host)
+                .port(port)
+                .runOn(loopResources)
+                // single uri tag: short codes must not become metric tag values
+                .metrics(true, uri -> "/{shortUri}")
+                .route(routes -> routes
+                        .get("/api/shortlink/v1/{" + SHORT_URI_PARAM + "}", this::handle)
+                        .get("/{" + SHORT_URI_PARAM + "}", this::handle))
+                .bindNow();
+        log.info("Netty redirect server listening on {}:{}", host, server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer current = server;
+        server = null;
+        if (current != null) {
+            current.disposeNow(Duration.ofSeconds(5));
+        }
+        if (loopResources != null) {
+            // connections are already drained by disposeNow, no quiet period needed
+            loopResources.disposeLater(Duration.ZERO, Duration.ofSeconds(5)).block(Duration.ofSeconds(6));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Bound port, useful when configured with port 0.
+     */
+    public int port() {
+        DisposableServer current = server;
+        return current != null ? current.port() : -1;
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        String shortUri = request.param(SHORT_URI_PARAM);
+        ShortLinkVisitDTO visit = toVisit(request);
+        return Mono.fromCallable(() -> shortLinkService.resolveRedirect(shortUri, visit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(result -> Mono.from(write(response, result)))
+                .onErrorResume(e -> {
+                    log.error("Netty redirect failed for shortUri={}", shortUri, e);
+                    return Mono.from(response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send());
+                });
+    }
+
+    private static Publisher<Void> write(HttpServerResponse response, ShortLinkRedirectResultDTO result) {
+        if (result.isRedirect()) {
+            if (result.getUvCookie() != null) {
+                DefaultCookie cookie = new DefaultCookie(ShortLinkRedirectResultDTO.UV_COOKIE_NAME, result.getUvCookie());
+                cookie.setMaxAge(ShortLinkRedirectResultDTO.UV_COOKIE_MAX_AGE_SECONDS);
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                response.addCookie(cookie);
+            }
+            return response.status(HttpResponseStatus.FOUND)
+                    .header(HttpHeaderNames.LOCATION, result.getLocation())
+                    .send();
+        }
+        return response.status(result.getStatus())
+                .header(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8")
+                .sendString(Mono.justOrEmpty(result.getMessage()));
+    }
+
+    private static ShortLinkVisitDTO toVisit(HttpServerRequest request) {
+        String referrer = request.requestHeaders().get(HttpHeaderNames.REFERER);
+        String userAgent = request.requestHeaders().get(HttpHeaderNames.USER_AGENT);
+        return ShortLinkVisitDTO.builder()
+                .remoteAddr(remoteAddr(request))
+                .referrer(referrer != null ? referrer : "")
+                .userAgent(userAgent != null ? userAgent : "")
+                .uv(uvCookie(request))
+                .build();
+    }
+
+    private static String uvCookie(HttpServerRequest request) {
+        Set<Cookie> cookies = request.cookies().get(ShortLinkRedirectResultDTO.UV_COOKIE_NAME);
+        return cookies != null && !cookies.isEmpty() ? cookies.iterator().next().value() : null;
+    }
+
+    private static String remoteAddr(HttpServerRequest request) {
+        String xff = request.requestHeaders().get("X-Forwarded-For");
+        if (StringUtils.hasText(xff)) {
+            int comma = xff.indexOf(',');
+            return comma > 0 ? xff.substring(0, comma).trim() : xff.trim();
+        }
+        InetSocketAddress peer = request.remoteAddress();
+        return peer != null && peer.getAddress() != null ? peer.getAddress().getHostAddress() : "";
+    }
+}
@@ -6,9 +6,14 @@ import org.tus.shortlink.base.dto.resp.ShortLinkStatsBrowserRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsDeviceRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsNetworkRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsOsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Query service for short link statistics from ClickHouse.
@@ -21,18 +26,35 @@ public interface ClickHouseStatsService {
     List<ShortLinkStatsAccessDailyRespDTO> queryDailyStats(
             String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Daily stats for one link, with uv/uip counted as {@code mode} says.
+     */
+    List<ShortLinkStatsAccessDailyRespDTO> queryDailyStats(
+            String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate, DistinctMode mode);
+
     /**
      * Daily stats aggregated for a group (all links under gid) in date range.
      */
     List<ShortLinkStatsAccessDailyRespDTO> queryGroupDailyStats(
             String gid, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Daily stats for a group, with uv/uip counted as {@code mode} says.
+     */
+    List<ShortLinkStatsAccessDailyRespDTO> queryGroupDailyStats(
+            String gid, LocalDate startDate, LocalDate endDate, DistinctMode mode);
+
     /**
      * Hourly PV for one link in date range. Returns 24 elements (index=hour, value=pv).
      */
     List<Integer> queryHourlyStats(String fullShortUrl, LocalDate startDate,
                                    LocalDate endDate);
 
+    /**
+     * Hourly PV for a group in date range. Returns 24 elements (index=hour, value=pv).
+     */
+    List<Integer> queryGroupHourlyStats(String gid, LocalDate startDate, LocalDate endDate);
+
     /**
      * Browser dimension stats for one link in date range.
      */
@@ -57,17 +79,67 @@ public interface ClickHouseStatsService {
     List<ShortLinkStatsNetworkRespDTO> queryNetworkStats(
             String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Browser, OS, device and network stats for one link in date range, in a single round trip.
+     */
+    DimensionStats queryDimensionStats(String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Browser, OS, device and network stats for a group in date range, in a single round trip.
+     */
+    DimensionStats queryGroupDimensionStats(String gid, LocalDate startDate, LocalDate endDate);
+
     /**
      * Total pv, uv, uip for one link in date range (for response totals).
      */
     TotalStats queryTotalStats(String fullShortUrl, String gid, LocalDate startDate,
                                LocalDate endDate);
 
+    /**
+     * Total pv, uv, uip for one link, with uv/uip counted as {@code mode} says.
+     */
+    TotalStats queryTotalStats(String fullShortUrl, String gid, LocalDate startDate,
+                               LocalDate endDate, DistinctMode mode);
+
     /**
      * Total pv, uv, uip for a group in date range
      */
     TotalStats queryGroupTotalStats(String gid, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Total pv, uv, uip for a group, with uv/uip counted as {@code mode} says.
+     */
+    TotalStats queryGroupTotalStats(String gid, LocalDate startDate, LocalDate endDate, DistinctMode mode);
+
+    /**
+     * Total pv, uv, uip per link for many links of a group in date range, from one {@code IN (...)}
+     * aggregation. Links without clicks in the group are absent.
+     */
+    Map<String, TotalStats> queryTotalStatsBatch(String gid, Collection<String> fullShortUrls, LocalDate startDate,
+                                                 LocalDate endDate);
+
+    /**
+     * Daily stats per link for many links of a group in date range, from one aggregation. Links without
+     * clicks in the group are absent.
+     */
+    Map<String, List<ShortLinkStatsAccessDailyRespDTO>> queryDailyStatsBatch(String gid,
+                                                                             Collection<String> fullShortUrls,
+                                                                             LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Up to {@code limit} (at most 100) links of a group ranked by PV over the date range, with exact PV / UV /
+     * UIP. Candidates come from the topK states of 10_top_links.sql when
+     * {@code shortlink.stats.top-links.enabled=true}, otherwise every link of the group is ranked.
+     */
+    List<ShortLinkStatsTopLinkRespDTO> queryGroupTopLinks(String gid, LocalDate startDate, LocalDate endDate,
+                                                          int limit);
+
+    /**
+     * Approximately the {@code limit} (at most 100) most clicked links over all groups, most clicked first,
+     * merged from the topK states only. Empty unless {@code shortlink.stats.top-links.enabled=true}.
+     */
+    List<String> queryHotLinks(LocalDate startDate, LocalDate endDate, int limit);
+
     /**
      * Paginated access records for one link from link_stats_events.
      */
@@ -80,9 +152,86 @@ public interface ClickHouseStatsService {
     AccessRecordPage queryGroupAccessRecords(String gid, LocalDate startDate,
                                              LocalDate endDate, int current, int size);
 
+    /**
+     * Up to {@code size} access records for one link older than {@code after} (null for the newest),
+     * newest first. Keyset pagination: every page costs the same and no total is counted.
+     */
+    AccessRecordSlice queryAccessRecordsAfter(String fullShortUrl, String gid, LocalDate startDate,
+                                              LocalDate endDate, AccessRecordCursor after, int size);
+
+    /**
+     * Keyset page of access records for a group, read through the gid-ordered projection of
+     * link_stats_events when it exists.
+     */
+    AccessRecordSlice queryGroupAccessRecordsAfter(String gid, LocalDate startDate, LocalDate endDate,
+                                                   AccessRecordCursor after, int size);
+
     record TotalStats(long pv, long uv, long uip) {
     }
 
+    /**
+     * How uv and uip are counted. The methods without a mode use {@code shortlink.stats.distinct-mode}.
+     */
+    enum DistinctMode {
+        /**
+         * uniqExact states of link_stats_daily; exact, but the state holds every distinct value
+         */
+        EXACT,
+        /**
+         * uniqCombined(14) states of 07_approx_distinct.sql; fixed size, ~0.8% relative error
+         */
+        APPROXIMATE
+    }
+
     record AccessRecordPage(long total, List<ShortLinkStatsAccessRecordRespDTO> records) {
     }
+
+    /**
+     * One keyset page; {@code next} is null on the last page.
+     */
+    record AccessRecordSlice(List<ShortLinkStatsAccessRecordRespDTO> records, AccessRecordCursor next) {
+
+        public static AccessRecordSlice empty() {
+            return new AccessRecordSlice(List.of(), null);
+        }
+    }
+
+    /**
+     * Position after the last record of a page: its event time (epoch seconds) and event keys,
+     * which break ties between events of the same second.
+     */
+    record AccessRecordCursor(long eventTime, String keys) {
+
+        /**
+         * Opaque URL-safe token handed to clients
+         */
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((eventTime + ":" + keys).getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @return the cursor, or null when {@code token} was not produced by {@link #encode()}
+         */
+        public static AccessRecordCursor decode(String token) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int sep = value.indexOf(':');
+                if (sep < 1) {
+                    return null;
+                }
+                return new AccessRecordCursor(Long.parseLong(value.substring(0, sep)), value.substring(sep + 1));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    record DimensionStats(List<ShortLinkStatsBrowserRespDTO> browser, List<ShortLinkStatsOsRespDTO> os,
+                          List<ShortLinkStatsDeviceRespDTO> device, List<ShortLinkStatsNetworkRespDTO> network) {
+
+        public static DimensionStats empty() {
+            return new DimensionStats(List.of(), List.of(), List.of(), List.of());
+        }
+    }
 }
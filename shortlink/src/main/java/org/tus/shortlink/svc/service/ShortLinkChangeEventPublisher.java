@@ -0,0 +1,61 @@
+package org.tus.shortlink.svc.service;
+
+import com.alibaba.fastjson2.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.tus.shortlink.svc.dto.ShortLinkChangeEventDTO;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+
+/**
+ * Publishes redirect-relevant link changes to the broadcast change topic (fire-and-forget).
+ * Only active together with the on-disk redirect index.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "shortlink.redirect.index", name = "enabled", havingValue = "true")
+public class ShortLinkChangeEventPublisher {
+
+    private final KafkaTemplate<String, String> linkChangeKafkaTemplate;
+
+    @Value("${kafka.topics.link-changes.name:shortlink-link-changes}")
+    private String linkChangesTopic;
+
+    public ShortLinkChangeEventPublisher(
+            @Qualifier("linkChangeKafkaTemplate") KafkaTemplate<String, String> linkChangeKafkaTemplate) {
+        this.linkChangeKafkaTemplate = linkChangeKafkaTemplate;
+    }
+
+    public void publishPut(ShortLinkRedirectDTO target) {
+        publish(ShortLinkChangeEventDTO.builder()
+                .fullShortUrl(target.getFullShortUrl())
+                .target(target)
+                .changedAt(System.currentTimeMillis())
+                .build());
+    }
+
+    public void publishInvalidate(String fullShortUrl) {
+        publish(ShortLinkChangeEventDTO.builder()
+                .fullShortUrl(fullShortUrl)
+                .changedAt(System.currentTimeMillis())
+                .build());
+    }
+
+    private void publish(ShortLinkChangeEventDTO event) {
+        try {
+            linkChangeKafkaTemplate.send(linkChangesTopic, event.getFullShortUrl(), JSON.toJSONString(event))
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.warn("ShortLinkChangeEventPublisher: failed to send change for {}: {}",
+                                    event.getFullShortUrl(), ex.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("ShortLinkChangeEventPublisher: failed to send change for {}: {}",
+                    event.getFullShortUrl(), e.getMessage());
+        }
+    }
+}
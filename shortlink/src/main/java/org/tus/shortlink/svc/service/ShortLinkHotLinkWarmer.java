@@ -0,0 +1,114 @@
+package org.tus.shortlink.svc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most clicked links in the redirect cache of this pod.
+ *
+ * <p>Every {@code interval-seconds} the hot links of the last {@code lookback-days} days (today included)
+ * are read from the topK states of the per-group leaderboard ({@link ClickHouseStatsService#queryHotLinks})
+ * and resolved through {@link ShortLinkService#warmRedirectCache}, so a new pod, or a link whose L1 entry
+ * just expired, is answered from L1 / Redis instead of the database on the request path.
+ * Needs {@code shortlink.stats.top-links.enabled=true}; without it there are no hot links to warm.
+ * Enabled with {@code shortlink.redirect.cache.warm.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shortlink.redirect.cache.warm", name = "enabled", havingValue = "true")
+public class ShortLinkHotLinkWarmer {
+
+    private static final String METRIC_PREFIX = "shortlink.redirect.cache.warm";
+
+    @Value("${shortlink.redirect.cache.warm.interval-seconds:60}")
+    private long intervalSeconds;
+
+    /**
+     * Days before today whose clicks rank the links
+     */
+    @Value("${shortlink.redirect.cache.warm.lookback-days:1}")
+    private int lookbackDays;
+
+    @Value("${shortlink.redirect.cache.warm.limit:100}")
+    private int limit;
+
+    @Autowired
+    private ClickHouseStatsService clickHouseStatsService;
+
+    @Autowired
+    private ShortLinkService shortLinkService;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private ScheduledExecutorService warmExecutor;
+
+    private Counter warmed;
+    private Counter failed;
+
+    @PostConstruct
+    public void init() {
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        warmed = Counter.builder(METRIC_PREFIX + ".links").register(registry);
+        failed = Counter.builder(METRIC_PREFIX + ".failed").register(registry);
+        warmExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redirect-cache-warm");
+            t.setDaemon(true);
+            return t;
+        });
+        warmExecutor.scheduleWithFixedDelay(this::warmQuietly, 0, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Hot-link cache warming started: interval={}s, lookbackDays={}, limit={}",
+                intervalSeconds, lookbackDays, limit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (warmExecutor != null) {
+            warmExecutor.shutdownNow();
+        }
+    }
+
+    private void warmQuietly() {
+        try {
+            warm();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Hot-link cache warming failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resolve the current hot links into the redirect cache.
+     *
+     * @return number of links that resolved to a target
+     */
+    int warm() {
+        LocalDate today = LocalDate.now(clock);
+        List<String> hotLinks = clickHouseStatsService.queryHotLinks(today.minusDays(Math.max(0, lookbackDays)),
+                today, limit);
+        if (hotLinks.isEmpty()) {
+            return 0;
+        }
+        int count = shortLinkService.warmRedirectCache(hotLinks);
+        warmed.increment(count);
+        log.debug("Hot-link cache warming: {} of {} links resolved", count, hotLinks.size());
+        return count;
+    }
+}
@@ -0,0 +1,530 @@
+package org.tus.shortlink.svc.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.tus.common.domain.redis.CacheService;
+import org.tus.common.domain.redis.DistributedLockService;
+import org.tus.shortlink.base.common.constant.RedisConstant;
+import org.tus.shortlink.base.tookit.LinkUtil;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+import org.tus.shortlink.svc.index.ShortLinkRedirectIndex;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-through redirect cache: {@code fullShortUrl -> ShortLinkRedirectDTO}.
+ *
+ * <ul>
+ *     <li>L1: bounded, size-evicting in-process Caffeine cache (per pod)</li>
+ *     <li>Index (optional): memory-mapped on-disk snapshot, see {@link ShortLinkRedirectIndex}</li>
+ *     <li>L2: Redis via {@link CacheService}, TTL from {@link LinkUtil#getLinkCacheValidTime}</li>
+ *     <li>Loader: caller supplied (Postgres via QueryService)</li>
+ * </ul>
+ *
+ * <p>Penetration protection for unknown short codes: a caller supplied existence gate
+ * (the per-domain suffix Bloom filter) and a short-TTL negative cache (local + Redis)
+ * keep scanner / typo traffic away from the database. Negative entries of other pods are
+ * only bounded by their TTL, so the TTL is kept in the tens of seconds.</p>
+ *
+ * <p>L1 TTL is kept short because other pods only learn about updates through L2; an
+ * {@link #evict(String)} clears L2 and the local L1 only.</p>
+ *
+ * <p>Expiry of custom-valid links: an active entry never outlives its {@code validDate}.
+ * L1 uses Caffeine's variable expiration (a hierarchical timer wheel) driven by the system
+ * scheduler, so the entry is evicted at {@code validDate} rather than on the next scan.
+ * On that eviction the entry is re-inserted as an expired tombstone, and loaded links that are
+ * already expired or disabled are cached the same way, so repeated hits on a dead link are
+ * answered from cache without a database query.</p>
+ */
+@Slf4j
+@Component
+public class ShortLinkRedirectCache {
+
+    private static final String METRIC_PREFIX = "shortlink.redirect.cache";
+
+    @Value("${shortlink.redirect.cache.local.maximum-size:100000}")
+    private long localMaximumSize;
+
+    @Value("${shortlink.redirect.cache.local.ttl-seconds:60}")
+    private long localTtlSeconds;
+
+    @Value("${shortlink.redirect.cache.inactive.ttl-seconds:300}")
+    private long inactiveTtlSeconds;
+
+    @Value("${shortlink.redirect.cache.negative.maximum-size:100000}")
+    private long negativeMaximumSize;
+
+    @Value("${shortlink.redirect.cache.negative.ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    @Value("${shortlink.redirect.cache.cluster-lock.enabled:false}")
+    private boolean clusterLockEnabled;
+
+    @Value("${shortlink.redirect.cache.cluster-lock.wait-millis:200}")
+    private long clusterLockWaitMillis;
+
+    @Value("${shortlink.redirect.cache.cluster-lock.lease-millis:3000}")
+    private long clusterLockLeaseMillis;
+
+    @Autowired(required = false)
+    private CacheService cacheService;
+
+    @Autowired(required = false)
+    private DistributedLockService distributedLockService;
+
+    @Autowired(required = false)
+    private ShortLinkRedirectIndex redirectIndex;
+
+    @Autowired(required = false)
+    private ShortLinkChangeEventPublisher changeEventPublisher;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, ShortLinkRedirectDTO> localCache;
+
+    private Cache<String, Boolean> localNegativeCache;
+
+    private final ConcurrentMap<String, CompletableFuture<ShortLinkRedirectDTO>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter l1Hits;
+    private Counter indexHits;
+    private Counter l2Hits;
+    private Counter misses;
+    private Counter bloomBlocked;
+    private Counter negativeBlocked;
+    private Counter negativeStored;
+    private Counter coalesced;
+    private Counter clusterLockAcquired;
+    private Counter clusterLockTimeouts;
+    private Counter clusterLockRecheckHits;
+    private Counter expiredEvictions;
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfter(new RedirectExpiry())
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(this::onLocalRemoval)
+                .build();
+        localNegativeCache = Caffeine.newBuilder()
+                .maximumSize(negativeMaximumSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        l1Hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit").tag("tier", "l1").register(registry);
+        indexHits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit").tag("tier", "index").register(registry);
+        l2Hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit").tag("tier", "l2").register(registry);
+        misses = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "miss").tag("tier", "none").register(registry);
+        bloomBlocked = Counter.builder("shortlink.redirect.penetration.blocked")
+                .description("Redirect lookups rejected before reaching the database")
+                .tag("gate", "bloom").register(registry);
+        negativeBlocked = Counter.builder("shortlink.redirect.penetration.blocked")
+                .description("Redirect lookups rejected before reaching the database")
+                .tag("gate", "negative-cache").register(registry);
+        negativeStored = Counter.builder(METRIC_PREFIX + ".negative.stored").register(registry);
+        coalesced = Counter.builder(METRIC_PREFIX + ".coalesced")
+                .description("Cache misses that waited for an in-flight load instead of loading")
+                .register(registry);
+        clusterLockAcquired = Counter.builder(METRIC_PREFIX + ".cluster-lock")
+                .tag("outcome", "acquired").register(registry);
+        clusterLockTimeouts = Counter.builder(METRIC_PREFIX + ".cluster-lock")
+                .tag("outcome", "timeout").register(registry);
+        clusterLockRecheckHits = Counter.builder(METRIC_PREFIX + ".cluster-lock")
+                .tag("outcome", "recheck-hit").register(registry);
+        expiredEvictions = Counter.builder(METRIC_PREFIX + ".expired")
+                .description("Cached links evicted by the timer wheel at their validDate")
+                .register(registry);
+        loadTimer = Timer.builder(METRIC_PREFIX + ".load")
+                .description("Latency of loading a redirect target from the database")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".l1.size", localCache, Cache::estimatedSize).register(registry);
+        Gauge.builder(METRIC_PREFIX + ".negative.l1.size", localNegativeCache, Cache::estimatedSize).register(registry);
+        log.info("Redirect cache initialized: l1MaximumSize={}, l1TtlSeconds={}, inactiveTtlSeconds={}, negativeTtlSeconds={}, l2={}, clusterLock={}",
+                localMaximumSize, localTtlSeconds, inactiveTtlSeconds, negativeTtlSeconds, cacheService != null ? "redis" : "disabled",
+                clusterLockEnabled && distributedLockService != null);
+    }
+
+    /**
+     * Resolve redirect target, reading through L1 -> L2 -> loader, without an existence gate.
+     */
+    public ShortLinkRedirectDTO get(String fullShortUrl, Function<String, ShortLinkRedirectDTO> loader) {
+        return get(fullShortUrl, key -> true, loader);
+    }
+
+    /**
+     * Resolve redirect target, reading through L1 -> negative L1 -> L2 -> gate -> negative L2 -> loader.
+     *
+     * <p>Everything after an L2 miss runs at most once per key and pod at a time: concurrent
+     * callers for the same key wait for the in-flight load and share its result. With the
+     * cluster lock enabled, the loader additionally runs under {@code LOCK_GOTO_SHORT_LINK_KEY}
+     * and re-checks L2 first, so only one pod per cluster hits the database for a key.</p>
+     *
+     * @param fullShortUrl  full short url (domain + "/" + shortUri)
+     * @param existenceGate returns false only when the link definitely does not exist (Bloom filter)
+     * @param loader        database loader, may return null when the link does not exist
+     * @return redirect target or null when not found
+     */
+    public ShortLinkRedirectDTO get(String fullShortUrl, Predicate<String> existenceGate,
+                                    Function<String, ShortLinkRedirectDTO> loader) {
+        ShortLinkRedirectDTO cached = localCache.getIfPresent(fullShortUrl);
+        if (cached != null) {
+            l1Hits.increment();
+            return cached;
+        }
+        if (localNegativeCache.getIfPresent(fullShortUrl) != null) {
+            negativeBlocked.increment();
+            return null;
+        }
+        cached = redirectIndex != null ? redirectIndex.lookup(fullShortUrl) : null;
+        if (cached != null) {
+            indexHits.increment();
+            localCache.put(fullShortUrl, cached);
+            return cached;
+        }
+        cached = getRemote(fullShortUrl);
+        if (cached != null) {
+            l2Hits.increment();
+            localCache.put(fullShortUrl, cached);
+            return cached;
+        }
+        return singleFlight(fullShortUrl, () -> resolveMiss(fullShortUrl, existenceGate, loader));
+    }
+
+    private ShortLinkRedirectDTO resolveMiss(String fullShortUrl, Predicate<String> existenceGate,
+                                             Function<String, ShortLinkRedirectDTO> loader) {
+        if (!existenceGate.test(fullShortUrl)) {
+            // Bloom filter has no false negatives: remember locally, no Redis write needed
+            bloomBlocked.increment();
+            localNegativeCache.put(fullShortUrl, Boolean.TRUE);
+            return null;
+        }
+        if (isMissingRemote(fullShortUrl)) {
+            negativeBlocked.increment();
+            localNegativeCache.put(fullShortUrl, Boolean.TRUE);
+            return null;
+        }
+        if (clusterLockEnabled && distributedLockService != null) {
+            return loadUnderClusterLock(fullShortUrl, loader);
+        }
+        return loadAndStore(fullShortUrl, loader);
+    }
+
+    /**
+     * Per-key in-process coalescing: the first caller runs {@code action}, later callers for the
+     * same key block on its future instead of starting their own load.
+     */
+    private ShortLinkRedirectDTO singleFlight(String fullShortUrl, Supplier<ShortLinkRedirectDTO> action) {
+        CompletableFuture<ShortLinkRedirectDTO> flight = new CompletableFuture<>();
+        CompletableFuture<ShortLinkRedirectDTO> existing = inFlight.putIfAbsent(fullShortUrl, flight);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw e;
+            }
+        }
+        try {
+            ShortLinkRedirectDTO result = action.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(fullShortUrl, flight);
+        }
+    }
+
+    /**
+     * Cross-node lock-then-recheck. When the lock cannot be acquired in time the L2 entry written
+     * by the lock holder is used; if there is none yet we load anyway rather than fail the redirect.
+     */
+    private ShortLinkRedirectDTO loadUnderClusterLock(String fullShortUrl,
+                                                      Function<String, ShortLinkRedirectDTO> loader) {
+        String lockKey = String.format(RedisConstant.LOCK_GOTO_SHORT_LINK_KEY, fullShortUrl);
+        boolean locked = false;
+        try {
+            locked = distributedLockService.tryLock(lockKey, clusterLockWaitMillis, clusterLockLeaseMillis,
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Redirect cluster lock failed for {}: {}", fullShortUrl, e.getMessage());
+        }
+        try {
+            ShortLinkRedirectDTO rechecked = getRemote(fullShortUrl);
+            if (rechecked != null) {
+                clusterLockRecheckHits.increment();
+                localCache.put(fullShortUrl, rechecked);
+                return rechecked;
+            }
+            (locked ? clusterLockAcquired : clusterLockTimeouts).increment();
+            return loadAndStore(fullShortUrl, loader);
+        } finally {
+            if (locked) {
+                try {
+                    distributedLockService.getLock(lockKey).unlock();
+                } catch (Exception e) {
+                    log.warn("Redirect cluster unlock failed for {}: {}", fullShortUrl, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private ShortLinkRedirectDTO loadAndStore(String fullShortUrl, Function<String, ShortLinkRedirectDTO> loader) {
+        misses.increment();
+        ShortLinkRedirectDTO loaded = loadTimer.record(() -> loader.apply(fullShortUrl));
+        if (loaded != null) {
+            localCache.put(fullShortUrl, loaded);
+            putRemote(loaded);
+        } else {
+            markMissing(fullShortUrl);
+        }
+        return loaded;
+    }
+
+    /**
+     * Write a redirect target to both tiers (cache warm-up after create), clearing any
+     * negative entry left by earlier probes of the same short code.
+     */
+    public void put(ShortLinkRedirectDTO target) {
+        if (target == null || target.getFullShortUrl() == null) {
+            return;
+        }
+        localCache.put(target.getFullShortUrl(), target);
+        clearMissing(target.getFullShortUrl());
+        putRemote(target);
+        if (changeEventPublisher != null) {
+            changeEventPublisher.publishPut(target);
+        }
+    }
+
+    /**
+     * Drop a redirect target from both tiers (after update / recycle bin operations).
+     */
+    public void evict(String fullShortUrl) {
+        if (fullShortUrl == null) {
+            return;
+        }
+        localCache.invalidate(fullShortUrl);
+        if (changeEventPublisher != null) {
+            changeEventPublisher.publishInvalidate(fullShortUrl);
+        }
+        if (cacheService == null) {
+            return;
+        }
+        try {
+            cacheService.delete(remoteKey(fullShortUrl));
+        } catch (Exception e) {
+            log.warn("Redirect cache L2 evict failed for {}: {}", fullShortUrl, e.getMessage());
+        }
+    }
+
+    /**
+     * {@link #put} once the surrounding transaction commits, so a rolled-back create leaves no redirect
+     * behind; immediately when there is no transaction.
+     */
+    public void putAfterCommit(ShortLinkRedirectDTO target) {
+        afterCommit(() -> put(target));
+    }
+
+    /**
+     * {@link #evict} once the surrounding transaction commits, so a redirect racing the update cannot
+     * reload and cache the old row; immediately when there is no transaction.
+     */
+    public void evictAfterCommit(String fullShortUrl) {
+        afterCommit(() -> evict(fullShortUrl));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Drop the local (L1 and negative L1) entries only, for changes made on other pods.
+     */
+    public void evictLocal(String fullShortUrl) {
+        localCache.invalidate(fullShortUrl);
+        localNegativeCache.invalidate(fullShortUrl);
+    }
+
+    /**
+     * Record a confirmed miss in the negative cache (local + Redis, short TTL).
+     */
+    public void markMissing(String fullShortUrl) {
+        localNegativeCache.put(fullShortUrl, Boolean.TRUE);
+        negativeStored.increment();
+        if (cacheService == null) {
+            return;
+        }
+        try {
+            cacheService.set(negativeKey(fullShortUrl), "-", Duration.ofSeconds(negativeTtlSeconds));
+        } catch (Exception e) {
+            log.warn("Redirect negative cache set failed for {}: {}", fullShortUrl, e.getMessage());
+        }
+    }
+
+    private void clearMissing(String fullShortUrl) {
+        localNegativeCache.invalidate(fullShortUrl);
+        if (cacheService == null) {
+            return;
+        }
+        try {
+            cacheService.delete(negativeKey(fullShortUrl));
+        } catch (Exception e) {
+            log.warn("Redirect negative cache delete failed for {}: {}", fullShortUrl, e.getMessage());
+        }
+    }
+
+    private boolean isMissingRemote(String fullShortUrl) {
+        if (cacheService == null) {
+            return false;
+        }
+        try {
+            return cacheService.exists(negativeKey(fullShortUrl));
+        } catch (Exception e) {
+            log.warn("Redirect negative cache check failed for {}: {}", fullShortUrl, e.getMessage());
+            return false;
+        }
+    }
+
+    private ShortLinkRedirectDTO getRemote(String fullShortUrl) {
+        if (cacheService == null) {
+            return null;
+        }
+        try {
+            return cacheService.get(remoteKey(fullShortUrl), ShortLinkRedirectDTO.class);
+        } catch (Exception e) {
+            log.warn("Redirect cache L2 get failed for {}: {}", fullShortUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putRemote(ShortLinkRedirectDTO target) {
+        if (cacheService == null) {
+            return;
+        }
+        long ttlMillis = remoteTtlMillis(target, System.currentTimeMillis());
+        if (ttlMillis <= 0) {
+            return;
+        }
+        try {
+            cacheService.set(remoteKey(target.getFullShortUrl()), target, Duration.ofMillis(ttlMillis));
+        } catch (Exception e) {
+            log.warn("Redirect cache L2 set failed for {}: {}", target.getFullShortUrl(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-insert a link the timer wheel just evicted at its validDate as an expired tombstone.
+     * Tombstones that age out themselves are dropped: their validDate lies further back than
+     * the inactive TTL.
+     */
+    private void onLocalRemoval(String fullShortUrl, ShortLinkRedirectDTO value, RemovalCause cause) {
+        if (cause != RemovalCause.EXPIRED || fullShortUrl == null || value == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (value.statusAt(now) != ShortLinkRedirectDTO.Status.EXPIRED
+                || now - value.expiresAtMillis() >= TimeUnit.SECONDS.toMillis(inactiveTtlSeconds)) {
+            return;
+        }
+        expiredEvictions.increment();
+        if (localCache.asMap().putIfAbsent(fullShortUrl, value) == null) {
+            putRemote(value);
+        }
+    }
+
+    /**
+     * Active links live for the L1 TTL but never past validDate; expired and disabled
+     * links are kept for the inactive TTL.
+     */
+    private long localLifetimeNanos(ShortLinkRedirectDTO value) {
+        long now = System.currentTimeMillis();
+        if (value.statusAt(now) != ShortLinkRedirectDTO.Status.ACTIVE) {
+            return TimeUnit.SECONDS.toNanos(inactiveTtlSeconds);
+        }
+        long ttlMillis = TimeUnit.SECONDS.toMillis(localTtlSeconds);
+        long expiresAt = value.expiresAtMillis();
+        if (expiresAt != Long.MAX_VALUE) {
+            ttlMillis = Math.min(ttlMillis, expiresAt - now);
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMillis, 1L));
+    }
+
+    private long remoteTtlMillis(ShortLinkRedirectDTO target, long now) {
+        if (target.statusAt(now) != ShortLinkRedirectDTO.Status.ACTIVE) {
+            return TimeUnit.SECONDS.toMillis(inactiveTtlSeconds);
+        }
+        long expiresAt = target.expiresAtMillis();
+        return expiresAt == Long.MAX_VALUE ? LinkUtil.getLinkCacheValidTime(null) : expiresAt - now;
+    }
+
+    private class RedirectExpiry implements Expiry<String, ShortLinkRedirectDTO> {
+
+        @Override
+        public long expireAfterCreate(String key, ShortLinkRedirectDTO value, long currentTime) {
+            return localLifetimeNanos(value);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ShortLinkRedirectDTO value, long currentTime,
+                                      long currentDuration) {
+            return localLifetimeNanos(value);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ShortLinkRedirectDTO value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static String remoteKey(String fullShortUrl) {
+        return String.format(RedisConstant.GOTO_SHORT_LINK_KEY, fullShortUrl);
+    }
+
+    private static String negativeKey(String fullShortUrl) {
+        return String.format(RedisConstant.GOTO_IS_NULL_SHORT_LINK_KEY, fullShortUrl);
+    }
+}
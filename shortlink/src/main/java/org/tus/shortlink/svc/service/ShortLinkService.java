@@ -11,13 +11,22 @@ import org.tus.shortlink.base.dto.resp.ShortLinkBatchCreateRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkCreateRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkGroupCountQueryRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkPageRespDTO;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectResultDTO;
+import org.tus.shortlink.svc.dto.ShortLinkVisitDTO;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ShortLinkService {
     void restoreUrl(String shortUrl, HttpServletRequest httpRequest,
                     HttpServletResponse httpResponse);
 
+    /**
+     * Resolve a short uri and publish its stats event without touching any transport;
+     * shared by the servlet endpoint and the Netty redirect server.
+     */
+    ShortLinkRedirectResultDTO resolveRedirect(String shortUri, ShortLinkVisitDTO visit);
+
     ShortLinkCreateRespDTO createShortLink(ShortLinkCreateReqDTO requestParam);
 
     ShortLinkCreateRespDTO createShortLinkByLock(ShortLinkCreateReqDTO requestParam);
@@ -29,4 +38,11 @@ public interface ShortLinkService {
     PageResponse<ShortLinkPageRespDTO> pageShortLink(ShortLinkPageReqDTO requestParam);
 
     List<ShortLinkGroupCountQueryRespDTO> listGroupShortLinkCount(List<String> groupIds);
+
+    /**
+     * Load the redirect targets of {@code fullShortUrls} into the redirect cache, as a redirect would.
+     *
+     * @return number of links that resolved to a target
+     */
+    int warmRedirectCache(Collection<String> fullShortUrls);
 }
@@ -2,17 +2,30 @@ package org.tus.shortlink.svc.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.stats.ShortLinkClickAggregator;
+import org.tus.shortlink.svc.stats.ShortLinkStatsSpillover;
+import org.tus.shortlink.svc.stats.ShortLinkTodayStats;
+import org.tus.shortlink.svc.stats.StatsPartitionKey;
 
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Publishes short link statistics events to Kafka asynchronously.
  * Used by restoreUrl flow; does not block the redirect response.
+ *
+ * <p>With {@link ShortLinkStatsSpillover} enabled, events the producer rejects or fails to deliver
+ * are spilled to local disk and replayed later instead of being lost.</p>
+ *
+ * <p>With {@link ShortLinkClickAggregator} enabled, every event is folded into per-window counters
+ * and only a sampled fraction is still sent as a raw event.</p>
+ *
+ * <p>With {@link ShortLinkTodayStats} enabled, every event also bumps today's live counters.</p>
  */
 @Slf4j
 @Service
@@ -25,7 +38,23 @@ public class ShortLinkStatsEventPublisher {
     private String statsEventsTopic;
 
     /**
-     * Sends one stats record to Kafka (fire-and-forget). Failures are logged only.
+     * KEYS (random event key, default) or LINK (full short url, link-affine partitions)
+     */
+    @Value("${kafka.topics.stats-events.partition-key:KEYS}")
+    private StatsPartitionKey partitionKey = StatsPartitionKey.KEYS;
+
+    @Autowired(required = false)
+    private ShortLinkStatsSpillover spillover;
+
+    @Autowired(required = false)
+    private ShortLinkClickAggregator clickAggregator;
+
+    @Autowired(required = false)
+    private ShortLinkTodayStats todayStats;
+
+    /**
+     * Sends one stats record to Kafka (fire-and-forget). Failures are spilled when the spill log is enabled,
+     * logged only otherwise.
      *
      * @param event the stats record to publish
      */
@@ -34,13 +63,32 @@ public class ShortLinkStatsEventPublisher {
             log.warn("ShortLinkStatsEventPublisher: skip publish for null event");
             return;
         }
-        String key = event.getKeys() != null ? event.getKeys() : event.getFullShortUrl();
-        CompletableFuture<SendResult<String, ShortLinkStatsRecordDTO>> future =
-                kafkaTemplate.send(statsEventsTopic, key, event);
+        if (todayStats != null) {
+            todayStats.add(event);
+        }
+        if (clickAggregator != null && !clickAggregator.add(event)) {
+            return;
+        }
+        if (spillover != null && spillover.hasBacklog()) {
+            // keep order behind the events still waiting for replay
+            spillover.spill(event);
+            return;
+        }
+        String key = partitionKey.keyOf(event);
+        CompletableFuture<SendResult<String, ShortLinkStatsRecordDTO>> future;
+        try {
+            future = kafkaTemplate.send(statsEventsTopic, key, event);
+        } catch (RuntimeException e) {
+            // producer buffer full or metadata unavailable within max.block.ms
+            log.warn("ShortLinkStatsEventPublisher: send rejected for topic {}: {}", statsEventsTopic, e.getMessage());
+            spill(event);
+            return;
+        }
         future.whenComplete((result, ex) -> {
             if (ex != null) {
                 log.warn("ShortLinkStatsEventPublisher: failed to send event to topic {}: {}",
                         statsEventsTopic, ex.getMessage());
+                spill(event);
             } else if (log.isDebugEnabled()) {
                 log.debug("ShortLinkStatsEventPublisher: sent event to topic {} partition {} offset {}",
                         result != null ? result.getRecordMetadata().topic() : null,
@@ -49,4 +97,10 @@ public class ShortLinkStatsEventPublisher {
             }
         });
     }
+
+    private void spill(ShortLinkStatsRecordDTO event) {
+        if (spillover != null) {
+            spillover.spill(event);
+        }
+    }
 }
@@ -2,12 +2,19 @@ package org.tus.shortlink.svc.service;
 
 import org.tus.common.domain.model.Page;
 import org.tus.common.domain.model.PageResponse;
+import org.tus.shortlink.base.dto.req.ShortLinkBatchStatsReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsReqDTO;
+import org.tus.shortlink.base.dto.req.ShortLinkGroupTopLinksReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsReqDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkBatchStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordCursorRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
+
+import java.util.List;
 
 public interface ShortLinkStatsService {
     ShortLinkStatsRespDTO oneShortLinkStats(ShortLinkStatsReqDTO requestParam);
@@ -19,4 +26,14 @@ public interface ShortLinkStatsService {
 
     PageResponse<ShortLinkStatsAccessRecordRespDTO> groupShortLinkStatsAccessRecord
      (ShortLinkGroupStatsAccessRecordReqDTO requestParam);
+
+    ShortLinkStatsAccessRecordCursorRespDTO shortLinkStatsAccessRecordCursor
+     (ShortLinkStatsAccessRecordReqDTO requestParam);
+
+    ShortLinkStatsAccessRecordCursorRespDTO groupShortLinkStatsAccessRecordCursor
+     (ShortLinkGroupStatsAccessRecordReqDTO requestParam);
+
+    List<ShortLinkBatchStatsRespDTO> batchShortLinkStats(ShortLinkBatchStatsReqDTO requestParam);
+
+    List<ShortLinkStatsTopLinkRespDTO> groupTopLinks(ShortLinkGroupTopLinksReqDTO requestParam);
 }
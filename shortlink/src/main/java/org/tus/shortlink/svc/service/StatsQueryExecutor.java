@@ -0,0 +1,164 @@
+package org.tus.shortlink.svc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent ClickHouse queries of one stats request concurrently.
+ *
+ * <p>A request opens a {@link Batch}, submits its queries and reads the results; the request's
+ * latency becomes the slowest query instead of the sum. All queries of a batch share one deadline
+ * ({@code shortlink.stats.query.timeout-millis}); a query still running at the deadline is abandoned
+ * (it finishes on its pool thread) and its fallback (the same empty value the query returns on failure)
+ * is used, so a slow table degrades one panel rather than the whole dashboard.</p>
+ *
+ * <p>The pool is bounded ({@code threads}, {@code queue-capacity}): when it is saturated the query
+ * runs on the caller thread, which throttles callers instead of piling up work. With
+ * {@code shortlink.stats.query.parallel=false} every query runs inline in submission order.</p>
+ */
+@Slf4j
+@Component
+public class StatsQueryExecutor {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.query";
+
+    @Value("${shortlink.stats.query.parallel:true}")
+    private boolean parallel;
+
+    @Value("${shortlink.stats.query.threads:16}")
+    private int threads;
+
+    @Value("${shortlink.stats.query.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${shortlink.stats.query.timeout-millis:3000}")
+    private long timeoutMillis;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private MeterRegistry registry;
+
+    private ThreadPoolExecutor pool;
+
+    private Counter timeouts;
+    private Counter failures;
+
+    @PostConstruct
+    public void init() {
+        registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        timeouts = Counter.builder(METRIC_PREFIX + ".timeouts").register(registry);
+        failures = Counter.builder(METRIC_PREFIX + ".failures").register(registry);
+        if (!parallel) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread t = new Thread(r, "stats-query-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        log.info("Stats query executor started: threads={}, timeout={}ms", threads, timeoutMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Start a batch; its deadline starts now.
+     */
+    public Batch batch() {
+        return new Batch(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * Queries of one request, sharing a deadline.
+     */
+    public final class Batch {
+
+        private final long deadlineNanos;
+
+        private Batch(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Start a query; {@code get()} on the result waits at most until the batch deadline.
+         *
+         * @param name     metric tag and log label
+         * @param fallback returned when the query fails or misses the deadline
+         */
+        public <T> Supplier<T> submit(String name, Supplier<T> query, T fallback) {
+            Timer timer = Timer.builder(METRIC_PREFIX + ".latency").tag("query", name).register(registry);
+            Supplier<T> timed = () -> timer.record(query);
+            if (pool == null) {
+                T result = run(name, timed, fallback);
+                return () -> result;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = CompletableFuture.supplyAsync(timed, pool);
+            } catch (RejectedExecutionException e) {
+                // pool shut down
+                T result = run(name, timed, fallback);
+                return () -> result;
+            }
+            return () -> await(name, future, fallback);
+        }
+
+        private <T> T await(String name, CompletableFuture<T> future, T fallback) {
+            long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+            try {
+                return future.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timeouts.increment();
+                log.warn("Stats query {} missed the {}ms deadline", name, timeoutMillis);
+                return fallback;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return fallback;
+            } catch (ExecutionException | CancellationException e) {
+                failures.increment();
+                log.warn("Stats query {} failed: {}", name, e.getMessage());
+                return fallback;
+            }
+        }
+
+        private <T> T run(String name, Supplier<T> query, T fallback) {
+            try {
+                return query.get();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Stats query {} failed: {}", name, e.getMessage());
+                return fallback;
+            }
+        }
+    }
+}
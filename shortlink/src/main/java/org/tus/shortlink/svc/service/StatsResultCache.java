@@ -0,0 +1,214 @@
+package org.tus.shortlink.svc.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.tus.common.domain.redis.CacheService;
+import org.tus.shortlink.base.common.constant.RedisConstant;
+import org.tus.shortlink.svc.dto.StatsDayValueDTO;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for ClickHouse stats queries, one entry per (query kind, link or group, day).
+ *
+ * <p>A day is settled once {@code settle-minutes} have passed after its end; late and replayed
+ * events are expected within that margin. Settled days never change, so they are kept for
+ * {@code settled-ttl-days} in a local Caffeine tier and in Redis ({@link CacheService}, shared by
+ * all pods). Today and unsettled days are cached for {@code live-ttl-seconds} only. Range queries
+ * are stitched from days: the missing days are loaded with one query over their span and stored
+ * per day, so a 30-day dashboard costs one query the first time and none afterwards (until today's
+ * entry expires).</p>
+ *
+ * <p>Values that are not additive over days (distinct UV/UIP over a range) are cached per whole
+ * range with {@link #range}, and only when the range is settled. Loader exceptions propagate and
+ * nothing is stored, so a failed query is never cached as an empty day. Enabled with
+ * {@code shortlink.stats.result-cache.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shortlink.stats.result-cache", name = "enabled", havingValue = "true")
+public class StatsResultCache {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.result-cache";
+
+    @Value("${shortlink.stats.result-cache.settle-minutes:60}")
+    private long settleMinutes;
+
+    @Value("${shortlink.stats.result-cache.settled-ttl-days:30}")
+    private long settledTtlDays;
+
+    @Value("${shortlink.stats.result-cache.live-ttl-seconds:30}")
+    private long liveTtlSeconds;
+
+    @Value("${shortlink.stats.result-cache.local.maximum-size:100000}")
+    private long localMaximumSize;
+
+    @Autowired(required = false)
+    private CacheService cacheService;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private Cache<String, StatsDayValueDTO> settledCache;
+
+    private Cache<String, StatsDayValueDTO> liveCache;
+
+    private Counter l1Hits;
+    private Counter l2Hits;
+    private Counter misses;
+    private Counter loads;
+
+    @PostConstruct
+    public void init() {
+        settledCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(settledTtlDays, TimeUnit.DAYS)
+                .build();
+        liveCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(liveTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        l1Hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit").tag("tier", "l1").register(registry);
+        l2Hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit").tag("tier", "l2").register(registry);
+        misses = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "miss").tag("tier", "none").register(registry);
+        loads = Counter.builder(METRIC_PREFIX + ".loads")
+                .description("ClickHouse queries issued for missing days or ranges")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".l1.size", settledCache, Cache::estimatedSize).register(registry);
+        log.info("Stats result cache initialized: settleMinutes={}, settledTtlDays={}, liveTtlSeconds={}, l2={}",
+                settleMinutes, settledTtlDays, liveTtlSeconds, cacheService != null ? "redis" : "disabled");
+    }
+
+    /**
+     * Per-day values of {@code [start, end]}, missing days loaded in one call to {@code loader}.
+     *
+     * @param kind    query kind, part of the key (e.g. "daily", "hourly")
+     * @param subject link (url and gid) or group the query is about
+     * @param loader  loads {@code [from, to]} grouped by day; days without clicks may be absent
+     * @param combine folds the per-day values (ascending by day, future days excluded) into the result
+     */
+    public <R> R stitch(String kind, String subject, LocalDate start, LocalDate end,
+                        BiFunction<LocalDate, LocalDate, Map<LocalDate, StatsDayValueDTO>> loader,
+                        Function<SortedMap<LocalDate, StatsDayValueDTO>, R> combine) {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate last = end.isAfter(today) ? today : end;
+        SortedMap<LocalDate, StatsDayValueDTO> days = new TreeMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = start; !day.isAfter(last); day = day.plusDays(1)) {
+            StatsDayValueDTO cached = get(key(kind, subject, day.toString()), isSettled(day));
+            if (cached != null) {
+                days.put(day, cached);
+            } else {
+                firstMissing = firstMissing == null ? day : firstMissing;
+                lastMissing = day;
+            }
+        }
+        if (firstMissing != null) {
+            loads.increment();
+            Map<LocalDate, StatsDayValueDTO> loaded = loader.apply(firstMissing, lastMissing);
+            for (LocalDate day = firstMissing; !day.isAfter(lastMissing); day = day.plusDays(1)) {
+                if (days.containsKey(day)) {
+                    continue;
+                }
+                StatsDayValueDTO value = loaded.get(day);
+                if (value == null) {
+                    // no clicks that day
+                    value = new StatsDayValueDTO();
+                }
+                put(key(kind, subject, day.toString()), value, isSettled(day));
+                days.put(day, value);
+            }
+        }
+        return combine.apply(days);
+    }
+
+    /**
+     * Value of a whole range; cached only once {@code end} is settled.
+     */
+    public StatsDayValueDTO range(String kind, String subject, LocalDate start, LocalDate end,
+                                  Supplier<StatsDayValueDTO> loader) {
+        if (!isSettled(end)) {
+            return loader.get();
+        }
+        String key = key(kind, subject, start + "_" + end);
+        StatsDayValueDTO cached = get(key, true);
+        if (cached != null) {
+            return cached;
+        }
+        loads.increment();
+        StatsDayValueDTO value = loader.get();
+        put(key, value, true);
+        return value;
+    }
+
+    /**
+     * True when no more events are expected for {@code day}.
+     */
+    boolean isSettled(LocalDate day) {
+        ZonedDateTime settledAt = day.plusDays(1).atStartOfDay(clock.getZone()).plusMinutes(settleMinutes);
+        return !ZonedDateTime.now(clock).isBefore(settledAt);
+    }
+
+    private StatsDayValueDTO get(String key, boolean settled) {
+        Cache<String, StatsDayValueDTO> local = settled ? settledCache : liveCache;
+        StatsDayValueDTO value = local.getIfPresent(key);
+        if (value != null) {
+            l1Hits.increment();
+            return value;
+        }
+        if (cacheService != null) {
+            try {
+                value = cacheService.get(key, StatsDayValueDTO.class);
+            } catch (Exception e) {
+                log.warn("Stats result cache L2 get failed for {}: {}", key, e.getMessage());
+            }
+            if (value != null) {
+                l2Hits.increment();
+                local.put(key, value);
+                return value;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void put(String key, StatsDayValueDTO value, boolean settled) {
+        (settled ? settledCache : liveCache).put(key, value);
+        if (cacheService != null) {
+            try {
+                cacheService.set(key, value,
+                        settled ? Duration.ofDays(settledTtlDays) : Duration.ofSeconds(liveTtlSeconds));
+            } catch (Exception e) {
+                log.warn("Stats result cache L2 set failed for {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private static String key(String kind, String subject, String day) {
+        return String.format(RedisConstant.SHORT_LINK_STATS_RESULT_KEY, kind, subject, day);
+    }
+}
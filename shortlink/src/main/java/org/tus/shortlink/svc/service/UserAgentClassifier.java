@@ -0,0 +1,61 @@
+package org.tus.shortlink.svc.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.base.tookit.UserAgentParser;
+import org.tus.shortlink.base.tookit.UserAgentParser.UserAgentInfo;
+
+/**
+ * Redirect-path User-Agent classification: {@link UserAgentParser} behind a bounded in-process
+ * cache keyed by the raw header value.
+ *
+ * <p>Real traffic carries a small set of distinct User-Agents, so after warm-up a redirect pays one
+ * hash lookup. UAs longer than {@code max-key-length} are parsed but not cached, so odd or
+ * crafted headers cannot push the common ones out.</p>
+ */
+@Component
+public class UserAgentClassifier {
+
+    private static final String CACHE_NAME = "shortlink.user-agent";
+
+    @Value("${shortlink.stats.user-agent-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${shortlink.stats.user-agent-cache.max-key-length:512}")
+    private int maxKeyLength;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, UserAgentInfo> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+    }
+
+    /**
+     * @return OS / browser / device of the given User-Agent header, never null
+     */
+    public UserAgentInfo classify(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return UserAgentParser.UNKNOWN_AGENT;
+        }
+        if (userAgent.length() > maxKeyLength) {
+            return UserAgentParser.parse(userAgent);
+        }
+        return cache.get(userAgent, UserAgentParser::parse);
+    }
+}
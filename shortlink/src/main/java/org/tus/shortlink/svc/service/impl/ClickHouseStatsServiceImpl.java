@@ -3,6 +3,7 @@ package org.tus.shortlink.svc.service.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessDailyRespDTO;
@@ -11,20 +12,39 @@ import org.tus.shortlink.base.dto.resp.ShortLinkStatsBrowserRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsDeviceRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsNetworkRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsOsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
+import org.tus.shortlink.svc.dto.StatsDayValueDTO;
 import org.tus.shortlink.svc.service.ClickHouseStatsService;
+import org.tus.shortlink.svc.service.StatsResultCache;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * ClickHouse-backed stats queries. Returns empty/zero when JdbcTemplate is absent or query fails.
+ * With a {@link StatsResultCache}, daily, hourly and dimension results are served per day from the
+ * cache and totals of settled ranges are cached whole. Group queries read the gid-ordered rollups
+ * when {@code shortlink.stats.group-rollups.enabled=true}. UV/UIP come from uniqExact states, or from the
+ * uniqCombined states of the {@code *_approx} tables in {@link DistinctMode#APPROXIMATE}. Group leaderboards
+ * take their candidates from the topK states of {@code 10_top_links.sql} when
+ * {@code shortlink.stats.top-links.enabled=true}. With {@code shortlink.stats.preaggregate.enabled=true}
+ * only a sample of the clicks reaches {@code link_stats_events}, so counts are read from the pre-aggregated
+ * {@code link_stats_minute} of {@code 05_stats_aggregates.sql} instead; UV/UIP are then sums of first visits.
  */
 @Slf4j
 @Service
@@ -34,37 +54,125 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
     @Qualifier("clickHouseJdbcTemplate")
     private JdbcTemplate clickHouseJdbcTemplate;
 
+    @Autowired(required = false)
+    private StatsResultCache statsResultCache;
+
     private static final String TABLE_DAILY = "link_stats_daily";
     private static final String TABLE_HOURLY = "link_stats_hourly";
     private static final String TABLE_EVENTS = "link_stats_events";
+    private static final String TABLE_EVENTS_V2 = "link_stats_events_v2";
     private static final String TABLE_BROWSER = "link_stats_browser_mv";
     private static final String TABLE_OS = "link_stats_os_mv";
     private static final String TABLE_DEVICE = "link_stats_device_mv";
     private static final String TABLE_NETWORK = "link_stats_network_mv";
+    private static final String TABLE_GROUP_DAILY = "link_stats_group_daily";
+    private static final String TABLE_GROUP_HOURLY = "link_stats_group_hourly";
+    private static final String TABLE_GROUP_DIMENSION = "link_stats_group_dimension";
+    private static final String TABLE_DAILY_APPROX = "link_stats_daily_approx";
+    private static final String TABLE_GROUP_DAILY_APPROX = "link_stats_group_daily_approx";
+    private static final String TABLE_GROUP_TOP_LINKS = "link_stats_group_top_links";
+    private static final String TABLE_MINUTE = "link_stats_minute";
+
+    /**
+     * link_stats_minute under the column names of the daily, hourly and dimension rollups. ClickHouse pushes
+     * the outer filters into the subquery, so stat_date still prunes by the primary key (toDate is monotonic).
+     */
+    private static final String MINUTE_ROLLUP = "(SELECT toDate(window_start) AS stat_date, " +
+            "toHour(window_start) AS stat_hour, full_short_url, gid, os, browser, device, network, pv, " +
+            "uv_first AS uv, uip_first AS uip FROM " + TABLE_MINUTE + ")";
+
+    /**
+     * link_stats_minute in the (dim, value) shape of link_stats_group_dimension
+     */
+    private static final String MINUTE_GROUP_DIMENSION = "(SELECT toDate(window_start) AS stat_date, gid, " +
+            "d.1 AS dim, d.2 AS value, pv FROM " + TABLE_MINUTE + " ARRAY JOIN [('browser', browser), " +
+            "('os', os), ('device', device), ('network', network)] AS d WHERE d.2 != '')";
+
+    /**
+     * Size of the topK states in 10_top_links.sql, and the longest leaderboard served
+     */
+    private static final int TOP_LINKS_K = 100;
+
+    /**
+     * Route group queries to the gid-ordered rollups of 06_group_rollups.sql
+     */
+    @Value("${shortlink.stats.group-rollups.enabled:false}")
+    private boolean groupRollupsEnabled;
+
+    /**
+     * Pick leaderboard candidates from the topK states of 10_top_links.sql
+     */
+    @Value("${shortlink.stats.top-links.enabled:false}")
+    private boolean topLinksEnabled;
+
+    /**
+     * Distinct-count mode of the query methods that take none
+     */
+    @Value("${shortlink.stats.distinct-mode:EXACT}")
+    private DistinctMode distinctMode = DistinctMode.EXACT;
+
+    /**
+     * Read raw events (access records) from link_stats_events_v2 of 09_events_v2.sql
+     */
+    @Value("${shortlink.stats.events-v2.enabled:false}")
+    private boolean eventsV2Enabled;
+
+    /**
+     * Clicks are pre-aggregated and link_stats_events only holds a sample: read counts from link_stats_minute
+     */
+    @Value("${shortlink.stats.preaggregate.enabled:false}")
+    private boolean preaggregated;
 
     @Override
     public List<ShortLinkStatsAccessDailyRespDTO> queryDailyStats(
             String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT stat_date, sumMerge(pv) AS pv, uniqExactMerge(uv) AS uv, uniqExactMerge(uip) AS uip " +
-                "FROM " + TABLE_DAILY + " WHERE full_short_url = ? AND gid = ? " +
+        return queryDailyStats(fullShortUrl, gid, startDate, endDate, distinctMode);
+    }
+
+    @Override
+    public List<ShortLinkStatsAccessDailyRespDTO> queryDailyStats(
+            String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate, DistinctMode mode) {
+        String sql = "SELECT stat_date, " + distinctColumns(mode) + " " +
+                "FROM " + dailyTable(mode) + " WHERE full_short_url = ? AND gid = ? " +
                 "AND stat_date >= ? AND stat_date <= ? GROUP BY stat_date, full_short_url, gid ORDER BY stat_date";
+        if (statsResultCache != null && clickHouseJdbcTemplate != null) {
+            return dailyByDay(cacheKind("daily", mode), fullShortUrl + "|" + gid, startDate, endDate,
+                    (from, to) -> clickHouseJdbcTemplate.queryForList(sql, fullShortUrl, gid, from, to));
+        }
         return queryDaily(sql, fullShortUrl, gid, startDate, endDate, true);
     }
 
     @Override
     public List<ShortLinkStatsAccessDailyRespDTO> queryGroupDailyStats(
             String gid, LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT stat_date, sumMerge(pv) AS pv, uniqExactMerge(uv) AS uv, uniqExactMerge(uip) AS uip " +
-                "FROM " + TABLE_DAILY + " WHERE gid = ? AND stat_date >= ? AND stat_date <= ? " +
+        return queryGroupDailyStats(gid, startDate, endDate, distinctMode);
+    }
+
+    @Override
+    public List<ShortLinkStatsAccessDailyRespDTO> queryGroupDailyStats(
+            String gid, LocalDate startDate, LocalDate endDate, DistinctMode mode) {
+        String sql = "SELECT stat_date, " + distinctColumns(mode) + " " +
+                "FROM " + groupDailyTable(mode) + " WHERE gid = ? AND stat_date >= ? AND stat_date <= ? " +
                 "GROUP BY stat_date, gid ORDER BY stat_date";
+        if (statsResultCache != null && clickHouseJdbcTemplate != null) {
+            return dailyByDay(cacheKind("group-daily", mode), gid, startDate, endDate,
+                    (from, to) -> clickHouseJdbcTemplate.queryForList(sql, gid, from, to));
+        }
         return queryDailyGroup(sql, gid, startDate, endDate);
     }
 
     @Override
     public List<Integer> queryHourlyStats(String fullShortUrl, LocalDate startDate, LocalDate endDate) {
+        if (statsResultCache != null && clickHouseJdbcTemplate != null) {
+            String sql = "SELECT stat_date, toUInt8(stat_hour) AS h, sum(pv) AS pv FROM " + hourlyTable() +
+                    " WHERE full_short_url = ? AND stat_date >= ? AND stat_date <= ? " +
+                    "GROUP BY stat_date, stat_hour, full_short_url";
+            return hourlyByDay(cacheKind("hourly"), fullShortUrl, startDate, endDate,
+                    (from, to) -> clickHouseJdbcTemplate.queryForList(sql, fullShortUrl, from, to));
+        }
         return getJdbcTemplate().map(tpl -> {
             try {
-                String sql = "SELECT toUInt8(stat_hour) AS h, sum(pv) AS pv FROM " + TABLE_HOURLY +
+                String sql = "SELECT toUInt8(stat_hour) AS h, sum(pv) AS pv FROM " + hourlyTable() +
                         " WHERE full_short_url = ? AND stat_date >= ? AND stat_date <= ? " +
                         "GROUP BY stat_date, stat_hour, full_short_url ORDER BY stat_date, stat_hour";
                 List<Map<String, Object>> rows = tpl.queryForList(sql, fullShortUrl, startDate, endDate);
@@ -86,6 +194,31 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
         }).orElse(zeroHourStats());
     }
 
+    @Override
+    public List<Integer> queryGroupHourlyStats(String gid, LocalDate startDate, LocalDate endDate) {
+        if (!(groupRollupsEnabled || preaggregated) || clickHouseJdbcTemplate == null) {
+            // link_stats_hourly has no gid
+            return zeroHourStats();
+        }
+        String sql = "SELECT stat_date, toUInt8(stat_hour) AS h, sum(pv) AS pv FROM " +
+                (preaggregated ? MINUTE_ROLLUP : TABLE_GROUP_HOURLY) +
+                " WHERE gid = ? AND stat_date >= ? AND stat_date <= ? GROUP BY stat_date, stat_hour";
+        return hourlyByDay(cacheKind("group-hourly"), gid, startDate, endDate,
+                (from, to) -> clickHouseJdbcTemplate.queryForList(sql, gid, from, to));
+    }
+
+    @Override
+    public DimensionStats queryGroupDimensionStats(String gid, LocalDate startDate, LocalDate endDate) {
+        if (!(groupRollupsEnabled || preaggregated) || clickHouseJdbcTemplate == null) {
+            return DimensionStats.empty();
+        }
+        String sql = "SELECT stat_date, dim, value, sum(pv) AS pv FROM " +
+                (preaggregated ? MINUTE_GROUP_DIMENSION : TABLE_GROUP_DIMENSION) +
+                " WHERE gid = ? AND stat_date >= ? AND stat_date <= ? GROUP BY stat_date, dim, value";
+        return dimensionsByDay(cacheKind("group-dimensions"), gid, startDate, endDate,
+                (from, to) -> clickHouseJdbcTemplate.queryForList(sql, gid, from, to));
+    }
+
     @Override
     public List<ShortLinkStatsBrowserRespDTO> queryBrowserStats(
             String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate) {
@@ -115,43 +248,436 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
     }
 
     @Override
-    public TotalStats queryTotalStats(String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT sumMerge(pv) AS pv, uniqExactMerge(uv) AS uv, uniqExactMerge(uip) AS uip FROM " + TABLE_DAILY +
-                " WHERE full_short_url = ? AND gid = ? AND stat_date >= ? AND stat_date <= ?";
+    public DimensionStats queryDimensionStats(
+            String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate) {
+        if (statsResultCache != null && clickHouseJdbcTemplate != null) {
+            String sql = dimensionStatsSql(true);
+            return dimensionsByDay(cacheKind("dimensions"), fullShortUrl + "|" + gid, startDate, endDate,
+                    (from, to) -> clickHouseJdbcTemplate.queryForList(sql, dimensionStatsArgs(fullShortUrl, gid, from, to)));
+        }
         return getJdbcTemplate().map(tpl -> {
             try {
-                List<Map<String, Object>> rows = tpl.queryForList(sql, fullShortUrl, gid, startDate, endDate);
-                if (rows.isEmpty()) return new TotalStats(0, 0, 0);
-                Map<String, Object> row = rows.get(0);
-                return new TotalStats(
-                        toLong(row.get("pv")),
-                        toLong(row.get("uv")),
-                        toLong(row.get("uip"))
-                );
+                List<Map<String, Object>> rows = tpl.queryForList(dimensionStatsSql(false),
+                        dimensionStatsArgs(fullShortUrl, gid, startDate, endDate));
+                Map<String, List<Map<String, Object>>> byDimension = new HashMap<>();
+                for (Map<String, Object> row : rows) {
+                    byDimension.computeIfAbsent(str(row.get("dim")), k -> new ArrayList<>()).add(row);
+                }
+                return toDimensionStats(byDimension);
             } catch (Exception e) {
-                log.warn("ClickHouse queryTotalStats failed: {}", e.getMessage());
-                return new TotalStats(0, 0, 0);
+                log.warn("ClickHouse queryDimensionStats failed: {}", e.getMessage());
+                return DimensionStats.empty();
             }
-        }).orElse(new TotalStats(0, 0, 0));
+        }).orElse(DimensionStats.empty());
+    }
+
+    /**
+     * One UNION ALL pass over the four dimension MVs instead of four round trips.
+     */
+    private String dimensionStatsSql(boolean byDay) {
+        // the MVs skip unknown values; link_stats_minute stores them as ''
+        String branch = "SELECT " + (byDay ? "stat_date, " : "") +
+                "'%1$s' AS dim, toString(%1$s) AS value, sum(pv) AS pv FROM %2$s " +
+                "WHERE full_short_url = ? AND gid = ? AND stat_date >= ? AND stat_date <= ? AND %1$s != '' " +
+                "GROUP BY " + (byDay ? "stat_date, " : "") + "%1$s";
+        return String.join(" UNION ALL ",
+                branch.formatted("browser", dimensionTable(TABLE_BROWSER)),
+                branch.formatted("os", dimensionTable(TABLE_OS)),
+                branch.formatted("device", dimensionTable(TABLE_DEVICE)),
+                branch.formatted("network", dimensionTable(TABLE_NETWORK)));
+    }
+
+    private static Object[] dimensionStatsArgs(String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate) {
+        Object[] args = new Object[16];
+        for (int i = 0; i < 4; i++) {
+            args[i * 4] = fullShortUrl;
+            args[i * 4 + 1] = gid;
+            args[i * 4 + 2] = startDate;
+            args[i * 4 + 3] = endDate;
+        }
+        return args;
+    }
+
+    private static DimensionStats toDimensionStats(Map<String, List<Map<String, Object>>> byDimension) {
+        return new DimensionStats(
+                toDimensionStats(byDimension.get("browser"), "value",
+                        ShortLinkStatsBrowserRespDTO::new, ShortLinkStatsBrowserRespDTO::setBrowser),
+                toDimensionStats(byDimension.get("os"), "value",
+                        ShortLinkStatsOsRespDTO::new, ShortLinkStatsOsRespDTO::setOs),
+                toDimensionStats(byDimension.get("device"), "value",
+                        ShortLinkStatsDeviceRespDTO::new, ShortLinkStatsDeviceRespDTO::setDevice),
+                toDimensionStats(byDimension.get("network"), "value",
+                        ShortLinkStatsNetworkRespDTO::new, ShortLinkStatsNetworkRespDTO::setNetwork));
+    }
+
+    @Override
+    public TotalStats queryTotalStats(String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate) {
+        return queryTotalStats(fullShortUrl, gid, startDate, endDate, distinctMode);
+    }
+
+    @Override
+    public TotalStats queryTotalStats(String fullShortUrl, String gid, LocalDate startDate, LocalDate endDate,
+                                      DistinctMode mode) {
+        String sql = "SELECT " + distinctColumns(mode) + " FROM " + dailyTable(mode) +
+                " WHERE full_short_url = ? AND gid = ? AND stat_date >= ? AND stat_date <= ?";
+        return queryTotal(cacheKind("total", mode), fullShortUrl + "|" + gid, startDate, endDate, sql,
+                fullShortUrl, gid, startDate, endDate);
     }
 
     @Override
     public TotalStats queryGroupTotalStats(String gid, LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT sumMerge(pv) AS pv, uniqExactMerge(uv) AS uv, uniqExactMerge(uip) AS uip FROM " + TABLE_DAILY +
+        return queryGroupTotalStats(gid, startDate, endDate, distinctMode);
+    }
+
+    @Override
+    public TotalStats queryGroupTotalStats(String gid, LocalDate startDate, LocalDate endDate, DistinctMode mode) {
+        String sql = "SELECT " + distinctColumns(mode) + " FROM " + groupDailyTable(mode) +
                 " WHERE gid = ? AND stat_date >= ? AND stat_date <= ?";
+        return queryTotal(cacheKind("group-total", mode), gid, startDate, endDate, sql, gid, startDate, endDate);
+    }
+
+    @Override
+    public Map<String, TotalStats> queryTotalStatsBatch(String gid, Collection<String> fullShortUrls,
+                                                        LocalDate startDate, LocalDate endDate) {
+        if (fullShortUrls == null || fullShortUrls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String sql = "SELECT full_short_url, " + distinctColumns(distinctMode) + " FROM " + dailyTable(distinctMode) +
+                " WHERE full_short_url IN (" + placeholders(fullShortUrls.size()) + ") " +
+                "AND gid = ? AND stat_date >= ? AND stat_date <= ? GROUP BY full_short_url";
+        return getJdbcTemplate().map(tpl -> {
+            try {
+                Map<String, TotalStats> totals = new HashMap<>();
+                for (Map<String, Object> row : tpl.queryForList(sql,
+                        batchArgs(fullShortUrls, gid, startDate, endDate))) {
+                    totals.put(str(row.get("full_short_url")), new TotalStats(toLong(row.get("pv")),
+                            toLong(row.get("uv")), toLong(row.get("uip"))));
+                }
+                return totals;
+            } catch (Exception e) {
+                log.warn("ClickHouse queryTotalStatsBatch failed: {}", e.getMessage());
+                return Collections.<String, TotalStats>emptyMap();
+            }
+        }).orElse(Collections.emptyMap());
+    }
+
+    @Override
+    public Map<String, List<ShortLinkStatsAccessDailyRespDTO>> queryDailyStatsBatch(
+            String gid, Collection<String> fullShortUrls, LocalDate startDate, LocalDate endDate) {
+        if (fullShortUrls == null || fullShortUrls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String sql = "SELECT full_short_url, stat_date, " + distinctColumns(distinctMode) + " FROM " +
+                dailyTable(distinctMode) + " WHERE full_short_url IN (" + placeholders(fullShortUrls.size()) + ") " +
+                "AND gid = ? AND stat_date >= ? AND stat_date <= ? GROUP BY full_short_url, stat_date " +
+                "ORDER BY full_short_url, stat_date";
+        return getJdbcTemplate().map(tpl -> {
+            try {
+                Map<String, List<ShortLinkStatsAccessDailyRespDTO>> daily = new HashMap<>();
+                for (Map<String, Object> row : tpl.queryForList(sql,
+                        batchArgs(fullShortUrls, gid, startDate, endDate))) {
+                    daily.computeIfAbsent(str(row.get("full_short_url")), k -> new ArrayList<>())
+                            .add(ShortLinkStatsAccessDailyRespDTO.builder()
+                                    .date(row.get("stat_date") != null ? row.get("stat_date").toString() : null)
+                                    .pv(toInt(row.get("pv")))
+                                    .uv(toInt(row.get("uv")))
+                                    .uip(toInt(row.get("uip")))
+                                    .build());
+                }
+                return daily;
+            } catch (Exception e) {
+                log.warn("ClickHouse queryDailyStatsBatch failed: {}", e.getMessage());
+                return Collections.<String, List<ShortLinkStatsAccessDailyRespDTO>>emptyMap();
+            }
+        }).orElse(Collections.emptyMap());
+    }
+
+    @Override
+    public List<ShortLinkStatsTopLinkRespDTO> queryGroupTopLinks(String gid, LocalDate startDate, LocalDate endDate,
+                                                                 int limit) {
+        int size = Math.max(1, Math.min(limit, TOP_LINKS_K));
+        DistinctMode mode = distinctMode;
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT full_short_url, ").append(distinctColumns(mode))
+                .append(" FROM ").append(dailyTable(mode)).append(" WHERE ");
+        if (topLinksEnabled) {
+            // topK only picks the candidates (a primary-key lookup in the daily table); their numbers are exact
+            sql.append("full_short_url IN (SELECT arrayJoin(topKMerge(").append(TOP_LINKS_K).append(")(top_links)) ")
+                    .append("FROM ").append(TABLE_GROUP_TOP_LINKS)
+                    .append(" WHERE gid = ? AND stat_date >= ? AND stat_date <= ?) AND ");
+            Collections.addAll(args, gid, startDate, endDate);
+        }
+        sql.append("gid = ? AND stat_date >= ? AND stat_date <= ? GROUP BY full_short_url ")
+                .append("ORDER BY pv DESC, full_short_url LIMIT ?");
+        Collections.addAll(args, gid, startDate, endDate, size);
+        return getJdbcTemplate().map(tpl -> {
+            try {
+                Supplier<StatsDayValueDTO> loader = () -> {
+                    List<ShortLinkStatsTopLinkRespDTO> links = new ArrayList<>();
+                    for (Map<String, Object> row : tpl.queryForList(sql.toString(), args.toArray())) {
+                        links.add(ShortLinkStatsTopLinkRespDTO.builder()
+                                .fullShortUrl(str(row.get("full_short_url")))
+                                .pv(toInt(row.get("pv")))
+                                .uv(toInt(row.get("uv")))
+                                .uip(toInt(row.get("uip")))
+                                .build());
+                    }
+                    return StatsDayValueDTO.builder().topLinks(links).build();
+                };
+                StatsDayValueDTO value = statsResultCache != null
+                        ? statsResultCache.range(cacheKind("group-top-links", mode), gid + "|" + size,
+                        startDate, endDate, loader)
+                        : loader.get();
+                return value.getTopLinks() != null ? value.getTopLinks()
+                        : Collections.<ShortLinkStatsTopLinkRespDTO>emptyList();
+            } catch (Exception e) {
+                log.warn("ClickHouse queryGroupTopLinks failed: {}", e.getMessage());
+                return Collections.<ShortLinkStatsTopLinkRespDTO>emptyList();
+            }
+        }).orElse(Collections.emptyList());
+    }
+
+    @Override
+    public List<String> queryHotLinks(LocalDate startDate, LocalDate endDate, int limit) {
+        if (!topLinksEnabled) {
+            return Collections.emptyList();
+        }
+        int size = Math.max(1, Math.min(limit, TOP_LINKS_K));
+        // one state per (gid, day): a small read even without a gid prefix
+        String sql = "SELECT arrayJoin(topKMerge(" + TOP_LINKS_K + ")(top_links)) AS full_short_url FROM " +
+                TABLE_GROUP_TOP_LINKS + " WHERE stat_date >= ? AND stat_date <= ? LIMIT ?";
+        return getJdbcTemplate().map(tpl -> {
+            try {
+                return tpl.queryForList(sql, String.class, startDate, endDate, size);
+            } catch (Exception e) {
+                log.warn("ClickHouse queryHotLinks failed: {}", e.getMessage());
+                return Collections.<String>emptyList();
+            }
+        }).orElse(Collections.emptyList());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] batchArgs(Collection<String> fullShortUrls, String gid, LocalDate startDate,
+                                      LocalDate endDate) {
+        List<Object> args = new ArrayList<>(fullShortUrls);
+        args.add(gid);
+        args.add(startDate);
+        args.add(endDate);
+        return args.toArray();
+    }
+
+    private TotalStats queryTotal(String kind, String subject, LocalDate startDate, LocalDate endDate,
+                                  String sql, Object... args) {
         return getJdbcTemplate().map(tpl -> {
             try {
-                List<Map<String, Object>> rows = tpl.queryForList(sql, gid, startDate, endDate);
-                if (rows.isEmpty()) return new TotalStats(0, 0, 0);
-                Map<String, Object> row = rows.get(0);
-                return new TotalStats(toLong(row.get("pv")), toLong(row.get("uv")), toLong(row.get("uip")));
+                Supplier<StatsDayValueDTO> loader = () -> {
+                    List<Map<String, Object>> rows = tpl.queryForList(sql, args);
+                    if (rows.isEmpty()) return new StatsDayValueDTO();
+                    Map<String, Object> row = rows.get(0);
+                    return StatsDayValueDTO.builder()
+                            .pv(toLong(row.get("pv")))
+                            .uv(toLong(row.get("uv")))
+                            .uip(toLong(row.get("uip")))
+                            .build();
+                };
+                // distinct counts do not add up over days: cache whole ranges only
+                StatsDayValueDTO value = statsResultCache != null
+                        ? statsResultCache.range(kind, subject, startDate, endDate, loader)
+                        : loader.get();
+                return new TotalStats(value.getPv(), value.getUv(), value.getUip());
             } catch (Exception e) {
-                log.warn("ClickHouse queryGroupTotalStats failed: {}", e.getMessage());
+                log.warn("ClickHouse query {} failed: {}", kind, e.getMessage());
                 return new TotalStats(0, 0, 0);
             }
         }).orElse(new TotalStats(0, 0, 0));
     }
 
+    /**
+     * Day-decomposable query: stitched from the result cache when present, otherwise loaded for the whole range.
+     */
+    private <R> R perDay(String kind, String subject, LocalDate startDate, LocalDate endDate,
+                         BiFunction<LocalDate, LocalDate, Map<LocalDate, StatsDayValueDTO>> loader,
+                         Function<SortedMap<LocalDate, StatsDayValueDTO>, R> combine) {
+        if (statsResultCache != null) {
+            return statsResultCache.stitch(kind, subject, startDate, endDate, loader, combine);
+        }
+        return combine.apply(new TreeMap<>(loader.apply(startDate, endDate)));
+    }
+
+    private List<ShortLinkStatsAccessDailyRespDTO> dailyByDay(
+            String kind, String subject, LocalDate startDate, LocalDate endDate,
+            BiFunction<LocalDate, LocalDate, List<Map<String, Object>>> rowsLoader) {
+        try {
+            return perDay(kind, subject, startDate, endDate, (from, to) -> {
+                Map<LocalDate, StatsDayValueDTO> byDay = new HashMap<>();
+                for (Map<String, Object> row : rowsLoader.apply(from, to)) {
+                    LocalDate day = toLocalDate(row.get("stat_date"));
+                    if (day != null) {
+                        byDay.put(day, StatsDayValueDTO.builder()
+                                .pv(toLong(row.get("pv")))
+                                .uv(toLong(row.get("uv")))
+                                .uip(toLong(row.get("uip")))
+                                .build());
+                    }
+                }
+                return byDay;
+            }, days -> {
+                List<ShortLinkStatsAccessDailyRespDTO> result = new ArrayList<>();
+                days.forEach((day, value) -> {
+                    if (value.getPv() > 0) {
+                        result.add(ShortLinkStatsAccessDailyRespDTO.builder()
+                                .date(day.toString())
+                                .pv((int) value.getPv())
+                                .uv((int) value.getUv())
+                                .uip((int) value.getUip())
+                                .build());
+                    }
+                });
+                return result;
+            });
+        } catch (Exception e) {
+            log.warn("ClickHouse query {} failed: {}", kind, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Rows must carry stat_date, h and pv.
+     */
+    private List<Integer> hourlyByDay(String kind, String subject, LocalDate startDate, LocalDate endDate,
+                                      BiFunction<LocalDate, LocalDate, List<Map<String, Object>>> rowsLoader) {
+        try {
+            return perDay(kind, subject, startDate, endDate, (from, to) -> {
+                Map<LocalDate, StatsDayValueDTO> byDay = new HashMap<>();
+                for (Map<String, Object> row : rowsLoader.apply(from, to)) {
+                    LocalDate day = toLocalDate(row.get("stat_date"));
+                    int h = toInt(row.get("h"));
+                    if (day == null || h < 0 || h >= 24) {
+                        continue;
+                    }
+                    StatsDayValueDTO value = byDay.computeIfAbsent(day,
+                            d -> StatsDayValueDTO.builder().hours(new ArrayList<>(zeroHourStats())).build());
+                    value.getHours().set(h, value.getHours().get(h) + toInt(row.get("pv")));
+                }
+                return byDay;
+            }, days -> {
+                int[] hours = new int[24];
+                for (StatsDayValueDTO value : days.values()) {
+                    if (value.getHours() != null) {
+                        for (int i = 0; i < 24 && i < value.getHours().size(); i++) {
+                            hours[i] += value.getHours().get(i);
+                        }
+                    }
+                }
+                List<Integer> list = new ArrayList<>(24);
+                for (int i = 0; i < 24; i++) list.add(hours[i]);
+                return list;
+            });
+        } catch (Exception e) {
+            log.warn("ClickHouse query {} failed: {}", kind, e.getMessage());
+            return zeroHourStats();
+        }
+    }
+
+    /**
+     * Rows must carry stat_date, dim, value and pv.
+     */
+    private DimensionStats dimensionsByDay(String kind, String subject, LocalDate startDate, LocalDate endDate,
+                                           BiFunction<LocalDate, LocalDate, List<Map<String, Object>>> rowsLoader) {
+        try {
+            return perDay(kind, subject, startDate, endDate, (from, to) -> {
+                Map<LocalDate, StatsDayValueDTO> byDay = new HashMap<>();
+                for (Map<String, Object> row : rowsLoader.apply(from, to)) {
+                    LocalDate day = toLocalDate(row.get("stat_date"));
+                    if (day == null) {
+                        continue;
+                    }
+                    byDay.computeIfAbsent(day, d -> StatsDayValueDTO.builder().dimensions(new HashMap<>()).build())
+                            .getDimensions()
+                            .computeIfAbsent(str(row.get("dim")), k -> new HashMap<>())
+                            .merge(str(row.get("value")), toLong(row.get("pv")), Long::sum);
+                }
+                return byDay;
+            }, ClickHouseStatsServiceImpl::combineDimensions);
+        } catch (Exception e) {
+            log.warn("ClickHouse query {} failed: {}", kind, e.getMessage());
+            return DimensionStats.empty();
+        }
+    }
+
+    private static DimensionStats combineDimensions(SortedMap<LocalDate, StatsDayValueDTO> days) {
+        Map<String, Map<String, Long>> totals = new HashMap<>();
+        for (StatsDayValueDTO value : days.values()) {
+            if (value.getDimensions() != null) {
+                value.getDimensions().forEach((dimension, values) -> values.forEach((v, pv) ->
+                        totals.computeIfAbsent(dimension, k -> new LinkedHashMap<>()).merge(v, pv, Long::sum)));
+            }
+        }
+        Map<String, List<Map<String, Object>>> byDimension = new HashMap<>();
+        totals.forEach((dimension, values) -> values.forEach((v, pv) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("value", v);
+            row.put("pv", pv);
+            byDimension.computeIfAbsent(dimension, k -> new ArrayList<>()).add(row);
+        }));
+        return toDimensionStats(byDimension);
+    }
+
+    private String dailyTable(DistinctMode mode) {
+        if (preaggregated) {
+            return MINUTE_ROLLUP;
+        }
+        return mode == DistinctMode.APPROXIMATE ? TABLE_DAILY_APPROX : TABLE_DAILY;
+    }
+
+    private String groupDailyTable(DistinctMode mode) {
+        if (preaggregated) {
+            return MINUTE_ROLLUP;
+        }
+        if (mode == DistinctMode.APPROXIMATE) {
+            // gid-ordered already
+            return TABLE_GROUP_DAILY_APPROX;
+        }
+        return groupRollupsEnabled ? TABLE_GROUP_DAILY : TABLE_DAILY;
+    }
+
+    private String hourlyTable() {
+        return preaggregated ? MINUTE_ROLLUP : TABLE_HOURLY;
+    }
+
+    private String dimensionTable(String table) {
+        return preaggregated ? MINUTE_ROLLUP : table;
+    }
+
+    private String distinctColumns(DistinctMode mode) {
+        if (preaggregated) {
+            // first visits per link and day: no distinct state to merge, the mode does not apply
+            return "sum(pv) AS pv, sum(uv) AS uv, sum(uip) AS uip";
+        }
+        if (mode == DistinctMode.APPROXIMATE) {
+            // precision must match the state type in 07_approx_distinct.sql
+            return "sumMerge(pv) AS pv, uniqCombinedMerge(14)(uv) AS uv, uniqCombinedMerge(14)(uip) AS uip";
+        }
+        return "sumMerge(pv) AS pv, uniqExactMerge(uv) AS uv, uniqExactMerge(uip) AS uip";
+    }
+
+    /**
+     * Exact, approximate and pre-aggregated results are cached apart.
+     */
+    private String cacheKind(String kind, DistinctMode mode) {
+        if (preaggregated) {
+            return cacheKind(kind);
+        }
+        return mode == DistinctMode.APPROXIMATE ? kind + "-approx" : kind;
+    }
+
+    private String cacheKind(String kind) {
+        return preaggregated ? kind + "-minute" : kind;
+    }
+
     private Optional<JdbcTemplate> getJdbcTemplate() {
         return Optional.ofNullable(clickHouseJdbcTemplate);
     }
@@ -192,34 +718,13 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
                                        java.util.function.Supplier<T> constructor,
                                        java.util.function.BiConsumer<T, String> setDimension) {
         String sql = "SELECT " + dimensionColumn + ", sum(pv) AS pv, sum(uv) AS uv " +
-                "FROM " + table + " WHERE full_short_url = ? AND gid = ? " +
-                "AND stat_date >= ? AND stat_date <= ? GROUP BY full_short_url, gid, " + dimensionColumn;
+                "FROM " + dimensionTable(table) + " WHERE full_short_url = ? AND gid = ? " +
+                "AND stat_date >= ? AND stat_date <= ? AND " + dimensionColumn + " != '' " +
+                "GROUP BY full_short_url, gid, " + dimensionColumn;
         return (List<T>) getJdbcTemplate().map(tpl -> {
             try {
                 List<Map<String, Object>> rows = tpl.queryForList(sql, fullShortUrl, gid, startDate, endDate);
-                long totalPv = rows.stream().mapToLong(r -> toLong(r.get("pv"))).sum();
-                List<T> result = new ArrayList<>();
-                for (Map<String, Object> row : rows) {
-                    T dto = constructor.get();
-                    setDimension.accept(dto, row.get(dimensionColumn) != null ? row.get(dimensionColumn).toString() : "");
-                    int cnt = toInt(row.get("pv"));
-                    double ratio = totalPv > 0 ? (double) cnt / totalPv : 0.0;
-                    if (dto instanceof ShortLinkStatsBrowserRespDTO b) {
-                        b.setCnt(cnt);
-                        b.setRatio(ratio);
-                    } else if (dto instanceof ShortLinkStatsOsRespDTO o) {
-                        o.setCnt(cnt);
-                        o.setRatio(ratio);
-                    } else if (dto instanceof ShortLinkStatsDeviceRespDTO d) {
-                        d.setCnt(cnt);
-                        d.setRatio(ratio);
-                    } else if (dto instanceof ShortLinkStatsNetworkRespDTO n) {
-                        n.setCnt(cnt);
-                        n.setRatio(ratio);
-                    }
-                    result.add(dto);
-                }
-                return result;
+                return toDimensionStats(rows, dimensionColumn, constructor, setDimension);
             } catch (Exception e) {
                 log.warn("ClickHouse queryDimension {} failed: {}", dimensionColumn, e.getMessage());
                 return Collections.<T>emptyList();
@@ -227,6 +732,37 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
         }).orElse(Collections.emptyList());
     }
 
+    private static <T> List<T> toDimensionStats(List<Map<String, Object>> rows, String dimensionColumn,
+                                                java.util.function.Supplier<T> constructor,
+                                                java.util.function.BiConsumer<T, String> setDimension) {
+        if (rows == null) {
+            return new ArrayList<>();
+        }
+        long totalPv = rows.stream().mapToLong(r -> toLong(r.get("pv"))).sum();
+        List<T> result = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            T dto = constructor.get();
+            setDimension.accept(dto, row.get(dimensionColumn) != null ? row.get(dimensionColumn).toString() : "");
+            int cnt = toInt(row.get("pv"));
+            double ratio = totalPv > 0 ? (double) cnt / totalPv : 0.0;
+            if (dto instanceof ShortLinkStatsBrowserRespDTO b) {
+                b.setCnt(cnt);
+                b.setRatio(ratio);
+            } else if (dto instanceof ShortLinkStatsOsRespDTO o) {
+                o.setCnt(cnt);
+                o.setRatio(ratio);
+            } else if (dto instanceof ShortLinkStatsDeviceRespDTO d) {
+                d.setCnt(cnt);
+                d.setRatio(ratio);
+            } else if (dto instanceof ShortLinkStatsNetworkRespDTO n) {
+                n.setCnt(cnt);
+                n.setRatio(ratio);
+            }
+            result.add(dto);
+        }
+        return result;
+    }
+
     private static List<Integer> zeroHourStats() {
         List<Integer> list = new ArrayList<>(24);
         for (int i = 0; i < 24; i++) list.add(0);
@@ -261,14 +797,13 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
         final int offset = (page - 1) * pageSize;
         return getJdbcTemplate().map(tpl -> {
             try {
-                String countSql = "SELECT count() AS cnt FROM " + TABLE_EVENTS +
+                String countSql = "SELECT count() AS cnt FROM " + eventsTable() +
                         " WHERE full_short_url = ? AND gid = ? AND toDate(event_time) >= ? AND toDate(event_time) <= ?";
                 Long total = tpl.queryForObject(countSql, Long.class, fullShortUrl, gid, startDate, endDate);
                 if (total == null || total == 0) {
                     return new ClickHouseStatsService.AccessRecordPage(0, Collections.emptyList());
                 }
-                String sql = "SELECT event_time, remote_addr, uv, os, browser, device, network, locale_code, country_code " +
-                        "FROM " + TABLE_EVENTS +
+                String sql = "SELECT " + accessRecordColumns() + " FROM " + eventsTable() +
                         " WHERE full_short_url = ? AND gid = ? AND toDate(event_time) >= ? AND toDate(event_time) <= ? " +
                         "ORDER BY event_time DESC LIMIT ? OFFSET ?";
                 List<Map<String, Object>> rows = tpl.queryForList(sql, fullShortUrl, gid, startDate, endDate, pageSize, offset);
@@ -292,14 +827,13 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
         final int offset = (page - 1) * pageSize;
         return getJdbcTemplate().map(tpl -> {
             try {
-                String countSql = "SELECT count() AS cnt FROM " + TABLE_EVENTS +
+                String countSql = "SELECT count() AS cnt FROM " + eventsTable() +
                         " WHERE gid = ? AND toDate(event_time) >= ? AND toDate(event_time) <= ?";
                 Long total = tpl.queryForObject(countSql, Long.class, gid, startDate, endDate);
                 if (total == null || total == 0) {
                     return new ClickHouseStatsService.AccessRecordPage(0, Collections.emptyList());
                 }
-                String sql = "SELECT event_time, full_short_url, remote_addr, uv, os, browser, device, network, locale_code, country_code " +
-                        "FROM " + TABLE_EVENTS +
+                String sql = "SELECT " + accessRecordColumns() + " FROM " + eventsTable() +
                         " WHERE gid = ? AND toDate(event_time) >= ? AND toDate(event_time) <= ? " +
                         "ORDER BY event_time DESC LIMIT ? OFFSET ?";
                 List<Map<String, Object>> rows = tpl.queryForList(sql, gid, startDate, endDate, pageSize, offset);
@@ -315,6 +849,79 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
         }).orElse(new ClickHouseStatsService.AccessRecordPage(0, Collections.emptyList()));
     }
 
+    @Override
+    public AccessRecordSlice queryAccessRecordsAfter(String fullShortUrl, String gid, LocalDate startDate,
+                                                     LocalDate endDate, AccessRecordCursor after, int size) {
+        String sql = "SELECT " + accessRecordColumns() + " FROM " + eventsTable() +
+                " WHERE full_short_url = ? AND gid = ? AND toDate(event_time) >= ? AND toDate(event_time) <= ?";
+        return queryAccessRecordSlice("queryAccessRecordsAfter", sql, after, size,
+                fullShortUrl, gid, startDate, endDate);
+    }
+
+    @Override
+    public AccessRecordSlice queryGroupAccessRecordsAfter(String gid, LocalDate startDate, LocalDate endDate,
+                                                          AccessRecordCursor after, int size) {
+        // accessRecordColumns() only reads columns of the events_by_gid projection
+        String sql = "SELECT " + accessRecordColumns() + " FROM " + eventsTable() +
+                " WHERE gid = ? AND toDate(event_time) >= ? AND toDate(event_time) <= ?";
+        return queryAccessRecordSlice("queryGroupAccessRecordsAfter", sql, after, size, gid, startDate, endDate);
+    }
+
+    /**
+     * Reads {@code size + 1} rows after the cursor: the extra row only tells whether a next page exists.
+     */
+    private AccessRecordSlice queryAccessRecordSlice(String name, String sql, AccessRecordCursor after, int size,
+                                                     Object... args) {
+        final int pageSize = size < 1 ? 10 : size;
+        return getJdbcTemplate().map(tpl -> {
+            try {
+                StringBuilder query = new StringBuilder(sql);
+                List<Object> params = new ArrayList<>(List.of(args));
+                if (after != null) {
+                    // (event_time, keys) < cursor; the plain event_time bound keeps it a primary-key range
+                    query.append(" AND event_time <= toDateTime(?) AND (event_time < toDateTime(?) OR keys < ")
+                            .append(eventsV2Enabled ? "toUUID(?)" : "?").append(")");
+                    params.add(after.eventTime());
+                    params.add(after.eventTime());
+                    params.add(after.keys());
+                }
+                query.append(" ORDER BY event_time DESC, keys DESC LIMIT ?");
+                params.add(pageSize + 1);
+                List<Map<String, Object>> rows = tpl.queryForList(query.toString(), params.toArray());
+                List<ShortLinkStatsAccessRecordRespDTO> records = new ArrayList<>();
+                for (int i = 0; i < rows.size() && i < pageSize; i++) {
+                    records.add(mapRowToAccessRecord(rows.get(i)));
+                }
+                AccessRecordCursor next = null;
+                if (rows.size() > pageSize) {
+                    Map<String, Object> last = rows.get(pageSize - 1);
+                    next = new AccessRecordCursor(toLong(last.get("event_ts")), str(last.get("event_key")));
+                }
+                return new AccessRecordSlice(records, next);
+            } catch (Exception e) {
+                log.warn("ClickHouse {} failed: {}", name, e.getMessage());
+                return AccessRecordSlice.empty();
+            }
+        }).orElse(AccessRecordSlice.empty());
+    }
+
+    private String eventsTable() {
+        return eventsV2Enabled ? TABLE_EVENTS_V2 : TABLE_EVENTS;
+    }
+
+    /**
+     * Access-record columns under their link_stats_events names, plus event_ts and event_key for cursors.
+     */
+    private String accessRecordColumns() {
+        if (eventsV2Enabled) {
+            return "event_time, toUnixTimestamp(event_time) AS event_ts, toString(keys) AS event_key, full_short_url, " +
+                    "replaceRegexpOne(toString(ip), '^::ffff:', '') AS remote_addr, lower(hex(visitor_id)) AS uv, " +
+                    "os, browser, device, network, locale_code, country_code";
+        }
+        return "event_time, toUnixTimestamp(event_time) AS event_ts, keys AS event_key, full_short_url, " +
+                "remote_addr, uv, os, browser, device, network, locale_code, country_code";
+    }
+
     private static ShortLinkStatsAccessRecordRespDTO mapRowToAccessRecord(Map<String, Object> row) {
         Object et = row.get("event_time");
         Date createTime = null;
@@ -343,6 +950,17 @@ public class ClickHouseStatsServiceImpl implements ClickHouseStatsService {
                 .build();
     }
 
+    private static LocalDate toLocalDate(Object o) {
+        if (o == null) return null;
+        if (o instanceof LocalDate d) return d;
+        if (o instanceof java.sql.Date d) return d.toLocalDate();
+        try {
+            return LocalDate.parse(o.toString());
+        } catch (java.time.format.DateTimeParseException e) {
+            return null;
+        }
+    }
+
     private static String str(Object o) {
         return o != null ? o.toString() : null;
     }
@@ -2,6 +2,7 @@ package org.tus.shortlink.svc.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.tus.common.domain.dao.HqlQueryBuilder;
 import org.tus.common.domain.model.PageResponse;
@@ -15,6 +16,7 @@ import org.tus.shortlink.base.dto.resp.ShortLinkPageRespDTO;
 import org.tus.shortlink.base.tookit.StringUtils;
 import org.tus.shortlink.svc.entity.ShortLink;
 import org.tus.shortlink.svc.service.RecycleBinService;
+import org.tus.shortlink.svc.service.ShortLinkRedirectCache;
 
 import java.util.List;
 import java.util.Map;
@@ -25,6 +27,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class RecycleBinServiceImpl implements RecycleBinService {
     private final QueryService queryService;
+
+    @Autowired(required = false)
+    private ShortLinkRedirectCache shortLinkRedirectCache;
+
     @Override
     public void saveRecycle(RecycleBinSaveReqDTO requestParam) {
         // 1. Fetch the existing short link record using HQL query builder
@@ -56,7 +62,8 @@ public class RecycleBinServiceImpl implements RecycleBinService {
         // Persist the update using saveOrUpdate logic
         queryService.save(toUpdate, true);
 
-        // TODO: 3. Remove from Redis cache
+        // 3. Remove from redirect cache
+        evictRedirectCache(toUpdate.getFullShortUrl());
     }
 
     @Override
@@ -155,6 +162,9 @@ public class RecycleBinServiceImpl implements RecycleBinService {
 
         // 3. Persist changes
         queryService.save(shortLink, true);
+
+        // 4. Drop cached (disabled) redirect target
+        evictRedirectCache(shortLink.getFullShortUrl());
     }
 
     @Override
@@ -203,5 +213,14 @@ public class RecycleBinServiceImpl implements RecycleBinService {
 
         // 3. Persist changes
         queryService.save(shortLink, true);
+
+        // 4. Remove from redirect cache
+        evictRedirectCache(shortLink.getFullShortUrl());
+    }
+
+    private void evictRedirectCache(String fullShortUrl) {
+        if (shortLinkRedirectCache != null) {
+            shortLinkRedirectCache.evictAfterCommit(fullShortUrl);
+        }
     }
 }
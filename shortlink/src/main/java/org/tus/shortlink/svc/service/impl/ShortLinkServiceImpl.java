@@ -2,6 +2,7 @@ package org.tus.shortlink.svc.service.impl;
 
 import cn.hutool.core.lang.UUID;
 import cn.hutool.core.text.StrBuilder;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -19,10 +20,8 @@ import org.tus.common.domain.dao.HqlQueryBuilder;
 import org.tus.common.domain.model.PageResponse;
 import org.tus.common.domain.persistence.QueryService;
 import org.tus.common.domain.redis.BloomFilterService;
-import org.tus.common.domain.redis.CacheService;
 import org.tus.shortlink.base.common.constant.RedisConstant;
 import org.tus.shortlink.base.common.convention.exception.ServiceException;
-import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkBatchCreateReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkCreateReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkPageReqDTO;
@@ -34,19 +33,23 @@ import org.tus.shortlink.base.dto.resp.ShortLinkGroupCountQueryRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkPageRespDTO;
 import org.tus.shortlink.base.tookit.HashUtil;
 import org.tus.shortlink.base.tookit.StringUtils;
+import org.tus.shortlink.svc.dto.ShortLinkClickDTO;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectResultDTO;
+import org.tus.shortlink.svc.dto.ShortLinkVisitDTO;
 import org.tus.shortlink.svc.entity.ShortLink;
 import org.tus.shortlink.svc.entity.ShortLinkGoto;
+import org.tus.shortlink.svc.service.ShortLinkRedirectCache;
 import org.tus.shortlink.svc.service.ShortLinkService;
 import org.tus.shortlink.svc.service.ShortLinkStatsEventPublisher;
+import org.tus.shortlink.svc.stats.ShortLinkClickEnricher;
+import org.tus.shortlink.svc.stats.ShortLinkStatsPipeline;
 
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.time.Duration;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -55,28 +58,128 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ShortLinkServiceImpl implements ShortLinkService {
 
-    private static final String UIP_KEY_PREFIX = "shortlink:stats:uip:";
-    private static final Duration UIP_TTL = Duration.ofDays(1);
+    /**
+     * Inline enrichment when no {@link ShortLinkClickEnricher} bean is present (no Redis, parser only)
+     */
+    private static final ShortLinkClickEnricher DEFAULT_CLICK_ENRICHER = new ShortLinkClickEnricher();
 
     @Value("${shortlink.domain.default}")
     private String createShortLinkDefaultDomain;
 
+    @Value("${shortlink.redirect.bloom-gate.enabled:true}")
+    private boolean redirectBloomGateEnabled;
+
     @Autowired
     private final QueryService queryService;
 
     private final ShortLinkStatsEventPublisher shortLinkStatsEventPublisher;
 
     @Autowired(required = false)
-    private CacheService cacheService;
+    private BloomFilterService bloomFilterService;
 
     @Autowired(required = false)
-    private BloomFilterService bloomFilterService;
+    private ShortLinkRedirectCache shortLinkRedirectCache;
+
+    @Autowired(required = false)
+    private ShortLinkClickEnricher clickEnricher;
+
+    @Autowired(required = false)
+    private ShortLinkStatsPipeline statsPipeline;
 
     @Override
     @SneakyThrows
     public void restoreUrl(String shortUri, HttpServletRequest httpRequest,
                            HttpServletResponse httpResponse) {
+        String referrer = httpRequest.getHeader("Referer");
+        String userAgent = httpRequest.getHeader("User-Agent");
+        ShortLinkVisitDTO visit = ShortLinkVisitDTO.builder()
+                .remoteAddr(getRemoteAddr(httpRequest))
+                .referrer(referrer != null ? referrer : "")
+                .userAgent(userAgent != null ? userAgent : "")
+                .uv(getUvCookie(httpRequest))
+                .build();
+
+        ShortLinkRedirectResultDTO result = resolveRedirect(shortUri, visit);
+        if (result.isRedirect()) {
+            if (result.getUvCookie() != null) {
+                Cookie cookie = new Cookie(ShortLinkRedirectResultDTO.UV_COOKIE_NAME, result.getUvCookie());
+                cookie.setMaxAge(ShortLinkRedirectResultDTO.UV_COOKIE_MAX_AGE_SECONDS);
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                httpResponse.addCookie(cookie);
+            }
+            httpResponse.sendRedirect(result.getLocation());
+        } else {
+            httpResponse.sendError(result.getStatus(), result.getMessage());
+        }
+    }
+
+    @Override
+    public ShortLinkRedirectResultDTO resolveRedirect(String shortUri, ShortLinkVisitDTO visit) {
         String fullShortUrl = createShortLinkDefaultDomain + "/" + shortUri;
+        ShortLinkRedirectDTO target = shortLinkRedirectCache != null
+                ? shortLinkRedirectCache.get(fullShortUrl, this::mightExistForRedirect, this::loadRedirectTarget)
+                : loadRedirectTarget(fullShortUrl);
+
+        ShortLinkRedirectDTO.Status status = target == null
+                ? ShortLinkRedirectDTO.Status.DISABLED
+                : target.statusAt(System.currentTimeMillis());
+        if (status == ShortLinkRedirectDTO.Status.DISABLED) {
+            // unknown and recycled links look the same to visitors
+            return ShortLinkRedirectResultDTO.error(HttpServletResponse.SC_NOT_FOUND, "Short link not found");
+        }
+        if (status == ShortLinkRedirectDTO.Status.EXPIRED) {
+            return ShortLinkRedirectResultDTO.error(HttpServletResponse.SC_GONE, "Short link expired");
+        }
+
+        boolean newVisitor = !StringUtils.hasText(visit.getUv());
+        String uv = newVisitor ? UUID.fastUUID().toString() : visit.getUv();
+        recordClick(ShortLinkClickDTO.builder()
+                .gid(target.getGid())
+                .fullShortUrl(target.getFullShortUrl())
+                .remoteAddr(visit.getRemoteAddr())
+                .referrer(visit.getReferrer())
+                .userAgent(visit.getUserAgent())
+                .uv(uv)
+                .newVisitor(newVisitor)
+                .clickTime(System.currentTimeMillis())
+                .build());
+
+        String originUrl = target.getOriginUrl();
+        if (originUrl == null || originUrl.isBlank()) {
+            return ShortLinkRedirectResultDTO.error(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Original URL missing");
+        }
+        ShortLinkRedirectResultDTO result = originUrl.startsWith("http://") || originUrl.startsWith("https://")
+                ? ShortLinkRedirectResultDTO.redirect(originUrl)
+                : ShortLinkRedirectResultDTO.redirect("https://" + originUrl);
+        if (newVisitor) {
+            result.setUvCookie(uv);
+        }
+        return result;
+    }
+
+    @Override
+    public int warmRedirectCache(Collection<String> fullShortUrls) {
+        if (shortLinkRedirectCache == null || fullShortUrls == null) {
+            return 0;
+        }
+        int warmed = 0;
+        for (String fullShortUrl : fullShortUrls) {
+            if (StringUtils.hasText(fullShortUrl) && shortLinkRedirectCache.get(fullShortUrl,
+                    this::mightExistForRedirect, this::loadRedirectTarget) != null) {
+                warmed++;
+            }
+        }
+        return warmed;
+    }
+
+    /**
+     * Load redirect target from database (cache loader for restoreUrl).
+     *
+     * @return redirect target, or null when no live short link matches
+     */
+    private ShortLinkRedirectDTO loadRedirectTarget(String fullShortUrl) {
         HqlQueryBuilder builder = new HqlQueryBuilder();
         String hql = builder
                 .fromAs(ShortLink.class, "sl")
@@ -90,78 +193,37 @@ public class ShortLinkServiceImpl implements ShortLinkService {
         List<ShortLink> results = queryService.query(hql, params);
 
         if (results == null || results.isEmpty()) {
-            httpResponse.sendError(HttpServletResponse.SC_NOT_FOUND, "Short link not found");
-            return;
+            return null;
         }
         if (results.size() > 1) {
             log.warn("restoreUrl: multiple ShortLink for fullShortUrl={}", fullShortUrl);
         }
-        ShortLink shortLink = results.get(0);
-
-        String remoteAddr = getRemoteAddr(httpRequest);
-        boolean uipFirstFlag = resolveUipFirstFlag(shortLink.getFullShortUrl(), remoteAddr);
-
-        ShortLinkStatsRecordDTO event = buildStatsRecordFromRequest(shortLink, httpRequest, uipFirstFlag);
-        shortLinkStatsEventPublisher.publish(event);
+        return ShortLinkRedirectDTO.from(results.get(0));
+    }
 
-        String originUrl = shortLink.getOriginUrl();
-        if (originUrl == null || originUrl.isBlank()) {
-            httpResponse.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Original URL missing");
+    /**
+     * Stats for one redirect: handed to the async pipeline when enabled, otherwise enriched and published inline.
+     */
+    private void recordClick(ShortLinkClickDTO click) {
+        if (statsPipeline != null) {
+            statsPipeline.submit(click);
             return;
         }
-        final String redirectUrl;
-        if (!originUrl.startsWith("http://") && !originUrl.startsWith("https://")) {
-            redirectUrl = "https://" + originUrl;
-        } else {
-            redirectUrl = originUrl;
-        }
-        httpResponse.sendRedirect(redirectUrl);
+        ShortLinkClickEnricher enricher = clickEnricher != null ? clickEnricher : DEFAULT_CLICK_ENRICHER;
+        shortLinkStatsEventPublisher.publish(enricher.enrich(click));
     }
 
-    /**
-     * Resolve UIP first-visit flag using Redis (1-day TTL). When Redis is unavailable, returns false.
-     */
-    private boolean resolveUipFirstFlag(String fullShortUrl, String remoteAddr) {
-        if (cacheService == null || !StringUtils.hasText(remoteAddr)) {
-            return false;
+    private String getUvCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
         }
-        String dateStr = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
-        String key = UIP_KEY_PREFIX + fullShortUrl + ":" + dateStr + ":" + remoteAddr;
-        try {
-            if (!cacheService.exists(key)) {
-                cacheService.set(key, "1", UIP_TTL);
-                return true;
+        for (Cookie cookie : cookies) {
+            if (ShortLinkRedirectResultDTO.UV_COOKIE_NAME.equals(cookie.getName())) {
+                return cookie.getValue();
             }
-            return false;
-        } catch (Exception e) {
-            log.warn("UIP Redis check/set failed: {}", e.getMessage());
-            return false;
         }
-    }
-
-    private ShortLinkStatsRecordDTO buildStatsRecordFromRequest(ShortLink shortLink, HttpServletRequest request,
-                                                                boolean uipFirstFlag) {
-        String keys = UUID.randomUUID().toString();
-        String referrer = request.getHeader("Referer");
-        String userAgent = request.getHeader("User-Agent");
-        if (referrer == null) referrer = "";
-        if (userAgent == null) userAgent = "";
-        return ShortLinkStatsRecordDTO.builder()
-                .gid(shortLink.getGid())
-                .fullShortUrl(shortLink.getFullShortUrl())
-                .remoteAddr(getRemoteAddr(request))
-                .referrer(referrer)
-                .userAgent(userAgent)
-                .os("Unknown")
-                .browser("Unknown")
-                .device("Unknown")
-                .network("Unknown")
-                .uv(null)
-                .uvFirstFlag(Boolean.FALSE)
-                .uipFirstFlag(uipFirstFlag)
-                .keys(keys)
-                .currentDate(new Date())
-                .build();
+        return null;
     }
 
     private String getRemoteAddr(HttpServletRequest request) {
@@ -239,7 +301,10 @@ public class ShortLinkServiceImpl implements ShortLinkService {
             // Add to Bloom Filter after successful persistence
             addSuffixToBloomFilter(fullShortUrl);
 
-            // TODO cache warm-up: add short link to cache for faster redirect lookup
+            // Cache warm-up after commit: first redirect is served without a DB round trip
+            if (shortLinkRedirectCache != null) {
+                shortLinkRedirectCache.putAfterCommit(ShortLinkRedirectDTO.from(shortLink));
+            }
         } catch (DuplicateKeyException |
                  org.hibernate.exception.ConstraintViolationException ex) {
             // Database unique constraint violation - suffix collision detected
@@ -479,6 +544,11 @@ public class ShortLinkServiceImpl implements ShortLinkService {
         //  @param saveOrUpdate if false, inserts one objects, if exists, throws HibernateException.
         //  If true, check if objects exists, if exists, related object will be updated.
         queryService.save(shortLink, true);
+
+        // 4. Drop stale redirect target once committed so the next redirect reloads the new row
+        if (shortLinkRedirectCache != null) {
+            shortLinkRedirectCache.evictAfterCommit(shortLink.getFullShortUrl());
+        }
     }
 
     @Override
@@ -620,6 +690,28 @@ public class ShortLinkServiceImpl implements ShortLinkService {
         }
     }
 
+    /**
+     * Existence gate for the redirect path, backed by the suffix Bloom Filter.
+     *
+     * <p>Unlike {@link #isSuffixExistsInBloomFilter(String)} this fails open: when the filter
+     * is disabled or unavailable the link is assumed to exist, so Redis trouble never turns
+     * valid redirects into 404s.</p>
+     *
+     * @param fullShortUrl Full short URL (domain + suffix)
+     * @return false only if the short link definitely does not exist
+     */
+    private boolean mightExistForRedirect(String fullShortUrl) {
+        if (!redirectBloomGateEnabled || bloomFilterService == null) {
+            return true;
+        }
+        try {
+            return bloomFilterService.contains(getBloomFilterName(), fullShortUrl);
+        } catch (Exception e) {
+            log.warn("Bloom Filter redirect gate failed for: {}, error: {}", fullShortUrl, e.getMessage());
+            return true;
+        }
+    }
+
     /**
      * Add short link suffix to Bloom Filter after successful persistence.
      *
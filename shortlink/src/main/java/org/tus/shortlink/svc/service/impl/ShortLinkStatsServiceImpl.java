@@ -1,32 +1,74 @@
 package org.tus.shortlink.svc.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.tus.common.domain.model.PageResponse;
+import org.tus.shortlink.base.common.convention.exception.ClientException;
+import org.tus.shortlink.base.dto.req.ShortLinkBatchStatsReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkGroupStatsReqDTO;
+import org.tus.shortlink.base.dto.req.ShortLinkGroupTopLinksReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsAccessRecordReqDTO;
 import org.tus.shortlink.base.dto.req.ShortLinkStatsReqDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkBatchStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessDailyRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordCursorRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessRecordRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsBrowserRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsDeviceRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsNetworkRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsOsRespDTO;
 import org.tus.shortlink.base.dto.resp.ShortLinkStatsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
 import org.tus.shortlink.svc.service.ClickHouseStatsService;
 import org.tus.shortlink.svc.service.ShortLinkStatsService;
+import org.tus.shortlink.svc.service.StatsQueryExecutor;
+import org.tus.shortlink.svc.stats.ShortLinkTodayStats;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Stats service: merges ClickHouse-backed statistics into ShortLinkStatsRespDTO.
  * Access record endpoints query link_stats_events (paginated).
+ * The queries of one dashboard run concurrently on {@link StatsQueryExecutor}; with
+ * {@code shortlink.stats.query.fused=true} the four dimension panels are one UNION ALL query.
+ * With {@link ShortLinkTodayStats} enabled, a range ending today adds today's live Redis PV to the PV of
+ * the earlier days; UV / UIP come from the live counters only when the range is today alone, and from
+ * ClickHouse over the whole range otherwise. Batch stats read the totals of a
+ * whole page of links in one aggregation. Group leaderboards come from ClickHouse only.
  */
 @Service
 @RequiredArgsConstructor
 public class ShortLinkStatsServiceImpl implements ShortLinkStatsService {
 
+    private static final ClickHouseStatsService.TotalStats ZERO_TOTAL = new ClickHouseStatsService.TotalStats(0, 0, 0);
+
     private final ClickHouseStatsService clickHouseStatsService;
 
+    private final StatsQueryExecutor statsQueryExecutor;
+
+    @Value("${shortlink.stats.query.fused:true}")
+    private boolean fusedQueries;
+
+    /**
+     * Most links one batch stats request may ask for
+     */
+    @Value("${shortlink.stats.batch.max-links:200}")
+    private int batchMaxLinks = 200;
+
+    @Autowired(required = false)
+    private ShortLinkTodayStats todayStats;
+
     @Override
     public ShortLinkStatsRespDTO oneShortLinkStats(ShortLinkStatsReqDTO requestParam) {
         if (requestParam == null || requestParam.getFullShortUrl() == null || requestParam.getFullShortUrl().isBlank()) {
@@ -40,26 +82,47 @@ public class ShortLinkStatsServiceImpl implements ShortLinkStatsService {
         String fullShortUrl = requestParam.getFullShortUrl().trim();
         String gid = requestParam.getGid() != null ? requestParam.getGid() : "";
 
-        ClickHouseStatsService.TotalStats total = clickHouseStatsService.queryTotalStats(fullShortUrl, gid, start, end);
-        List<org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessDailyRespDTO> daily =
-                clickHouseStatsService.queryDailyStats(fullShortUrl, gid, start, end);
-        List<Integer> hourStats = clickHouseStatsService.queryHourlyStats(fullShortUrl, start, end);
+        LocalDate today = liveToday(start, end);
+        LocalDate historyEnd = today != null ? today.minusDays(1) : end;
+        boolean history = !start.isAfter(historyEnd);
 
-        return ShortLinkStatsRespDTO.builder()
-                .pv((int) Math.min(total.pv(), Integer.MAX_VALUE))
-                .uv((int) Math.min(total.uv(), Integer.MAX_VALUE))
-                .uip((int) Math.min(total.uip(), Integer.MAX_VALUE))
-                .daily(daily != null ? daily : Collections.emptyList())
-                .localeCnStats(Collections.emptyList())
-                .hourStats(hourStats != null ? hourStats : zero24())
-                .topIpStats(Collections.emptyList())
-                .weekdayStats(Collections.emptyList())
-                .browserStats(clickHouseStatsService.queryBrowserStats(fullShortUrl, gid, start, end))
-                .osStats(clickHouseStatsService.queryOsStats(fullShortUrl, gid, start, end))
-                .uvTypeStats(Collections.emptyList())
-                .deviceStats(clickHouseStatsService.queryDeviceStats(fullShortUrl, gid, start, end))
-                .networkStats(clickHouseStatsService.queryNetworkStats(fullShortUrl, gid, start, end))
-                .build();
+        StatsQueryExecutor.Batch batch = statsQueryExecutor.batch();
+        // whole range: UV / UIP of several days cannot be added up from their parts
+        Supplier<ClickHouseStatsService.TotalStats> total = history ? batch.submit("total",
+                () -> clickHouseStatsService.queryTotalStats(fullShortUrl, gid, start, end), ZERO_TOTAL)
+                : () -> ZERO_TOTAL;
+        Supplier<List<ShortLinkStatsAccessDailyRespDTO>> daily = history ? batch.submit("daily",
+                () -> clickHouseStatsService.queryDailyStats(fullShortUrl, gid, start, historyEnd),
+                Collections.emptyList()) : Collections::emptyList;
+        Supplier<ClickHouseStatsService.TotalStats> todayTotal = today != null ? batch.submit("today", () -> {
+            ClickHouseStatsService.TotalStats live = todayStats.linkToday(fullShortUrl);
+            return live != null ? live : clickHouseStatsService.queryTotalStats(fullShortUrl, gid, today, today);
+        }, ZERO_TOTAL) : null;
+        Supplier<List<Integer>> hourStats = batch.submit("hourly",
+                () -> clickHouseStatsService.queryHourlyStats(fullShortUrl, start, end), zero24());
+        Supplier<ClickHouseStatsService.DimensionStats> dimensions;
+        if (fusedQueries) {
+            dimensions = batch.submit("dimensions",
+                    () -> clickHouseStatsService.queryDimensionStats(fullShortUrl, gid, start, end),
+                    ClickHouseStatsService.DimensionStats.empty());
+        } else {
+            Supplier<List<ShortLinkStatsBrowserRespDTO>> browser = batch.submit("browser",
+                    () -> clickHouseStatsService.queryBrowserStats(fullShortUrl, gid, start, end), Collections.emptyList());
+            Supplier<List<ShortLinkStatsOsRespDTO>> os = batch.submit("os",
+                    () -> clickHouseStatsService.queryOsStats(fullShortUrl, gid, start, end), Collections.emptyList());
+            Supplier<List<ShortLinkStatsDeviceRespDTO>> device = batch.submit("device",
+                    () -> clickHouseStatsService.queryDeviceStats(fullShortUrl, gid, start, end), Collections.emptyList());
+            Supplier<List<ShortLinkStatsNetworkRespDTO>> network = batch.submit("network",
+                    () -> clickHouseStatsService.queryNetworkStats(fullShortUrl, gid, start, end), Collections.emptyList());
+            dimensions = () -> new ClickHouseStatsService.DimensionStats(browser.get(), os.get(), device.get(), network.get());
+        }
+
+        if (todayTotal != null) {
+            List<ShortLinkStatsAccessDailyRespDTO> earlierDays = daily.get();
+            return toResp(withToday(total.get(), earlierDays, todayTotal.get(), history),
+                    withDay(earlierDays, today, todayTotal.get()), hourStats.get(), dimensions.get());
+        }
+        return toResp(total.get(), daily.get(), hourStats.get(), dimensions.get());
     }
 
     @Override
@@ -74,25 +137,34 @@ public class ShortLinkStatsServiceImpl implements ShortLinkStatsService {
         }
         String gid = requestParam.getGid().trim();
 
-        ClickHouseStatsService.TotalStats total = clickHouseStatsService.queryGroupTotalStats(gid, start, end);
-        List<org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessDailyRespDTO> daily =
-                clickHouseStatsService.queryGroupDailyStats(gid, start, end);
+        LocalDate today = liveToday(start, end);
+        LocalDate historyEnd = today != null ? today.minusDays(1) : end;
+        boolean history = !start.isAfter(historyEnd);
 
-        return ShortLinkStatsRespDTO.builder()
-                .pv((int) Math.min(total.pv(), Integer.MAX_VALUE))
-                .uv((int) Math.min(total.uv(), Integer.MAX_VALUE))
-                .uip((int) Math.min(total.uip(), Integer.MAX_VALUE))
-                .daily(daily != null ? daily : Collections.emptyList())
-                .localeCnStats(Collections.emptyList())
-                .hourStats(zero24())
-                .topIpStats(Collections.emptyList())
-                .weekdayStats(Collections.emptyList())
-                .browserStats(Collections.emptyList())
-                .osStats(Collections.emptyList())
-                .uvTypeStats(Collections.emptyList())
-                .deviceStats(Collections.emptyList())
-                .networkStats(Collections.emptyList())
-                .build();
+        StatsQueryExecutor.Batch batch = statsQueryExecutor.batch();
+        Supplier<ClickHouseStatsService.TotalStats> total = history ? batch.submit("group-total",
+                () -> clickHouseStatsService.queryGroupTotalStats(gid, start, end), ZERO_TOTAL)
+                : () -> ZERO_TOTAL;
+        Supplier<List<ShortLinkStatsAccessDailyRespDTO>> daily = history ? batch.submit("group-daily",
+                () -> clickHouseStatsService.queryGroupDailyStats(gid, start, historyEnd), Collections.emptyList())
+                : Collections::emptyList;
+        Supplier<ClickHouseStatsService.TotalStats> todayTotal = today != null ? batch.submit("group-today", () -> {
+            ClickHouseStatsService.TotalStats live = todayStats.groupToday(gid);
+            return live != null ? live : clickHouseStatsService.queryGroupTotalStats(gid, today, today);
+        }, ZERO_TOTAL) : null;
+        // empty unless shortlink.stats.group-rollups.enabled
+        Supplier<List<Integer>> hourStats = batch.submit("group-hourly",
+                () -> clickHouseStatsService.queryGroupHourlyStats(gid, start, end), zero24());
+        Supplier<ClickHouseStatsService.DimensionStats> dimensions = batch.submit("group-dimensions",
+                () -> clickHouseStatsService.queryGroupDimensionStats(gid, start, end),
+                ClickHouseStatsService.DimensionStats.empty());
+
+        if (todayTotal != null) {
+            List<ShortLinkStatsAccessDailyRespDTO> earlierDays = daily.get();
+            return toResp(withToday(total.get(), earlierDays, todayTotal.get(), history),
+                    withDay(earlierDays, today, todayTotal.get()), hourStats.get(), dimensions.get());
+        }
+        return toResp(total.get(), daily.get(), hourStats.get(), dimensions.get());
     }
 
     @Override
@@ -146,6 +218,219 @@ public class ShortLinkStatsServiceImpl implements ShortLinkStatsService {
         return resp;
     }
 
+    @Override
+    public ShortLinkStatsAccessRecordCursorRespDTO shortLinkStatsAccessRecordCursor(
+            ShortLinkStatsAccessRecordReqDTO requestParam) {
+        if (requestParam == null || requestParam.getFullShortUrl() == null || requestParam.getFullShortUrl().isBlank()) {
+            return emptyCursorPage();
+        }
+        LocalDate start = parseDate(requestParam.getStartDate());
+        LocalDate end = parseDate(requestParam.getEndDate());
+        if (start == null || end == null || start.isAfter(end)) {
+            return emptyCursorPage();
+        }
+        ClickHouseStatsService.AccessRecordCursor after = null;
+        if (requestParam.getCursor() != null && !requestParam.getCursor().isBlank()) {
+            after = ClickHouseStatsService.AccessRecordCursor.decode(requestParam.getCursor().trim());
+            if (after == null) {
+                return emptyCursorPage();
+            }
+        }
+        int size = requestParam.getSize() != null && requestParam.getSize() > 0 ? requestParam.getSize() : 10;
+        String fullShortUrl = requestParam.getFullShortUrl().trim();
+        String gid = requestParam.getGid() != null ? requestParam.getGid() : "";
+        ClickHouseStatsService.AccessRecordCursor cursor = after;
+
+        StatsQueryExecutor.Batch batch = statsQueryExecutor.batch();
+        Supplier<ClickHouseStatsService.AccessRecordSlice> slice = batch.submit("access-records",
+                () -> clickHouseStatsService.queryAccessRecordsAfter(fullShortUrl, gid, start, end, cursor, size),
+                ClickHouseStatsService.AccessRecordSlice.empty());
+        // every event is one PV, so the (cached) daily rollup gives the count without scanning the events
+        Supplier<Long> total = Boolean.TRUE.equals(requestParam.getWithTotal())
+                ? batch.submit("access-total",
+                () -> clickHouseStatsService.queryTotalStats(fullShortUrl, gid, start, end).pv(), null)
+                : () -> null;
+        return toCursorResp(slice.get(), total.get());
+    }
+
+    @Override
+    public ShortLinkStatsAccessRecordCursorRespDTO groupShortLinkStatsAccessRecordCursor(
+            ShortLinkGroupStatsAccessRecordReqDTO requestParam) {
+        if (requestParam == null || requestParam.getGid() == null || requestParam.getGid().isBlank()) {
+            return emptyCursorPage();
+        }
+        LocalDate start = parseDate(requestParam.getStartDate());
+        LocalDate end = parseDate(requestParam.getEndDate());
+        if (start == null || end == null || start.isAfter(end)) {
+            return emptyCursorPage();
+        }
+        ClickHouseStatsService.AccessRecordCursor after = null;
+        if (requestParam.getCursor() != null && !requestParam.getCursor().isBlank()) {
+            after = ClickHouseStatsService.AccessRecordCursor.decode(requestParam.getCursor().trim());
+            if (after == null) {
+                return emptyCursorPage();
+            }
+        }
+        int size = requestParam.getSize() != null && requestParam.getSize() > 0 ? requestParam.getSize() : 10;
+        String gid = requestParam.getGid().trim();
+        ClickHouseStatsService.AccessRecordCursor cursor = after;
+
+        StatsQueryExecutor.Batch batch = statsQueryExecutor.batch();
+        Supplier<ClickHouseStatsService.AccessRecordSlice> slice = batch.submit("group-access-records",
+                () -> clickHouseStatsService.queryGroupAccessRecordsAfter(gid, start, end, cursor, size),
+                ClickHouseStatsService.AccessRecordSlice.empty());
+        Supplier<Long> total = Boolean.TRUE.equals(requestParam.getWithTotal())
+                ? batch.submit("group-access-total",
+                () -> clickHouseStatsService.queryGroupTotalStats(gid, start, end).pv(), null)
+                : () -> null;
+        return toCursorResp(slice.get(), total.get());
+    }
+
+    /**
+     * Today when live counters are enabled and {@code [start, end]} ends today, otherwise null.
+     */
+    private LocalDate liveToday(LocalDate start, LocalDate end) {
+        if (todayStats == null) {
+            return null;
+        }
+        LocalDate today = todayStats.today();
+        return end.equals(today) && !start.isAfter(today) ? today : null;
+    }
+
+    /**
+     * Totals of a range ending today. Today alone is the live count. Over several days only PV adds up
+     * (the earlier days' PV plus today's); a visitor seen before and today must count once, so UV / UIP
+     * are ClickHouse's distinct counts over the whole range, with today as far as it is ingested.
+     */
+    private static ClickHouseStatsService.TotalStats withToday(ClickHouseStatsService.TotalStats range,
+                                                               List<ShortLinkStatsAccessDailyRespDTO> earlierDays,
+                                                               ClickHouseStatsService.TotalStats today,
+                                                               boolean multiDay) {
+        if (!multiDay) {
+            return today;
+        }
+        long earlierPv = 0;
+        for (ShortLinkStatsAccessDailyRespDTO day : earlierDays) {
+            earlierPv += day.getPv() != null ? day.getPv() : 0;
+        }
+        return new ClickHouseStatsService.TotalStats(earlierPv + today.pv(), range.uv(), range.uip());
+    }
+
+    /**
+     * Appends the day unless it has no clicks, as the ClickHouse daily series does.
+     */
+    private static List<ShortLinkStatsAccessDailyRespDTO> withDay(List<ShortLinkStatsAccessDailyRespDTO> daily,
+                                                                  LocalDate day,
+                                                                  ClickHouseStatsService.TotalStats stats) {
+        List<ShortLinkStatsAccessDailyRespDTO> merged = new ArrayList<>(daily != null ? daily : List.of());
+        if (stats.pv() <= 0) {
+            return merged;
+        }
+        merged.add(ShortLinkStatsAccessDailyRespDTO.builder()
+                .date(day.toString())
+                .pv((int) Math.min(stats.pv(), Integer.MAX_VALUE))
+                .uv((int) Math.min(stats.uv(), Integer.MAX_VALUE))
+                .uip((int) Math.min(stats.uip(), Integer.MAX_VALUE))
+                .build());
+        return merged;
+    }
+
+    @Override
+    public List<ShortLinkBatchStatsRespDTO> batchShortLinkStats(ShortLinkBatchStatsReqDTO requestParam) {
+        if (requestParam == null || requestParam.getFullShortUrls() == null
+                || requestParam.getGid() == null || requestParam.getGid().isBlank()) {
+            return Collections.emptyList();
+        }
+        String gid = requestParam.getGid().trim();
+        LocalDate start = parseDate(requestParam.getStartDate());
+        LocalDate end = parseDate(requestParam.getEndDate());
+        if (start == null || end == null || start.isAfter(end)) {
+            return Collections.emptyList();
+        }
+        Set<String> fullShortUrls = new LinkedHashSet<>();
+        for (String fullShortUrl : requestParam.getFullShortUrls()) {
+            if (fullShortUrl != null && !fullShortUrl.isBlank()) {
+                fullShortUrls.add(fullShortUrl.trim());
+            }
+        }
+        if (fullShortUrls.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (fullShortUrls.size() > batchMaxLinks) {
+            throw new ClientException(String.format("Exceeded max links per stats batch: %d", batchMaxLinks));
+        }
+        boolean withDaily = Boolean.TRUE.equals(requestParam.getWithDaily());
+
+        StatsQueryExecutor.Batch batch = statsQueryExecutor.batch();
+        Supplier<Map<String, ClickHouseStatsService.TotalStats>> totals = batch.submit("batch-total",
+                () -> clickHouseStatsService.queryTotalStatsBatch(gid, fullShortUrls, start, end), Collections.emptyMap());
+        Supplier<Map<String, List<ShortLinkStatsAccessDailyRespDTO>>> daily = withDaily
+                ? batch.submit("batch-daily",
+                () -> clickHouseStatsService.queryDailyStatsBatch(gid, fullShortUrls, start, end), Collections.emptyMap())
+                : Collections::emptyMap;
+
+        List<ShortLinkBatchStatsRespDTO> result = new ArrayList<>(fullShortUrls.size());
+        for (String fullShortUrl : fullShortUrls) {
+            ClickHouseStatsService.TotalStats total = totals.get().getOrDefault(fullShortUrl, ZERO_TOTAL);
+            result.add(ShortLinkBatchStatsRespDTO.builder()
+                    .fullShortUrl(fullShortUrl)
+                    .pv((int) Math.min(total.pv(), Integer.MAX_VALUE))
+                    .uv((int) Math.min(total.uv(), Integer.MAX_VALUE))
+                    .uip((int) Math.min(total.uip(), Integer.MAX_VALUE))
+                    .daily(withDaily ? daily.get().getOrDefault(fullShortUrl, Collections.emptyList()) : null)
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public List<ShortLinkStatsTopLinkRespDTO> groupTopLinks(ShortLinkGroupTopLinksReqDTO requestParam) {
+        if (requestParam == null || requestParam.getGid() == null || requestParam.getGid().isBlank()) {
+            return Collections.emptyList();
+        }
+        LocalDate start = parseDate(requestParam.getStartDate());
+        LocalDate end = parseDate(requestParam.getEndDate());
+        if (start == null || end == null || start.isAfter(end)) {
+            return Collections.emptyList();
+        }
+        int limit = requestParam.getLimit() != null ? requestParam.getLimit() : 10;
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        return clickHouseStatsService.queryGroupTopLinks(requestParam.getGid().trim(), start, end, limit);
+    }
+
+    private static ShortLinkStatsAccessRecordCursorRespDTO toCursorResp(ClickHouseStatsService.AccessRecordSlice slice,
+                                                                        Long total) {
+        return ShortLinkStatsAccessRecordCursorRespDTO.builder()
+                .records(slice.records() != null ? slice.records() : Collections.emptyList())
+                .nextCursor(slice.next() != null ? slice.next().encode() : null)
+                .hasMore(slice.next() != null)
+                .total(total)
+                .build();
+    }
+
+    private static ShortLinkStatsRespDTO toResp(ClickHouseStatsService.TotalStats total,
+                                                List<ShortLinkStatsAccessDailyRespDTO> daily,
+                                                List<Integer> hourStats,
+                                                ClickHouseStatsService.DimensionStats dimensions) {
+        return ShortLinkStatsRespDTO.builder()
+                .pv((int) Math.min(total.pv(), Integer.MAX_VALUE))
+                .uv((int) Math.min(total.uv(), Integer.MAX_VALUE))
+                .uip((int) Math.min(total.uip(), Integer.MAX_VALUE))
+                .daily(daily != null ? daily : Collections.emptyList())
+                .localeCnStats(Collections.emptyList())
+                .hourStats(hourStats != null ? hourStats : zero24())
+                .topIpStats(Collections.emptyList())
+                .weekdayStats(Collections.emptyList())
+                .browserStats(dimensions.browser())
+                .osStats(dimensions.os())
+                .uvTypeStats(Collections.emptyList())
+                .deviceStats(dimensions.device())
+                .networkStats(dimensions.network())
+                .build();
+    }
+
     private static ShortLinkStatsRespDTO emptyResp() {
         return ShortLinkStatsRespDTO.builder()
                 .pv(0)
@@ -177,6 +462,13 @@ public class ShortLinkStatsServiceImpl implements ShortLinkStatsService {
         return r;
     }
 
+    private static ShortLinkStatsAccessRecordCursorRespDTO emptyCursorPage() {
+        return ShortLinkStatsAccessRecordCursorRespDTO.builder()
+                .records(Collections.emptyList())
+                .hasMore(false)
+                .build();
+    }
+
     private static LocalDate parseDate(String dateStr) {
         if (dateStr == null || dateStr.isBlank()) return null;
         try {
@@ -0,0 +1,88 @@
+package org.tus.shortlink.svc.stats;
+
+import com.clickhouse.client.api.Client;
+import com.clickhouse.client.api.insert.InsertResponse;
+import com.clickhouse.client.api.insert.InsertSettings;
+import com.clickhouse.data.ClickHouseFormat;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes stats events into {@code link_stats_events} as one {@code RowBinary} insert per batch.
+ *
+ * <p>Only the columns the events carry are sent; geo, status and latency columns take their
+ * defaults. Events must carry {@code currentDate}; {@link ShortLinkStatsBatchConsumer} stamps the
+ * ones without it when it decodes them.</p>
+ *
+ * <p>Each insert carries the caller's {@code insert_deduplication_token} (see
+ * {@link #deduplicationToken}), and deduplication is extended to dependent materialized views. An
+ * insert of the same Kafka offsets under the same token, e.g. the retry of a batch that timed out
+ * after ClickHouse had stored it, is discarded instead of counted again in the daily/hourly rollups.</p>
+ */
+public class ClickHouseStatsEventWriter {
+
+    static final String TABLE = "link_stats_events";
+
+    static final List<String> COLUMNS = List.of(
+            "event_time", "full_short_url", "gid", "remote_addr", "uv", "os", "browser", "device",
+            "network", "referrer", "user_agent", "keys");
+
+    private static final int BYTES_PER_EVENT_ESTIMATE = 256;
+
+    private final Client client;
+
+    private final long insertTimeoutMillis;
+
+    public ClickHouseStatsEventWriter(Client client, long insertTimeoutMillis) {
+        this.client = client;
+        this.insertTimeoutMillis = insertTimeoutMillis;
+    }
+
+    /**
+     * Insert all events in one request; returns once ClickHouse acknowledged the insert.
+     *
+     * @return rows written
+     */
+    public long insert(List<ShortLinkStatsRecordDTO> events, String deduplicationToken) throws Exception {
+        RowBinaryOutput out = encode(events);
+        InsertSettings settings = new InsertSettings()
+                .setDeduplicationToken(deduplicationToken)
+                .serverSetting("deduplicate_blocks_in_dependent_materialized_views", "1");
+        try (InsertResponse response = client.insert(TABLE, COLUMNS,
+                        new ByteArrayInputStream(out.buffer(), 0, out.size()), ClickHouseFormat.RowBinary, settings)
+                .get(insertTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            return response.getWrittenRows();
+        }
+    }
+
+    /**
+     * Token of the events read from {@code firstOffset..lastOffset} of one partition: the same for every
+     * insert of those offsets, whatever pod or poll it comes from.
+     */
+    public static String deduplicationToken(String topic, int partition, long firstOffset, long lastOffset) {
+        return "stats-" + topic + "-" + partition + "-" + firstOffset + "-" + lastOffset;
+    }
+
+    static RowBinaryOutput encode(List<ShortLinkStatsRecordDTO> events) {
+        RowBinaryOutput out = new RowBinaryOutput(Math.max(events.size(), 1) * BYTES_PER_EVENT_ESTIMATE);
+        for (ShortLinkStatsRecordDTO event : events) {
+            // DateTime is UInt32 seconds
+            out.writeUInt32(event.getCurrentDate().getTime() / 1000);
+            out.writeString(event.getFullShortUrl());
+            out.writeString(event.getGid());
+            out.writeString(event.getRemoteAddr());
+            out.writeString(event.getUv());
+            out.writeString(event.getOs());
+            out.writeString(event.getBrowser());
+            out.writeString(event.getDevice());
+            out.writeString(event.getNetwork());
+            out.writeString(event.getReferrer());
+            out.writeString(event.getUserAgent());
+            out.writeString(event.getKeys());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,86 @@
+package org.tus.shortlink.svc.stats;
+
+import com.clickhouse.client.api.Client;
+import com.clickhouse.client.api.insert.InsertResponse;
+import com.clickhouse.client.api.insert.InsertSettings;
+import com.clickhouse.data.ClickHouseFormat;
+import org.tus.shortlink.svc.dto.ShortLinkStatsAggregateDTO;
+
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes per-window link rollups into {@code link_stats_minute} as one {@code RowBinary} insert per batch.
+ *
+ * <p>The table is a SummingMergeTree, so several rows for the same link and window (other
+ * partitions' owners, late clicks) add up. Each insert carries a deduplication token derived from its
+ * payload, so a byte-identical retry of a batch is not counted twice; the table needs
+ * {@code non_replicated_deduplication_window} (05_stats_aggregates.sql) for the token to take effect.</p>
+ */
+public class ClickHouseStatsRollupWriter {
+
+    static final String TABLE = "link_stats_minute";
+
+    static final List<String> COLUMNS = List.of(
+            "window_start", "full_short_url", "gid", "os", "browser", "device", "network",
+            "pv", "uv_first", "uip_first");
+
+    private static final int BYTES_PER_ROW_ESTIMATE = 128;
+
+    private final Client client;
+
+    private final long insertTimeoutMillis;
+
+    public ClickHouseStatsRollupWriter(Client client, long insertTimeoutMillis) {
+        this.client = client;
+        this.insertTimeoutMillis = insertTimeoutMillis;
+    }
+
+    /**
+     * Insert all rollups in one request; returns once ClickHouse acknowledged the insert.
+     *
+     * @return rows written
+     */
+    public long insert(List<ShortLinkStatsAggregateDTO> rollups) throws Exception {
+        RowBinaryOutput out = encode(rollups);
+        InsertSettings settings = new InsertSettings()
+                .setDeduplicationToken(deduplicationToken(out));
+        try (InsertResponse response = client.insert(TABLE, COLUMNS,
+                        new ByteArrayInputStream(out.buffer(), 0, out.size()), ClickHouseFormat.RowBinary, settings)
+                .get(insertTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            return response.getWrittenRows();
+        }
+    }
+
+    static String deduplicationToken(RowBinaryOutput payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(payload.buffer(), 0, payload.size());
+            return "rollup-" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static RowBinaryOutput encode(List<ShortLinkStatsAggregateDTO> rollups) {
+        RowBinaryOutput out = new RowBinaryOutput(Math.max(rollups.size(), 1) * BYTES_PER_ROW_ESTIMATE);
+        for (ShortLinkStatsAggregateDTO rollup : rollups) {
+            // DateTime is UInt32 seconds
+            out.writeUInt32(rollup.getWindowStart() / 1000);
+            out.writeString(rollup.getFullShortUrl());
+            out.writeString(rollup.getGid());
+            out.writeString(rollup.getOs());
+            out.writeString(rollup.getBrowser());
+            out.writeString(rollup.getDevice());
+            out.writeString(rollup.getNetwork());
+            out.writeLong(rollup.getPv());
+            out.writeLong(rollup.getUvFirst());
+            out.writeLong(rollup.getUipFirst());
+        }
+        return out;
+    }
+}
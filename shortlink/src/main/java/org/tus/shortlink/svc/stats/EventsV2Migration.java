@@ -0,0 +1,163 @@
+package org.tus.shortlink.svc.stats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Backfills {@code link_stats_events_v2} (09_events_v2.sql) from the partitions of {@code link_stats_events}
+ * written before {@code link_stats_events_v2_mv} existed, then, once access records read v2, shortens the TTL
+ * of {@code link_stats_events} so it only stages recent clicks.
+ *
+ * <p>Runs once per start on a background thread, one month partition at a time, oldest first. Only events
+ * older than the creation of the MV are copied (the MV has all later ones). A partition whose row count
+ * in v2 already matches is skipped, so a restart resumes where the last run stopped. After each copy the
+ * v2 partition is merged with FINAL: rows copied twice (a retried partition, a late event the MV also saw)
+ * share their keys and collapse. The TTL is only shortened when every partition matched and
+ * {@code shortlink.stats.events-v2.enabled=true}: while reads stay on {@code link_stats_events} its history
+ * is kept, and the next start with both switches on cuts it. Enabled with
+ * {@code shortlink.stats.events-v2.migration.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shortlink.stats.events-v2.migration", name = "enabled", havingValue = "true")
+public class EventsV2Migration {
+
+    static final String SOURCE = "link_stats_events";
+    static final String TARGET = "link_stats_events_v2";
+    static final String MV = "link_stats_events_v2_mv";
+
+    /**
+     * Same conversion as link_stats_events_v2_mv
+     */
+    static final String CONVERSION = "SELECT event_time, full_short_url, gid, toIPv6OrDefault(remote_addr) AS ip, " +
+            "cityHash64(uv) AS visitor_id, os, browser, device, network, domain(referrer) AS referrer_domain, " +
+            "country_code, region, city, language_code, locale_code, toUUIDOrZero(keys) AS keys, http_status, " +
+            "redirect_latency_ms FROM " + SOURCE;
+
+    @Autowired(required = false)
+    @Qualifier("clickHouseJdbcTemplate")
+    private JdbcTemplate clickHouseJdbcTemplate;
+
+    /**
+     * TTL of link_stats_events once everything is in v2; 0 keeps the 90-day TTL
+     */
+    @Value("${shortlink.stats.events-v2.migration.staging-ttl-days:3}")
+    private int stagingTtlDays;
+
+    /**
+     * Access records read link_stats_events_v2; until then link_stats_events keeps its TTL
+     */
+    @Value("${shortlink.stats.events-v2.enabled:false}")
+    private boolean eventsV2Enabled;
+
+    private ExecutorService migrationExecutor;
+
+    /**
+     * Partition counts of one run
+     */
+    public record Result(int migrated, int skipped, int failed) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (clickHouseJdbcTemplate == null) {
+            log.warn("Events v2 migration enabled but no ClickHouse JdbcTemplate; nothing to do");
+            return;
+        }
+        migrationExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "stats-events-v2-migration");
+            t.setDaemon(true);
+            return t;
+        });
+        migrationExecutor.submit(() -> {
+            try {
+                migrate();
+            } catch (Exception e) {
+                log.error("Events v2 migration failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (migrationExecutor != null) {
+            migrationExecutor.shutdownNow();
+        }
+    }
+
+    public Result migrate() {
+        Long cutover = clickHouseJdbcTemplate.queryForList("SELECT toUnixTimestamp(metadata_modification_time) " +
+                        "FROM system.tables WHERE database = currentDatabase() AND name = ?", Long.class, MV)
+                .stream().findFirst().orElse(null);
+        if (cutover == null) {
+            throw new IllegalStateException(MV + " does not exist; run 09_events_v2.sql first");
+        }
+        List<String> partitions = clickHouseJdbcTemplate.queryForList("SELECT DISTINCT partition_id FROM system.parts " +
+                "WHERE database = currentDatabase() AND table = ? AND active ORDER BY partition_id", String.class, SOURCE);
+        log.info("Events v2 migration: {} partitions of {} before {}", partitions.size(), SOURCE, cutover);
+
+        int migrated = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (String partition : partitions) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Events v2 migration interrupted before partition {}", partition);
+                return new Result(migrated, skipped, failed + 1);
+            }
+            if (!partition.matches("\\d+")) {
+                // toYYYYMM partitions only; anything else is not ours to copy
+                log.warn("Events v2 migration: skipping unexpected partition {}", partition);
+                failed++;
+                continue;
+            }
+            long expected = count(SOURCE, partition, cutover);
+            if (count(TARGET, partition, cutover) >= expected) {
+                skipped++;
+                continue;
+            }
+            long start = System.nanoTime();
+            clickHouseJdbcTemplate.update("INSERT INTO " + TARGET + " " + CONVERSION +
+                    " WHERE _partition_id = ? AND event_time < toDateTime(?)", partition, cutover);
+            clickHouseJdbcTemplate.execute("OPTIMIZE TABLE " + TARGET + " PARTITION ID '" + partition + "' FINAL");
+            long copied = count(TARGET, partition, cutover);
+            if (copied == expected) {
+                migrated++;
+                log.info("Events v2 migration: partition {} copied, {} rows in {} ms", partition, copied,
+                        (System.nanoTime() - start) / 1_000_000);
+            } else {
+                failed++;
+                log.warn("Events v2 migration: partition {} has {} rows in {} but {} in {}", partition,
+                        expected, SOURCE, copied, TARGET);
+            }
+        }
+
+        if (failed == 0 && !eventsV2Enabled) {
+            log.info("Events v2 backfill complete; {} TTL unchanged until shortlink.stats.events-v2.enabled=true",
+                    SOURCE);
+        } else if (failed == 0 && stagingTtlDays > 0) {
+            clickHouseJdbcTemplate.execute("ALTER TABLE " + SOURCE + " MODIFY TTL event_time + INTERVAL "
+                    + stagingTtlDays + " DAY");
+            log.info("Events v2 migration complete; {} TTL set to {} days", SOURCE, stagingTtlDays);
+        } else if (failed > 0) {
+            log.warn("Events v2 migration incomplete ({} partitions differ); {} TTL unchanged", failed, SOURCE);
+        }
+        return new Result(migrated, skipped, failed);
+    }
+
+    private long count(String table, String partition, long cutover) {
+        Long rows = clickHouseJdbcTemplate.queryForObject("SELECT count() FROM " + table +
+                " FINAL WHERE _partition_id = ? AND event_time < toDateTime(?)", Long.class, partition, cutover);
+        return rows != null ? rows : 0L;
+    }
+}
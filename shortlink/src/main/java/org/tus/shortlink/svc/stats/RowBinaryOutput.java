@@ -0,0 +1,81 @@
+package org.tus.shortlink.svc.stats;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer writing ClickHouse {@code RowBinary} primitives (little-endian integers,
+ * LEB128-prefixed strings).
+ */
+final class RowBinaryOutput {
+
+    private byte[] buffer;
+    private int size;
+
+    RowBinaryOutput(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    void writeByte(int value) {
+        ensure(1);
+        buffer[size++] = (byte) value;
+    }
+
+    void writeUInt16(int value) {
+        ensure(2);
+        buffer[size++] = (byte) value;
+        buffer[size++] = (byte) (value >>> 8);
+    }
+
+    void writeUInt32(long value) {
+        ensure(Integer.BYTES);
+        for (int i = 0; i < Integer.BYTES; i++) {
+            buffer[size++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    void writeLong(long value) {
+        ensure(Long.BYTES);
+        for (int i = 0; i < Long.BYTES; i++) {
+            buffer[size++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    /**
+     * Null is written as the empty string.
+     */
+    void writeString(String value) {
+        if (value == null || value.isEmpty()) {
+            writeByte(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        ensure(5 + length);
+        while ((length & ~0x7F) != 0) {
+            buffer[size++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        buffer[size++] = (byte) length;
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
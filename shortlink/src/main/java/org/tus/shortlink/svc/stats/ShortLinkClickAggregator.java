@@ -0,0 +1,251 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.dto.ShortLinkStatsAggregateDTO;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-service pre-aggregation of clicks before they reach Kafka.
+ *
+ * <p>{@code ShortLinkStatsEventPublisher} folds every enriched click into a counter keyed by
+ * (fullShortUrl, gid, window, os, browser, device, network): PV and first-visit UV/UIP counts, three
+ * longs per key. A timer flushes closed windows to the aggregate topic
+ * as one {@link ShortLinkStatsAggregateDTO} per key, so a hot link costs one record per window and
+ * dimension combination instead of one per redirect. Raw events still go to the stats topic for
+ * a {@code raw-sample-rate} fraction of clicks (access-record pages).</p>
+ *
+ * <p>Keys live in a {@link ConcurrentHashMap}: updates to different keys never contend, updates to
+ * one key and its removal by the flush are serialized by the map's bin lock, so no click is lost
+ * between folding and flushing. A late click for a flushed window starts a new record for it. Failed
+ * sends are folded back and retried on the next flush. Enabled with
+ * {@code shortlink.stats.preaggregate.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shortlink.stats.preaggregate", name = "enabled", havingValue = "true")
+public class ShortLinkClickAggregator {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.preaggregate";
+
+    private final KafkaTemplate<String, String> statsAggregateKafkaTemplate;
+
+    @Value("${kafka.topics.stats-aggregates.name:shortlink-stats-aggregates}")
+    private String statsAggregatesTopic;
+
+    @Value("${shortlink.stats.preaggregate.window-seconds:60}")
+    private int windowSeconds;
+
+    @Value("${shortlink.stats.preaggregate.flush-interval-millis:5000}")
+    private long flushIntervalMillis;
+
+    /**
+     * Fraction of clicks still published as raw events, 0 disables raw events
+     */
+    @Value("${shortlink.stats.preaggregate.raw-sample-rate:0.01}")
+    private double rawSampleRate;
+
+    /**
+     * Above this many pending keys the next flush also emits the still-open windows
+     */
+    @Value("${shortlink.stats.preaggregate.max-keys:200000}")
+    private int maxKeys;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<StatsWindowKey, ClickAggregate> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flushExecutor;
+
+    private long windowMillis;
+
+    private Counter clicks;
+    private Counter rawSampled;
+    private Counter records;
+    private Counter failed;
+
+    public ShortLinkClickAggregator(
+            @Qualifier("statsAggregateKafkaTemplate") KafkaTemplate<String, String> statsAggregateKafkaTemplate) {
+        this.statsAggregateKafkaTemplate = statsAggregateKafkaTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        windowMillis = TimeUnit.SECONDS.toMillis(Math.max(1, windowSeconds));
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        clicks = Counter.builder(METRIC_PREFIX + ".clicks").register(registry);
+        rawSampled = Counter.builder(METRIC_PREFIX + ".raw.sampled").register(registry);
+        records = Counter.builder(METRIC_PREFIX + ".records").register(registry);
+        failed = Counter.builder(METRIC_PREFIX + ".failed").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".keys", pending, Map::size).register(registry);
+
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-preaggregate-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Stats pre-aggregation started: window={}s, flushInterval={}ms, rawSampleRate={}",
+                windowSeconds, flushIntervalMillis, rawSampleRate);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+        flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * Fold one enriched click into its window.
+     *
+     * @return true when the raw event is sampled and should still be published
+     */
+    public boolean add(ShortLinkStatsRecordDTO event) {
+        long clickTime = event.getCurrentDate() != null ? event.getCurrentDate().getTime() : System.currentTimeMillis();
+        StatsWindowKey key = new StatsWindowKey(event.getFullShortUrl(), event.getGid(), windowStart(clickTime),
+                event.getOs(), event.getBrowser(), event.getDevice(), event.getNetwork());
+        pending.compute(key, (k, aggregate) -> {
+            ClickAggregate target = aggregate != null ? aggregate : new ClickAggregate();
+            target.add(event);
+            return target;
+        });
+        clicks.increment();
+        if (rawSampleRate > 0 && (rawSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rawSampleRate)) {
+            rawSampled.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Number of keys waiting for a flush.
+     */
+    public int pendingKeys() {
+        return pending.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            long now = System.currentTimeMillis();
+            flush(pending.size() > maxKeys ? Long.MAX_VALUE : windowStart(now));
+        } catch (Exception e) {
+            log.warn("Stats pre-aggregation flush failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Send and remove every key whose window starts before {@code cutoff}.
+     *
+     * @return number of records handed to Kafka
+     */
+    int flush(long cutoff) {
+        int sent = 0;
+        // snapshot: a failed send folds its key back and must wait for the next flush
+        for (StatsWindowKey key : new ArrayList<>(pending.keySet())) {
+            if (key.windowStart() >= cutoff) {
+                continue;
+            }
+            ClickAggregate aggregate = pending.remove(key);
+            if (aggregate != null) {
+                send(key, aggregate);
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    private void send(StatsWindowKey key, ClickAggregate aggregate) {
+        String payload = JSON.toJSONString(aggregate.toRecord(key, windowSeconds));
+        try {
+            statsAggregateKafkaTemplate.send(statsAggregatesTopic, key.fullShortUrl(), payload)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            restore(key, aggregate, ex);
+                        } else {
+                            records.increment();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            restore(key, aggregate, e);
+        }
+    }
+
+    private void restore(StatsWindowKey key, ClickAggregate aggregate, Throwable cause) {
+        failed.increment();
+        log.warn("Stats pre-aggregation: failed to send aggregate for {}, retrying on next flush: {}",
+                key.fullShortUrl(), cause.getMessage());
+        pending.merge(key, aggregate, ClickAggregate::merge);
+    }
+
+    private long windowStart(long millis) {
+        return millis - Math.floorMod(millis, windowMillis);
+    }
+
+    /**
+     * Mutable counters of one key; only touched inside map operations on that key.
+     */
+    static final class ClickAggregate {
+
+        private long pv;
+        private long uvFirst;
+        private long uipFirst;
+
+        void add(ShortLinkStatsRecordDTO event) {
+            pv++;
+            if (Boolean.TRUE.equals(event.getUvFirstFlag())) {
+                uvFirst++;
+            }
+            if (Boolean.TRUE.equals(event.getUipFirstFlag())) {
+                uipFirst++;
+            }
+        }
+
+        ClickAggregate merge(ClickAggregate other) {
+            pv += other.pv;
+            uvFirst += other.uvFirst;
+            uipFirst += other.uipFirst;
+            return this;
+        }
+
+        ShortLinkStatsAggregateDTO toRecord(StatsWindowKey key, int windowSeconds) {
+            return ShortLinkStatsAggregateDTO.builder()
+                    .gid(key.gid())
+                    .fullShortUrl(key.fullShortUrl())
+                    .windowStart(key.windowStart())
+                    .windowSeconds(windowSeconds)
+                    .os(key.os())
+                    .browser(key.browser())
+                    .device(key.device())
+                    .network(key.network())
+                    .pv(pv)
+                    .uvFirst(uvFirst)
+                    .uipFirst(uipFirst)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.tus.shortlink.svc.stats;
+
+import cn.hutool.core.lang.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.tus.common.domain.redis.CacheService;
+import org.tus.shortlink.base.common.constant.RedisConstant;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.base.tookit.StringUtils;
+import org.tus.shortlink.base.tookit.UserAgentParser;
+import org.tus.shortlink.base.tookit.UserAgentParser.UserAgentInfo;
+import org.tus.shortlink.svc.dto.ShortLinkClickDTO;
+import org.tus.shortlink.svc.service.UserAgentClassifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Turns a raw {@link ShortLinkClickDTO} into the {@link ShortLinkStatsRecordDTO} published to Kafka:
+ * UV / UIP first-visit flags (Redis), User-Agent classification and the event key.
+ */
+@Slf4j
+@Component
+public class ShortLinkClickEnricher {
+
+    /**
+     * TTL of the per link/day UV and UIP HyperLogLogs, refreshed on every add
+     */
+    private static final Duration FIRST_VISIT_TTL = Duration.ofDays(1);
+
+    private static final DateTimeFormatter DAY_FORMAT =
+            DateTimeFormatter.BASIC_ISO_DATE.withZone(ZoneId.systemDefault());
+
+    @Autowired(required = false)
+    private CacheService cacheService;
+
+    @Autowired(required = false)
+    private UserAgentClassifier userAgentClassifier;
+
+    public ShortLinkStatsRecordDTO enrich(ShortLinkClickDTO click) {
+        String dateStr = DAY_FORMAT.format(Instant.ofEpochMilli(click.getClickTime()));
+        boolean uvFirstFlag = resolveFirstVisit(RedisConstant.SHORT_LINK_STATS_UV_KEY, click.getFullShortUrl(),
+                dateStr, click.getUv()) || click.isNewVisitor();
+        boolean uipFirstFlag = resolveFirstVisit(RedisConstant.SHORT_LINK_STATS_UIP_KEY, click.getFullShortUrl(),
+                dateStr, click.getRemoteAddr());
+        UserAgentInfo agent = userAgentClassifier != null
+                ? userAgentClassifier.classify(click.getUserAgent())
+                : UserAgentParser.parse(click.getUserAgent());
+        return ShortLinkStatsRecordDTO.builder()
+                .gid(click.getGid())
+                .fullShortUrl(click.getFullShortUrl())
+                .remoteAddr(click.getRemoteAddr())
+                .referrer(click.getReferrer())
+                .userAgent(click.getUserAgent())
+                .os(agent.os())
+                .browser(agent.browser())
+                .device(agent.device())
+                .network("Unknown")
+                .uv(click.getUv())
+                .uvFirstFlag(uvFirstFlag)
+                .uipFirstFlag(uipFirstFlag)
+                .keys(UUID.randomUUID().toString())
+                .currentDate(new Date(click.getClickTime()))
+                .build();
+    }
+
+    /**
+     * First visit of {@code member} (visitor id or IP) to a link that day: one PFADD on a per link/day
+     * HyperLogLog, so one Redis round trip and one key per link/day. When Redis is unavailable, returns false.
+     */
+    private boolean resolveFirstVisit(String keyPrefix, String fullShortUrl, String dateStr, String member) {
+        if (cacheService == null || !StringUtils.hasText(member)) {
+            return false;
+        }
+        String key = keyPrefix + fullShortUrl + ":" + dateStr;
+        try {
+            return cacheService.pfAdd(key, member, FIRST_VISIT_TTL);
+        } catch (Exception e) {
+            log.warn("First-visit Redis check failed for {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+}
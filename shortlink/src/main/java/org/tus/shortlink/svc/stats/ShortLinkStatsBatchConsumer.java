@@ -0,0 +1,183 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumes the stats topic in batches and writes each poll to ClickHouse with one RowBinary insert per
+ * partition.
+ *
+ * <p>Replaces the ClickHouse Kafka engine table for high ingest: partitions are spread over
+ * {@code shortlink.stats.consumer.concurrency} consumers, a poll is bounded by
+ * {@code max-poll-records} and {@code fetch-max-wait-millis}, and offsets are committed only after
+ * the inserts returned. A failed insert throws, so the container retries the same batch with backoff.
+ * Each insert is tagged with the topic, partition and offset range it covers, so a repeated insert of
+ * that range is discarded by ClickHouse, also on another pod. Events without {@code currentDate} are
+ * stamped with their Kafka record timestamp, which a re-poll sees unchanged.
+ * Undecodable messages are skipped and counted; events whose {@code keys} were written within the
+ * dedup window are dropped (see {@link StatsEventDeduplicator}).</p>
+ *
+ * <p>Enabled with {@code shortlink.stats.consumer.enabled=true}; detach {@code link_stats_kafka_mv}
+ * in ClickHouse at the same time, otherwise every event is ingested twice.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shortlink.stats.consumer", name = "enabled", havingValue = "true")
+public class ShortLinkStatsBatchConsumer {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.consumer";
+
+    private final ClickHouseStatsEventWriter eventWriter;
+
+    private final StatsEventDeduplicator deduplicator;
+
+    @Value("${kafka.topics.stats-events.format:json}")
+    private String statsEventsFormat;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private boolean binaryFormat;
+
+    private DistributionSummary batchSize;
+    private Timer insertLatency;
+    private Timer ingestLag;
+    private Counter inserted;
+    private Counter skipped;
+    private Counter duplicates;
+    private Counter failed;
+
+    /**
+     * Ingest lag of the last written batch, for the gauge
+     */
+    private final AtomicLong lastBatchLagMillis = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        binaryFormat = "binary".equalsIgnoreCase(statsEventsFormat.trim());
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        batchSize = DistributionSummary.builder(METRIC_PREFIX + ".batch.size").register(registry);
+        insertLatency = Timer.builder(METRIC_PREFIX + ".insert.latency").register(registry);
+        ingestLag = Timer.builder(METRIC_PREFIX + ".ingest.lag")
+                .description("Time from Kafka append to ClickHouse insert, per batch (oldest record)")
+                .register(registry);
+        inserted = Counter.builder(METRIC_PREFIX + ".inserted").register(registry);
+        skipped = Counter.builder(METRIC_PREFIX + ".skipped").register(registry);
+        duplicates = Counter.builder(METRIC_PREFIX + ".duplicates").register(registry);
+        failed = Counter.builder(METRIC_PREFIX + ".failed").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".ingest.lag.seconds", this, ShortLinkStatsBatchConsumer::ingestLagSeconds)
+                .register(registry);
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topics.stats-events.name:shortlink-stats-events}",
+            containerFactory = "statsBatchListenerContainerFactory",
+            concurrency = "${shortlink.stats.consumer.concurrency:4}")
+    public void onBatch(List<ConsumerRecord<String, byte[]>> records) throws Exception {
+        Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            byPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                    k -> new ArrayList<>()).add(record);
+        }
+        long oldestTimestamp = Long.MAX_VALUE;
+        for (Map.Entry<TopicPartition, List<ConsumerRecord<String, byte[]>>> entry : byPartition.entrySet()) {
+            oldestTimestamp = Math.min(oldestTimestamp, insertPartition(entry.getKey(), entry.getValue()));
+        }
+        if (oldestTimestamp == Long.MAX_VALUE) {
+            return;
+        }
+        long lagMillis = Math.max(0, System.currentTimeMillis() - oldestTimestamp);
+        ingestLag.record(lagMillis, TimeUnit.MILLISECONDS);
+        lastBatchLagMillis.set(lagMillis);
+    }
+
+    /**
+     * Insert the records of one partition, in offset order, under the token of their offset range.
+     *
+     * @return Kafka timestamp of the oldest record written, or {@code Long.MAX_VALUE} when none was
+     */
+    private long insertPartition(TopicPartition partition, List<ConsumerRecord<String, byte[]>> records)
+            throws Exception {
+        List<ShortLinkStatsRecordDTO> decoded = new ArrayList<>(records.size());
+        long oldestTimestamp = Long.MAX_VALUE;
+        for (ConsumerRecord<String, byte[]> record : records) {
+            ShortLinkStatsRecordDTO event = decode(record);
+            if (event == null) {
+                skipped.increment();
+                continue;
+            }
+            if (event.getCurrentDate() == null || event.getCurrentDate().getTime() == 0) {
+                event.setCurrentDate(new Date(record.timestamp() >= 0 ? record.timestamp() : System.currentTimeMillis()));
+            }
+            decoded.add(event);
+            oldestTimestamp = Math.min(oldestTimestamp, record.timestamp());
+        }
+        List<ShortLinkStatsRecordDTO> events = deduplicator.filter(decoded);
+        duplicates.increment(decoded.size() - events.size());
+        if (events.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+
+        String token = ClickHouseStatsEventWriter.deduplicationToken(partition.topic(), partition.partition(),
+                records.get(0).offset(), records.get(records.size() - 1).offset());
+        long start = System.nanoTime();
+        try {
+            eventWriter.insert(events, token);
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Stats batch insert of {} events from {} failed, batch will be retried: {}",
+                    events.size(), partition, e.getMessage());
+            throw e;
+        }
+        insertLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        deduplicator.remember(events);
+        batchSize.record(events.size());
+        inserted.increment(events.size());
+        return oldestTimestamp;
+    }
+
+    private ShortLinkStatsRecordDTO decode(ConsumerRecord<String, byte[]> record) {
+        byte[] value = record.value();
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        try {
+            return binaryFormat
+                    ? StatsRecordBinaryCodec.decode(value)
+                    : JSON.parseObject(value, ShortLinkStatsRecordDTO.class);
+        } catch (Exception e) {
+            log.warn("Skipping undecodable stats event at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return null;
+        }
+    }
+
+    private double ingestLagSeconds() {
+        return lastBatchLagMillis.get() / 1000.0;
+    }
+}
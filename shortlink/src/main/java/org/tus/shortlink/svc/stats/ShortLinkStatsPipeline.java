@@ -0,0 +1,238 @@
+package org.tus.shortlink.svc.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.svc.dto.ShortLinkClickDTO;
+import org.tus.shortlink.svc.service.ShortLinkStatsEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous hand-off between the redirect path and the Kafka stats publisher.
+ *
+ * <p>The redirect thread only {@link #submit}s a raw {@link ShortLinkClickDTO} into a bounded
+ * lock-free {@link ClickRingBuffer}; worker threads enrich it ({@link ShortLinkClickEnricher}: Redis
+ * first-visit flags, User-Agent, event key) and hand it to {@link ShortLinkStatsEventPublisher}.
+ * A slow Redis or a full Kafka producer buffer therefore backs up here, never into a redirect.</p>
+ *
+ * <p>When the buffer is full the configured {@link OverflowPolicy} decides what is lost; every loss
+ * is counted in {@code shortlink.stats.buffer.dropped}. Enabled with {@code shortlink.stats.buffer.enabled=true},
+ * otherwise clicks are enriched and published inline.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shortlink.stats.buffer", name = "enabled", havingValue = "true")
+public class ShortLinkStatsPipeline {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.buffer";
+
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    /**
+     * What to give up when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Keep the buffered backlog, drop the incoming click
+         */
+        DROP_NEWEST,
+        /**
+         * Evict the oldest buffered click to make room for the incoming one
+         */
+        DROP_OLDEST,
+        /**
+         * Above the high-water mark admit only a sampled fraction of clicks; drop the incoming one when full
+         */
+        SAMPLE
+    }
+
+    private final ShortLinkClickEnricher clickEnricher;
+
+    private final ShortLinkStatsEventPublisher statsEventPublisher;
+
+    /**
+     * Rounded up to a power of two
+     */
+    @Value("${shortlink.stats.buffer.capacity:65536}")
+    private int capacity;
+
+    @Value("${shortlink.stats.buffer.workers:2}")
+    private int workers;
+
+    @Value("${shortlink.stats.buffer.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    /**
+     * SAMPLE only: fill ratio from which clicks are sampled
+     */
+    @Value("${shortlink.stats.buffer.sample.high-water-ratio:0.75}")
+    private double sampleHighWaterRatio;
+
+    /**
+     * SAMPLE only: fraction of clicks admitted above the high-water mark
+     */
+    @Value("${shortlink.stats.buffer.sample.rate:0.1}")
+    private double sampleRate;
+
+    /**
+     * On shutdown, keep draining the buffer for at most this long
+     */
+    @Value("${shortlink.stats.buffer.drain-timeout-millis:5000}")
+    private long drainTimeoutMillis;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private ClickRingBuffer<ShortLinkClickDTO> buffer;
+
+    private final List<Thread> workerThreads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    private int sampleThreshold;
+
+    private Counter enqueued;
+    private Counter droppedNewest;
+    private Counter droppedOldest;
+    private Counter droppedSampled;
+    private Counter failed;
+    private Timer enqueueTimer;
+
+    @PostConstruct
+    public void init() {
+        buffer = new ClickRingBuffer<>(capacity);
+        sampleThreshold = (int) (buffer.capacity() * sampleHighWaterRatio);
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        Gauge.builder(METRIC_PREFIX + ".depth", buffer, ClickRingBuffer::size).register(registry);
+        Gauge.builder(METRIC_PREFIX + ".capacity", buffer, ClickRingBuffer::capacity).register(registry);
+        enqueued = Counter.builder(METRIC_PREFIX + ".enqueued").register(registry);
+        droppedNewest = Counter.builder(METRIC_PREFIX + ".dropped").tag("reason", "newest").register(registry);
+        droppedOldest = Counter.builder(METRIC_PREFIX + ".dropped").tag("reason", "oldest").register(registry);
+        droppedSampled = Counter.builder(METRIC_PREFIX + ".dropped").tag("reason", "sampled").register(registry);
+        failed = Counter.builder(METRIC_PREFIX + ".failed").register(registry);
+        enqueueTimer = Timer.builder(METRIC_PREFIX + ".enqueue.latency").register(registry);
+
+        running = true;
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            Thread thread = new Thread(this::runWorker, "stats-pipeline-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+        log.info("Stats pipeline started: capacity={}, workers={}, overflowPolicy={}",
+                buffer.capacity(), workerThreads.size(), overflowPolicy);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        for (Thread thread : workerThreads) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                thread.join(Math.max(1, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int left = buffer.size();
+        if (left > 0) {
+            log.warn("Stats pipeline stopped with {} clicks not published", left);
+        }
+    }
+
+    /**
+     * Hand a click to the pipeline; never blocks.
+     *
+     * @return false when the click was dropped by the overflow policy
+     */
+    public boolean submit(ShortLinkClickDTO click) {
+        long start = System.nanoTime();
+        boolean accepted = admit(click);
+        enqueueTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (accepted) {
+            enqueued.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * Approximate number of buffered clicks.
+     */
+    public int depth() {
+        return buffer.size();
+    }
+
+    private boolean admit(ShortLinkClickDTO click) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                // bounded retries: consumers and other producers race for the same slots
+                for (int attempt = 0; attempt < 4; attempt++) {
+                    if (buffer.offer(click)) {
+                        return true;
+                    }
+                    if (buffer.poll() != null) {
+                        droppedOldest.increment();
+                    }
+                }
+                break;
+            case SAMPLE:
+                if (buffer.size() >= sampleThreshold && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                    droppedSampled.increment();
+                    return false;
+                }
+                if (buffer.offer(click)) {
+                    return true;
+                }
+                break;
+            default:
+                if (buffer.offer(click)) {
+                    return true;
+                }
+        }
+        droppedNewest.increment();
+        return false;
+    }
+
+    private void runWorker() {
+        long idleParkNanos = MIN_IDLE_PARK_NANOS;
+        while (true) {
+            ShortLinkClickDTO click = buffer.poll();
+            if (click == null) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(idleParkNanos);
+                idleParkNanos = Math.min(idleParkNanos << 1, MAX_IDLE_PARK_NANOS);
+                continue;
+            }
+            idleParkNanos = MIN_IDLE_PARK_NANOS;
+            try {
+                statsEventPublisher.publish(clickEnricher.enrich(click));
+            } catch (Exception e) {
+                failed.increment();
+                log.warn("Stats pipeline failed to publish click for {}: {}", click.getFullShortUrl(), e.getMessage());
+            }
+        }
+    }
+}
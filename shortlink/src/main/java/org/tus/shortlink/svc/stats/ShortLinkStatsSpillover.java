@@ -0,0 +1,201 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local durability for stats events while Kafka is unavailable.
+ *
+ * <p>{@code ShortLinkStatsEventPublisher} diverts an event here when the producer rejects it
+ * (buffer full / metadata timeout) or its send fails. Events are appended to a {@link StatsSpillLog}
+ * on local disk; a single replayer thread sends them back to the stats topic in append order, one
+ * batch at a time, and commits the batch only after every send in it was acknowledged. A failed
+ * batch is retried from the same position on the next tick, so delivery is at-least-once.</p>
+ *
+ * <p>While a backlog exists, new events are spilled as well, so replayed and fresh events reach
+ * Kafka in order. Enabled with {@code shortlink.stats.spill.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shortlink.stats.spill", name = "enabled", havingValue = "true")
+public class ShortLinkStatsSpillover {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.spill";
+
+    private final KafkaTemplate<String, ShortLinkStatsRecordDTO> kafkaTemplate;
+
+    @Value("${kafka.topics.stats-events.name:shortlink-stats-events}")
+    private String statsEventsTopic;
+
+    /**
+     * Replayed events keep the message key the publisher would have used
+     */
+    @Value("${kafka.topics.stats-events.partition-key:KEYS}")
+    private StatsPartitionKey partitionKey = StatsPartitionKey.KEYS;
+
+    @Value("${shortlink.stats.spill.dir:${java.io.tmpdir}/shortlink/stats-spill}")
+    private String directory;
+
+    @Value("${shortlink.stats.spill.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${shortlink.stats.spill.max-bytes:2147483648}")
+    private long maxBytes;
+
+    @Value("${shortlink.stats.spill.replay-interval-millis:1000}")
+    private long replayIntervalMillis;
+
+    @Value("${shortlink.stats.spill.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    /**
+     * How long a replay batch may wait for its acknowledgements before it is retried
+     */
+    @Value("${shortlink.stats.spill.replay-timeout-millis:30000}")
+    private long replayTimeoutMillis;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private StatsSpillLog spillLog;
+
+    private ScheduledExecutorService replayExecutor;
+
+    private Counter spilledRecords;
+    private Counter spilledBytes;
+    private Counter replayedRecords;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() throws IOException {
+        spillLog = new StatsSpillLog(Paths.get(directory), segmentBytes, maxBytes);
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        spilledRecords = Counter.builder(METRIC_PREFIX + ".records").register(registry);
+        spilledBytes = Counter.builder(METRIC_PREFIX + ".bytes").baseUnit("bytes").register(registry);
+        replayedRecords = Counter.builder(METRIC_PREFIX + ".replayed").register(registry);
+        dropped = Counter.builder(METRIC_PREFIX + ".dropped").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".backlog.bytes", spillLog, StatsSpillLog::backlogBytes)
+                .baseUnit("bytes").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".replay.lag.seconds", this, ShortLinkStatsSpillover::replayLagSeconds)
+                .register(registry);
+
+        long backlog = spillLog.backlogBytes();
+        if (backlog > 0) {
+            log.info("Stats spill log at {} has {} bytes to replay", directory, backlog);
+        }
+        replayExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-spill-replay");
+            t.setDaemon(true);
+            return t;
+        });
+        replayExecutor.scheduleWithFixedDelay(this::replayQuietly, replayIntervalMillis, replayIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (replayExecutor != null) {
+            replayExecutor.shutdownNow();
+        }
+        if (spillLog != null) {
+            spillLog.close();
+        }
+    }
+
+    /**
+     * True while spilled events wait for replay; new events should be spilled too to keep order.
+     */
+    public boolean hasBacklog() {
+        return spillLog.backlogBytes() > 0;
+    }
+
+    /**
+     * Append one event to the spill log.
+     *
+     * @return false when the event could not be stored (log full or I/O error); it is lost
+     */
+    public boolean spill(ShortLinkStatsRecordDTO event) {
+        byte[] payload = JSON.toJSONBytes(event, "millis");
+        try {
+            if (spillLog.append(payload, System.currentTimeMillis())) {
+                spilledRecords.increment();
+                spilledBytes.increment(payload.length);
+                return true;
+            }
+            log.warn("Stats spill log full, dropping event for {}", event.getFullShortUrl());
+        } catch (IOException | RuntimeException e) {
+            log.error("Stats spill append failed, dropping event for {}", event.getFullShortUrl(), e);
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Send spilled events back to Kafka in order until the log is drained or a send fails.
+     *
+     * @return number of events replayed
+     */
+    public int replay() throws Exception {
+        int replayed = 0;
+        while (true) {
+            List<StatsSpillLog.SpillRecord> batch = spillLog.read(replayBatchSize);
+            if (batch.isEmpty()) {
+                spillLog.force();
+                return replayed;
+            }
+            List<CompletableFuture<SendResult<String, ShortLinkStatsRecordDTO>>> sends = new ArrayList<>(batch.size());
+            for (StatsSpillLog.SpillRecord record : batch) {
+                ShortLinkStatsRecordDTO event = JSON.parseObject(record.payload(), ShortLinkStatsRecordDTO.class);
+                String key = partitionKey.keyOf(event);
+                sends.add(kafkaTemplate.send(statsEventsTopic, key, event));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                    .get(replayTimeoutMillis, TimeUnit.MILLISECONDS);
+            spillLog.commit(batch.get(batch.size() - 1).nextPosition());
+            replayed += batch.size();
+            replayedRecords.increment(batch.size());
+        }
+    }
+
+    private void replayQuietly() {
+        if (!hasBacklog()) {
+            return;
+        }
+        try {
+            int replayed = replay();
+            log.info("Stats spill log drained: {} events replayed to {}", replayed, statsEventsTopic);
+        } catch (Exception e) {
+            log.warn("Stats spill replay paused, backlog {} bytes: {}", spillLog.backlogBytes(), e.getMessage());
+        }
+    }
+
+    private double replayLagSeconds() {
+        long oldest = spillLog.oldestPendingAppendedAt();
+        return oldest < 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+}
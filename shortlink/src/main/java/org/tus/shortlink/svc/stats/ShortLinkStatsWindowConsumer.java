@@ -0,0 +1,382 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.dto.ShortLinkStatsAggregateDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stateful windowed aggregation of the raw stats topic into per-link minute rollups
+ * ({@code link_stats_minute}).
+ *
+ * <p>Each assigned partition keeps its own tumbling windows in memory, keyed like the in-service
+ * pre-aggregation (link, gid, window, os/browser/device/network). With
+ * {@code kafka.topics.stats-events.partition-key=LINK} all events of a link are in one partition, so
+ * every consumer aggregates its links completely and no shuffle is needed; with random keys the
+ * rollups are still correct, only less compact. A window is written once the partition's event time
+ * passed its end by {@code allowed-lateness-millis}, or once the partition was idle that long.
+ * A late event for a written window produces an additional row, which the SummingMergeTree adds up.</p>
+ *
+ * <p>Offsets are committed manually, never past the first record of a window still in memory. When
+ * an insert fails the listener throws and the container redelivers the batch with backoff; records
+ * already folded are recognised by offset and skipped, so only the write is retried. Revoked
+ * partitions are written out in full and committed before they move. After a crash the records
+ * since the last commit are read again, so rollups are at-least-once.</p>
+ *
+ * <p>Enabled with {@code shortlink.stats.window-consumer.enabled=true}; uses its own consumer group,
+ * next to the raw event ingest. Refuses to start with {@code shortlink.stats.preaggregate.enabled=true}:
+ * the raw topic then only carries a sample, which would be added on top of the full pre-aggregates.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shortlink.stats.window-consumer", name = "enabled", havingValue = "true")
+public class ShortLinkStatsWindowConsumer implements ConsumerAwareRebalanceListener {
+
+    static final String LISTENER_ID = "shortlink-stats-window";
+
+    private static final String METRIC_PREFIX = "shortlink.stats.window";
+
+    private final ClickHouseStatsRollupWriter rollupWriter;
+
+    @Value("${kafka.topics.stats-events.format:json}")
+    private String statsEventsFormat;
+
+    @Value("${shortlink.stats.window-consumer.window-seconds:60}")
+    private int windowSeconds;
+
+    @Value("${shortlink.stats.window-consumer.allowed-lateness-millis:10000}")
+    private long allowedLatenessMillis;
+
+    @Value("${shortlink.stats.preaggregate.enabled:false}")
+    private boolean preaggregateEnabled;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<TopicPartition, PartitionWindows> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Keys held in open windows over all partitions, for the gauge
+     */
+    private final AtomicLong openKeys = new AtomicLong();
+
+    private boolean binaryFormat;
+
+    private long windowMillis;
+
+    private Counter folded;
+    private Counter redelivered;
+    private Counter skipped;
+    private Counter rows;
+    private Counter failed;
+    private Timer insertLatency;
+
+    @PostConstruct
+    public void init() {
+        if (preaggregateEnabled) {
+            // both write link_stats_minute; the sampled raw topic would be counted on top of the aggregates
+            throw new IllegalStateException("shortlink.stats.window-consumer.enabled and "
+                    + "shortlink.stats.preaggregate.enabled cannot be combined");
+        }
+        binaryFormat = "binary".equalsIgnoreCase(statsEventsFormat.trim());
+        windowMillis = TimeUnit.SECONDS.toMillis(Math.max(1, windowSeconds));
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        folded = Counter.builder(METRIC_PREFIX + ".folded").register(registry);
+        redelivered = Counter.builder(METRIC_PREFIX + ".redelivered").register(registry);
+        skipped = Counter.builder(METRIC_PREFIX + ".skipped").register(registry);
+        rows = Counter.builder(METRIC_PREFIX + ".rows").register(registry);
+        failed = Counter.builder(METRIC_PREFIX + ".failed").register(registry);
+        insertLatency = Timer.builder(METRIC_PREFIX + ".insert.latency").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".open.keys", openKeys, AtomicLong::get).register(registry);
+    }
+
+    @KafkaListener(
+            id = LISTENER_ID,
+            topics = "${kafka.topics.stats-events.name:shortlink-stats-events}",
+            containerFactory = "statsWindowListenerContainerFactory",
+            concurrency = "${shortlink.stats.window-consumer.concurrency:4}")
+    public void onBatch(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) throws Exception {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            PartitionWindows state = partitions.computeIfAbsent(
+                    new TopicPartition(record.topic(), record.partition()), tp -> new PartitionWindows(record.offset()));
+            if (record.offset() <= state.lastOffset) {
+                // batch redelivered after a failed insert: already folded
+                redelivered.increment();
+                continue;
+            }
+            state.lastOffset = record.offset();
+            state.lastRecordMillis = now;
+            ShortLinkStatsRecordDTO event = decode(record);
+            if (event == null) {
+                skipped.increment();
+                continue;
+            }
+            long eventTime = event.getCurrentDate() != null && event.getCurrentDate().getTime() != 0
+                    ? event.getCurrentDate().getTime() : record.timestamp();
+            if (state.fold(event, eventTime - Math.floorMod(eventTime, windowMillis), eventTime, record.offset())) {
+                openKeys.incrementAndGet();
+            }
+            folded.increment();
+        }
+        emit(consumer, consumer.assignment(), now, false);
+    }
+
+    /**
+     * Closes the windows of partitions that stopped receiving events; runs on the consumer thread.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        try {
+            emit(event.getConsumer(), event.getTopicPartitions(), System.currentTimeMillis(), false);
+        } catch (Exception e) {
+            log.warn("Stats window flush on idle failed, retrying later: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        try {
+            emit(consumer, revoked, System.currentTimeMillis(), true);
+        } catch (Exception e) {
+            log.warn("Stats window flush of revoked partitions {} failed, the next owner re-reads them: {}",
+                    revoked, e.getMessage());
+        }
+        drop(revoked);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        drop(lost);
+    }
+
+    private void drop(Collection<TopicPartition> moved) {
+        for (TopicPartition tp : moved) {
+            PartitionWindows state = partitions.remove(tp);
+            if (state != null) {
+                state.windows.values().forEach(this::forget);
+            }
+        }
+    }
+
+    private void forget(Window window) {
+        if (window != null) {
+            openKeys.addAndGet(-window.counts.size());
+        }
+    }
+
+    /**
+     * Write closed windows (all windows when {@code all}) of the given partitions, then commit.
+     */
+    void emit(Consumer<?, ?> consumer, Collection<TopicPartition> owned, long now, boolean all) throws Exception {
+        Map<PartitionWindows, List<Long>> closing = new HashMap<>();
+        List<ShortLinkStatsAggregateDTO> rollups = new ArrayList<>();
+        for (TopicPartition tp : owned) {
+            PartitionWindows state = partitions.get(tp);
+            if (state == null) {
+                continue;
+            }
+            long cutoff = all ? Long.MAX_VALUE : state.cutoff(now, allowedLatenessMillis);
+            List<Long> closed = state.closedWindows(cutoff, windowMillis);
+            for (Long windowStart : closed) {
+                state.windows.get(windowStart).toRollups(rollups, windowSeconds);
+            }
+            if (!closed.isEmpty()) {
+                closing.put(state, closed);
+            }
+        }
+        if (!rollups.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                rollupWriter.insert(rollups);
+            } catch (Exception e) {
+                failed.increment();
+                log.warn("Stats window insert of {} rollups failed, will be retried: {}", rollups.size(), e.getMessage());
+                throw e;
+            }
+            insertLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            rows.increment(rollups.size());
+        }
+        closing.forEach((state, closed) -> closed.forEach(windowStart -> forget(state.windows.remove(windowStart))));
+
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition tp : owned) {
+            PartitionWindows state = partitions.get(tp);
+            if (state == null) {
+                continue;
+            }
+            long committable = state.committableOffset();
+            if (committable > state.committedOffset) {
+                commits.put(tp, new OffsetAndMetadata(committable));
+                state.committedOffset = committable;
+            }
+        }
+        if (!commits.isEmpty()) {
+            consumer.commitSync(commits);
+        }
+    }
+
+    private ShortLinkStatsRecordDTO decode(ConsumerRecord<String, byte[]> record) {
+        byte[] value = record.value();
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        try {
+            return binaryFormat
+                    ? StatsRecordBinaryCodec.decode(value)
+                    : JSON.parseObject(value, ShortLinkStatsRecordDTO.class);
+        } catch (Exception e) {
+            log.warn("Skipping undecodable stats event at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Windows of one partition; only touched by the consumer thread that owns the partition.
+     */
+    static final class PartitionWindows {
+
+        final TreeMap<Long, Window> windows = new TreeMap<>();
+
+        long lastOffset;
+
+        /**
+         * Starts at the position the partition was assigned at
+         */
+        long committedOffset;
+
+        long lastRecordMillis;
+
+        long maxEventTime = Long.MIN_VALUE;
+
+        PartitionWindows(long firstOffset) {
+            this.lastOffset = firstOffset - 1;
+            this.committedOffset = firstOffset;
+        }
+
+        /**
+         * @return true when the event opened a new key
+         */
+        boolean fold(ShortLinkStatsRecordDTO event, long windowStart, long eventTime, long offset) {
+            maxEventTime = Math.max(maxEventTime, eventTime);
+            return windows.computeIfAbsent(windowStart, start -> new Window(offset)).add(event, windowStart);
+        }
+
+        /**
+         * Windows ending at or before this time are closed: event time minus lateness, or wall clock
+         * minus lateness once the partition was idle for that long.
+         */
+        long cutoff(long now, long latenessMillis) {
+            long cutoff = maxEventTime == Long.MIN_VALUE ? Long.MIN_VALUE : maxEventTime - latenessMillis;
+            if (now - lastRecordMillis >= latenessMillis) {
+                cutoff = Math.max(cutoff, now - latenessMillis);
+            }
+            return cutoff;
+        }
+
+        List<Long> closedWindows(long cutoff, long windowMillis) {
+            if (cutoff == Long.MAX_VALUE) {
+                return new ArrayList<>(windows.keySet());
+            }
+            if (cutoff == Long.MIN_VALUE) {
+                return List.of();
+            }
+            return new ArrayList<>(windows.headMap(cutoff - windowMillis, true).keySet());
+        }
+
+        /**
+         * First offset not yet reflected in a written window.
+         */
+        long committableOffset() {
+            long committable = lastOffset + 1;
+            for (Window window : windows.values()) {
+                committable = Math.min(committable, window.firstOffset);
+            }
+            return committable;
+        }
+    }
+
+    /**
+     * Counters of one window, per link and dimension combination.
+     */
+    static final class Window {
+
+        final long firstOffset;
+
+        final Map<StatsWindowKey, long[]> counts = new HashMap<>();
+
+        Window(long firstOffset) {
+            this.firstOffset = firstOffset;
+        }
+
+        boolean add(ShortLinkStatsRecordDTO event, long windowStart) {
+            StatsWindowKey key = new StatsWindowKey(event.getFullShortUrl(), event.getGid(), windowStart,
+                    event.getOs(), event.getBrowser(), event.getDevice(), event.getNetwork());
+            long[] c = counts.get(key);
+            boolean opened = c == null;
+            if (opened) {
+                c = new long[3];
+                counts.put(key, c);
+            }
+            c[0]++;
+            if (Boolean.TRUE.equals(event.getUvFirstFlag())) {
+                c[1]++;
+            }
+            if (Boolean.TRUE.equals(event.getUipFirstFlag())) {
+                c[2]++;
+            }
+            return opened;
+        }
+
+        void toRollups(List<ShortLinkStatsAggregateDTO> out, int windowSeconds) {
+            for (Map.Entry<StatsWindowKey, long[]> entry : counts.entrySet()) {
+                StatsWindowKey key = entry.getKey();
+                long[] c = entry.getValue();
+                out.add(ShortLinkStatsAggregateDTO.builder()
+                        .gid(key.gid())
+                        .fullShortUrl(key.fullShortUrl())
+                        .windowStart(key.windowStart())
+                        .windowSeconds(windowSeconds)
+                        .os(key.os())
+                        .browser(key.browser())
+                        .device(key.device())
+                        .network(key.network())
+                        .pv(c[0])
+                        .uvFirst(c[1])
+                        .uipFirst(c[2])
+                        .build());
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.tus.shortlink.svc.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.tus.common.domain.redis.CacheService;
+import org.tus.shortlink.base.common.constant.RedisConstant;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.base.tookit.StringUtils;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.TotalStats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live PV / UV / UIP of the current day in Redis, so dashboards see today's clicks before they reach
+ * the ClickHouse rollups.
+ *
+ * <p>{@code ShortLinkStatsEventPublisher} hands every enriched click to {@link #add}, which only bumps
+ * local maps: a PV count per link and per group, and the group's visitor ids and IPs. A timer flushes
+ * them as one pipelined batch ({@link CacheService#incrementAndPfAdd}): INCRBY on the PV counters, PFADD
+ * on the group HyperLogLogs. A link's UV / UIP are not written here: the first-visit HyperLogLogs of
+ * {@link ShortLinkClickEnricher} already hold that day's visitors and IPs, and are read back as they are.
+ * A failed flush folds the PV counts back for the next one; the group members of that flush are dropped.</p>
+ *
+ * <p>Reads ({@link #linkToday}, {@link #groupToday}) are one pipelined GET / PFCOUNT batch and return
+ * null when Redis cannot answer, so callers can fall back to ClickHouse. Days follow the system time
+ * zone, as the first-visit keys do. Enabled with {@code shortlink.stats.today.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shortlink.stats.today", name = "enabled", havingValue = "true")
+public class ShortLinkTodayStats {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.today";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Value("${shortlink.stats.today.flush-interval-millis:500}")
+    private long flushIntervalMillis;
+
+    /**
+     * TTL of the counters and group HyperLogLogs, long enough to read yesterday's around midnight
+     */
+    @Value("${shortlink.stats.today.key-ttl-hours:48}")
+    private long keyTtlHours;
+
+    @Autowired(required = false)
+    private CacheService cacheService;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final Map<String, Long> pendingCounts = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> pendingMembers = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flushExecutor;
+
+    private Duration keyTtl;
+
+    private Counter flushes;
+    private Counter failed;
+
+    @PostConstruct
+    public void init() {
+        keyTtl = Duration.ofHours(Math.max(1, keyTtlHours));
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        flushes = Counter.builder(METRIC_PREFIX + ".flushes").register(registry);
+        failed = Counter.builder(METRIC_PREFIX + ".failed").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".pending", pendingCounts, Map::size).register(registry);
+        if (cacheService == null) {
+            log.warn("Live today stats enabled but no CacheService; clicks are not counted");
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-today-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Live today stats started: flushInterval={}ms, keyTtl={}h", flushIntervalMillis, keyTtlHours);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushQuietly();
+        }
+    }
+
+    /**
+     * Count one enriched click; never touches Redis.
+     */
+    public void add(ShortLinkStatsRecordDTO event) {
+        if (cacheService == null || !StringUtils.hasText(event.getFullShortUrl())) {
+            return;
+        }
+        Instant clickTime = event.getCurrentDate() != null ? event.getCurrentDate().toInstant() : clock.instant();
+        String day = DAY_FORMAT.format(LocalDate.ofInstant(clickTime, clock.getZone()));
+        pendingCounts.merge(String.format(RedisConstant.SHORT_LINK_STATS_TODAY_PV_KEY, event.getFullShortUrl(), day),
+                1L, Long::sum);
+        if (!StringUtils.hasText(event.getGid())) {
+            return;
+        }
+        pendingCounts.merge(String.format(RedisConstant.SHORT_LINK_STATS_TODAY_GROUP_PV_KEY, event.getGid(), day),
+                1L, Long::sum);
+        addMember(String.format(RedisConstant.SHORT_LINK_STATS_TODAY_GROUP_UV_KEY, event.getGid(), day),
+                event.getUv());
+        addMember(String.format(RedisConstant.SHORT_LINK_STATS_TODAY_GROUP_UIP_KEY, event.getGid(), day),
+                event.getRemoteAddr());
+    }
+
+    /**
+     * Current day in the time zone the counters are keyed by.
+     */
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Today's PV / UV / UIP of one link, or null when Redis cannot answer.
+     */
+    public TotalStats linkToday(String fullShortUrl) {
+        String day = DAY_FORMAT.format(today());
+        return read(String.format(RedisConstant.SHORT_LINK_STATS_TODAY_PV_KEY, fullShortUrl, day),
+                RedisConstant.SHORT_LINK_STATS_UV_KEY + fullShortUrl + ":" + day,
+                RedisConstant.SHORT_LINK_STATS_UIP_KEY + fullShortUrl + ":" + day);
+    }
+
+    /**
+     * Today's PV / UV / UIP of one group, or null when Redis cannot answer.
+     */
+    public TotalStats groupToday(String gid) {
+        String day = DAY_FORMAT.format(today());
+        return read(String.format(RedisConstant.SHORT_LINK_STATS_TODAY_GROUP_PV_KEY, gid, day),
+                String.format(RedisConstant.SHORT_LINK_STATS_TODAY_GROUP_UV_KEY, gid, day),
+                String.format(RedisConstant.SHORT_LINK_STATS_TODAY_GROUP_UIP_KEY, gid, day));
+    }
+
+    /**
+     * Number of counters waiting for a flush.
+     */
+    public int pendingKeys() {
+        return pendingCounts.size();
+    }
+
+    private void addMember(String key, String member) {
+        if (!StringUtils.hasText(member)) {
+            return;
+        }
+        // the set is only mutated under the map's bin lock, and flush removes it under the same lock
+        pendingMembers.compute(key, (k, members) -> {
+            Set<String> target = members != null ? members : new HashSet<>();
+            target.add(member);
+            return target;
+        });
+    }
+
+    private TotalStats read(String pvKey, String uvKey, String uipKey) {
+        if (cacheService == null) {
+            return null;
+        }
+        try {
+            Map<String, Long> values = cacheService.getCountersAndPfCount(List.of(pvKey), List.of(uvKey, uipKey));
+            return new TotalStats(values.getOrDefault(pvKey, 0L), values.getOrDefault(uvKey, 0L),
+                    values.getOrDefault(uipKey, 0L));
+        } catch (Exception e) {
+            log.warn("Live today stats read failed for {}: {}", pvKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Live today stats flush failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write and remove everything counted so far in one pipelined batch.
+     *
+     * @return number of keys written
+     */
+    int flush() {
+        Map<String, Long> counts = new HashMap<>();
+        for (String key : new ArrayList<>(pendingCounts.keySet())) {
+            Long count = pendingCounts.remove(key);
+            if (count != null) {
+                counts.put(key, count);
+            }
+        }
+        Map<String, Set<String>> members = new HashMap<>();
+        for (String key : new ArrayList<>(pendingMembers.keySet())) {
+            Set<String> set = pendingMembers.remove(key);
+            if (set != null) {
+                members.put(key, set);
+            }
+        }
+        if (counts.isEmpty() && members.isEmpty()) {
+            return 0;
+        }
+        try {
+            cacheService.incrementAndPfAdd(counts, members, keyTtl);
+            flushes.increment();
+            return counts.size() + members.size();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Live today stats: failed to write {} counters, retrying on next flush: {}",
+                    counts.size(), e.getMessage());
+            counts.forEach((key, count) -> pendingCounts.merge(key, count, Long::sum));
+            return 0;
+        }
+    }
+}
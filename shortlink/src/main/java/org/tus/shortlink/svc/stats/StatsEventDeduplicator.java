@@ -0,0 +1,60 @@
+package org.tus.shortlink.svc.stats;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Short-window memory of stats event {@code keys} already written to ClickHouse.
+ *
+ * <p>Every event carries a unique {@code keys} UUID and is partitioned by it (or by its link), so a
+ * redelivered or replayed event reaches the consumer that wrote it before. Keys are remembered only after their
+ * insert succeeded; a batch retried after a failed insert is therefore not filtered against itself.
+ * Events without keys are always passed through.</p>
+ */
+public class StatsEventDeduplicator {
+
+    private final Cache<String, Boolean> writtenKeys;
+
+    public StatsEventDeduplicator(Duration window, long maximumSize) {
+        this.writtenKeys = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Events whose keys were neither written recently nor seen earlier in the same batch, in order.
+     */
+    public List<ShortLinkStatsRecordDTO> filter(List<ShortLinkStatsRecordDTO> events) {
+        List<ShortLinkStatsRecordDTO> unique = new ArrayList<>(events.size());
+        Set<String> batchKeys = new HashSet<>(events.size() * 2);
+        for (ShortLinkStatsRecordDTO event : events) {
+            String keys = event.getKeys();
+            if (keys == null || keys.isEmpty()) {
+                unique.add(event);
+            } else if (writtenKeys.getIfPresent(keys) == null && batchKeys.add(keys)) {
+                unique.add(event);
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Record the keys of events that were written.
+     */
+    public void remember(List<ShortLinkStatsRecordDTO> events) {
+        for (ShortLinkStatsRecordDTO event : events) {
+            String keys = event.getKeys();
+            if (keys != null && !keys.isEmpty()) {
+                writtenKeys.put(keys, Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.tus.shortlink.svc.stats;
+
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+/**
+ * Kafka message key of a stats event, set with {@code kafka.topics.stats-events.partition-key}.
+ */
+public enum StatsPartitionKey {
+
+    /**
+     * The random event key: events spread evenly over all partitions
+     */
+    KEYS {
+        @Override
+        public String keyOf(ShortLinkStatsRecordDTO event) {
+            return event.getKeys() != null ? event.getKeys() : event.getFullShortUrl();
+        }
+    },
+
+    /**
+     * The full short url: all events of a link land in one partition, so a consumer can aggregate
+     * per link without a shuffle (see {@link ShortLinkStatsWindowConsumer}). A hot link loads one partition.
+     */
+    LINK {
+        @Override
+        public String keyOf(ShortLinkStatsRecordDTO event) {
+            return event.getFullShortUrl() != null ? event.getFullShortUrl() : event.getKeys();
+        }
+    };
+
+    public abstract String keyOf(ShortLinkStatsRecordDTO event);
+}
@@ -0,0 +1,61 @@
+package org.tus.shortlink.svc.stats;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Map;
+
+/**
+ * Batching profiles of the stats event producer, from lowest latency to highest throughput.
+ *
+ * <p>Set statically with {@code kafka.producer.stats-events.profile}, or switched at runtime by
+ * {@link StatsProducerTuner}.</p>
+ */
+public enum StatsProducerProfile {
+
+    /**
+     * Send as soon as a record is ready; for quiet periods
+     */
+    LOW_LATENCY(0, 16 * 1024),
+
+    /**
+     * Short linger, medium batches
+     */
+    BALANCED(10, 64 * 1024),
+
+    /**
+     * Long linger and large batches; for peaks, fewer and better compressed requests
+     */
+    THROUGHPUT(50, 512 * 1024);
+
+    private final int lingerMs;
+
+    private final int batchSize;
+
+    StatsProducerProfile(int lingerMs, int batchSize) {
+        this.lingerMs = lingerMs;
+        this.batchSize = batchSize;
+    }
+
+    public int lingerMs() {
+        return lingerMs;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Producer settings that differ between profiles.
+     */
+    public Map<String, Object> producerConfigs() {
+        return Map.of(ProducerConfig.LINGER_MS_CONFIG, lingerMs, ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+    }
+
+    StatsProducerProfile higher() {
+        return this == LOW_LATENCY ? BALANCED : THROUGHPUT;
+    }
+
+    StatsProducerProfile lower() {
+        return this == THROUGHPUT ? BALANCED : LOW_LATENCY;
+    }
+}
@@ -0,0 +1,232 @@
+package org.tus.shortlink.svc.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Switches the stats producer between {@link StatsProducerProfile}s as load changes.
+ *
+ * <p>Every {@code interval-millis} it reads the producer's own metrics: record send rate, batch
+ * fill ratio ({@code batch-size-avg} over the profile's {@code batch.size}), request latency and
+ * free buffer memory. A rate above {@code high-rate}, a nearly full buffer, full batches or slow
+ * requests ask for the next higher profile; a rate below {@code low-rate} with an idle buffer asks
+ * for the next lower one. A switch is applied only after the same request was seen
+ * {@code stable-ticks} times in a row, one profile step at a time.</p>
+ *
+ * <p>Producer settings cannot change on a live producer: the factory configs are updated and the
+ * shared producer is closed (after flushing) and recreated on the next send. A send racing the
+ * close fails and is spilled like any other failed send. The current profile, every switch and the
+ * observed inputs are exported under {@code shortlink.stats.producer}. Enabled with
+ * {@code kafka.producer.stats-events.adaptive.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "kafka.producer.stats-events.adaptive", name = "enabled", havingValue = "true")
+public class StatsProducerTuner {
+
+    private static final String METRIC_PREFIX = "shortlink.stats.producer";
+
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+    private final ProducerFactory<String, ShortLinkStatsRecordDTO> producerFactory;
+
+    private final KafkaTemplate<String, ShortLinkStatsRecordDTO> kafkaTemplate;
+
+    @Value("${kafka.producer.stats-events.profile:BALANCED}")
+    private StatsProducerProfile initialProfile;
+
+    @Value("${kafka.producer.stats-events.adaptive.interval-millis:10000}")
+    private long intervalMillis;
+
+    /**
+     * Records per second below which LOW_LATENCY is preferred
+     */
+    @Value("${kafka.producer.stats-events.adaptive.low-rate:200}")
+    private double lowRate;
+
+    /**
+     * Records per second above which THROUGHPUT is preferred
+     */
+    @Value("${kafka.producer.stats-events.adaptive.high-rate:5000}")
+    private double highRate;
+
+    @Value("${kafka.producer.stats-events.adaptive.max-request-latency-millis:100}")
+    private double maxRequestLatencyMillis;
+
+    @Value("${kafka.producer.stats-events.adaptive.stable-ticks:3}")
+    private int stableTicks;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private volatile StatsProducerProfile profile;
+
+    private volatile Observation lastObservation = Observation.EMPTY;
+
+    private StatsProducerProfile pendingTarget;
+
+    private int pendingTicks;
+
+    private final Map<StatsProducerProfile, Counter> switches = new EnumMap<>(StatsProducerProfile.class);
+
+    private ScheduledExecutorService tuneExecutor;
+
+    /**
+     * Producer metrics of one tick; NaN when the producer does not report a value yet.
+     */
+    record Observation(double recordRate, double batchFillRatio, double requestLatencyMillis,
+                       double bufferAvailableRatio) {
+
+        static final Observation EMPTY = new Observation(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    @PostConstruct
+    public void init() {
+        profile = initialProfile;
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        Gauge.builder(METRIC_PREFIX + ".profile", this, tuner -> tuner.profile.ordinal())
+                .description("0=LOW_LATENCY, 1=BALANCED, 2=THROUGHPUT")
+                .register(registry);
+        for (StatsProducerProfile p : StatsProducerProfile.values()) {
+            switches.put(p, Counter.builder(METRIC_PREFIX + ".profile.switches").tag("to", p.name()).register(registry));
+        }
+        Gauge.builder(METRIC_PREFIX + ".record.rate", this, tuner -> tuner.lastObservation.recordRate())
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".batch.fill.ratio", this, tuner -> tuner.lastObservation.batchFillRatio())
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".request.latency.millis", this,
+                tuner -> tuner.lastObservation.requestLatencyMillis()).register(registry);
+        Gauge.builder(METRIC_PREFIX + ".buffer.available.ratio", this,
+                tuner -> tuner.lastObservation.bufferAvailableRatio()).register(registry);
+
+        tuneExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-producer-tuner");
+            t.setDaemon(true);
+            return t;
+        });
+        tuneExecutor.scheduleWithFixedDelay(this::tuneQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Stats producer tuner started: profile={}, lowRate={}/s, highRate={}/s", profile, lowRate, highRate);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (tuneExecutor != null) {
+            tuneExecutor.shutdownNow();
+        }
+    }
+
+    public StatsProducerProfile currentProfile() {
+        return profile;
+    }
+
+    private void tuneQuietly() {
+        try {
+            tune(observe());
+        } catch (Exception e) {
+            log.warn("Stats producer tuning failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Feed one observation; switches the producer once the same target was requested {@code stable-ticks} times.
+     *
+     * @return the profile in effect afterwards
+     */
+    StatsProducerProfile tune(Observation observation) {
+        lastObservation = observation;
+        StatsProducerProfile target = target(profile, observation);
+        if (target == profile) {
+            pendingTarget = null;
+            pendingTicks = 0;
+            return profile;
+        }
+        pendingTicks = target == pendingTarget ? pendingTicks + 1 : 1;
+        pendingTarget = target;
+        if (pendingTicks >= Math.max(1, stableTicks)) {
+            apply(target, observation);
+            pendingTarget = null;
+            pendingTicks = 0;
+        }
+        return profile;
+    }
+
+    /**
+     * The neighbouring profile the observation asks for, or {@code current}.
+     */
+    StatsProducerProfile target(StatsProducerProfile current, Observation observation) {
+        double rate = observation.recordRate();
+        if (Double.isNaN(rate)) {
+            return current;
+        }
+        boolean bufferPressure = observation.bufferAvailableRatio() < 0.5;
+        boolean batchesFull = observation.batchFillRatio() >= 0.9;
+        boolean slowRequests = observation.requestLatencyMillis() > maxRequestLatencyMillis;
+        if (current != StatsProducerProfile.THROUGHPUT
+                && (rate > highRate || bufferPressure || (batchesFull && rate >= lowRate) || slowRequests)) {
+            return current.higher();
+        }
+        boolean bufferIdle = Double.isNaN(observation.bufferAvailableRatio()) || observation.bufferAvailableRatio() > 0.9;
+        if (current == StatsProducerProfile.THROUGHPUT && rate < highRate / 2 && bufferIdle && !slowRequests) {
+            return current.lower();
+        }
+        if (current == StatsProducerProfile.BALANCED && rate < lowRate && bufferIdle && !slowRequests) {
+            return current.lower();
+        }
+        return current;
+    }
+
+    private void apply(StatsProducerProfile target, Observation observation) {
+        log.info("Stats producer switching {} -> {} (rate={}/s, batchFill={}, requestLatency={}ms, bufferAvailable={})",
+                profile, target, Math.round(observation.recordRate()), observation.batchFillRatio(),
+                observation.requestLatencyMillis(), observation.bufferAvailableRatio());
+        producerFactory.updateConfigs(target.producerConfigs());
+        // closes (and flushes) the shared producer; the next send creates one with the new settings
+        producerFactory.reset();
+        profile = target;
+        switches.get(target).increment();
+    }
+
+    private Observation observe() {
+        Map<MetricName, ? extends Metric> metrics = kafkaTemplate.metrics();
+        double batchSizeAvg = value(metrics, "batch-size-avg");
+        double bufferTotal = value(metrics, "buffer-total-bytes");
+        return new Observation(
+                value(metrics, "record-send-rate"),
+                batchSizeAvg / profile.batchSize(),
+                value(metrics, "request-latency-avg"),
+                bufferTotal > 0 ? value(metrics, "buffer-available-bytes") / bufferTotal : Double.NaN);
+    }
+
+    private static double value(Map<MetricName, ? extends Metric> metrics, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (PRODUCER_METRICS_GROUP.equals(metricName.group()) && name.equals(metricName.name())) {
+                Object value = entry.getValue().metricValue();
+                return value instanceof Number number ? number.doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+}
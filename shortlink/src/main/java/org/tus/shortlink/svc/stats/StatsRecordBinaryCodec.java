@@ -0,0 +1,129 @@
+package org.tus.shortlink.svc.stats;
+
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Compact binary encoding of {@link ShortLinkStatsRecordDTO} for the stats topic.
+ *
+ * <p>The layout is ClickHouse {@code RowBinary}, so the Kafka engine table
+ * ({@code kafka_format = 'RowBinary'}) reads messages without a schema file. Version 1, in column order:</p>
+ * <pre>
+ * schemaVersion UInt8         1
+ * currentDate   Int64         epoch millis, little-endian, 0 = unknown
+ * gid, fullShortUrl, remoteAddr, referrer, userAgent, os, browser, device, network, uv, keys
+ *               String        unsigned LEB128 byte length + UTF-8, null written as empty
+ * uvFirstFlag   UInt8         0 / 1
+ * uipFirstFlag  UInt8         0 / 1
+ * </pre>
+ *
+ * <p>Field names are never repeated, so a typical click is well under half its JSON size. A new
+ * field means a new version appended at the end; {@link #decode} rejects versions it does not know.</p>
+ */
+public final class StatsRecordBinaryCodec {
+
+    public static final byte VERSION_1 = 1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private StatsRecordBinaryCodec() {
+    }
+
+    public static byte[] encode(ShortLinkStatsRecordDTO record) {
+        RowBinaryOutput out = new RowBinaryOutput(INITIAL_CAPACITY);
+        out.writeByte(VERSION_1);
+        out.writeLong(record.getCurrentDate() != null ? record.getCurrentDate().getTime() : 0L);
+        out.writeString(record.getGid());
+        out.writeString(record.getFullShortUrl());
+        out.writeString(record.getRemoteAddr());
+        out.writeString(record.getReferrer());
+        out.writeString(record.getUserAgent());
+        out.writeString(record.getOs());
+        out.writeString(record.getBrowser());
+        out.writeString(record.getDevice());
+        out.writeString(record.getNetwork());
+        out.writeString(record.getUv());
+        out.writeString(record.getKeys());
+        out.writeByte(Boolean.TRUE.equals(record.getUvFirstFlag()) ? 1 : 0);
+        out.writeByte(Boolean.TRUE.equals(record.getUipFirstFlag()) ? 1 : 0);
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException on an unknown version or a truncated message
+     */
+    public static ShortLinkStatsRecordDTO decode(byte[] data) {
+        Reader in = new Reader(data);
+        int version = in.readByte();
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported stats record version: " + version);
+        }
+        long currentDate = in.readLongLE();
+        return ShortLinkStatsRecordDTO.builder()
+                .currentDate(currentDate != 0 ? new Date(currentDate) : null)
+                .gid(in.readString())
+                .fullShortUrl(in.readString())
+                .remoteAddr(in.readString())
+                .referrer(in.readString())
+                .userAgent(in.readString())
+                .os(in.readString())
+                .browser(in.readString())
+                .device(in.readString())
+                .network(in.readString())
+                .uv(in.readString())
+                .keys(in.readString())
+                .uvFirstFlag(in.readByte() != 0)
+                .uipFirstFlag(in.readByte() != 0)
+                .build();
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            require(1);
+            return data[position++] & 0xFF;
+        }
+
+        long readLongLE() {
+            require(Long.BYTES);
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value |= (data[position++] & 0xFFL) << (8 * i);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (shift > 28) {
+                    throw new IllegalArgumentException("Malformed string length at " + position);
+                }
+                b = readByte();
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            require(length);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (bytes < 0 || position + bytes > data.length) {
+                throw new IllegalArgumentException("Truncated stats record at " + position);
+            }
+        }
+    }
+}
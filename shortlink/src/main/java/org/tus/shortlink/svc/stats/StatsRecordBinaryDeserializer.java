@@ -0,0 +1,23 @@
+package org.tus.shortlink.svc.stats;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+/**
+ * Kafka value deserializer for {@link StatsRecordBinaryCodec} messages, for consumers of the binary stats topic.
+ */
+public class StatsRecordBinaryDeserializer implements Deserializer<ShortLinkStatsRecordDTO> {
+
+    @Override
+    public ShortLinkStatsRecordDTO deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return StatsRecordBinaryCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode stats record from " + topic, e);
+        }
+    }
+}
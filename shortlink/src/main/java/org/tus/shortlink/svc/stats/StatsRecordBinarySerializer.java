@@ -0,0 +1,15 @@
+package org.tus.shortlink.svc.stats;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+/**
+ * Kafka value serializer writing {@link StatsRecordBinaryCodec} (ClickHouse RowBinary) messages.
+ */
+public class StatsRecordBinarySerializer implements Serializer<ShortLinkStatsRecordDTO> {
+
+    @Override
+    public byte[] serialize(String topic, ShortLinkStatsRecordDTO data) {
+        return data == null ? null : StatsRecordBinaryCodec.encode(data);
+    }
+}
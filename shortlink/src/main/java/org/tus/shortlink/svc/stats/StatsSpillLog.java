@@ -0,0 +1,279 @@
+package org.tus.shortlink.svc.stats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped spill log made of fixed-size segments in one directory.
+ *
+ * <p>Positions are logical byte offsets across the whole log; a segment file is named after the
+ * position of its first record ({@code 00000000000000000000.spill}) and preallocated to
+ * {@code segmentBytes}. Record layout (big-endian):</p>
+ * <pre>
+ * [int payloadLength][int crc32(payload)][long appendedAtMillis][payload]
+ * </pre>
+ * <p>A zero length marks the end of a segment's data; each append writes the next terminator, and on
+ * open every segment is scanned to the first zero length or checksum mismatch, so a torn write is
+ * cut off rather than replayed.</p>
+ *
+ * <p>The replay position is kept in a memory-mapped {@code replay.checkpoint} file; segments that
+ * lie entirely before it are deleted. All methods are synchronized: appends are a memory copy and
+ * reads are batched, so contention stays low.</p>
+ */
+public class StatsSpillLog implements Closeable {
+
+    static final int RECORD_HEADER_BYTES = 16;
+
+    private static final String SEGMENT_SUFFIX = ".spill";
+    private static final String CHECKPOINT_FILE = "replay.checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+
+    /**
+     * Segments by base position, oldest first; the last one is the active (written) segment
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpointBuffer;
+
+    private long writePosition;
+    private long replayPosition;
+
+    /**
+     * One record read for replay.
+     *
+     * @param payload      serialized event
+     * @param appendedAt   epoch millis of the append
+     * @param nextPosition log position right after this record, to commit once it is delivered
+     */
+    public record SpillRecord(byte[] payload, long appendedAt, long nextPosition) {
+    }
+
+    /**
+     * @param segmentBytes size of each segment file, must hold at least one record
+     * @param maxBytes     upper bound on segment files on disk; appends beyond it are rejected
+     */
+    public StatsSpillLog(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes < RECORD_HEADER_BYTES * 4) {
+            throw new IllegalArgumentException("segmentBytes too small: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = Math.max(maxBytes, segmentBytes);
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(base, Segment.open(file, base, segmentBytes));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            roll(0);
+        }
+        Segment active = segments.lastEntry().getValue();
+        writePosition = active.base + active.used;
+
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpointBuffer = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        long checkpoint = checkpointBuffer.getLong(0);
+        replayPosition = Math.min(Math.max(checkpoint, segments.firstKey()), writePosition);
+    }
+
+    /**
+     * @return false when the record is empty, does not fit in a segment or the log is at {@code maxBytes}
+     */
+    public synchronized boolean append(byte[] payload, long appendedAt) throws IOException {
+        if (payload.length == 0) {
+            return false;
+        }
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+        // keep room for the terminator after the record
+        if (recordBytes + Integer.BYTES > segmentBytes) {
+            return false;
+        }
+        Segment active = segments.lastEntry().getValue();
+        if (active.used + recordBytes + Integer.BYTES > segmentBytes) {
+            if ((long) (segments.size() + 1) * segmentBytes > maxBytes) {
+                return false;
+            }
+            active = roll(writePosition);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int offset = active.used;
+        MappedByteBuffer buffer = active.buffer;
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.putLong(offset + 8, appendedAt);
+        buffer.put(offset + RECORD_HEADER_BYTES, payload);
+        buffer.putInt(offset + recordBytes, 0);
+        // length last: a record is only visible once complete
+        buffer.putInt(offset, payload.length);
+        active.used += recordBytes;
+        writePosition += recordBytes;
+        return true;
+    }
+
+    /**
+     * Read up to {@code maxRecords} records from the replay position, without advancing it.
+     */
+    public synchronized List<SpillRecord> read(int maxRecords) {
+        List<SpillRecord> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        long position = replayPosition;
+        while (records.size() < maxRecords && position < writePosition) {
+            Segment segment = segments.floorEntry(position).getValue();
+            int offset = (int) (position - segment.base);
+            if (offset >= segment.used) {
+                // end of a sealed segment: continue with the next one
+                position = segments.higherKey(segment.base);
+                continue;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int length = buffer.getInt(offset);
+            long appendedAt = buffer.getLong(offset + 8);
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, payload);
+            position += RECORD_HEADER_BYTES + length;
+            records.add(new SpillRecord(payload, appendedAt, position));
+        }
+        return records;
+    }
+
+    /**
+     * Mark everything before {@code position} as delivered and delete fully replayed segments.
+     */
+    public synchronized void commit(long position) throws IOException {
+        if (position <= replayPosition) {
+            return;
+        }
+        replayPosition = Math.min(position, writePosition);
+        checkpointBuffer.putLong(0, replayPosition);
+        while (segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            Long nextBase = segments.higherKey(oldest.base);
+            if (replayPosition < nextBase) {
+                break;
+            }
+            segments.pollFirstEntry();
+            oldest.close();
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    /**
+     * Appended but not yet committed bytes.
+     */
+    public synchronized long backlogBytes() {
+        return writePosition - replayPosition;
+    }
+
+    /**
+     * Append time of the oldest record not yet committed, or -1 when there is none.
+     */
+    public synchronized long oldestPendingAppendedAt() {
+        List<SpillRecord> next = read(1);
+        return next.isEmpty() ? -1 : next.get(0).appendedAt();
+    }
+
+    /**
+     * Flush dirty pages of the active segment and the checkpoint to disk.
+     */
+    public synchronized void force() {
+        segments.lastEntry().getValue().buffer.force();
+        checkpointBuffer.force();
+    }
+
+    /**
+     * Segment files currently on disk.
+     */
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        checkpointChannel.close();
+    }
+
+    private Segment roll(long base) throws IOException {
+        Path path = directory.resolve(String.format(Locale.ROOT, "%020d%s", base, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(path, base, segmentBytes);
+        segments.put(base, segment);
+        return segment;
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long base;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int used;
+
+        private Segment(Path path, long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long base, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            Segment segment = new Segment(path, base, channel, buffer);
+            segment.used = segment.scanValidBytes(segmentBytes);
+            return segment;
+        }
+
+        /**
+         * Length of the valid record prefix; stops at the terminator or the first damaged record.
+         */
+        private int scanValidBytes(int segmentBytes) {
+            int offset = 0;
+            CRC32 crc = new CRC32();
+            while (offset + RECORD_HEADER_BYTES + Integer.BYTES <= segmentBytes) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + RECORD_HEADER_BYTES + length + Integer.BYTES > segmentBytes) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(offset + RECORD_HEADER_BYTES, payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    break;
+                }
+                offset += RECORD_HEADER_BYTES + length;
+            }
+            buffer.putInt(offset, 0);
+            return offset;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
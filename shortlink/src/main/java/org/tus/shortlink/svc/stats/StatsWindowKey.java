@@ -0,0 +1,9 @@
+package org.tus.shortlink.svc.stats;
+
+/**
+ * Rollup key of one link, window and dimension combination; shared by the in-service
+ * pre-aggregation and the windowed consumer so both produce {@code link_stats_minute} rows.
+ */
+record StatsWindowKey(String fullShortUrl, String gid, long windowStart,
+                      String os, String browser, String device, String network) {
+}
@@ -9,6 +9,8 @@ import javax.sql.DataSource;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -123,16 +125,192 @@ public class ClickHouseInitRunner {
                         "PARTITION BY toYYYYMM(stat_date) ORDER BY (full_short_url, stat_date, network) " +
                         "AS SELECT toDate(event_time) AS stat_date, full_short_url, gid, network, count() AS pv, uniqExact(uv) AS uv " +
                         "FROM link_stats_events WHERE network != '' GROUP BY stat_date, full_short_url, gid, network");
+
+        createEventsV2(jdbc);
+        createTopLinks(jdbc);
+        createGroupRollups(jdbc);
+        createApproxDistinct(jdbc);
+        createMinuteRollup(jdbc);
+    }
+
+    /**
+     * link_stats_events_v2 and its MV from link_stats_events, as in 09_events_v2.sql (codecs omitted).
+     */
+    static void createEventsV2(JdbcTemplate jdbc) {
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_events_v2 (" +
+                        "event_time DateTime," +
+                        "full_short_url String," +
+                        "gid LowCardinality(String)," +
+                        "ip IPv6," +
+                        "visitor_id UInt64," +
+                        "os LowCardinality(String)," +
+                        "browser LowCardinality(String)," +
+                        "device LowCardinality(String)," +
+                        "network LowCardinality(String)," +
+                        "referrer_domain LowCardinality(String)," +
+                        "country_code LowCardinality(String)," +
+                        "region LowCardinality(String)," +
+                        "city LowCardinality(String)," +
+                        "language_code LowCardinality(String)," +
+                        "locale_code LowCardinality(String)," +
+                        "keys UUID," +
+                        "http_status UInt16," +
+                        "redirect_latency_ms UInt32," +
+                        "PROJECTION events_by_gid (SELECT event_time, keys, full_short_url, gid, ip, visitor_id, os, " +
+                        "browser, device, network, locale_code, country_code ORDER BY gid, event_time, keys)" +
+                        ") ENGINE = ReplacingMergeTree() PARTITION BY toYYYYMM(event_time) " +
+                        "ORDER BY (full_short_url, event_time, gid, keys) " +
+                        "SETTINGS deduplicate_merge_projection_mode = 'rebuild'");
+
+        jdbc.execute(
+                "CREATE MATERIALIZED VIEW IF NOT EXISTS link_stats_events_v2_mv TO link_stats_events_v2 AS SELECT " +
+                        "event_time, full_short_url, gid, toIPv6OrDefault(remote_addr) AS ip, cityHash64(uv) AS visitor_id, " +
+                        "os, browser, device, network, domain(referrer) AS referrer_domain, country_code, region, city, " +
+                        "language_code, locale_code, toUUIDOrZero(keys) AS keys, http_status, redirect_latency_ms " +
+                        "FROM link_stats_events");
+    }
+
+    /**
+     * link_stats_group_top_links and its MV from link_stats_events, as in 10_top_links.sql.
+     */
+    static void createTopLinks(JdbcTemplate jdbc) {
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_group_top_links (" +
+                        "stat_date Date," +
+                        "gid String," +
+                        "pv AggregateFunction(sum, UInt64)," +
+                        "top_links AggregateFunction(topK(100), String)" +
+                        ") ENGINE = AggregatingMergeTree() PARTITION BY toYYYYMM(stat_date) ORDER BY (gid, stat_date)");
+
+        jdbc.execute(
+                "CREATE MATERIALIZED VIEW IF NOT EXISTS link_stats_group_top_links_mv TO link_stats_group_top_links " +
+                        "AS SELECT toDate(event_time) AS stat_date, gid, sumState(toUInt64(1)) AS pv, " +
+                        "topKState(100)(full_short_url) AS top_links FROM link_stats_events GROUP BY stat_date, gid");
     }
 
-    /** Insert about 10 events so daily/hourly/dimension and access-record queries return data. */
+    /**
+     * link_stats_group_daily / _hourly / _dimension and their MVs, as in 06_group_rollups.sql.
+     */
+    static void createGroupRollups(JdbcTemplate jdbc) {
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_group_daily (" +
+                        "stat_date Date," +
+                        "gid String," +
+                        "pv AggregateFunction(sum, UInt64)," +
+                        "uv AggregateFunction(uniqExact, String)," +
+                        "uip AggregateFunction(uniqExact, String)" +
+                        ") ENGINE = AggregatingMergeTree() PARTITION BY toYYYYMM(stat_date) ORDER BY (gid, stat_date)");
+
+        jdbc.execute(
+                "CREATE MATERIALIZED VIEW IF NOT EXISTS link_stats_group_daily_mv TO link_stats_group_daily AS SELECT " +
+                        "toDate(event_time) AS stat_date, gid, sumState(toUInt64(1)) AS pv, uniqExactState(uv) AS uv, " +
+                        "uniqExactState(remote_addr) AS uip FROM link_stats_events GROUP BY stat_date, gid");
+
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_group_hourly (" +
+                        "stat_date Date," +
+                        "stat_hour UInt8," +
+                        "gid String," +
+                        "pv UInt64" +
+                        ") ENGINE = SummingMergeTree() PARTITION BY toYYYYMM(stat_date) ORDER BY (gid, stat_date, stat_hour)");
+
+        jdbc.execute(
+                "CREATE MATERIALIZED VIEW IF NOT EXISTS link_stats_group_hourly_mv TO link_stats_group_hourly AS SELECT " +
+                        "toDate(event_time) AS stat_date, toHour(event_time) AS stat_hour, gid, count() AS pv " +
+                        "FROM link_stats_events GROUP BY stat_date, stat_hour, gid");
+
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_group_dimension (" +
+                        "stat_date Date," +
+                        "gid String," +
+                        "dim LowCardinality(String)," +
+                        "value String," +
+                        "pv UInt64" +
+                        ") ENGINE = SummingMergeTree() PARTITION BY toYYYYMM(stat_date) ORDER BY (gid, stat_date, dim, value)");
+
+        jdbc.execute(
+                "CREATE MATERIALIZED VIEW IF NOT EXISTS link_stats_group_dimension_mv TO link_stats_group_dimension AS SELECT " +
+                        "toDate(event_time) AS stat_date, gid, d.1 AS dim, d.2 AS value, count() AS pv FROM link_stats_events " +
+                        "ARRAY JOIN [('browser', browser), ('os', os), ('device', device), ('network', network)] AS d " +
+                        "WHERE d.2 != '' GROUP BY stat_date, gid, dim, value");
+    }
+
+    /**
+     * link_stats_daily_approx / link_stats_group_daily_approx and their MVs, as in 07_approx_distinct.sql.
+     */
+    static void createApproxDistinct(JdbcTemplate jdbc) {
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_daily_approx (" +
+                        "stat_date Date," +
+                        "full_short_url String," +
+                        "gid String," +
+                        "pv AggregateFunction(sum, UInt64)," +
+                        "uv AggregateFunction(uniqCombined(14), String)," +
+                        "uip AggregateFunction(uniqCombined(14), String)" +
+                        ") ENGINE = AggregatingMergeTree() PARTITION BY toYYYYMM(stat_date) ORDER BY (full_short_url, stat_date, gid)");
+
+        jdbc.execute(
+                "CREATE MATERIALIZED VIEW IF NOT EXISTS link_stats_daily_approx_mv TO link_stats_daily_approx AS SELECT " +
+                        "toDate(event_time) AS stat_date, full_short_url, gid, sumState(toUInt64(1)) AS pv, " +
+                        "uniqCombinedState(14)(uv) AS uv, uniqCombinedState(14)(remote_addr) AS uip " +
+                        "FROM link_stats_events GROUP BY stat_date, full_short_url, gid");
+
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_group_daily_approx (" +
+                        "stat_date Date," +
+                        "gid String," +
+                        "pv AggregateFunction(sum, UInt64)," +
+                        "uv AggregateFunction(uniqCombined(14), String)," +
+                        "uip AggregateFunction(uniqCombined(14), String)" +
+                        ") ENGINE = AggregatingMergeTree() PARTITION BY toYYYYMM(stat_date) ORDER BY (gid, stat_date)");
+
+        jdbc.execute(
+                "CREATE MATERIALIZED VIEW IF NOT EXISTS link_stats_group_daily_approx_mv TO link_stats_group_daily_approx " +
+                        "AS SELECT toDate(event_time) AS stat_date, gid, sumState(toUInt64(1)) AS pv, " +
+                        "uniqCombinedState(14)(uv) AS uv, uniqCombinedState(14)(remote_addr) AS uip " +
+                        "FROM link_stats_events GROUP BY stat_date, gid");
+    }
+
+    /**
+     * link_stats_minute as in 05_stats_aggregates.sql, with a few pre-aggregated windows of URL1 that are
+     * independent of the raw sample (written by ShortLinkClickAggregator in production).
+     */
+    static void createMinuteRollup(JdbcTemplate jdbc) {
+        jdbc.execute(
+                "CREATE TABLE IF NOT EXISTS link_stats_minute (" +
+                        "window_start DateTime," +
+                        "full_short_url String," +
+                        "gid String," +
+                        "os String," +
+                        "browser String," +
+                        "device String," +
+                        "network String," +
+                        "pv UInt64," +
+                        "uv_first UInt64," +
+                        "uip_first UInt64" +
+                        ") ENGINE = SummingMergeTree((pv, uv_first, uip_first)) PARTITION BY toYYYYMM(window_start) " +
+                        "ORDER BY (full_short_url, window_start, gid, os, browser, device, network)");
+
+        jdbc.execute(
+                "INSERT INTO link_stats_minute VALUES " +
+                        "('2025-01-15 10:00:00', 'https://short.example/abc', 'g1', 'Windows', 'Chrome', 'PC', 'WiFi', 40, 10, 8), " +
+                        "('2025-01-15 14:00:00', 'https://short.example/abc', 'g1', 'Android', 'Chrome', 'Mobile', '4G', 20, 5, 5), " +
+                        "('2025-01-16 09:00:00', 'https://short.example/abc', 'g1', 'Windows', 'Firefox', 'PC', '', 15, 3, 3)");
+    }
+
+    /**
+     * Insert the sample events so daily/hourly/dimension and access-record queries return data: ten events
+     * of two links in group g1, and five events of a third link in group g2 sharing one second, so that
+     * keyset pagination has to break ties on keys. Every event gets a distinct UUID key.
+     */
     private static void insertSampleData(JdbcTemplate jdbc) {
         LocalDate base = LocalDate.of(2025, 1, 15);
         String url1 = "https://short.example/abc";
         String url2 = "https://short.example/xyz";
         String gid = "g1";
 
-        String insertSql = "INSERT INTO link_stats_events (event_time, full_short_url, gid, remote_addr, uv, os, browser, device, network, locale_code, country_code) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String insertSql = "INSERT INTO link_stats_events (event_time, full_short_url, gid, remote_addr, uv, os, browser, device, network, locale_code, country_code, keys) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         List<Object[]> rows = List.of(
                 row(base.atTime(10, 0), url1, gid, "192.168.1.1", "u1", "Windows", "Chrome", "PC", "WiFi", "en_US", "US"),
@@ -146,9 +324,20 @@ public class ClickHouseInitRunner {
                 row(base.plusDays(1).atTime(18, 0), url2, gid, "10.0.0.4", "u7", "macOS", "Chrome", "PC", "WiFi", "en_US", "US"),
                 row(base.plusDays(2).atTime(8, 0), url1, gid, "192.168.1.1", "u1", "Windows", "Chrome", "PC", "WiFi", "en_US", "US")
         );
+        List<Object[]> ties = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ties.add(row(base.atTime(20, 0), "https://short.example/tie", "g2", "10.9.0." + i, "t" + i,
+                    "Linux", "Firefox", "PC", "WiFi", "en_US", "US"));
+        }
 
-        for (Object[] row : rows) {
-            jdbc.update(insertSql, row);
+        int key = 0;
+        for (List<Object[]> batch : List.of(rows, ties)) {
+            for (Object[] row : batch) {
+                Object[] withKey = Arrays.copyOf(row, row.length + 1);
+                // zero-padded suffix: string and UUID order agree
+                withKey[row.length] = String.format("00000000-0000-4000-8000-%012d", key++);
+                jdbc.update(insertSql, withKey);
+            }
         }
     }
 
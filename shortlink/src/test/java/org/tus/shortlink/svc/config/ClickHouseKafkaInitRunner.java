@@ -69,7 +69,8 @@ public class ClickHouseKafkaInitRunner {
                         "keys String," +
                         "http_status UInt16," +
                         "redirect_latency_ms UInt32" +
-                        ") ENGINE = MergeTree() PARTITION BY toYYYYMM(event_time) ORDER BY (full_short_url, event_time, gid)");
+                        ") ENGINE = ReplacingMergeTree() PARTITION BY toYYYYMM(event_time) ORDER BY (full_short_url, event_time, gid, keys) " +
+                        "SETTINGS non_replicated_deduplication_window = 10000");
 
         jdbc.execute(
                 "CREATE TABLE IF NOT EXISTS link_stats_daily (" +
@@ -124,6 +125,9 @@ public class ClickHouseKafkaInitRunner {
                         "AS SELECT toDate(event_time) AS stat_date, full_short_url, gid, network, count() AS pv, uniqExact(uv) AS uv " +
                         "FROM link_stats_events WHERE network != '' GROUP BY stat_date, full_short_url, gid, network");
 
+        ClickHouseInitRunner.createEventsV2(jdbc);
+        ClickHouseInitRunner.createTopLinks(jdbc);
+
         // Kafka engine table + MV: CK pulls from topic into link_stats_events (per clickhouse-kafka-engine-setup.md)
         jdbc.execute(
                 "CREATE TABLE IF NOT EXISTS link_stats_kafka (" +
@@ -59,6 +59,8 @@ public class ClickHouseTestConfig {
     public ClickHouseStatsService clickHouseStatsService(@org.springframework.beans.factory.annotation.Qualifier("clickHouseJdbcTemplate") JdbcTemplate clickHouseJdbcTemplate) {
         ClickHouseStatsServiceImpl service = new ClickHouseStatsServiceImpl();
         ReflectionTestUtils.setField(service, "clickHouseJdbcTemplate", clickHouseJdbcTemplate);
+        ReflectionTestUtils.setField(service, "eventsV2Enabled", true);
+        ReflectionTestUtils.setField(service, "topLinksEnabled", true);
         return service;
     }
 }
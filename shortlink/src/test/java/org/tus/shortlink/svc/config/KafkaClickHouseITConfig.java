@@ -86,6 +86,8 @@ public class KafkaClickHouseITConfig {
             @Qualifier("clickHouseJdbcTemplate") JdbcTemplate clickHouseJdbcTemplate) {
         ClickHouseStatsServiceImpl service = new ClickHouseStatsServiceImpl();
         ReflectionTestUtils.setField(service, "clickHouseJdbcTemplate", clickHouseJdbcTemplate);
+        ReflectionTestUtils.setField(service, "eventsV2Enabled", true);
+        ReflectionTestUtils.setField(service, "topLinksEnabled", true);
         return service;
     }
 
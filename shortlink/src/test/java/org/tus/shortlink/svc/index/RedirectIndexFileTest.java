@@ -0,0 +1,121 @@
+package org.tus.shortlink.svc.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RedirectIndexFile (write, map, probe).
+ */
+class RedirectIndexFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripsAllEntriesAcrossSmallChunks() throws IOException {
+        Path path = tempDir.resolve("index.bin");
+        int entries = 2_000;
+        // tiny chunks force records to be padded to chunk boundaries
+        long chunkBytes = 4096;
+        try (RedirectIndexFile.Writer writer = new RedirectIndexFile.Writer(path, entries, 42L, chunkBytes)) {
+            for (int i = 0; i < entries; i++) {
+                writer.add(target(i));
+            }
+            writer.finish();
+        }
+
+        try (RedirectIndexFile index = RedirectIndexFile.open(path, chunkBytes)) {
+            assertThat(index.entryCount()).isEqualTo(entries);
+            assertThat(index.createdAt()).isEqualTo(42L);
+            for (int i = 0; i < entries; i++) {
+                ShortLinkRedirectDTO found = index.get("shortlink.tus/k" + i);
+                assertThat(found).isNotNull();
+                assertThat(found.getOriginUrl()).isEqualTo("https://example.com/" + i);
+                assertThat(found.getGid()).isEqualTo("g" + (i % 7));
+            }
+            assertThat(index.get("shortlink.tus/unknown")).isNull();
+        }
+    }
+
+    @Test
+    void preservesNullableFields() throws IOException {
+        Path path = tempDir.resolve("index.bin");
+        Date validDate = new Date(1_700_000_000_000L);
+        try (RedirectIndexFile.Writer writer = new RedirectIndexFile.Writer(path, 2, 1L)) {
+            writer.add(ShortLinkRedirectDTO.builder()
+                    .fullShortUrl("shortlink.tus/a")
+                    .originUrl("https://example.com/ä")
+                    .gid("g1")
+                    .validDateType(1)
+                    .validDate(validDate)
+                    .enableStatus(1)
+                    .build());
+            writer.add(ShortLinkRedirectDTO.builder()
+                    .fullShortUrl("shortlink.tus/b")
+                    .originUrl("https://example.com/b")
+                    .build());
+            writer.finish();
+        }
+
+        try (RedirectIndexFile index = RedirectIndexFile.open(path)) {
+            ShortLinkRedirectDTO a = index.get("shortlink.tus/a");
+            assertThat(a.getOriginUrl()).isEqualTo("https://example.com/ä");
+            assertThat(a.getValidDateType()).isEqualTo(1);
+            assertThat(a.getValidDate()).isEqualTo(validDate);
+            assertThat(a.getEnableStatus()).isEqualTo(1);
+            ShortLinkRedirectDTO b = index.get("shortlink.tus/b");
+            assertThat(b.getValidDateType()).isNull();
+            assertThat(b.getValidDate()).isNull();
+            assertThat(b.getEnableStatus()).isNull();
+        }
+    }
+
+    @Test
+    void unfinishedWriterLeavesNoFile() throws IOException {
+        Path path = tempDir.resolve("index.bin");
+        try (RedirectIndexFile.Writer writer = new RedirectIndexFile.Writer(path, 10, 1L)) {
+            writer.add(target(1));
+        }
+
+        assertThat(Files.exists(path)).isFalse();
+    }
+
+    @Test
+    void rejectsMoreEntriesThanSizedFor() throws IOException {
+        Path path = tempDir.resolve("index.bin");
+        try (RedirectIndexFile.Writer writer = new RedirectIndexFile.Writer(path, 1, 1L)) {
+            assertThatThrownBy(() -> {
+                for (int i = 0; i < 100; i++) {
+                    writer.add(target(i));
+                }
+            }).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void rejectsForeignFile() throws IOException {
+        Path path = tempDir.resolve("index.bin");
+        Files.write(path, new byte[128]);
+
+        assertThatThrownBy(() -> RedirectIndexFile.open(path)).isInstanceOf(IOException.class);
+    }
+
+    private static ShortLinkRedirectDTO target(int i) {
+        return ShortLinkRedirectDTO.builder()
+                .fullShortUrl("shortlink.tus/k" + i)
+                .originUrl("https://example.com/" + i)
+                .gid("g" + (i % 7))
+                .validDateType(0)
+                .enableStatus(0)
+                .build();
+    }
+}
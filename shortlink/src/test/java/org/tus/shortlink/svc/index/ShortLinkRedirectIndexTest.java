@@ -0,0 +1,132 @@
+package org.tus.shortlink.svc.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.common.domain.persistence.QueryService;
+import org.tus.shortlink.svc.dto.ShortLinkChangeEventDTO;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+import org.tus.shortlink.svc.entity.ShortLink;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShortLinkRedirectIndex (rebuild from DB pages + change overlay).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkRedirectIndexTest {
+
+    @Mock
+    private QueryService queryService;
+
+    @TempDir
+    Path tempDir;
+
+    private ShortLinkRedirectIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ShortLinkRedirectIndex(queryService);
+        ReflectionTestUtils.setField(index, "indexPath", tempDir.resolve("redirect-index.bin").toString());
+        // keep the background rebuild out of the way; tests call rebuild() directly
+        ReflectionTestUtils.setField(index, "rebuildIntervalMinutes", 600L);
+        ReflectionTestUtils.setField(index, "maxAgeHours", 24L);
+        ReflectionTestUtils.setField(index, "pageSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void rebuildPagesThroughLinksAndServesThem() throws Exception {
+        stubLinks();
+        index.init();
+        index.rebuild();
+
+        assertThat(index.lookup("shortlink.tus/a").getOriginUrl()).isEqualTo("https://example.com/a");
+        assertThat(index.lookup("shortlink.tus/c").getOriginUrl()).isEqualTo("https://example.com/c");
+        assertThat(index.lookup("shortlink.tus/zzz")).isNull();
+    }
+
+    @Test
+    void overlayOverridesAndInvalidatesSnapshot() throws Exception {
+        stubLinks();
+        index.init();
+        index.rebuild();
+        long now = System.currentTimeMillis();
+
+        index.apply(ShortLinkChangeEventDTO.builder()
+                .fullShortUrl("shortlink.tus/a")
+                .target(ShortLinkRedirectDTO.builder()
+                        .fullShortUrl("shortlink.tus/a").originUrl("https://example.com/new").build())
+                .changedAt(now)
+                .build());
+        index.apply(ShortLinkChangeEventDTO.builder().fullShortUrl("shortlink.tus/b").changedAt(now).build());
+        // an older event must not win over a newer one
+        index.apply(ShortLinkChangeEventDTO.builder().fullShortUrl("shortlink.tus/a").changedAt(now - 1_000).build());
+
+        assertThat(index.lookup("shortlink.tus/a").getOriginUrl()).isEqualTo("https://example.com/new");
+        assertThat(index.lookup("shortlink.tus/b")).isNull();
+    }
+
+    @Test
+    void restartMapsExistingSnapshotWithoutDatabase() throws Exception {
+        stubLinks();
+        index.init();
+        index.rebuild();
+        index.shutdown();
+
+        ShortLinkRedirectIndex restarted = new ShortLinkRedirectIndex(queryService);
+        ReflectionTestUtils.setField(restarted, "indexPath", tempDir.resolve("redirect-index.bin").toString());
+        ReflectionTestUtils.setField(restarted, "rebuildIntervalMinutes", 600L);
+        ReflectionTestUtils.setField(restarted, "maxAgeHours", 24L);
+        ReflectionTestUtils.setField(restarted, "pageSize", 2);
+        restarted.init();
+        try {
+            assertThat(restarted.lookup("shortlink.tus/b").getOriginUrl()).isEqualTo("https://example.com/b");
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    private void stubLinks() {
+        when(queryService.querySingle(anyString())).thenReturn(3L);
+        when(queryService.pagedQuery(anyString(), anyMap(), eq(0), eq(2))).thenAnswer(invocation -> {
+            String lastId = (String) invocation.<java.util.Map<String, Object>>getArgument(1).get("lastId");
+            if (lastId.isEmpty()) {
+                return List.of(link("1", "a"), link("2", "b"));
+            }
+            if (lastId.equals("2")) {
+                return List.of(link("3", "c"));
+            }
+            return List.of();
+        });
+    }
+
+    private static ShortLink link(String id, String shortUri) {
+        ShortLink link = ShortLink.builder()
+                .fullShortUrl("shortlink.tus/" + shortUri)
+                .originUrl("https://example.com/" + shortUri)
+                .gid("g1")
+                .enableStatus(0)
+                .validDateType(0)
+                .delTime(0L)
+                .build();
+        link.setId(id);
+        return link;
+    }
+}
@@ -0,0 +1,142 @@
+package org.tus.shortlink.svc.integration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: uniqExact daily rollup (02_tables_mvs.sql) vs uniqCombined(14) rollup (07_approx_distinct.sql).
+ *
+ * <p>Generates a week of events for one viral link (most of the traffic, ~800k distinct visitors) and
+ * 500 small links, writes both rollups in ten insert blocks with merges stopped, then prints per table:
+ * bytes on disk, the time of {@code OPTIMIZE ... FINAL}, memory and duration of the 7-day total query
+ * (from system.query_log), and the relative UV/UIP error of the approximate table. Assertions only
+ * check the documented error bound and that the approximate table is smaller.</p>
+ */
+@Testcontainers
+class ApproxDistinctBenchmarkIT {
+
+    private static final int HTTP_PORT = 8123;
+    private static final long EVENTS = 2_000_000;
+    private static final int INSERT_BLOCKS = 10;
+    private static final String VIRAL = "https://s.tus/viral";
+
+    private static final String EXACT = "bench_daily_exact";
+    private static final String APPROX = "bench_daily_approx";
+
+    @Container
+    static final GenericContainer<?> CLICKHOUSE = new GenericContainer<>(
+            DockerImageName.parse("clickhouse/clickhouse-server:24-alpine"))
+            .withExposedPorts(HTTP_PORT)
+            .withEnv("CLICKHOUSE_DEFAULT_ACCESS_MANAGEMENT", "1");
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void loadEvents() {
+        String url = "jdbc:clickhouse:http://" + CLICKHOUSE.getHost() + ":" + CLICKHOUSE.getMappedPort(HTTP_PORT);
+        new JdbcTemplate(dataSource(url + "/default")).execute("CREATE DATABASE IF NOT EXISTS shortlink_stats");
+        jdbc = new JdbcTemplate(dataSource(url + "/shortlink_stats"));
+
+        jdbc.execute("CREATE TABLE link_stats_events (event_time DateTime, full_short_url String, gid String, " +
+                "uv String, remote_addr String) ENGINE = MergeTree() ORDER BY (full_short_url, event_time)");
+        jdbc.execute("INSERT INTO link_stats_events SELECT " +
+                "toDateTime('2026-03-01 00:00:00') + (number % 7) * 86400 + intHash32(number) % 86400, " +
+                "if(number % 10 < 6, '" + VIRAL + "', concat('https://s.tus/l', toString(number % 500))), " +
+                "if(number % 10 < 6, 'g0', concat('g', toString(number % 5))), " +
+                "concat('uv-', toString(intHash64(number) % 800000)), " +
+                "IPv4NumToString(toUInt32(167772160 + intHash32(number * 7) % 300000)) " +
+                "FROM numbers(" + EVENTS + ")");
+
+        jdbc.execute("CREATE TABLE " + EXACT + " (stat_date Date, full_short_url String, gid String, " +
+                "pv AggregateFunction(sum, UInt64), uv AggregateFunction(uniqExact, String), " +
+                "uip AggregateFunction(uniqExact, String)) ENGINE = AggregatingMergeTree() " +
+                "PARTITION BY toYYYYMM(stat_date) ORDER BY (full_short_url, stat_date, gid)");
+        jdbc.execute("CREATE TABLE " + APPROX + " (stat_date Date, full_short_url String, gid String, " +
+                "pv AggregateFunction(sum, UInt64), uv AggregateFunction(uniqCombined(14), String), " +
+                "uip AggregateFunction(uniqCombined(14), String)) ENGINE = AggregatingMergeTree() " +
+                "PARTITION BY toYYYYMM(stat_date) ORDER BY (full_short_url, stat_date, gid)");
+    }
+
+    @Test
+    void compareExactAndApproximateRollups() {
+        Map<String, Result> results = new HashMap<>();
+        results.put(EXACT, run(EXACT, "uniqExactState(uv), uniqExactState(remote_addr)",
+                "uniqExactMerge(uv) AS uv, uniqExactMerge(uip) AS uip"));
+        results.put(APPROX, run(APPROX, "uniqCombinedState(14)(uv), uniqCombinedState(14)(remote_addr)",
+                "uniqCombinedMerge(14)(uv) AS uv, uniqCombinedMerge(14)(uip) AS uip"));
+
+        System.out.printf("%-20s %12s %12s %14s %12s%n", "table", "disk MB", "merge ms", "query mem MB", "query ms");
+        for (String table : List.of(EXACT, APPROX)) {
+            Result r = results.get(table);
+            System.out.printf("%-20s %12.2f %12d %14.2f %12d%n", table, r.bytesOnDisk() / (1024.0 * 1024.0),
+                    r.mergeMillis(), r.queryMemoryBytes() / (1024.0 * 1024.0), r.queryMillis());
+        }
+
+        // relative error per link over the whole week, links with enough visitors for HLL to matter
+        Map<String, Object> error = jdbc.queryForMap("SELECT max(abs(a.uv - e.uv) / e.uv) AS max_uv_error, " +
+                "avg(abs(a.uv - e.uv) / e.uv) AS avg_uv_error, max(abs(a.uip - e.uip) / e.uip) AS max_uip_error " +
+                "FROM (SELECT full_short_url, uniqExactMerge(uv) AS uv, uniqExactMerge(uip) AS uip FROM " + EXACT +
+                " GROUP BY full_short_url) e INNER JOIN (SELECT full_short_url, uniqCombinedMerge(14)(uv) AS uv, " +
+                "uniqCombinedMerge(14)(uip) AS uip FROM " + APPROX + " GROUP BY full_short_url) a " +
+                "ON a.full_short_url = e.full_short_url WHERE e.uv >= 1000");
+        double maxUvError = ((Number) error.get("max_uv_error")).doubleValue();
+        double maxUipError = ((Number) error.get("max_uip_error")).doubleValue();
+        System.out.printf("uv error: max %.4f avg %.4f, uip error: max %.4f%n", maxUvError,
+                ((Number) error.get("avg_uv_error")).doubleValue(), maxUipError);
+
+        // 1.04 / sqrt(2^14) ~ 0.8% standard error; allow a few sigma over 501 links
+        assertThat(maxUvError).isLessThan(0.03);
+        assertThat(maxUipError).isLessThan(0.03);
+        assertThat(results.get(APPROX).bytesOnDisk()).isLessThan(results.get(EXACT).bytesOnDisk());
+    }
+
+    private static Result run(String table, String distinctStates, String distinctMerges) {
+        jdbc.execute("SYSTEM STOP MERGES " + table);
+        for (int block = 0; block < INSERT_BLOCKS; block++) {
+            jdbc.execute("INSERT INTO " + table + " SELECT toDate(event_time), full_short_url, gid, " +
+                    "sumState(toUInt64(1)), " + distinctStates + " FROM link_stats_events " +
+                    "WHERE cityHash64(uv, remote_addr, event_time) % " + INSERT_BLOCKS + " = " + block +
+                    " GROUP BY toDate(event_time), full_short_url, gid");
+        }
+        jdbc.execute("SYSTEM START MERGES " + table);
+        long start = System.nanoTime();
+        jdbc.execute("OPTIMIZE TABLE " + table + " FINAL");
+        long mergeMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Long bytesOnDisk = jdbc.queryForObject("SELECT sum(bytes_on_disk) FROM system.parts " +
+                "WHERE active AND database = 'shortlink_stats' AND table = ?", Long.class, table);
+
+        String comment = "bench-" + table;
+        jdbc.queryForList("SELECT sumMerge(pv) AS pv, " + distinctMerges + " FROM " + table +
+                " WHERE full_short_url = '" + VIRAL + "' AND stat_date >= '2026-03-01' AND stat_date <= '2026-03-07'" +
+                " SETTINGS log_comment = '" + comment + "', use_query_cache = 0");
+        jdbc.execute("SYSTEM FLUSH LOGS");
+        Map<String, Object> log = jdbc.queryForMap("SELECT memory_usage, query_duration_ms FROM system.query_log " +
+                "WHERE log_comment = ? AND type = 'QueryFinish' ORDER BY event_time DESC LIMIT 1", comment);
+
+        return new Result(bytesOnDisk != null ? bytesOnDisk : 0, mergeMillis,
+                ((Number) log.get("memory_usage")).longValue(), ((Number) log.get("query_duration_ms")).longValue());
+    }
+
+    private static DriverManagerDataSource dataSource(String url) {
+        DriverManagerDataSource ds = new DriverManagerDataSource();
+        ds.setDriverClassName("com.clickhouse.jdbc.ClickHouseDriver");
+        ds.setUrl(url);
+        return ds;
+    }
+
+    private record Result(long bytesOnDisk, long mergeMillis, long queryMemoryBytes, long queryMillis) {
+    }
+}
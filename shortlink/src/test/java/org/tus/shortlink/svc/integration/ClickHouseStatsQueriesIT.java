@@ -0,0 +1,199 @@
+package org.tus.shortlink.svc.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessDailyRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsBrowserRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsDeviceRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsNetworkRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsOsRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsTopLinkRespDTO;
+import org.tus.shortlink.svc.config.ClickHouseTestConfig;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.AccessRecordCursor;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.AccessRecordSlice;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.DimensionStats;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.DistinctMode;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.TotalStats;
+import org.tus.shortlink.svc.service.impl.ClickHouseStatsServiceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the queries of ClickHouseStatsServiceImpl against the ClickHouse Testcontainer and the sample
+ * events of ClickHouseInitRunner, and asserts on the rows they return.
+ */
+@SpringJUnitConfig(classes = ClickHouseTestConfig.class)
+class ClickHouseStatsQueriesIT {
+
+    private static final String URL1 = "https://short.example/abc";
+    private static final String URL2 = "https://short.example/xyz";
+    private static final String TIE_URL = "https://short.example/tie";
+    private static final String GID = "g1";
+    private static final String TIE_GID = "g2";
+    private static final LocalDate START = LocalDate.of(2025, 1, 15);
+    private static final LocalDate END = LocalDate.of(2025, 1, 18);
+
+    /**
+     * The tie events newest first: descending keys, as inserted by ClickHouseInitRunner
+     */
+    private static final String[] TIE_IPS = {"10.9.0.4", "10.9.0.3", "10.9.0.2", "10.9.0.1", "10.9.0.0"};
+
+    @Autowired
+    @Qualifier("clickHouseJdbcTemplate")
+    private JdbcTemplate clickHouseJdbcTemplate;
+
+    @Test
+    void dimensionStatsReadTheFourDimensionsInOnePass() {
+        DimensionStats stats = service().queryDimensionStats(URL1, GID, START, END);
+
+        assertThat(stats.browser())
+                .extracting(ShortLinkStatsBrowserRespDTO::getBrowser, ShortLinkStatsBrowserRespDTO::getCnt)
+                .containsExactlyInAnyOrder(tuple("Chrome", 5), tuple("Safari", 1), tuple("Firefox", 1));
+        assertThat(stats.os()).extracting(ShortLinkStatsOsRespDTO::getOs, ShortLinkStatsOsRespDTO::getCnt)
+                .containsExactlyInAnyOrder(tuple("Windows", 4), tuple("macOS", 1), tuple("Android", 1),
+                        tuple("Linux", 1));
+        assertThat(stats.device())
+                .extracting(ShortLinkStatsDeviceRespDTO::getDevice, ShortLinkStatsDeviceRespDTO::getCnt)
+                .containsExactlyInAnyOrder(tuple("PC", 6), tuple("Mobile", 1));
+        assertThat(stats.network())
+                .extracting(ShortLinkStatsNetworkRespDTO::getNetwork, ShortLinkStatsNetworkRespDTO::getCnt)
+                .containsExactlyInAnyOrder(tuple("WiFi", 5), tuple("4G", 1), tuple("Ethernet", 1));
+    }
+
+    @Test
+    void groupQueriesReadTheGidOrderedRollups() {
+        ClickHouseStatsServiceImpl service = service("groupRollupsEnabled");
+
+        assertThat(service.queryGroupTotalStats(GID, START, END)).isEqualTo(new TotalStats(10, 7, 7));
+        List<Integer> hours = service.queryGroupHourlyStats(GID, START, END);
+        assertThat(hours).hasSize(24);
+        assertThat(hours.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+        // 10:00 and 10:05 share an hour; every other event has one of its own
+        assertThat(Collections.max(hours)).isEqualTo(2);
+        assertThat(service.queryGroupDimensionStats(GID, START, END).browser())
+                .extracting(ShortLinkStatsBrowserRespDTO::getBrowser, ShortLinkStatsBrowserRespDTO::getCnt)
+                .containsExactlyInAnyOrder(tuple("Chrome", 6), tuple("Safari", 2), tuple("Edge", 1),
+                        tuple("Firefox", 1));
+    }
+
+    @Test
+    void approximateModeMatchesTheExactCountsOnSmallSets() {
+        ClickHouseStatsServiceImpl service = service();
+
+        assertThat(service.queryTotalStats(URL1, GID, START, END, DistinctMode.EXACT))
+                .isEqualTo(new TotalStats(7, 4, 4));
+        assertThat(service.queryTotalStats(URL1, GID, START, END, DistinctMode.APPROXIMATE))
+                .isEqualTo(new TotalStats(7, 4, 4));
+        assertThat(service.queryGroupTotalStats(GID, START, END, DistinctMode.APPROXIMATE))
+                .isEqualTo(new TotalStats(10, 7, 7));
+    }
+
+    @Test
+    void batchQueriesAggregateEveryLinkInOneStatement() {
+        ClickHouseStatsServiceImpl service = service();
+
+        assertThat(service.queryTotalStatsBatch(GID, List.of(URL1, URL2), START, END)).containsOnly(
+                entry(URL1, new TotalStats(7, 4, 4)), entry(URL2, new TotalStats(3, 3, 3)));
+        Map<String, List<ShortLinkStatsAccessDailyRespDTO>> daily =
+                service.queryDailyStatsBatch(GID, List.of(URL1, URL2), START, END);
+        assertThat(daily.get(URL1))
+                .extracting(ShortLinkStatsAccessDailyRespDTO::getDate, ShortLinkStatsAccessDailyRespDTO::getPv)
+                .containsExactly(tuple("2025-01-15", 4), tuple("2025-01-16", 2), tuple("2025-01-17", 1));
+        assertThat(daily.get(URL2)).extracting(ShortLinkStatsAccessDailyRespDTO::getPv).containsExactly(2, 1);
+        // links are only counted under the group asked for
+        assertThat(service.queryTotalStatsBatch(TIE_GID, List.of(URL1, TIE_URL), START, END))
+                .containsOnly(entry(TIE_URL, new TotalStats(5, 5, 5)));
+        assertThat(service.queryDailyStatsBatch(TIE_GID, List.of(URL1), START, END)).isEmpty();
+    }
+
+    @Test
+    void leaderboardCandidatesComeFromTheTopKStates() {
+        ClickHouseStatsServiceImpl service = service("topLinksEnabled");
+
+        assertThat(service.queryGroupTopLinks(GID, START, END, 10))
+                .extracting(ShortLinkStatsTopLinkRespDTO::getFullShortUrl, ShortLinkStatsTopLinkRespDTO::getPv,
+                        ShortLinkStatsTopLinkRespDTO::getUv)
+                .containsExactly(tuple(URL1, 7, 4), tuple(URL2, 3, 3));
+        assertThat(service.queryGroupTopLinks(GID, START, END, 1))
+                .extracting(ShortLinkStatsTopLinkRespDTO::getFullShortUrl).containsExactly(URL1);
+        assertThat(service.queryHotLinks(START, END, 10)).contains(URL1, URL2, TIE_URL);
+        // without the topK table every link of the group is ranked
+        assertThat(service().queryGroupTopLinks(GID, START, END, 10))
+                .extracting(ShortLinkStatsTopLinkRespDTO::getFullShortUrl).containsExactly(URL1, URL2);
+    }
+
+    @Test
+    void keysetPagesBreakTiesOnKeys() {
+        assertThat(pageThroughTies(service())).containsExactly(TIE_IPS);
+    }
+
+    @Test
+    void keysetPagesOfTheV2TableCompareUuidKeys() {
+        assertThat(pageThroughTies(service("eventsV2Enabled"))).containsExactly(TIE_IPS);
+    }
+
+    @Test
+    void preAggregatedClicksAreReadFromTheMinuteRollup() {
+        ClickHouseStatsServiceImpl service = service("preaggregated");
+
+        // the distinct mode does not apply to first-visit counts
+        assertThat(service.queryTotalStats(URL1, GID, START, END, DistinctMode.APPROXIMATE))
+                .isEqualTo(new TotalStats(75, 18, 16));
+        assertThat(service.queryDailyStats(URL1, GID, START, END))
+                .extracting(ShortLinkStatsAccessDailyRespDTO::getDate, ShortLinkStatsAccessDailyRespDTO::getPv,
+                        ShortLinkStatsAccessDailyRespDTO::getUv)
+                .containsExactly(tuple("2025-01-15", 60, 15), tuple("2025-01-16", 15, 3));
+        List<Integer> hours = service.queryHourlyStats(URL1, START, END);
+        assertThat(List.of(hours.get(9), hours.get(10), hours.get(14))).containsExactly(15, 40, 20);
+        assertThat(service.queryGroupHourlyStats(GID, START, END).get(10)).isEqualTo(40);
+        assertThat(service.queryDimensionStats(URL1, GID, START, END).network())
+                .extracting(ShortLinkStatsNetworkRespDTO::getNetwork, ShortLinkStatsNetworkRespDTO::getCnt)
+                .containsExactlyInAnyOrder(tuple("WiFi", 40), tuple("4G", 20));
+        assertThat(service.queryGroupDimensionStats(GID, START, END).browser())
+                .extracting(ShortLinkStatsBrowserRespDTO::getBrowser, ShortLinkStatsBrowserRespDTO::getCnt)
+                .containsExactlyInAnyOrder(tuple("Chrome", 60), tuple("Firefox", 15));
+        assertThat(service.queryTotalStatsBatch(GID, List.of(URL1), START, END))
+                .containsOnly(entry(URL1, new TotalStats(75, 18, 16)));
+    }
+
+    /**
+     * Follows the cursors over the five same-second events of TIE_GID, two per page; returns their ips.
+     */
+    private static List<String> pageThroughTies(ClickHouseStatsServiceImpl service) {
+        List<String> ips = new ArrayList<>();
+        AccessRecordCursor cursor = null;
+        int pages = 0;
+        do {
+            AccessRecordSlice slice = service.queryGroupAccessRecordsAfter(TIE_GID, START, END, cursor, 2);
+            slice.records().forEach(r -> ips.add(r.getIp()));
+            cursor = slice.next();
+            pages++;
+        } while (cursor != null && pages < 10);
+        assertThat(pages).isEqualTo(3);
+        return ips;
+    }
+
+    /**
+     * A service on the test container with the given boolean switches turned on.
+     */
+    private ClickHouseStatsServiceImpl service(String... enabled) {
+        ClickHouseStatsServiceImpl service = new ClickHouseStatsServiceImpl();
+        ReflectionTestUtils.setField(service, "clickHouseJdbcTemplate", clickHouseJdbcTemplate);
+        for (String field : enabled) {
+            ReflectionTestUtils.setField(service, field, true);
+        }
+        return service;
+    }
+}
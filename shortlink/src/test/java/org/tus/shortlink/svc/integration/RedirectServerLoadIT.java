@@ -0,0 +1,186 @@
+package org.tus.shortlink.svc.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.tus.common.domain.persistence.QueryService;
+import org.tus.shortlink.svc.controller.ShortLinkController;
+import org.tus.shortlink.svc.entity.ShortLink;
+import org.tus.shortlink.svc.server.NettyRedirectServer;
+import org.tus.shortlink.svc.service.ShortLinkRedirectCache;
+import org.tus.shortlink.svc.service.ShortLinkStatsEventPublisher;
+import org.tus.shortlink.svc.service.impl.ShortLinkServiceImpl;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test: the same redirect served by the Spring MVC endpoint and by the Netty redirect server.
+ *
+ * <p>Both transports resolve through the same ShortLinkServiceImpl and redirect cache; the database
+ * and Kafka publisher are mocked so the measured difference is the HTTP stack itself. Prints
+ * p50 / p99 / throughput per transport; assertions only check correctness, not timing.</p>
+ */
+@SpringBootTest(
+        classes = RedirectServerLoadIT.LoadTestApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "shortlink.domain.default=shortlink.tus",
+                "shortlink.redirect.server.enabled=true",
+                "shortlink.redirect.server.host=127.0.0.1",
+                "shortlink.redirect.server.port=0"
+        })
+class RedirectServerLoadIT {
+
+    private static final String SHORT_URI = "load01";
+    private static final String ORIGIN_URL = "https://example.com/landing";
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int REQUESTS = 20_000;
+    private static final int CONCURRENCY = 16;
+
+    @LocalServerPort
+    private int mvcPort;
+
+    @Autowired
+    private NettyRedirectServer nettyRedirectServer;
+
+    @MockBean
+    private QueryService queryService;
+
+    @MockBean
+    private ShortLinkStatsEventPublisher shortLinkStatsEventPublisher;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    @Test
+    void compareMvcAndNettyRedirectLatency() throws Exception {
+        ShortLink link = ShortLink.builder()
+                .fullShortUrl("shortlink.tus/" + SHORT_URI)
+                .originUrl(ORIGIN_URL)
+                .gid("load-group")
+                .enableStatus(0)
+                .validDateType(0)
+                .delTime(0L)
+                .build();
+        when(queryService.query(any(), anyMap())).thenReturn(List.of(link));
+
+        URI mvcUri = URI.create("http://127.0.0.1:" + mvcPort + "/api/shortlink/v1/" + SHORT_URI);
+        URI nettyUri = URI.create("http://127.0.0.1:" + nettyRedirectServer.port() + "/" + SHORT_URI);
+
+        run(mvcUri, WARMUP_REQUESTS);
+        run(nettyUri, WARMUP_REQUESTS);
+        Result mvc = run(mvcUri, REQUESTS);
+        Result netty = run(nettyUri, REQUESTS);
+
+        System.out.printf("%n%-8s %10s %10s %10s %12s%n", "stack", "p50(us)", "p99(us)", "max(us)", "req/s");
+        mvc.print("mvc");
+        netty.print("netty");
+
+        assertThat(mvc.errors).isZero();
+        assertThat(netty.errors).isZero();
+    }
+
+    private Result run(URI uri, int requests) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("User-Agent", "redirect-load-test")
+                .GET()
+                .build();
+        int perWorker = requests / CONCURRENCY;
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int w = 0; w < CONCURRENCY; w++) {
+                futures.add(pool.submit(() -> {
+                    long[] latencies = new long[perWorker];
+                    for (int i = 0; i < perWorker; i++) {
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - t0;
+                        boolean ok = response.statusCode() == 302
+                                && ORIGIN_URL.equals(response.headers().firstValue("Location").orElse(null));
+                        // negative latency marks an error, counted separately
+                        latencies[i] = ok ? elapsed : -1;
+                    }
+                    return latencies;
+                }));
+            }
+            long[] all = new long[perWorker * CONCURRENCY];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] part = future.get();
+                System.arraycopy(part, 0, all, offset, part.length);
+                offset += part.length;
+            }
+            long wallNanos = System.nanoTime() - start;
+            return Result.of(all, wallNanos);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private record Result(long p50Nanos, long p99Nanos, long maxNanos, double throughput, long errors) {
+
+        static Result of(long[] latencies, long wallNanos) {
+            long errors = Arrays.stream(latencies).filter(l -> l < 0).count();
+            long[] ok = Arrays.stream(latencies).filter(l -> l >= 0).sorted().toArray();
+            if (ok.length == 0) {
+                return new Result(0, 0, 0, 0, errors);
+            }
+            return new Result(
+                    ok[(int) Math.min(ok.length - 1, Math.round(ok.length * 0.50))],
+                    ok[(int) Math.min(ok.length - 1, Math.round(ok.length * 0.99))],
+                    ok[ok.length - 1],
+                    latencies.length / (wallNanos / 1_000_000_000.0),
+                    errors);
+        }
+
+        void print(String name) {
+            System.out.printf("%-8s %10d %10d %10d %12.0f%n",
+                    name, p50Nanos / 1_000, p99Nanos / 1_000, maxNanos / 1_000, throughput);
+        }
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @Import({
+            ShortLinkController.class,
+            ShortLinkServiceImpl.class,
+            ShortLinkRedirectCache.class,
+            NettyRedirectServer.class
+    })
+    static class LoadTestApplication {
+    }
+}
@@ -0,0 +1,148 @@
+package org.tus.shortlink.svc.integration;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.config.ShortlinkKafkaITConfig;
+import org.tus.shortlink.svc.stats.StatsProducerProfile;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: stats event producer per compression codec and batching profile (Testcontainers Kafka).
+ *
+ * <p>Sends the same JSON stats events with every (codec, StatsProducerProfile) pair and prints
+ * throughput, the producer's compression ratio and bytes sent. A single local broker hides network
+ * cost, so compare ratios and bytes rather than absolute rates. Assertions only check that every
+ * record was acknowledged.</p>
+ */
+@SpringJUnitConfig(classes = StatsProducerCompressionIT.EmptyConfig.class)
+class StatsProducerCompressionIT extends ShortlinkKafkaITConfig {
+
+    private static final String TOPIC = "stats-producer-compression-it";
+    private static final int WARMUP_RECORDS = 5_000;
+    private static final int RECORDS = 50_000;
+    private static final List<String> CODECS = List.of("snappy", "lz4", "zstd");
+
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_1) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Safari/605.1.15"
+    };
+
+    @Configuration
+    static class EmptyConfig {
+    }
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Test
+    void compareCodecsPerProfile() {
+        List<ShortLinkStatsRecordDTO> events = events(RECORDS);
+        System.out.printf("%-8s %-12s %12s %12s %14s%n", "codec", "profile", "records/s", "compression", "outgoing MB");
+        for (String codec : CODECS) {
+            for (StatsProducerProfile profile : StatsProducerProfile.values()) {
+                Result result = run(codec, profile, events);
+                System.out.printf("%-8s %-12s %12.0f %12.3f %14.2f%n", codec, profile, result.recordsPerSecond(),
+                        result.compressionRate(), result.outgoingBytes() / (1024.0 * 1024.0));
+                assertThat(result.acked()).isEqualTo(RECORDS);
+            }
+        }
+    }
+
+    private Result run(String codec, StatsProducerProfile profile, List<ShortLinkStatsRecordDTO> events) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, codec);
+        configProps.putAll(profile.producerConfigs());
+
+        try (KafkaProducer<String, ShortLinkStatsRecordDTO> producer = new KafkaProducer<>(configProps)) {
+            send(producer, events.subList(0, WARMUP_RECORDS));
+            long start = System.nanoTime();
+            long acked = send(producer, events);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Map<MetricName, ? extends Metric> metrics = producer.metrics();
+            return new Result(acked, acked / seconds, metric(metrics, "compression-rate-avg"),
+                    metric(metrics, "outgoing-byte-total"));
+        }
+    }
+
+    private static long send(KafkaProducer<String, ShortLinkStatsRecordDTO> producer,
+                             List<ShortLinkStatsRecordDTO> events) {
+        AtomicLong acked = new AtomicLong();
+        for (ShortLinkStatsRecordDTO event : events) {
+            producer.send(new ProducerRecord<>(TOPIC, event.getKeys(), event), (metadata, ex) -> {
+                if (ex == null) {
+                    acked.incrementAndGet();
+                }
+            });
+        }
+        producer.flush();
+        return acked.get();
+    }
+
+    private static double metric(Map<MetricName, ? extends Metric> metrics, String name) {
+        return metrics.entrySet().stream()
+                .filter(e -> "producer-metrics".equals(e.getKey().group()) && name.equals(e.getKey().name()))
+                .map(e -> e.getValue().metricValue())
+                .filter(Number.class::isInstance)
+                .mapToDouble(v -> ((Number) v).doubleValue())
+                .findFirst()
+                .orElse(Double.NaN);
+    }
+
+    /**
+     * Events shaped like production traffic: a few hundred links, repeating user agents and dimensions.
+     */
+    private static List<ShortLinkStatsRecordDTO> events(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<ShortLinkStatsRecordDTO> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int link = random.nextInt(500);
+            events.add(ShortLinkStatsRecordDTO.builder()
+                    .gid("group-" + (link % 20))
+                    .fullShortUrl("shortlink.tus/l" + Integer.toString(link, 36))
+                    .remoteAddr("10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256))
+                    .referrer(random.nextBoolean() ? "https://www.google.com/" : null)
+                    .userAgent(USER_AGENTS[random.nextInt(USER_AGENTS.length)])
+                    .os(random.nextBoolean() ? "Windows" : "iOS")
+                    .browser(random.nextBoolean() ? "Chrome" : "Safari")
+                    .device(random.nextBoolean() ? "PC" : "Mobile")
+                    .network(random.nextBoolean() ? "WIFI" : "Mobile")
+                    .uv(UUID.randomUUID().toString())
+                    .uvFirstFlag(random.nextInt(10) == 0)
+                    .uipFirstFlag(random.nextInt(10) == 0)
+                    .keys(UUID.randomUUID().toString())
+                    .currentDate(new Date())
+                    .build());
+        }
+        return events;
+    }
+
+    private record Result(long acked, double recordsPerSecond, double compressionRate, double outgoingBytes) {
+    }
+}
@@ -0,0 +1,111 @@
+package org.tus.shortlink.svc.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectResultDTO;
+import org.tus.shortlink.svc.dto.ShortLinkVisitDTO;
+import org.tus.shortlink.svc.service.ShortLinkService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for NettyRedirectServer (ephemeral port, mocked ShortLinkService).
+ */
+@ExtendWith(MockitoExtension.class)
+class NettyRedirectServerTest {
+
+    @Mock
+    private ShortLinkService shortLinkService;
+
+    private NettyRedirectServer server;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        server = new NettyRedirectServer(shortLinkService);
+        ReflectionTestUtils.setField(server, "host", "127.0.0.1");
+        ReflectionTestUtils.setField(server, "port", 0);
+        ReflectionTestUtils.setField(server, "workerThreads", 1);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void redirectsWithLocationAndPassesVisitorAttributes() throws Exception {
+        when(shortLinkService.resolveRedirect(eq("abc123"), any()))
+                .thenReturn(ShortLinkRedirectResultDTO.redirect("https://example.com"));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/abc123"))
+                .header("Referer", "https://google.com")
+                .header("User-Agent", "Mozilla/5.0")
+                .header("X-Forwarded-For", "10.0.0.1, 10.0.0.2")
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(302);
+        assertThat(response.headers().firstValue("Location")).hasValue("https://example.com");
+        ArgumentCaptor<ShortLinkVisitDTO> visit = ArgumentCaptor.forClass(ShortLinkVisitDTO.class);
+        verify(shortLinkService).resolveRedirect(eq("abc123"), visit.capture());
+        assertThat(visit.getValue().getRemoteAddr()).isEqualTo("10.0.0.1");
+        assertThat(visit.getValue().getReferrer()).isEqualTo("https://google.com");
+        assertThat(visit.getValue().getUserAgent()).isEqualTo("Mozilla/5.0");
+    }
+
+    @Test
+    void servesMvcCompatiblePath() throws Exception {
+        when(shortLinkService.resolveRedirect(eq("abc123"), any()))
+                .thenReturn(ShortLinkRedirectResultDTO.redirect("https://example.com"));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/shortlink/v1/abc123"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(302);
+    }
+
+    @Test
+    void writesErrorStatusAndMessage() throws Exception {
+        when(shortLinkService.resolveRedirect(eq("gone"), any()))
+                .thenReturn(ShortLinkRedirectResultDTO.error(410, "Short link expired"));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/gone")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(410);
+        assertThat(response.body()).isEqualTo("Short link expired");
+    }
+
+    @Test
+    void returns500WhenResolutionFails() throws Exception {
+        when(shortLinkService.resolveRedirect(eq("boom"), any())).thenThrow(new IllegalStateException("db down"));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/boom")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(500);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.port() + path);
+    }
+}
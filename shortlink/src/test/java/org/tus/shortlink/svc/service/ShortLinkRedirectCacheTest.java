@@ -0,0 +1,367 @@
+package org.tus.shortlink.svc.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.redisson.api.RLock;
+import org.tus.common.domain.redis.CacheService;
+import org.tus.common.domain.redis.DistributedLockService;
+import org.tus.shortlink.svc.dto.ShortLinkRedirectDTO;
+import org.tus.shortlink.svc.index.ShortLinkRedirectIndex;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShortLinkRedirectCache (L1 -> L2 -> loader read-through).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkRedirectCacheTest {
+
+    private static final String FULL_SHORT_URL = "shortlink.tus/abc123";
+    private static final String REMOTE_KEY = "short-link:goto:" + FULL_SHORT_URL;
+    private static final String NEGATIVE_KEY = "short-link:is-null:goto_" + FULL_SHORT_URL;
+    private static final String LOCK_KEY = "short-link:lock:goto:" + FULL_SHORT_URL;
+
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private DistributedLockService distributedLockService;
+
+    @Mock
+    private RLock lock;
+
+    @Mock
+    private ShortLinkRedirectIndex redirectIndex;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ShortLinkRedirectCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ShortLinkRedirectCache();
+        ReflectionTestUtils.setField(cache, "localMaximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "localTtlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "inactiveTtlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "negativeMaximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "negativeTtlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "cacheService", cacheService);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        cache.init();
+    }
+
+    @Test
+    void get_loadsOnceThenServesFromL1() {
+        AtomicInteger loads = new AtomicInteger();
+
+        ShortLinkRedirectDTO first = cache.get(FULL_SHORT_URL, key -> {
+            loads.incrementAndGet();
+            return target();
+        });
+        ShortLinkRedirectDTO second = cache.get(FULL_SHORT_URL, key -> {
+            loads.incrementAndGet();
+            return target();
+        });
+
+        assertThat(first.getOriginUrl()).isEqualTo("https://example.com");
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        verify(cacheService).set(eq(REMOTE_KEY), eq(first), any(Duration.class));
+        assertThat(meterRegistry.get("shortlink.redirect.cache.gets").tag("tier", "l1").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("shortlink.redirect.cache.load").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    void get_servesFromL2WithoutLoader() {
+        when(cacheService.get(REMOTE_KEY, ShortLinkRedirectDTO.class)).thenReturn(target());
+
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> {
+            throw new AssertionError("loader must not be called on L2 hit");
+        });
+
+        assertThat(result.getGid()).isEqualTo("g1");
+        assertThat(meterRegistry.get("shortlink.redirect.cache.gets").tag("tier", "l2").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void get_storesNegativeEntryWhenLoaderFindsNothing() {
+        AtomicInteger loads = new AtomicInteger();
+
+        ShortLinkRedirectDTO first = cache.get(FULL_SHORT_URL, key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        ShortLinkRedirectDTO second = cache.get(FULL_SHORT_URL, key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        assertThat(loads.get()).isEqualTo(1);
+        verify(cacheService).set(eq(NEGATIVE_KEY), eq("-"), eq(Duration.ofSeconds(30)));
+        verify(cacheService, never()).set(eq(REMOTE_KEY), any(), any(Duration.class));
+        assertThat(meterRegistry.get("shortlink.redirect.penetration.blocked").tag("gate", "negative-cache")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_bloomGateRejectsWithoutLoaderOrNegativeLookup() {
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> false, key -> {
+            throw new AssertionError("loader must not be called when the gate rejects");
+        });
+
+        assertThat(result).isNull();
+        verify(cacheService, never()).exists(NEGATIVE_KEY);
+        assertThat(meterRegistry.get("shortlink.redirect.penetration.blocked").tag("gate", "bloom")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_remoteNegativeEntrySkipsLoader() {
+        when(cacheService.exists(NEGATIVE_KEY)).thenReturn(true);
+
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> true, key -> {
+            throw new AssertionError("loader must not be called on a negative hit");
+        });
+
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void put_clearsNegativeEntry() {
+        cache.get(FULL_SHORT_URL, key -> null);
+
+        cache.put(target());
+
+        verify(cacheService).delete(NEGATIVE_KEY);
+        assertThat(cache.get(FULL_SHORT_URL, key -> null)).isNotNull();
+    }
+
+    @Test
+    void get_fallsBackToLoaderWhenRedisFails() {
+        when(cacheService.get(REMOTE_KEY, ShortLinkRedirectDTO.class)).thenThrow(new RuntimeException("down"));
+
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> target());
+
+        assertThat(result).isNotNull();
+    }
+
+    @Test
+    void evict_dropsBothTiers() {
+        cache.put(target());
+
+        cache.evict(FULL_SHORT_URL);
+
+        verify(cacheService).delete(REMOTE_KEY);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(FULL_SHORT_URL, key -> {
+            loads.incrementAndGet();
+            return target();
+        });
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void afterCommitVariants_runOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.putAfterCommit(target());
+            verify(cacheService, never()).set(eq(REMOTE_KEY), any(), any(Duration.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(cacheService).set(eq(REMOTE_KEY), any(), any(Duration.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictAfterCommit(FULL_SHORT_URL);
+            // rolled back: afterCommit never runs
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(cacheService, never()).delete(REMOTE_KEY);
+    }
+
+    @Test
+    void get_concurrentMissesShareOneLoad() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ShortLinkRedirectDTO>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> cache.get(FULL_SHORT_URL, key -> {
+                    loads.incrementAndGet();
+                    loaderEntered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return target();
+                })));
+            }
+            assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+            // give the other callers time to reach the in-flight future before releasing the load
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<ShortLinkRedirectDTO> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getOriginUrl()).isEqualTo("https://example.com");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_clusterLockRecheckServesValueWrittenByHolder() throws Exception {
+        enableClusterLock();
+        when(distributedLockService.tryLock(eq(LOCK_KEY), anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS)))
+                .thenReturn(true);
+        when(distributedLockService.getLock(LOCK_KEY)).thenReturn(lock);
+        when(cacheService.get(REMOTE_KEY, ShortLinkRedirectDTO.class)).thenReturn(null, target());
+
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> {
+            throw new AssertionError("loader must not be called when the recheck hits");
+        });
+
+        assertThat(result.getGid()).isEqualTo("g1");
+        verify(lock).unlock();
+        assertThat(meterRegistry.get("shortlink.redirect.cache.cluster-lock").tag("outcome", "recheck-hit")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_clusterLockTimeoutStillLoads() throws Exception {
+        enableClusterLock();
+        when(distributedLockService.tryLock(eq(LOCK_KEY), anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS)))
+                .thenReturn(false);
+
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> target());
+
+        assertThat(result).isNotNull();
+        verify(distributedLockService, never()).getLock(any());
+        assertThat(meterRegistry.get("shortlink.redirect.cache.cluster-lock").tag("outcome", "timeout")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void put_customLinkIsStoredRemotelyOnlyUntilValidDate() {
+        ShortLinkRedirectDTO expiring = target();
+        expiring.setValidDateType(1);
+        expiring.setValidDate(new Date(System.currentTimeMillis() + 10_000));
+
+        cache.put(expiring);
+
+        ArgumentCaptor<Duration> ttl = ArgumentCaptor.forClass(Duration.class);
+        verify(cacheService).set(eq(REMOTE_KEY), eq(expiring), ttl.capture());
+        assertThat(ttl.getValue()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void get_expiredLinkIsCachedAsTombstone() {
+        ShortLinkRedirectDTO expired = target();
+        expired.setValidDateType(1);
+        expired.setValidDate(new Date(System.currentTimeMillis() - 1_000));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(FULL_SHORT_URL, key -> {
+            loads.incrementAndGet();
+            return expired;
+        });
+        ShortLinkRedirectDTO second = cache.get(FULL_SHORT_URL, key -> {
+            throw new AssertionError("expired link must be served from cache");
+        });
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.statusAt(System.currentTimeMillis())).isEqualTo(ShortLinkRedirectDTO.Status.EXPIRED);
+        verify(cacheService).set(eq(REMOTE_KEY), eq(expired), eq(Duration.ofSeconds(300)));
+    }
+
+    @Test
+    void timerWheelEvictsAtValidDateAndKeepsTombstone() throws Exception {
+        ShortLinkRedirectDTO expiring = target();
+        expiring.setValidDateType(1);
+        expiring.setValidDate(new Date(System.currentTimeMillis() + 100));
+        cache.put(expiring);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("shortlink.redirect.cache.expired").counter().count() < 1.0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(meterRegistry.get("shortlink.redirect.cache.expired").counter().count()).isEqualTo(1.0);
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> {
+            throw new AssertionError("expired link must be served from cache");
+        });
+        assertThat(result.statusAt(System.currentTimeMillis())).isEqualTo(ShortLinkRedirectDTO.Status.EXPIRED);
+    }
+
+    @Test
+    void get_indexHitSkipsRedisAndLoader() {
+        ReflectionTestUtils.setField(cache, "redirectIndex", redirectIndex);
+        when(redirectIndex.lookup(FULL_SHORT_URL)).thenReturn(target());
+
+        ShortLinkRedirectDTO result = cache.get(FULL_SHORT_URL, key -> {
+            throw new AssertionError("loader must not be called on an index hit");
+        });
+
+        assertThat(result.getGid()).isEqualTo("g1");
+        verify(cacheService, never()).get(any(), any());
+        assertThat(meterRegistry.get("shortlink.redirect.cache.gets").tag("tier", "index").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private void enableClusterLock() {
+        ReflectionTestUtils.setField(cache, "clusterLockEnabled", true);
+        ReflectionTestUtils.setField(cache, "clusterLockWaitMillis", 50L);
+        ReflectionTestUtils.setField(cache, "clusterLockLeaseMillis", 1000L);
+        ReflectionTestUtils.setField(cache, "distributedLockService", distributedLockService);
+    }
+
+    private static ShortLinkRedirectDTO target() {
+        return ShortLinkRedirectDTO.builder()
+                .fullShortUrl(FULL_SHORT_URL)
+                .originUrl("https://example.com")
+                .gid("g1")
+                .enableStatus(0)
+                .build();
+    }
+}
@@ -10,10 +10,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.stats.ShortLinkClickAggregator;
+import org.tus.shortlink.svc.stats.ShortLinkStatsSpillover;
+import org.tus.shortlink.svc.stats.StatsPartitionKey;
 
 import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
@@ -31,6 +36,12 @@ class ShortLinkStatsEventPublisherTest {
     @Mock
     private KafkaTemplate<String, ShortLinkStatsRecordDTO> kafkaTemplate;
 
+    @Mock
+    private ShortLinkStatsSpillover spillover;
+
+    @Mock
+    private ShortLinkClickAggregator clickAggregator;
+
     @Captor
     private ArgumentCaptor<String> topicCaptor;
 
@@ -86,9 +97,76 @@ class ShortLinkStatsEventPublisherTest {
         verify(kafkaTemplate).send(TOPIC, "shortlink.tus/xyz", event);
     }
 
+    @Test
+    void publish_keysByFullShortUrlInLinkPartitionMode() {
+        ReflectionTestUtils.setField(publisher, "partitionKey", StatsPartitionKey.LINK);
+        ShortLinkStatsRecordDTO event = ShortLinkStatsRecordDTO.builder()
+                .fullShortUrl("shortlink.tus/abc")
+                .keys("key-123")
+                .build();
+        when(kafkaTemplate.send(TOPIC, "shortlink.tus/abc", event)).thenReturn(CompletableFuture.completedFuture(null));
+
+        publisher.publish(event);
+
+        verify(kafkaTemplate).send(TOPIC, "shortlink.tus/abc", event);
+    }
+
     @Test
     void publish_doesNotSendWhenEventIsNull() {
         publisher.publish(null);
         verify(kafkaTemplate, never()).send(isNull(), isNull(), isNull());
     }
+
+    @Test
+    void publish_spillsWhenSendIsRejected() {
+        ReflectionTestUtils.setField(publisher, "spillover", spillover);
+        ShortLinkStatsRecordDTO event = ShortLinkStatsRecordDTO.builder().keys("key-1").build();
+        when(kafkaTemplate.send(TOPIC, "key-1", event))
+                .thenThrow(new org.apache.kafka.common.errors.TimeoutException("buffer full"));
+
+        publisher.publish(event);
+
+        verify(spillover).spill(event);
+    }
+
+    @Test
+    void publish_spillsWhenDeliveryFails() {
+        ReflectionTestUtils.setField(publisher, "spillover", spillover);
+        ShortLinkStatsRecordDTO event = ShortLinkStatsRecordDTO.builder().keys("key-2").build();
+        when(kafkaTemplate.send(TOPIC, "key-2", event))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        publisher.publish(event);
+
+        verify(spillover).spill(event);
+    }
+
+    @Test
+    void publish_spillsBehindExistingBacklogWithoutSending() {
+        ReflectionTestUtils.setField(publisher, "spillover", spillover);
+        ShortLinkStatsRecordDTO event = ShortLinkStatsRecordDTO.builder().keys("key-3").build();
+        when(spillover.hasBacklog()).thenReturn(true);
+
+        publisher.publish(event);
+
+        verify(spillover).spill(event);
+        verify(kafkaTemplate, never()).send(anyString(), any(), any());
+    }
+
+    @Test
+    void publish_sendsOnlySampledEventsWhenPreAggregating() {
+        ReflectionTestUtils.setField(publisher, "clickAggregator", clickAggregator);
+        ShortLinkStatsRecordDTO folded = ShortLinkStatsRecordDTO.builder().keys("key-4").build();
+        ShortLinkStatsRecordDTO sampled = ShortLinkStatsRecordDTO.builder().keys("key-5").build();
+        when(clickAggregator.add(folded)).thenReturn(false);
+        when(clickAggregator.add(sampled)).thenReturn(true);
+        when(kafkaTemplate.send(TOPIC, "key-5", sampled)).thenReturn(CompletableFuture.completedFuture(null));
+
+        publisher.publish(folded);
+        publisher.publish(sampled);
+
+        verify(clickAggregator).add(folded);
+        verify(kafkaTemplate, never()).send(TOPIC, "key-4", folded);
+        verify(kafkaTemplate).send(TOPIC, "key-5", sampled);
+    }
 }
@@ -0,0 +1,107 @@
+package org.tus.shortlink.svc.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StatsQueryExecutor (concurrent queries, shared deadline, fallbacks).
+ */
+class StatsQueryExecutorTest {
+
+    private StatsQueryExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void queriesOfABatchRunConcurrently() {
+        executor = executor(true, 2_000);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Supplier<Boolean> blockingQuery = () -> {
+            bothStarted.countDown();
+            try {
+                // only returns true when the other query runs at the same time
+                return bothStarted.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        };
+
+        StatsQueryExecutor.Batch batch = executor.batch();
+        Supplier<Boolean> first = batch.submit("first", blockingQuery, false);
+        Supplier<Boolean> second = batch.submit("second", blockingQuery, false);
+
+        assertThat(first.get()).isTrue();
+        assertThat(second.get()).isTrue();
+    }
+
+    @Test
+    void slowQueryFallsBackAtTheDeadline() {
+        executor = executor(true, 100);
+        StatsQueryExecutor.Batch batch = executor.batch();
+        Supplier<List<String>> slow = batch.submit("slow", () -> {
+            sleep(2_000);
+            return List.of("late");
+        }, List.of());
+        Supplier<String> fast = batch.submit("fast", () -> "ok", "fallback");
+
+        long start = System.nanoTime();
+        assertThat(slow.get()).isEmpty();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        // deadline passed, but this one completed in time
+        assertThat(fast.get()).isEqualTo("ok");
+    }
+
+    @Test
+    void failingQueryReturnsFallback() {
+        executor = executor(true, 1_000);
+        Supplier<String> failed = executor.batch().submit("failing", () -> {
+            throw new IllegalStateException("boom");
+        }, "fallback");
+
+        assertThat(failed.get()).isEqualTo("fallback");
+    }
+
+    @Test
+    void sequentialModeRunsInline() {
+        executor = executor(false, 1_000);
+        Thread caller = Thread.currentThread();
+        StatsQueryExecutor.Batch batch = executor.batch();
+
+        Supplier<Thread> thread = batch.submit("thread", Thread::currentThread, null);
+        Supplier<String> failed = batch.submit("failing", () -> {
+            throw new IllegalStateException("boom");
+        }, "fallback");
+
+        assertThat(thread.get()).isSameAs(caller);
+        assertThat(failed.get()).isEqualTo("fallback");
+    }
+
+    private static StatsQueryExecutor executor(boolean parallel, long timeoutMillis) {
+        StatsQueryExecutor executor = new StatsQueryExecutor();
+        ReflectionTestUtils.setField(executor, "parallel", parallel);
+        ReflectionTestUtils.setField(executor, "threads", 4);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 16);
+        ReflectionTestUtils.setField(executor, "timeoutMillis", timeoutMillis);
+        executor.init();
+        return executor;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.tus.shortlink.svc.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.common.domain.redis.CacheService;
+import org.tus.shortlink.svc.dto.StatsDayValueDTO;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for StatsResultCache (per-day stitching, settled vs live days, range entries).
+ */
+@ExtendWith(MockitoExtension.class)
+class StatsResultCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private CacheService cacheService;
+
+    private StatsResultCache cache;
+
+    private final List<LocalDate[]> loads = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(Instant.parse("2026-03-10T12:00:00Z"));
+        ReflectionTestUtils.setField(cache, "cacheService", cacheService);
+    }
+
+    @Test
+    void missingDaysAreLoadedOnceAndServedFromCache() {
+        LocalDate start = TODAY.minusDays(5);
+        LocalDate end = TODAY.minusDays(1);
+
+        long first = cache.stitch("daily", "s/a|g", start, end, loader(), sumPv());
+        long second = cache.stitch("daily", "s/a|g", start, end, loader(), sumPv());
+
+        assertThat(first).isEqualTo(second).isEqualTo(50L);
+        assertThat(loads).hasSize(1);
+        assertThat(loads.get(0)).containsExactly(start, end);
+        verify(cacheService).set(eq("short-link:stats:result:daily:s/a|g:" + start), any(), eq(Duration.ofDays(30)));
+    }
+
+    @Test
+    void onlyTheUncachedSpanIsLoaded() {
+        cache.stitch("daily", "s/a|g", TODAY.minusDays(3), TODAY.minusDays(2), loader(), sumPv());
+        loads.clear();
+
+        cache.stitch("daily", "s/a|g", TODAY.minusDays(5), TODAY.minusDays(2), loader(), sumPv());
+
+        assertThat(loads).hasSize(1);
+        assertThat(loads.get(0)).containsExactly(TODAY.minusDays(5), TODAY.minusDays(4));
+    }
+
+    @Test
+    void todayIsCachedWithTheLiveTtl() {
+        cache.stitch("daily", "s/a|g", TODAY, TODAY.plusDays(3), loader(), sumPv());
+
+        // future days are never queried
+        assertThat(loads.get(0)).containsExactly(TODAY, TODAY);
+        verify(cacheService).set(eq("short-link:stats:result:daily:s/a|g:" + TODAY), any(), eq(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void yesterdayIsLiveUntilItSettles() {
+        StatsResultCache justAfterMidnight = newCache(Instant.parse("2026-03-10T00:30:00Z"));
+        StatsResultCache afterSettling = newCache(Instant.parse("2026-03-10T01:00:00Z"));
+
+        assertThat(justAfterMidnight.isSettled(TODAY.minusDays(1))).isFalse();
+        assertThat(afterSettling.isSettled(TODAY.minusDays(1))).isTrue();
+        assertThat(afterSettling.isSettled(TODAY)).isFalse();
+    }
+
+    @Test
+    void daysWithoutClicksAreCachedToo() {
+        BiFunction<LocalDate, LocalDate, Map<LocalDate, StatsDayValueDTO>> empty = (from, to) -> {
+            loads.add(new LocalDate[]{from, to});
+            return Map.of();
+        };
+
+        cache.stitch("daily", "s/a|g", TODAY.minusDays(2), TODAY.minusDays(1), empty, sumPv());
+        long pv = cache.stitch("daily", "s/a|g", TODAY.minusDays(2), TODAY.minusDays(1), empty, sumPv());
+
+        assertThat(pv).isZero();
+        assertThat(loads).hasSize(1);
+    }
+
+    @Test
+    void l2HitAvoidsTheLoader() {
+        when(cacheService.get(anyString(), eq(StatsDayValueDTO.class)))
+                .thenReturn(StatsDayValueDTO.builder().pv(7).build());
+
+        long pv = cache.stitch("daily", "s/a|g", TODAY.minusDays(2), TODAY.minusDays(1), loader(), sumPv());
+
+        assertThat(pv).isEqualTo(14);
+        assertThat(loads).isEmpty();
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        BiFunction<LocalDate, LocalDate, Map<LocalDate, StatsDayValueDTO>> failing = (from, to) -> {
+            throw new IllegalStateException("clickhouse down");
+        };
+
+        assertThatThrownBy(() -> cache.stitch("daily", "s/a|g", TODAY.minusDays(2), TODAY.minusDays(1), failing, sumPv()))
+                .isInstanceOf(IllegalStateException.class);
+        verify(cacheService, never()).set(anyString(), any(), any(Duration.class));
+
+        long pv = cache.stitch("daily", "s/a|g", TODAY.minusDays(2), TODAY.minusDays(1), loader(), sumPv());
+        assertThat(pv).isEqualTo(20);
+    }
+
+    @Test
+    void rangeIsCachedOnlyWhenSettled() {
+        int[] calls = new int[1];
+        StatsDayValueDTO total = StatsDayValueDTO.builder().pv(100).uv(40).uip(30).build();
+
+        cache.range("total", "s/a|g", TODAY.minusDays(7), TODAY.minusDays(1), () -> {
+            calls[0]++;
+            return total;
+        });
+        StatsDayValueDTO cached = cache.range("total", "s/a|g", TODAY.minusDays(7), TODAY.minusDays(1), () -> {
+            calls[0]++;
+            return total;
+        });
+        cache.range("total", "s/a|g", TODAY.minusDays(7), TODAY, () -> {
+            calls[0]++;
+            return total;
+        });
+        cache.range("total", "s/a|g", TODAY.minusDays(7), TODAY, () -> {
+            calls[0]++;
+            return total;
+        });
+
+        assertThat(cached.getUv()).isEqualTo(40);
+        assertThat(calls[0]).isEqualTo(3);
+    }
+
+    private StatsResultCache newCache(Instant now) {
+        StatsResultCache c = new StatsResultCache();
+        ReflectionTestUtils.setField(c, "settleMinutes", 60L);
+        ReflectionTestUtils.setField(c, "settledTtlDays", 30L);
+        ReflectionTestUtils.setField(c, "liveTtlSeconds", 30L);
+        ReflectionTestUtils.setField(c, "localMaximumSize", 1000L);
+        ReflectionTestUtils.setField(c, "clock", Clock.fixed(now, ZoneOffset.UTC));
+        c.init();
+        return c;
+    }
+
+    /**
+     * 10 PV on every requested day.
+     */
+    private BiFunction<LocalDate, LocalDate, Map<LocalDate, StatsDayValueDTO>> loader() {
+        return (from, to) -> {
+            loads.add(new LocalDate[]{from, to});
+            Map<LocalDate, StatsDayValueDTO> days = new HashMap<>();
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                days.put(day, StatsDayValueDTO.builder().pv(10).build());
+            }
+            return days;
+        };
+    }
+
+    private static Function<SortedMap<LocalDate, StatsDayValueDTO>, Long> sumPv() {
+        return days -> days.values().stream().mapToLong(StatsDayValueDTO::getPv).sum();
+    }
+}
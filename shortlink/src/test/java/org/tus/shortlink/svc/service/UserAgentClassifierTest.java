@@ -0,0 +1,56 @@
+package org.tus.shortlink.svc.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.tookit.UserAgentParser;
+import org.tus.shortlink.base.tookit.UserAgentParser.UserAgentInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for UserAgentClassifier (parser behind a bounded cache).
+ */
+class UserAgentClassifierTest {
+
+    private static final String CHROME_ANDROID = "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36";
+
+    private UserAgentClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new UserAgentClassifier();
+        ReflectionTestUtils.setField(classifier, "maximumSize", 100L);
+        ReflectionTestUtils.setField(classifier, "maxKeyLength", 512);
+        classifier.init();
+    }
+
+    @Test
+    void classify_returnsCachedInstanceForSameUserAgent() {
+        UserAgentInfo first = classifier.classify(CHROME_ANDROID);
+        UserAgentInfo second = classifier.classify(new String(CHROME_ANDROID));
+
+        assertThat(first.os()).isEqualTo(UserAgentParser.OS_ANDROID);
+        assertThat(first.browser()).isEqualTo(UserAgentParser.BROWSER_CHROME);
+        assertThat(first.device()).isEqualTo(UserAgentParser.DEVICE_MOBILE);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void classify_parsesButDoesNotCacheOverlongUserAgent() {
+        ReflectionTestUtils.setField(classifier, "maxKeyLength", 16);
+
+        UserAgentInfo first = classifier.classify(CHROME_ANDROID);
+        UserAgentInfo second = classifier.classify(CHROME_ANDROID);
+
+        assertThat(first).isEqualTo(second).isNotSameAs(second);
+        assertThat(first.browser()).isEqualTo(UserAgentParser.BROWSER_CHROME);
+    }
+
+    @Test
+    void classify_missingHeaderIsUnknown() {
+        assertThat(classifier.classify(null)).isSameAs(UserAgentParser.UNKNOWN_AGENT);
+        assertThat(classifier.classify("")).isSameAs(UserAgentParser.UNKNOWN_AGENT);
+    }
+}
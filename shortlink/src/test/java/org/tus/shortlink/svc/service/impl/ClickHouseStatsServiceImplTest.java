@@ -0,0 +1,70 @@
+package org.tus.shortlink.svc.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.AccessRecordCursor;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.DimensionStats;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for the ClickHouseStatsServiceImpl paths that never reach ClickHouse. The queries themselves
+ * run against a ClickHouse container in ClickHouseStatsQueriesIT.
+ */
+@ExtendWith(MockitoExtension.class)
+class ClickHouseStatsServiceImplTest {
+
+    private static final String GID = "group1";
+    private static final LocalDate START = LocalDate.of(2026, 3, 1);
+    private static final LocalDate END = LocalDate.of(2026, 3, 7);
+
+    @Mock
+    private JdbcTemplate clickHouseJdbcTemplate;
+
+    private ClickHouseStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ClickHouseStatsServiceImpl();
+        ReflectionTestUtils.setField(service, "clickHouseJdbcTemplate", clickHouseJdbcTemplate);
+    }
+
+    @Test
+    void groupPanelsStayEmptyWithoutRollups() {
+        assertThat(service.queryGroupHourlyStats(GID, START, END)).hasSize(24).containsOnly(0);
+        assertThat(service.queryGroupDimensionStats(GID, START, END)).isEqualTo(DimensionStats.empty());
+        verifyNoInteractions(clickHouseJdbcTemplate);
+    }
+
+    @Test
+    void emptyBatchSkipsClickHouse() {
+        assertThat(service.queryTotalStatsBatch(GID, List.of(), START, END)).isEmpty();
+        assertThat(service.queryDailyStatsBatch(GID, List.of(), START, END)).isEmpty();
+        verifyNoInteractions(clickHouseJdbcTemplate);
+    }
+
+    @Test
+    void hotLinksAreEmptyWhenTheTopKTableIsOff() {
+        assertThat(service.queryHotLinks(START, END, 50)).isEmpty();
+        verifyNoInteractions(clickHouseJdbcTemplate);
+    }
+
+    @Test
+    void cursorTokenRoundTrips() {
+        AccessRecordCursor cursor = new AccessRecordCursor(1_773_000_000L, "0b6f7c1e-9f3a-4d2b-8c55-2f1d9e7a6b40");
+
+        assertThat(AccessRecordCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(cursor.encode()).doesNotContain("+", "/", "=");
+        assertThat(AccessRecordCursor.decode("not a cursor!")).isNull();
+        assertThat(AccessRecordCursor.decode("bm9wZQ")).isNull();
+    }
+}
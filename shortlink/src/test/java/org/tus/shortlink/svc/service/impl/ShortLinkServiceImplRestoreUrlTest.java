@@ -1,5 +1,6 @@
 package org.tus.shortlink.svc.service.impl;
 
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,18 +11,22 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.tus.common.domain.persistence.QueryService;
+import org.tus.common.domain.redis.CacheService;
 import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
 import org.tus.shortlink.svc.entity.ShortLink;
 import org.tus.shortlink.svc.service.ShortLinkStatsEventPublisher;
+import org.tus.shortlink.svc.stats.ShortLinkClickEnricher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,9 +55,15 @@ class ShortLinkServiceImplRestoreUrlTest {
     @Mock
     private HttpServletResponse httpResponse;
 
+    @Mock
+    private CacheService cacheService;
+
     @Captor
     private ArgumentCaptor<ShortLinkStatsRecordDTO> eventCaptor;
 
+    @Captor
+    private ArgumentCaptor<Cookie> cookieCaptor;
+
     private ShortLinkServiceImpl service;
 
     @BeforeEach
@@ -159,4 +170,133 @@ class ShortLinkServiceImplRestoreUrlTest {
         verify(shortLinkStatsEventPublisher).publish(any());
         verify(httpResponse).sendError(eq(HttpServletResponse.SC_INTERNAL_SERVER_ERROR), eq("Original URL missing"));
     }
+
+    @Test
+    void restoreUrl_sends410WhenLinkExpired() throws Exception {
+        ShortLink shortLink = ShortLink.builder()
+                .fullShortUrl(FULL_SHORT_URL)
+                .originUrl(ORIGIN_URL)
+                .gid(GID)
+                .validDateType(1)
+                .validDate(new Date(System.currentTimeMillis() - 60_000))
+                .delTime(0L)
+                .build();
+        when(queryService.query(any(), anyMap())).thenReturn(List.of(shortLink));
+
+        service.restoreUrl(SHORT_URI, httpRequest, httpResponse);
+
+        verify(shortLinkStatsEventPublisher, never()).publish(any());
+        verify(httpResponse).sendError(eq(HttpServletResponse.SC_GONE), eq("Short link expired"));
+        verify(httpResponse, never()).sendRedirect(any());
+    }
+
+    @Test
+    void restoreUrl_ignoresPastValidDateForPermanentLink() throws Exception {
+        ShortLink shortLink = ShortLink.builder()
+                .fullShortUrl(FULL_SHORT_URL)
+                .originUrl(ORIGIN_URL)
+                .gid(GID)
+                .validDateType(0)
+                .validDate(new Date(System.currentTimeMillis() - 60_000))
+                .delTime(0L)
+                .build();
+        when(httpRequest.getRemoteAddr()).thenReturn("127.0.0.1");
+        when(queryService.query(any(), anyMap())).thenReturn(List.of(shortLink));
+
+        service.restoreUrl(SHORT_URI, httpRequest, httpResponse);
+
+        verify(httpResponse).sendRedirect(ORIGIN_URL);
+    }
+
+    @Test
+    void restoreUrl_sends404WhenLinkDisabled() throws Exception {
+        ShortLink shortLink = ShortLink.builder()
+                .fullShortUrl(FULL_SHORT_URL)
+                .originUrl(ORIGIN_URL)
+                .gid(GID)
+                .enableStatus(1)
+                .delTime(0L)
+                .build();
+        when(queryService.query(any(), anyMap())).thenReturn(List.of(shortLink));
+
+        service.restoreUrl(SHORT_URI, httpRequest, httpResponse);
+
+        verify(shortLinkStatsEventPublisher, never()).publish(any());
+        verify(httpResponse).sendError(eq(HttpServletResponse.SC_NOT_FOUND), eq("Short link not found"));
+    }
+
+    @Test
+    void restoreUrl_issuesUvCookieForNewVisitor() throws Exception {
+        useRedisEnricher();
+        when(httpRequest.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(queryService.query(any(), anyMap())).thenReturn(List.of(liveLink()));
+        when(cacheService.pfAdd(startsWith("short-link:stats:uv:" + FULL_SHORT_URL + ":"), any(), any()))
+                .thenReturn(true);
+        when(cacheService.pfAdd(startsWith("short-link:stats:uip:" + FULL_SHORT_URL + ":"), eq("10.0.0.1"), any()))
+                .thenReturn(true);
+
+        service.restoreUrl(SHORT_URI, httpRequest, httpResponse);
+
+        verify(httpResponse).addCookie(cookieCaptor.capture());
+        Cookie cookie = cookieCaptor.getValue();
+        assertThat(cookie.getName()).isEqualTo("uv");
+        assertThat(cookie.getValue()).isNotBlank();
+        verify(shortLinkStatsEventPublisher).publish(eventCaptor.capture());
+        ShortLinkStatsRecordDTO event = eventCaptor.getValue();
+        assertThat(event.getUv()).isEqualTo(cookie.getValue());
+        assertThat(event.getUvFirstFlag()).isTrue();
+        assertThat(event.getUipFirstFlag()).isTrue();
+        verify(cacheService, never()).exists(any());
+    }
+
+    @Test
+    void restoreUrl_returningVisitorKeepsCookieAndUsesPfAddResult() throws Exception {
+        useRedisEnricher();
+        when(httpRequest.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(httpRequest.getCookies()).thenReturn(new Cookie[]{new Cookie("uv", "visitor-1")});
+        when(queryService.query(any(), anyMap())).thenReturn(List.of(liveLink()));
+        when(cacheService.pfAdd(startsWith("short-link:stats:uv:"), eq("visitor-1"), any())).thenReturn(false);
+        when(cacheService.pfAdd(startsWith("short-link:stats:uip:"), eq("10.0.0.1"), any())).thenReturn(false);
+
+        service.restoreUrl(SHORT_URI, httpRequest, httpResponse);
+
+        verify(httpResponse, never()).addCookie(any());
+        verify(shortLinkStatsEventPublisher).publish(eventCaptor.capture());
+        ShortLinkStatsRecordDTO event = eventCaptor.getValue();
+        assertThat(event.getUv()).isEqualTo("visitor-1");
+        assertThat(event.getUvFirstFlag()).isFalse();
+        assertThat(event.getUipFirstFlag()).isFalse();
+        verify(httpResponse).sendRedirect(ORIGIN_URL);
+    }
+
+    @Test
+    void restoreUrl_redisFailureDoesNotBlockRedirect() throws Exception {
+        useRedisEnricher();
+        when(httpRequest.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(httpRequest.getCookies()).thenReturn(new Cookie[]{new Cookie("uv", "visitor-1")});
+        when(queryService.query(any(), anyMap())).thenReturn(List.of(liveLink()));
+        when(cacheService.pfAdd(any(), any(), any())).thenThrow(new IllegalStateException("redis down"));
+
+        service.restoreUrl(SHORT_URI, httpRequest, httpResponse);
+
+        verify(shortLinkStatsEventPublisher).publish(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getUvFirstFlag()).isFalse();
+        assertThat(eventCaptor.getValue().getUipFirstFlag()).isFalse();
+        verify(httpResponse).sendRedirect(ORIGIN_URL);
+    }
+
+    private void useRedisEnricher() {
+        ShortLinkClickEnricher enricher = new ShortLinkClickEnricher();
+        ReflectionTestUtils.setField(enricher, "cacheService", cacheService);
+        ReflectionTestUtils.setField(service, "clickEnricher", enricher);
+    }
+
+    private static ShortLink liveLink() {
+        return ShortLink.builder()
+                .fullShortUrl(FULL_SHORT_URL)
+                .originUrl(ORIGIN_URL)
+                .gid(GID)
+                .delTime(0L)
+                .build();
+    }
 }
@@ -0,0 +1,111 @@
+package org.tus.shortlink.svc.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.req.ShortLinkStatsReqDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsAccessDailyRespDTO;
+import org.tus.shortlink.base.dto.resp.ShortLinkStatsRespDTO;
+import org.tus.shortlink.svc.service.ClickHouseStatsService;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.TotalStats;
+import org.tus.shortlink.svc.service.StatsQueryExecutor;
+import org.tus.shortlink.svc.stats.ShortLinkTodayStats;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for how ShortLinkStatsServiceImpl lays the live today counters over the ClickHouse stats.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkStatsServiceImplTest {
+
+    private static final String URL = "https://short.example/abc";
+    private static final String GID = "group1";
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 7);
+
+    @Mock
+    private ClickHouseStatsService clickHouseStatsService;
+
+    @Mock
+    private ShortLinkTodayStats todayStats;
+
+    private StatsQueryExecutor executor;
+
+    private ShortLinkStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new StatsQueryExecutor();
+        ReflectionTestUtils.setField(executor, "parallel", false);
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(executor, "timeoutMillis", 2_000L);
+        executor.init();
+        service = new ShortLinkStatsServiceImpl(clickHouseStatsService, executor);
+        ReflectionTestUtils.setField(service, "todayStats", todayStats);
+        when(todayStats.today()).thenReturn(TODAY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void multiDayRangeAddsTodaysPvButTakesDistinctCountsOverTheWholeRange() {
+        LocalDate start = TODAY.minusDays(2);
+        when(todayStats.linkToday(URL)).thenReturn(new TotalStats(5, 3, 2));
+        // the visitors of today are partly ingested and partly the same as earlier days
+        when(clickHouseStatsService.queryTotalStats(URL, GID, start, TODAY)).thenReturn(new TotalStats(12, 6, 5));
+        when(clickHouseStatsService.queryDailyStats(URL, GID, start, TODAY.minusDays(1))).thenReturn(List.of(
+                day(start, 4, 2, 2), day(start.plusDays(1), 6, 4, 3)));
+
+        ShortLinkStatsRespDTO resp = service.oneShortLinkStats(request(start, TODAY));
+
+        assertThat(resp.getPv()).isEqualTo(15);
+        assertThat(resp.getUv()).isEqualTo(6);
+        assertThat(resp.getUip()).isEqualTo(5);
+        assertThat(resp.getDaily()).extracting(ShortLinkStatsAccessDailyRespDTO::getDate,
+                        ShortLinkStatsAccessDailyRespDTO::getPv)
+                .containsExactly(tuple(start.toString(), 4), tuple(start.plusDays(1).toString(), 6),
+                        tuple(TODAY.toString(), 5));
+    }
+
+    @Test
+    void todayAloneIsTheLiveCountAndAQuietTodayHasNoDailyRow() {
+        when(todayStats.linkToday(URL)).thenReturn(new TotalStats(0, 0, 0));
+
+        ShortLinkStatsRespDTO resp = service.oneShortLinkStats(request(TODAY, TODAY));
+
+        assertThat(resp.getPv()).isZero();
+        assertThat(resp.getUv()).isZero();
+        assertThat(resp.getDaily()).isEmpty();
+        verify(clickHouseStatsService, never()).queryTotalStats(anyString(), anyString(), any(), any());
+    }
+
+    private static ShortLinkStatsReqDTO request(LocalDate start, LocalDate end) {
+        ShortLinkStatsReqDTO request = new ShortLinkStatsReqDTO();
+        request.setFullShortUrl(URL);
+        request.setGid(GID);
+        request.setStartDate(start.toString());
+        request.setEndDate(end.toString());
+        return request;
+    }
+
+    private static ShortLinkStatsAccessDailyRespDTO day(LocalDate date, int pv, int uv, int uip) {
+        return ShortLinkStatsAccessDailyRespDTO.builder().date(date.toString()).pv(pv).uv(uv).uip(uip).build();
+    }
+}
@@ -0,0 +1,83 @@
+package org.tus.shortlink.svc.stats;
+
+import com.clickhouse.client.api.Client;
+import com.clickhouse.client.api.insert.InsertResponse;
+import com.clickhouse.client.api.insert.InsertSettings;
+import com.clickhouse.data.ClickHouseFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ClickHouseStatsEventWriter (RowBinary batch encoding + insert).
+ */
+@ExtendWith(MockitoExtension.class)
+class ClickHouseStatsEventWriterTest {
+
+    @Mock
+    private Client client;
+
+    @Test
+    void encode_writesDateTimeSecondsThenStringColumns() {
+        ShortLinkStatsRecordDTO event = ShortLinkStatsRecordDTO.builder()
+                .currentDate(new Date(0x01020304L * 1000 + 999))
+                .fullShortUrl("s/a")
+                .keys("k")
+                .build();
+
+        byte[] bytes = ClickHouseStatsEventWriter.encode(List.of(event)).toByteArray();
+
+        assertThat(bytes).startsWith(0x04, 0x03, 0x02, 0x01, 3, 's', '/', 'a');
+        // 11 string columns after event_time: full_short_url "s/a", 9 empty, keys "k"
+        assertThat(bytes).hasSize(4 + 4 + 9 + 2);
+        assertThat(bytes).endsWith(1, 'k');
+    }
+
+    @Test
+    void deduplicationToken_namesTheOffsetRange() {
+        String token = ClickHouseStatsEventWriter.deduplicationToken("t", 3, 100, 199);
+
+        assertThat(ClickHouseStatsEventWriter.deduplicationToken("t", 3, 100, 199)).isEqualTo(token);
+        assertThat(ClickHouseStatsEventWriter.deduplicationToken("t", 4, 100, 199)).isNotEqualTo(token);
+        assertThat(ClickHouseStatsEventWriter.deduplicationToken("t", 3, 100, 198)).isNotEqualTo(token);
+    }
+
+    @Test
+    void insert_sendsOneRowBinaryRequestForTheBatch() throws Exception {
+        InsertResponse response = mock(InsertResponse.class);
+        when(response.getWrittenRows()).thenReturn(2L);
+        when(client.insert(eq(ClickHouseStatsEventWriter.TABLE), eq(ClickHouseStatsEventWriter.COLUMNS),
+                any(InputStream.class), eq(ClickHouseFormat.RowBinary), any(InsertSettings.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+        ClickHouseStatsEventWriter writer = new ClickHouseStatsEventWriter(client, 1000L);
+        List<ShortLinkStatsRecordDTO> events = List.of(
+                ShortLinkStatsRecordDTO.builder().fullShortUrl("s/a").currentDate(new Date(1000L)).build(),
+                ShortLinkStatsRecordDTO.builder().fullShortUrl("s/b").currentDate(new Date(2000L)).build());
+
+        assertThat(writer.insert(events, "stats-t-0-1-2")).isEqualTo(2L);
+
+        ArgumentCaptor<InputStream> body = ArgumentCaptor.forClass(InputStream.class);
+        ArgumentCaptor<InsertSettings> settings = ArgumentCaptor.forClass(InsertSettings.class);
+        verify(client).insert(eq(ClickHouseStatsEventWriter.TABLE), eq(ClickHouseStatsEventWriter.COLUMNS),
+                body.capture(), eq(ClickHouseFormat.RowBinary), settings.capture());
+        RowBinaryOutput expected = ClickHouseStatsEventWriter.encode(events);
+        assertThat(body.getValue().readAllBytes()).isEqualTo(expected.toByteArray());
+        assertThat(settings.getValue().getAllSettings()).containsValue("stats-t-0-1-2");
+        verify(response).close();
+    }
+}
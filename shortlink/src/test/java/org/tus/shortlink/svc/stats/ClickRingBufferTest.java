@@ -0,0 +1,102 @@
+package org.tus.shortlink.svc.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ClickRingBuffer (bounded MPMC ring).
+ */
+class ClickRingBufferTest {
+
+    @Test
+    void capacity_isRoundedUpToPowerOfTwo() {
+        assertThat(new ClickRingBuffer<Integer>(1000).capacity()).isEqualTo(1024);
+        assertThat(new ClickRingBuffer<Integer>(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new ClickRingBuffer<Integer>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void offerAndPoll_areFifoAndOfferFailsWhenFull() {
+        ClickRingBuffer<Integer> buffer = new ClickRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(List.of(buffer.poll(), buffer.poll(), buffer.poll(), buffer.poll())).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersAndConsumers_deliverEveryElementExactlyOnce() throws Exception {
+        int producers = 4;
+        int consumers = 3;
+        int perProducer = 20_000;
+        int total = producers * perProducer;
+        ClickRingBuffer<Integer> buffer = new ClickRingBuffer<>(256);
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            List<Future<BitSet>> results = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                results.add(pool.submit(() -> {
+                    BitSet seen = new BitSet(total);
+                    start.await();
+                    while (consumed.get() < total) {
+                        Integer value = buffer.poll();
+                        if (value == null) {
+                            Thread.yield();
+                            continue;
+                        }
+                        if (seen.get(value)) {
+                            throw new IllegalStateException("delivered twice: " + value);
+                        }
+                        seen.set(value);
+                        consumed.incrementAndGet();
+                    }
+                    return seen;
+                }));
+            }
+            start.countDown();
+
+            BitSet all = new BitSet(total);
+            for (Future<BitSet> result : results) {
+                BitSet seen = result.get(30, TimeUnit.SECONDS);
+                assertThat(all.intersects(seen)).isFalse();
+                all.or(seen);
+            }
+            assertThat(all.cardinality()).isEqualTo(total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.tus.shortlink.svc.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for EventsV2Migration: per-partition resume, verification and the TTL cut.
+ */
+@ExtendWith(MockitoExtension.class)
+class EventsV2MigrationTest {
+
+    private static final long CUTOVER = 1_773_000_000L;
+
+    @Mock
+    private JdbcTemplate clickHouseJdbcTemplate;
+
+    private EventsV2Migration migration;
+
+    private final Map<String, Long> sourceRows = Map.of("202601", 5L, "202602", 4L);
+    private final Map<String, Long> targetRows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        migration = new EventsV2Migration();
+        ReflectionTestUtils.setField(migration, "clickHouseJdbcTemplate", clickHouseJdbcTemplate);
+        ReflectionTestUtils.setField(migration, "stagingTtlDays", 3);
+        ReflectionTestUtils.setField(migration, "eventsV2Enabled", true);
+    }
+
+    @Test
+    void copiesOnlyPartitionsThatDifferThenCutsTheStagingTtl() {
+        stubTables();
+        targetRows.put("202601", 5L);
+        copyWrites(4L);
+
+        EventsV2Migration.Result result = migration.migrate();
+
+        assertThat(result).isEqualTo(new EventsV2Migration.Result(1, 1, 0));
+        verify(clickHouseJdbcTemplate).update(startsWith("INSERT INTO link_stats_events_v2 SELECT"),
+                eq("202602"), eq(CUTOVER));
+        verify(clickHouseJdbcTemplate).execute("OPTIMIZE TABLE link_stats_events_v2 PARTITION ID '202602' FINAL");
+        verify(clickHouseJdbcTemplate)
+                .execute("ALTER TABLE link_stats_events MODIFY TTL event_time + INTERVAL 3 DAY");
+    }
+
+    @Test
+    void keepsTheTtlWhenAPartitionDoesNotMatchAfterTheCopy() {
+        stubTables();
+        copyWrites(3L);
+
+        EventsV2Migration.Result result = migration.migrate();
+
+        assertThat(result).isEqualTo(new EventsV2Migration.Result(0, 0, 2));
+        verify(clickHouseJdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+    }
+
+    @Test
+    void keepsTheTtlWhileAccessRecordsStillReadTheOldTable() {
+        ReflectionTestUtils.setField(migration, "eventsV2Enabled", false);
+        stubTables();
+        copyWrites(4L);
+        targetRows.put("202601", 5L);
+
+        EventsV2Migration.Result result = migration.migrate();
+
+        assertThat(result).isEqualTo(new EventsV2Migration.Result(1, 1, 0));
+        verify(clickHouseJdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+    }
+
+    @Test
+    void refusesToRunWithoutTheMaterializedView() {
+        when(clickHouseJdbcTemplate.queryForList(contains("system.tables"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of());
+
+        assertThatThrownBy(() -> migration.migrate()).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("09_events_v2.sql");
+    }
+
+    private void stubTables() {
+        when(clickHouseJdbcTemplate.queryForList(contains("system.tables"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(CUTOVER));
+        when(clickHouseJdbcTemplate.queryForList(contains("system.parts"), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("202601", "202602"));
+        when(clickHouseJdbcTemplate.queryForObject(startsWith("SELECT count()"), eq(Long.class), any(Object[].class)))
+                .thenAnswer(inv -> {
+                    String partition = inv.getArgument(2);
+                    return ((String) inv.getArgument(0)).contains("link_stats_events_v2")
+                            ? targetRows.getOrDefault(partition, 0L)
+                            : sourceRows.get(partition);
+                });
+    }
+
+    /**
+     * Every INSERT ... SELECT leaves {@code rows} rows in the copied partition.
+     */
+    private void copyWrites(long rows) {
+        when(clickHouseJdbcTemplate.update(startsWith("INSERT INTO"), any(Object[].class))).thenAnswer(inv -> {
+            targetRows.put(inv.getArgument(1), rows);
+            return (int) rows;
+        });
+    }
+}
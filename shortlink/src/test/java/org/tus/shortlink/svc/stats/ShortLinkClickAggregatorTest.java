@@ -0,0 +1,147 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.dto.ShortLinkStatsAggregateDTO;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShortLinkClickAggregator (per-window folding and flush to the aggregate topic).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkClickAggregatorTest {
+
+    private static final String TOPIC = "shortlink-stats-aggregates";
+
+    private static final long MINUTE = 1_700_000_040_000L;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private ShortLinkClickAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new ShortLinkClickAggregator(kafkaTemplate);
+        ReflectionTestUtils.setField(aggregator, "statsAggregatesTopic", TOPIC);
+        ReflectionTestUtils.setField(aggregator, "windowSeconds", 60);
+        // flush is driven by the test
+        ReflectionTestUtils.setField(aggregator, "flushIntervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(aggregator, "rawSampleRate", 0.0);
+        ReflectionTestUtils.setField(aggregator, "maxKeys", 1000);
+        aggregator.init();
+        // shutdown flushes whatever a test left pending
+        lenient().when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(sent());
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregator.shutdown();
+    }
+
+    @Test
+    void add_foldsClicksPerWindowAndDimensions() {
+        assertThat(aggregator.add(click("v1", "1.1.1.1", true, MINUTE + 1_000))).isFalse();
+        aggregator.add(click("v1", "1.1.1.1", false, MINUTE + 20_000));
+        aggregator.add(click("v2", "2.2.2.2", true, MINUTE + 59_999));
+        aggregator.add(click("v3", "3.3.3.3", true, MINUTE + 60_000));
+
+        assertThat(aggregator.flush(MINUTE + 60_000)).isEqualTo(1);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq(TOPIC), eq("shortlink.tus/abc"), payload.capture());
+        ShortLinkStatsAggregateDTO record = JSON.parseObject(payload.getValue(), ShortLinkStatsAggregateDTO.class);
+        assertThat(record.getWindowStart()).isEqualTo(MINUTE);
+        assertThat(record.getWindowSeconds()).isEqualTo(60);
+        assertThat(record.getGid()).isEqualTo("g1");
+        assertThat(record.getBrowser()).isEqualTo("Chrome");
+        assertThat(record.getPv()).isEqualTo(3L);
+        assertThat(record.getUvFirst()).isEqualTo(2L);
+        assertThat(record.getUipFirst()).isEqualTo(2L);
+        // the next window stays open
+        assertThat(aggregator.pendingKeys()).isEqualTo(1);
+    }
+
+    @Test
+    void add_samplesRawEventsAtTheConfiguredRate() {
+        ReflectionTestUtils.setField(aggregator, "rawSampleRate", 1.0);
+        assertThat(aggregator.add(click("v1", "1.1.1.1", true, MINUTE))).isTrue();
+
+        ReflectionTestUtils.setField(aggregator, "rawSampleRate", 0.0);
+        assertThat(aggregator.add(click("v1", "1.1.1.1", true, MINUTE))).isFalse();
+    }
+
+    @Test
+    void flush_foldsFailedSendsBackForTheNextFlush() {
+        aggregator.add(click("v1", "1.1.1.1", true, MINUTE));
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThat(aggregator.flush(Long.MAX_VALUE)).isEqualTo(1);
+        assertThat(aggregator.pendingKeys()).isEqualTo(1);
+
+        aggregator.add(click("v2", "2.2.2.2", false, MINUTE + 1_000));
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), anyString())).thenReturn(sent());
+        assertThat(aggregator.flush(Long.MAX_VALUE)).isEqualTo(1);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate, times(2)).send(eq(TOPIC), anyString(), payload.capture());
+        List<String> payloads = payload.getAllValues();
+        ShortLinkStatsAggregateDTO retried = JSON.parseObject(payloads.get(1), ShortLinkStatsAggregateDTO.class);
+        assertThat(retried.getPv()).isEqualTo(2L);
+        assertThat(retried.getUvFirst()).isEqualTo(1L);
+        assertThat(aggregator.pendingKeys()).isZero();
+    }
+
+    @Test
+    void flush_skipsOpenWindows() {
+        aggregator.add(click("v1", "1.1.1.1", true, MINUTE));
+
+        assertThat(aggregator.flush(MINUTE)).isZero();
+
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+    }
+
+    private static ShortLinkStatsRecordDTO click(String uv, String ip, boolean first, long time) {
+        return ShortLinkStatsRecordDTO.builder()
+                .gid("g1")
+                .fullShortUrl("shortlink.tus/abc")
+                .remoteAddr(ip)
+                .uv(uv)
+                .os("Mac OS X")
+                .browser("Chrome")
+                .device("PC")
+                .network("Unknown")
+                .uvFirstFlag(first)
+                .uipFirstFlag(first)
+                .currentDate(new Date(time))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, String>> sent() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
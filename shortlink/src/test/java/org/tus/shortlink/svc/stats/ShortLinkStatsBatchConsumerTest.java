@@ -0,0 +1,165 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShortLinkStatsBatchConsumer (decode, skip malformed, one insert per partition of a batch).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkStatsBatchConsumerTest {
+
+    private static final String TOPIC = "shortlink-stats-events";
+
+    @Mock
+    private ClickHouseStatsEventWriter eventWriter;
+
+    private final StatsEventDeduplicator deduplicator = new StatsEventDeduplicator(Duration.ofMinutes(10), 1000);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBatch_insertsDecodedEventsAndSkipsMalformedOnes() throws Exception {
+        ShortLinkStatsBatchConsumer consumer = consumer("json");
+
+        consumer.onBatch(List.of(
+                record(0, JSON.toJSONBytes(event("k0"), "millis")),
+                record(1, "{not json".getBytes(StandardCharsets.UTF_8)),
+                record(2, JSON.toJSONBytes(event("k2"), "millis"))));
+
+        ArgumentCaptor<List<ShortLinkStatsRecordDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventWriter).insert(batch.capture(), anyString());
+        assertThat(batch.getValue()).extracting(ShortLinkStatsRecordDTO::getKeys).containsExactly("k0", "k2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBatch_decodesBinaryFormat() throws Exception {
+        ShortLinkStatsBatchConsumer consumer = consumer("binary");
+
+        consumer.onBatch(List.of(record(0, StatsRecordBinaryCodec.encode(event("k0")))));
+
+        ArgumentCaptor<List<ShortLinkStatsRecordDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventWriter).insert(batch.capture(), anyString());
+        assertThat(batch.getValue()).singleElement()
+                .satisfies(e -> assertThat(e.getFullShortUrl()).isEqualTo("shortlink.tus/abc"));
+    }
+
+    @Test
+    void onBatch_rethrowsInsertFailureSoTheBatchIsRetried() throws Exception {
+        ShortLinkStatsBatchConsumer consumer = consumer("json");
+        when(eventWriter.insert(anyList(), anyString())).thenThrow(new IllegalStateException("clickhouse down"));
+
+        assertThatThrownBy(() -> consumer.onBatch(List.of(record(0, JSON.toJSONBytes(event("k0"))))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBatch_dropsKeysAlreadyWrittenButRetriesFailedBatchInFull() throws Exception {
+        ShortLinkStatsBatchConsumer consumer = consumer("json");
+        consumer.onBatch(List.of(record(0, JSON.toJSONBytes(event("k0")))));
+
+        when(eventWriter.insert(anyList(), anyString())).thenThrow(new IllegalStateException("clickhouse down"))
+                .thenReturn(2L);
+        List<ConsumerRecord<String, byte[]>> redelivered = List.of(
+                record(0, JSON.toJSONBytes(event("k0"))),
+                record(1, JSON.toJSONBytes(event("k1"))),
+                record(2, JSON.toJSONBytes(event("k1"))),
+                record(3, JSON.toJSONBytes(event("k2"))));
+        assertThatThrownBy(() -> consumer.onBatch(redelivered)).isInstanceOf(IllegalStateException.class);
+        consumer.onBatch(redelivered);
+
+        ArgumentCaptor<List<ShortLinkStatsRecordDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventWriter, times(3)).insert(batch.capture(), anyString());
+        assertThat(batch.getAllValues().get(1)).extracting(ShortLinkStatsRecordDTO::getKeys).containsExactly("k1", "k2");
+        assertThat(batch.getAllValues().get(2)).extracting(ShortLinkStatsRecordDTO::getKeys).containsExactly("k1", "k2");
+    }
+
+    @Test
+    void onBatch_skipsInsertWhenNothingDecodes() throws Exception {
+        ShortLinkStatsBatchConsumer consumer = consumer("binary");
+
+        consumer.onBatch(List.of(record(0, new byte[]{9, 9})));
+
+        verify(eventWriter, never()).insert(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBatch_insertsEachPartitionUnderTheTokenOfItsOffsets() throws Exception {
+        ShortLinkStatsBatchConsumer consumer = consumer("json");
+
+        consumer.onBatch(List.of(
+                record(1, 7, 0L, JSON.toJSONBytes(event("a7"))),
+                record(2, 40, 0L, JSON.toJSONBytes(event("b40"))),
+                record(1, 8, 0L, "{not json".getBytes(StandardCharsets.UTF_8)),
+                record(1, 9, 0L, JSON.toJSONBytes(event("a9")))));
+
+        ArgumentCaptor<List<ShortLinkStatsRecordDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventWriter).insert(batch.capture(), eq("stats-" + TOPIC + "-1-7-9"));
+        assertThat(batch.getValue()).extracting(ShortLinkStatsRecordDTO::getKeys).containsExactly("a7", "a9");
+        verify(eventWriter).insert(anyList(), eq("stats-" + TOPIC + "-2-40-40"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBatch_stampsEventsWithoutDateWithTheirRecordTimestamp() throws Exception {
+        ShortLinkStatsBatchConsumer consumer = consumer("json");
+
+        consumer.onBatch(List.of(record(0, 0, 5_000L, JSON.toJSONBytes(event("k0")))));
+
+        ArgumentCaptor<List<ShortLinkStatsRecordDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventWriter).insert(batch.capture(), anyString());
+        assertThat(batch.getValue()).singleElement()
+                .satisfies(e -> assertThat(e.getCurrentDate().getTime()).isEqualTo(5_000L));
+    }
+
+    private ShortLinkStatsBatchConsumer consumer(String format) {
+        ShortLinkStatsBatchConsumer consumer = new ShortLinkStatsBatchConsumer(eventWriter, deduplicator);
+        ReflectionTestUtils.setField(consumer, "statsEventsFormat", format);
+        consumer.init();
+        return consumer;
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, byte[] value) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, null, value);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(int partition, long offset, long timestamp, byte[] value) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, timestamp, TimestampType.CREATE_TIME, 0, value.length,
+                null, value, new RecordHeaders(), Optional.empty());
+    }
+
+    private static ShortLinkStatsRecordDTO event(String key) {
+        return ShortLinkStatsRecordDTO.builder()
+                .gid("g1")
+                .fullShortUrl("shortlink.tus/abc")
+                .keys(key)
+                .build();
+    }
+}
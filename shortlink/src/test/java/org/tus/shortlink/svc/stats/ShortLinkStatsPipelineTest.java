@@ -0,0 +1,136 @@
+package org.tus.shortlink.svc.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.dto.ShortLinkClickDTO;
+import org.tus.shortlink.svc.service.ShortLinkStatsEventPublisher;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for ShortLinkStatsPipeline (ring hand-off, overflow policies, metrics).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkStatsPipelineTest {
+
+    @Mock
+    private ShortLinkStatsEventPublisher statsEventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ShortLinkStatsPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void submit_publishesEnrichedEventFromWorker() {
+        pipeline = newPipeline(ShortLinkStatsPipeline.OverflowPolicy.DROP_NEWEST, 16);
+
+        assertThat(pipeline.submit(click("a"))).isTrue();
+
+        verify(statsEventPublisher, timeout(2000)).publish(any(ShortLinkStatsRecordDTO.class));
+        assertThat(meterRegistry.get("shortlink.stats.buffer.enqueued").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("shortlink.stats.buffer.enqueue.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropNewest_rejectsIncomingClickWhenFull() throws Exception {
+        CountDownLatch release = blockWorker();
+        pipeline = newPipeline(ShortLinkStatsPipeline.OverflowPolicy.DROP_NEWEST, 4);
+        fillWhileWorkerBlocked(4);
+
+        assertThat(pipeline.submit(click("overflow"))).isFalse();
+        assertThat(dropped("newest")).isEqualTo(1.0);
+        release.countDown();
+    }
+
+    @Test
+    void dropOldest_evictsBacklogToAdmitIncomingClick() throws Exception {
+        CountDownLatch release = blockWorker();
+        pipeline = newPipeline(ShortLinkStatsPipeline.OverflowPolicy.DROP_OLDEST, 4);
+        fillWhileWorkerBlocked(4);
+
+        assertThat(pipeline.submit(click("overflow"))).isTrue();
+        assertThat(dropped("oldest")).isEqualTo(1.0);
+        assertThat(pipeline.depth()).isEqualTo(4);
+        release.countDown();
+    }
+
+    @Test
+    void sample_dropsAboveHighWaterMark() throws Exception {
+        CountDownLatch release = blockWorker();
+        pipeline = newPipeline(ShortLinkStatsPipeline.OverflowPolicy.SAMPLE, 8);
+        ReflectionTestUtils.setField(pipeline, "sampleThreshold", 2);
+        ReflectionTestUtils.setField(pipeline, "sampleRate", 0.0);
+        fillWhileWorkerBlocked(2);
+
+        assertThat(pipeline.submit(click("sampled-out"))).isFalse();
+        assertThat(dropped("sampled")).isEqualTo(1.0);
+        assertThat(pipeline.depth()).isEqualTo(2);
+        release.countDown();
+    }
+
+    /**
+     * Make the single worker hang on its first publish so later clicks stay buffered.
+     */
+    private CountDownLatch blockWorker() {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(statsEventPublisher).publish(any());
+        return release;
+    }
+
+    private void fillWhileWorkerBlocked(int buffered) {
+        pipeline.submit(click("taken-by-worker"));
+        verify(statsEventPublisher, timeout(2000)).publish(any());
+        for (int i = 0; i < buffered; i++) {
+            assertThat(pipeline.submit(click("c" + i))).isTrue();
+        }
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("shortlink.stats.buffer.dropped").tag("reason", reason).counter().count();
+    }
+
+    private ShortLinkStatsPipeline newPipeline(ShortLinkStatsPipeline.OverflowPolicy policy, int capacity) {
+        ShortLinkStatsPipeline created = new ShortLinkStatsPipeline(new ShortLinkClickEnricher(), statsEventPublisher);
+        ReflectionTestUtils.setField(created, "capacity", capacity);
+        ReflectionTestUtils.setField(created, "workers", 1);
+        ReflectionTestUtils.setField(created, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(created, "sampleHighWaterRatio", 0.75);
+        ReflectionTestUtils.setField(created, "sampleRate", 0.1);
+        ReflectionTestUtils.setField(created, "drainTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(created, "meterRegistry", meterRegistry);
+        created.init();
+        return created;
+    }
+
+    private static ShortLinkClickDTO click(String code) {
+        return ShortLinkClickDTO.builder()
+                .gid("g1")
+                .fullShortUrl("shortlink.tus/" + code)
+                .remoteAddr("10.0.0.1")
+                .referrer("")
+                .userAgent("Mozilla/5.0")
+                .uv("visitor-1")
+                .clickTime(System.currentTimeMillis())
+                .build();
+    }
+}
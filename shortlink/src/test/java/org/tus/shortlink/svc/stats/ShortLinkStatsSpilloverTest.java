@@ -0,0 +1,110 @@
+package org.tus.shortlink.svc.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShortLinkStatsSpillover (spill + ordered replay to Kafka).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkStatsSpilloverTest {
+
+    private static final String TOPIC = "shortlink-stats-events";
+
+    @Mock
+    private KafkaTemplate<String, ShortLinkStatsRecordDTO> kafkaTemplate;
+
+    @TempDir
+    Path dir;
+
+    private ShortLinkStatsSpillover spillover;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        spillover = new ShortLinkStatsSpillover(kafkaTemplate);
+        ReflectionTestUtils.setField(spillover, "statsEventsTopic", TOPIC);
+        ReflectionTestUtils.setField(spillover, "directory", dir.toString());
+        ReflectionTestUtils.setField(spillover, "segmentBytes", 4096);
+        ReflectionTestUtils.setField(spillover, "maxBytes", 1L << 20);
+        // replay is driven by the test
+        ReflectionTestUtils.setField(spillover, "replayIntervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(spillover, "replayBatchSize", 2);
+        ReflectionTestUtils.setField(spillover, "replayTimeoutMillis", 1000L);
+        spillover.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        spillover.shutdown();
+    }
+
+    @Test
+    void replay_sendsSpilledEventsInOrderAndClearsBacklog() throws Exception {
+        Date clickTime = new Date(1_700_000_000_123L);
+        for (int i = 0; i < 3; i++) {
+            spillover.spill(event("k" + i, clickTime));
+        }
+        assertThat(spillover.hasBacklog()).isTrue();
+        when(kafkaTemplate.send(eq(TOPIC), any(), any())).thenReturn(sent());
+
+        assertThat(spillover.replay()).isEqualTo(3);
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<ShortLinkStatsRecordDTO> events = ArgumentCaptor.forClass(ShortLinkStatsRecordDTO.class);
+        verify(kafkaTemplate, times(3)).send(eq(TOPIC), keys.capture(), events.capture());
+        assertThat(keys.getAllValues()).containsExactly("k0", "k1", "k2");
+        assertThat(events.getValue().getFullShortUrl()).isEqualTo("shortlink.tus/abc");
+        assertThat(events.getValue().getCurrentDate()).isEqualTo(clickTime);
+        assertThat(spillover.hasBacklog()).isFalse();
+    }
+
+    @Test
+    void replay_keepsBacklogWhenSendFails() throws Exception {
+        spillover.spill(event("k0", new Date()));
+        when(kafkaTemplate.send(eq(TOPIC), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThatThrownBy(() -> spillover.replay()).isInstanceOf(ExecutionException.class);
+        assertThat(spillover.hasBacklog()).isTrue();
+
+        when(kafkaTemplate.send(eq(TOPIC), any(), any())).thenReturn(sent());
+        assertThat(spillover.replay()).isEqualTo(1);
+        assertThat(spillover.hasBacklog()).isFalse();
+    }
+
+    private static CompletableFuture<SendResult<String, ShortLinkStatsRecordDTO>> sent() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static ShortLinkStatsRecordDTO event(String key, Date clickTime) {
+        return ShortLinkStatsRecordDTO.builder()
+                .gid("g1")
+                .fullShortUrl("shortlink.tus/abc")
+                .keys(key)
+                .currentDate(clickTime)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.dto.ShortLinkStatsAggregateDTO;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShortLinkStatsWindowConsumer (per-partition windows, manual offset commits).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkStatsWindowConsumerTest {
+
+    private static final String TOPIC = "shortlink-stats-events";
+
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+
+    private static final long MINUTE = 1_700_000_040_000L;
+
+    @Mock
+    private ClickHouseStatsRollupWriter rollupWriter;
+
+    @Mock
+    private Consumer<String, byte[]> consumer;
+
+    private ShortLinkStatsWindowConsumer windowConsumer;
+
+    @BeforeEach
+    void setUp() {
+        windowConsumer = new ShortLinkStatsWindowConsumer(rollupWriter);
+        ReflectionTestUtils.setField(windowConsumer, "statsEventsFormat", "json");
+        ReflectionTestUtils.setField(windowConsumer, "windowSeconds", 60);
+        ReflectionTestUtils.setField(windowConsumer, "allowedLatenessMillis", 10_000L);
+        windowConsumer.init();
+        lenient().when(consumer.assignment()).thenReturn(Set.of(P0));
+    }
+
+    @Test
+    void init_refusesToRunNextToThePreAggregation() {
+        ShortLinkStatsWindowConsumer other = new ShortLinkStatsWindowConsumer(rollupWriter);
+        ReflectionTestUtils.setField(other, "statsEventsFormat", "json");
+        ReflectionTestUtils.setField(other, "preaggregateEnabled", true);
+
+        assertThatThrownBy(other::init).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shortlink.stats.preaggregate.enabled");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBatch_writesClosedWindowsAndCommitsBehindOpenOnes() throws Exception {
+        windowConsumer.onBatch(List.of(
+                record(0, event("shortlink.tus/a", MINUTE + 1_000, true)),
+                record(1, event("shortlink.tus/a", MINUTE + 2_000, false)),
+                record(2, event("shortlink.tus/b", MINUTE + 3_000, true)),
+                // still within the lateness of the first window
+                record(3, event("shortlink.tus/a", MINUTE + 65_000, true))), consumer);
+
+        verify(rollupWriter, never()).insert(anyList());
+        verify(consumer, never()).commitSync(anyMap());
+
+        windowConsumer.onBatch(List.of(record(4, event("shortlink.tus/a", MINUTE + 70_000, false))), consumer);
+
+        ArgumentCaptor<List<ShortLinkStatsAggregateDTO>> rollups = ArgumentCaptor.forClass(List.class);
+        verify(rollupWriter).insert(rollups.capture());
+        assertThat(rollups.getValue()).hasSize(2);
+        ShortLinkStatsAggregateDTO linkA = rollups.getValue().stream()
+                .filter(r -> r.getFullShortUrl().equals("shortlink.tus/a")).findFirst().orElseThrow();
+        assertThat(linkA.getWindowStart()).isEqualTo(MINUTE);
+        assertThat(linkA.getPv()).isEqualTo(2L);
+        assertThat(linkA.getUvFirst()).isEqualTo(1L);
+        // the next window opened at offset 3 and is still in memory
+        verify(consumer).commitSync(Map.of(P0, new OffsetAndMetadata(3)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBatch_retriesOnlyTheWriteWhenTheBatchIsRedelivered() throws Exception {
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                record(0, event("shortlink.tus/a", MINUTE, true)),
+                record(1, event("shortlink.tus/a", MINUTE + 80_000, true)));
+        when(rollupWriter.insert(anyList())).thenThrow(new IllegalStateException("clickhouse down")).thenReturn(1L);
+
+        assertThatThrownBy(() -> windowConsumer.onBatch(batch, consumer)).isInstanceOf(IllegalStateException.class);
+        windowConsumer.onBatch(batch, consumer);
+
+        ArgumentCaptor<List<ShortLinkStatsAggregateDTO>> rollups = ArgumentCaptor.forClass(List.class);
+        verify(rollupWriter, times(2)).insert(rollups.capture());
+        assertThat(rollups.getAllValues().get(1)).singleElement()
+                .extracting(ShortLinkStatsAggregateDTO::getPv).isEqualTo(1L);
+        verify(consumer).commitSync(Map.of(P0, new OffsetAndMetadata(1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onPartitionsRevoked_writesOpenWindowsAndCommitsEverything() throws Exception {
+        windowConsumer.onBatch(List.of(
+                record(0, event("shortlink.tus/a", MINUTE, true)),
+                record(1, event("shortlink.tus/a", MINUTE + 5_000, true))), consumer);
+
+        windowConsumer.onPartitionsRevokedBeforeCommit(consumer, List.of(P0));
+
+        ArgumentCaptor<List<ShortLinkStatsAggregateDTO>> rollups = ArgumentCaptor.forClass(List.class);
+        verify(rollupWriter).insert(rollups.capture());
+        assertThat(rollups.getValue()).singleElement()
+                .extracting(ShortLinkStatsAggregateDTO::getPv).isEqualTo(2L);
+        verify(consumer).commitSync(Map.of(P0, new OffsetAndMetadata(2)));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, ShortLinkStatsRecordDTO event) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, event.getFullShortUrl(), JSON.toJSONBytes(event));
+    }
+
+    private static ShortLinkStatsRecordDTO event(String fullShortUrl, long time, boolean first) {
+        return ShortLinkStatsRecordDTO.builder()
+                .gid("g1")
+                .fullShortUrl(fullShortUrl)
+                .os("Windows")
+                .browser("Chrome")
+                .device("PC")
+                .network("Unknown")
+                .uvFirstFlag(first)
+                .uipFirstFlag(first)
+                .currentDate(new Date(time))
+                .build();
+    }
+}
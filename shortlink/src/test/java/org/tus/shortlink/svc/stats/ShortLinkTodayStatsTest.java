@@ -0,0 +1,133 @@
+package org.tus.shortlink.svc.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.common.domain.redis.CacheService;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.service.ClickHouseStatsService.TotalStats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShortLinkTodayStats (local counting, pipelined flush, live reads).
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortLinkTodayStatsTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-07T10:15:00Z");
+    private static final String URL = "s.tus/abc";
+    private static final String GID = "g1";
+
+    @Mock
+    private CacheService cacheService;
+
+    private ShortLinkTodayStats todayStats;
+
+    @SuppressWarnings("unchecked")
+    private final ArgumentCaptor<Map<String, Long>> counts = ArgumentCaptor.forClass(Map.class);
+    @SuppressWarnings("unchecked")
+    private final ArgumentCaptor<Map<String, Collection<String>>> members = ArgumentCaptor.forClass(Map.class);
+
+    @BeforeEach
+    void setUp() {
+        todayStats = new ShortLinkTodayStats();
+        ReflectionTestUtils.setField(todayStats, "cacheService", cacheService);
+        ReflectionTestUtils.setField(todayStats, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+        // flush is driven by the test
+        ReflectionTestUtils.setField(todayStats, "flushIntervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(todayStats, "keyTtlHours", 48L);
+        todayStats.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        todayStats.shutdown();
+    }
+
+    @Test
+    void flushWritesLinkAndGroupCountersInOneBatch() {
+        todayStats.add(click("v1", "1.1.1.1"));
+        todayStats.add(click("v1", "1.1.1.1"));
+        todayStats.add(click("v2", "2.2.2.2"));
+
+        assertThat(todayStats.flush()).isEqualTo(4);
+
+        verify(cacheService).incrementAndPfAdd(counts.capture(), members.capture(), eq(Duration.ofHours(48)));
+        assertThat(counts.getValue()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "short-link:stats:today:pv:s.tus/abc:20260307", 3L,
+                "short-link:stats:today:group-pv:g1:20260307", 3L));
+        assertThat(members.getValue()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "short-link:stats:today:group-uv:g1:20260307", Set.of("v1", "v2"),
+                "short-link:stats:today:group-uip:g1:20260307", Set.of("1.1.1.1", "2.2.2.2")));
+        assertThat(todayStats.pendingKeys()).isZero();
+        assertThat(todayStats.flush()).isZero();
+    }
+
+    @Test
+    void failedFlushKeepsThePvCountsForTheNextOne() {
+        doThrow(new IllegalStateException("redis down")).doNothing()
+                .when(cacheService).incrementAndPfAdd(anyMap(), anyMap(), any(Duration.class));
+        todayStats.add(click("v1", "1.1.1.1"));
+
+        assertThat(todayStats.flush()).isZero();
+        todayStats.add(click("v2", "2.2.2.2"));
+        todayStats.flush();
+
+        verify(cacheService, times(2)).incrementAndPfAdd(counts.capture(), members.capture(), any(Duration.class));
+        assertThat(counts.getValue()).containsEntry("short-link:stats:today:pv:s.tus/abc:20260307", 2L);
+        assertThat(members.getValue()).containsEntry("short-link:stats:today:group-uv:g1:20260307", Set.of("v2"));
+    }
+
+    @Test
+    void linkTodayReadsTheCounterAndTheFirstVisitHyperLogLogs() {
+        when(cacheService.getCountersAndPfCount(List.of("short-link:stats:today:pv:s.tus/abc:20260307"),
+                List.of("short-link:stats:uv:s.tus/abc:20260307", "short-link:stats:uip:s.tus/abc:20260307")))
+                .thenReturn(Map.of("short-link:stats:today:pv:s.tus/abc:20260307", 12L,
+                        "short-link:stats:uv:s.tus/abc:20260307", 5L,
+                        "short-link:stats:uip:s.tus/abc:20260307", 4L));
+
+        assertThat(todayStats.today()).isEqualTo(LocalDate.of(2026, 3, 7));
+        assertThat(todayStats.linkToday(URL)).isEqualTo(new TotalStats(12, 5, 4));
+    }
+
+    @Test
+    void groupTodayIsNullWhenRedisCannotAnswer() {
+        when(cacheService.getCountersAndPfCount(any(), any())).thenThrow(new IllegalStateException("redis down"));
+
+        assertThat(todayStats.groupToday(GID)).isNull();
+    }
+
+    private static ShortLinkStatsRecordDTO click(String uv, String remoteAddr) {
+        return ShortLinkStatsRecordDTO.builder()
+                .fullShortUrl(URL)
+                .gid(GID)
+                .uv(uv)
+                .remoteAddr(remoteAddr)
+                .currentDate(Date.from(NOW))
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package org.tus.shortlink.svc.stats;
+
+import org.junit.jupiter.api.Test;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StatsEventDeduplicator.
+ */
+class StatsEventDeduplicatorTest {
+
+    private final StatsEventDeduplicator deduplicator = new StatsEventDeduplicator(Duration.ofMinutes(10), 1000);
+
+    @Test
+    void filter_dropsDuplicatesWithinBatchAndKeepsEventsWithoutKeys() {
+        List<ShortLinkStatsRecordDTO> unique = deduplicator.filter(List.of(
+                event("a"), event("b"), event("a"), event(null), event(null)));
+
+        assertThat(unique).extracting(ShortLinkStatsRecordDTO::getKeys).containsExactly("a", "b", null, null);
+    }
+
+    @Test
+    void filter_dropsOnlyKeysThatWereRemembered() {
+        List<ShortLinkStatsRecordDTO> first = List.of(event("a"), event("b"));
+        assertThat(deduplicator.filter(first)).hasSize(2);
+        // not written yet: the same batch passes again
+        assertThat(deduplicator.filter(first)).hasSize(2);
+
+        deduplicator.remember(first);
+
+        assertThat(deduplicator.filter(List.of(event("a"), event("c"))))
+                .extracting(ShortLinkStatsRecordDTO::getKeys).containsExactly("c");
+    }
+
+    private static ShortLinkStatsRecordDTO event(String keys) {
+        return ShortLinkStatsRecordDTO.builder().fullShortUrl("shortlink.tus/abc").keys(keys).build();
+    }
+}
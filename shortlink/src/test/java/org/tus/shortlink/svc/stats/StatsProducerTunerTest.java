@@ -0,0 +1,124 @@
+package org.tus.shortlink.svc.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+import org.tus.shortlink.svc.stats.StatsProducerTuner.Observation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for StatsProducerTuner (profile decision, hysteresis and producer recreation).
+ */
+@ExtendWith(MockitoExtension.class)
+class StatsProducerTunerTest {
+
+    @Mock
+    private ProducerFactory<String, ShortLinkStatsRecordDTO> producerFactory;
+
+    @Mock
+    private KafkaTemplate<String, ShortLinkStatsRecordDTO> kafkaTemplate;
+
+    private StatsProducerTuner tuner;
+
+    @BeforeEach
+    void setUp() {
+        tuner = new StatsProducerTuner(producerFactory, kafkaTemplate);
+        ReflectionTestUtils.setField(tuner, "initialProfile", StatsProducerProfile.BALANCED);
+        // ticks are driven by the test
+        ReflectionTestUtils.setField(tuner, "intervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(tuner, "lowRate", 200.0);
+        ReflectionTestUtils.setField(tuner, "highRate", 5000.0);
+        ReflectionTestUtils.setField(tuner, "maxRequestLatencyMillis", 100.0);
+        ReflectionTestUtils.setField(tuner, "stableTicks", 3);
+        tuner.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tuner.shutdown();
+    }
+
+    @Test
+    void highRateSwitchesUpAfterStableTicks() {
+        Observation peak = new Observation(20_000, 0.5, 20, 0.95);
+
+        assertThat(tuner.tune(peak)).isEqualTo(StatsProducerProfile.BALANCED);
+        assertThat(tuner.tune(peak)).isEqualTo(StatsProducerProfile.BALANCED);
+        verify(producerFactory, never()).reset();
+
+        assertThat(tuner.tune(peak)).isEqualTo(StatsProducerProfile.THROUGHPUT);
+        var order = inOrder(producerFactory);
+        order.verify(producerFactory).updateConfigs(StatsProducerProfile.THROUGHPUT.producerConfigs());
+        order.verify(producerFactory).reset();
+    }
+
+    @Test
+    void interruptedStreakDoesNotSwitch() {
+        Observation peak = new Observation(20_000, 0.5, 20, 0.95);
+        Observation normal = new Observation(1_000, 0.3, 20, 0.95);
+
+        tuner.tune(peak);
+        tuner.tune(peak);
+        tuner.tune(normal);
+        tuner.tune(peak);
+
+        assertThat(tuner.currentProfile()).isEqualTo(StatsProducerProfile.BALANCED);
+        verify(producerFactory, never()).reset();
+    }
+
+    @Test
+    void lowRateStepsDownOneProfileAtATime() {
+        ReflectionTestUtils.setField(tuner, "stableTicks", 1);
+        Observation peak = new Observation(20_000, 0.95, 20, 0.95);
+        Observation quiet = new Observation(10, 0.05, 2, 1.0);
+
+        assertThat(tuner.tune(peak)).isEqualTo(StatsProducerProfile.THROUGHPUT);
+        assertThat(tuner.tune(peak)).isEqualTo(StatsProducerProfile.THROUGHPUT);
+        assertThat(tuner.tune(quiet)).isEqualTo(StatsProducerProfile.BALANCED);
+        assertThat(tuner.tune(quiet)).isEqualTo(StatsProducerProfile.LOW_LATENCY);
+        assertThat(tuner.tune(quiet)).isEqualTo(StatsProducerProfile.LOW_LATENCY);
+    }
+
+    @Test
+    void pressureSignalsAskForMoreBatching() {
+        StatsProducerProfile current = StatsProducerProfile.LOW_LATENCY;
+
+        // buffer filling up
+        assertThat(tuner.target(current, new Observation(1_000, 0.2, 20, 0.3))).isEqualTo(StatsProducerProfile.BALANCED);
+        // batches leave full
+        assertThat(tuner.target(current, new Observation(1_000, 0.95, 20, 0.95))).isEqualTo(StatsProducerProfile.BALANCED);
+        // slow requests
+        assertThat(tuner.target(current, new Observation(1_000, 0.2, 250, 0.95))).isEqualTo(StatsProducerProfile.BALANCED);
+        // steady mid traffic
+        assertThat(tuner.target(current, new Observation(1_000, 0.2, 20, 0.95))).isEqualTo(current);
+    }
+
+    @Test
+    void throughputHoldsUntilRateClearlyDrops() {
+        StatsProducerProfile current = StatsProducerProfile.THROUGHPUT;
+
+        assertThat(tuner.target(current, new Observation(4_000, 0.3, 20, 0.95))).isEqualTo(current);
+        assertThat(tuner.target(current, new Observation(2_000, 0.3, 20, 0.95))).isEqualTo(StatsProducerProfile.BALANCED);
+        // still draining the buffer
+        assertThat(tuner.target(current, new Observation(2_000, 0.3, 20, 0.6))).isEqualTo(current);
+    }
+
+    @Test
+    void missingMetricsKeepTheProfile() {
+        assertThat(tuner.tune(Observation.EMPTY)).isEqualTo(StatsProducerProfile.BALANCED);
+        assertThat(tuner.tune(Observation.EMPTY)).isEqualTo(StatsProducerProfile.BALANCED);
+        assertThat(tuner.tune(Observation.EMPTY)).isEqualTo(StatsProducerProfile.BALANCED);
+        verify(producerFactory, never()).reset();
+    }
+}
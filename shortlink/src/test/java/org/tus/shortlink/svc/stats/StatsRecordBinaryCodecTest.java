@@ -0,0 +1,107 @@
+package org.tus.shortlink.svc.stats;
+
+import com.alibaba.fastjson2.JSON;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.tus.shortlink.base.dto.biz.ShortLinkStatsRecordDTO;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for StatsRecordBinaryCodec and its Kafka serializer/deserializer.
+ */
+class StatsRecordBinaryCodecTest {
+
+    @Test
+    void roundTrip_preservesAllFields() {
+        ShortLinkStatsRecordDTO record = record();
+
+        ShortLinkStatsRecordDTO decoded = StatsRecordBinaryCodec.decode(StatsRecordBinaryCodec.encode(record));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(record);
+    }
+
+    @Test
+    void roundTrip_nullStringsBecomeEmptyAndNullDateStaysNull() {
+        ShortLinkStatsRecordDTO record = ShortLinkStatsRecordDTO.builder().fullShortUrl("shortlink.tus/abc").build();
+
+        ShortLinkStatsRecordDTO decoded = StatsRecordBinaryCodec.decode(StatsRecordBinaryCodec.encode(record));
+
+        assertThat(decoded.getFullShortUrl()).isEqualTo("shortlink.tus/abc");
+        assertThat(decoded.getGid()).isEmpty();
+        assertThat(decoded.getCurrentDate()).isNull();
+        assertThat(decoded.getUvFirstFlag()).isFalse();
+    }
+
+    @Test
+    void encode_writesRowBinaryLayout() {
+        String longReferrer = "r".repeat(200);
+        ShortLinkStatsRecordDTO record = ShortLinkStatsRecordDTO.builder()
+                .currentDate(new Date(0x0102L))
+                .referrer(longReferrer)
+                .uipFirstFlag(true)
+                .build();
+
+        byte[] bytes = StatsRecordBinaryCodec.encode(record);
+
+        assertThat(bytes[0]).isEqualTo(StatsRecordBinaryCodec.VERSION_1);
+        // Int64 little-endian
+        assertThat(bytes[1]).isEqualTo((byte) 0x02);
+        assertThat(bytes[2]).isEqualTo((byte) 0x01);
+        // gid, fullShortUrl, remoteAddr empty; referrer length 200 as LEB128 = 0xC8 0x01
+        assertThat(bytes[9]).isZero();
+        assertThat(bytes[12]).isEqualTo((byte) 0xC8);
+        assertThat(bytes[13]).isEqualTo((byte) 0x01);
+        assertThat(bytes).hasSize(1 + 8 + 11 + 1 + 200 + 2);
+        assertThat(bytes[bytes.length - 2]).isZero();
+        assertThat(bytes[bytes.length - 1]).isEqualTo((byte) 1);
+    }
+
+    @Test
+    void encode_isMuchSmallerThanJson() {
+        ShortLinkStatsRecordDTO record = record();
+
+        int binary = StatsRecordBinaryCodec.encode(record).length;
+        int json = JSON.toJSONBytes(record, "millis").length;
+
+        assertThat(binary).isLessThan(json * 3 / 4);
+    }
+
+    @Test
+    void deserializer_rejectsUnknownVersionAndTruncatedMessages() {
+        StatsRecordBinaryDeserializer deserializer = new StatsRecordBinaryDeserializer();
+        byte[] bytes = new StatsRecordBinarySerializer().serialize("t", record());
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThatThrownBy(() -> deserializer.deserialize("t", truncated))
+                .isInstanceOf(SerializationException.class);
+
+        bytes[0] = 2;
+        assertThatThrownBy(() -> deserializer.deserialize("t", bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasRootCauseMessage("Unsupported stats record version: 2");
+    }
+
+    private static ShortLinkStatsRecordDTO record() {
+        return ShortLinkStatsRecordDTO.builder()
+                .gid("g1")
+                .fullShortUrl("shortlink.tus/abc123")
+                .remoteAddr("203.0.113.7")
+                .referrer("https://example.com/some/page")
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/120.0 Safari/537.36")
+                .os("Windows")
+                .browser("Google Chrome")
+                .device("PC")
+                .network("Unknown")
+                .uv("5f0c1f5e-2b8e-4c43-9e4e-0f6f5b3f0d1a")
+                .keys("0b7e7e5c-6a4b-4f0e-a7c4-0a2e6c6d9f11")
+                .uvFirstFlag(true)
+                .uipFirstFlag(false)
+                .currentDate(new Date(1_700_000_000_123L))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package org.tus.shortlink.svc.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StatsSpillLog (segmented mmap append log with replay checkpoint).
+ */
+class StatsSpillLogTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendReadCommit_deliversRecordsInOrder() throws IOException {
+        try (StatsSpillLog log = new StatsSpillLog(dir, SEGMENT_BYTES, 1 << 20)) {
+            log.append(bytes("one"), 1L);
+            log.append(bytes("two"), 2L);
+
+            List<StatsSpillLog.SpillRecord> records = log.read(10);
+            assertThat(records).extracting(r -> text(r.payload())).containsExactly("one", "two");
+            assertThat(records).extracting(StatsSpillLog.SpillRecord::appendedAt).containsExactly(1L, 2L);
+            assertThat(log.oldestPendingAppendedAt()).isEqualTo(1L);
+
+            log.commit(records.get(0).nextPosition());
+            assertThat(log.read(10)).extracting(r -> text(r.payload())).containsExactly("two");
+
+            log.commit(records.get(1).nextPosition());
+            assertThat(log.read(10)).isEmpty();
+            assertThat(log.backlogBytes()).isZero();
+            assertThat(log.oldestPendingAppendedAt()).isEqualTo(-1L);
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesThemOnceReplayed() throws IOException {
+        try (StatsSpillLog log = new StatsSpillLog(dir, SEGMENT_BYTES, 1 << 20)) {
+            for (int i = 0; i < 20; i++) {
+                assertThat(log.append(bytes("record-" + i + "-padding-padding"), i)).isTrue();
+            }
+            assertThat(log.segmentCount()).isGreaterThan(2);
+            assertThat(segmentFiles()).isEqualTo(log.segmentCount());
+
+            List<StatsSpillLog.SpillRecord> records = log.read(100);
+            assertThat(records).hasSize(20);
+            assertThat(text(records.get(19).payload())).startsWith("record-19-");
+
+            log.commit(records.get(19).nextPosition());
+            assertThat(log.segmentCount()).isEqualTo(1);
+            assertThat(segmentFiles()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void reopen_resumesFromCheckpointAndAppendsAfterExistingRecords() throws IOException {
+        try (StatsSpillLog log = new StatsSpillLog(dir, SEGMENT_BYTES, 1 << 20)) {
+            log.append(bytes("a"), 1L);
+            log.append(bytes("b"), 2L);
+            log.commit(log.read(1).get(0).nextPosition());
+        }
+        try (StatsSpillLog log = new StatsSpillLog(dir, SEGMENT_BYTES, 1 << 20)) {
+            log.append(bytes("c"), 3L);
+            assertThat(log.read(10)).extracting(r -> text(r.payload())).containsExactly("b", "c");
+        }
+    }
+
+    @Test
+    void reopen_dropsTornRecord() throws IOException {
+        try (StatsSpillLog log = new StatsSpillLog(dir, SEGMENT_BYTES, 1 << 20)) {
+            log.append(bytes("intact"), 1L);
+            log.append(bytes("torn"), 2L);
+        }
+        // corrupt the payload of the second record: its checksum no longer matches
+        Path segment = dir.resolve("00000000000000000000.spill");
+        int secondPayload = StatsSpillLog.RECORD_HEADER_BYTES * 2 + "intact".length();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("X")), secondPayload);
+        }
+
+        try (StatsSpillLog log = new StatsSpillLog(dir, SEGMENT_BYTES, 1 << 20)) {
+            assertThat(log.read(10)).extracting(r -> text(r.payload())).containsExactly("intact");
+            log.append(bytes("after"), 3L);
+            assertThat(log.read(10)).extracting(r -> text(r.payload())).containsExactly("intact", "after");
+        }
+    }
+
+    @Test
+    void append_rejectsWhenMaxBytesReached() throws IOException {
+        try (StatsSpillLog log = new StatsSpillLog(dir, SEGMENT_BYTES, SEGMENT_BYTES * 2L)) {
+            int accepted = 0;
+            while (log.append(bytes("0123456789012345678901234567890123456789"), 0L)) {
+                accepted++;
+            }
+            assertThat(accepted).isPositive();
+            assertThat(log.segmentCount()).isEqualTo(2);
+            assertThat(log.append(new byte[SEGMENT_BYTES], 0L)).isFalse();
+        }
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".spill")).count();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}